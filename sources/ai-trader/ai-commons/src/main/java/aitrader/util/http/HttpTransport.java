@@ -0,0 +1,278 @@
+package aitrader.util.http;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * HTTP transport shared by the REST clients of the process: a single HttpClient (HTTP/2
+ * when the server supports it, HTTP/1.1 keep-alive otherwise) keeps the connections and the
+ * TLS sessions open between requests, and a single ObjectMapper hands out one cached
+ * ObjectReader per response type.
+ *
+ * sendAsync(request, parser) never blocks a thread while the request is in flight: the
+ * response is parsed on the client executor, and cancelling the returned future (or its
+ * timeout) aborts the exchange.
+ *
+ * The settings apply to the next client built: configure() before the first request, or
+ * reset() to rebuild it. The JDK pool is tuned with the jdk.httpclient.keepalive.timeout and
+ * jdk.httpclient.connectionPoolSize system properties.
+ */
+public final class HttpTransport
+{
+	public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+	public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+	/** Longest wait of a request in the queue of a RateLimiter */
+	public static final Duration DEFAULT_QUEUE_TIMEOUT = Duration.ofSeconds(30);
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final Map<Type, ObjectReader> mapReaders = new ConcurrentHashMap<Type, ObjectReader>();
+
+	private static Duration connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+	private static Duration requestTimeout = DEFAULT_REQUEST_TIMEOUT;
+	private static HttpClient.Version version = HttpClient.Version.HTTP_2;
+
+	private static volatile HttpClient httpClient;
+
+	private static final LatencyHistogram latency = new LatencyHistogram();
+
+	private HttpTransport()
+	{
+	}
+
+	// ---- CONFIG ------------------------------------------------------------
+
+	public static synchronized void configure(Duration connectTimeout, Duration requestTimeout, HttpClient.Version version)
+	{
+		if (connectTimeout == null || connectTimeout.isNegative() || connectTimeout.isZero())
+		{
+			throw new IllegalArgumentException("'connectTimeout' must be greater than zero");
+		}
+		if (requestTimeout == null || requestTimeout.isNegative() || requestTimeout.isZero())
+		{
+			throw new IllegalArgumentException("'requestTimeout' must be greater than zero");
+		}
+		HttpTransport.connectTimeout = connectTimeout;
+		HttpTransport.requestTimeout = requestTimeout;
+		HttpTransport.version = (version != null) ? version : HttpClient.Version.HTTP_2;
+		httpClient = null;
+	}
+
+	/**
+	 * The next request builds a new client (the connections of the current one are released when it is collected)
+	 */
+	public static synchronized void reset()
+	{
+		httpClient = null;
+	}
+
+	public static Duration getRequestTimeout()
+	{
+		return requestTimeout;
+	}
+
+	public static HttpClient getClient()
+	{
+		HttpClient client = httpClient;
+		if (client == null)
+		{
+			synchronized (HttpTransport.class)
+			{
+				if (httpClient == null)
+				{
+					httpClient = HttpClient.newBuilder()
+							.version(version)
+							.connectTimeout(connectTimeout)
+							.build();
+				}
+				client = httpClient;
+			}
+		}
+		return client;
+	}
+
+	// ---- REQUESTS ----------------------------------------------------------
+
+	/**
+	 * Request builder with the configured timeout
+	 */
+	public static HttpRequest.Builder request(URI uri)
+	{
+		return HttpRequest.newBuilder().uri(uri).timeout(requestTimeout);
+	}
+
+	public static HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException
+	{
+		long start = System.nanoTime();
+		try
+		{
+			return getClient().send(request, BodyHandlers.ofString());
+		}
+		finally
+		{
+			latency.record(System.nanoTime() - start);
+		}
+	}
+
+	public static CompletableFuture<HttpResponse<String>> sendAsync(HttpRequest request)
+	{
+		long start = System.nanoTime();
+		return getClient().sendAsync(request, BodyHandlers.ofString()).whenComplete((response, error) -> {
+			latency.record(System.nanoTime() - start);
+		});
+	}
+
+	/**
+	 * Sends the request and parses the response, the future completes with the exception of
+	 * the parser (not wrapped). Completing the future before the response (cancel, timeout)
+	 * aborts the exchange
+	 */
+	public static <T> CompletableFuture<T> sendAsync(HttpRequest request, ResponseParser<T> parser)
+	{
+		CompletableFuture<HttpResponse<String>> exchange = sendAsync(request);
+		CompletableFuture<T> result = new CompletableFuture<T>();
+
+		exchange.whenComplete((response, error) -> {
+			if (error != null)
+			{
+				result.completeExceptionally(unwrap(error));
+				return;
+			}
+			try
+			{
+				result.complete(parser.parse(response));
+			}
+			catch (Exception e)
+			{
+				result.completeExceptionally(e);
+			}
+		});
+
+		result.whenComplete((value, error) -> {
+			if (!exchange.isDone())
+			{
+				exchange.cancel(true);
+			}
+		});
+
+		return result;
+	}
+
+	/**
+	 * Same as sendAsync(request, parser), completed with a TimeoutException after 'timeout'
+	 */
+	public static <T> CompletableFuture<T> sendAsync(HttpRequest request, ResponseParser<T> parser, Duration timeout)
+	{
+		return sendAsync(request, parser).orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Blocking wait for a future of the transport (queue and request timeouts), see await(future, timeout)
+	 */
+	public static <T> T await(CompletableFuture<T> future) throws Exception
+	{
+		return await(future, DEFAULT_QUEUE_TIMEOUT.plus(requestTimeout));
+	}
+
+	/**
+	 * Blocking wait for a future of the transport: rethrows the exception it completed with,
+	 * and cancels it if the waiting thread is interrupted or 'timeout' passes (TimeoutException)
+	 */
+	public static <T> T await(CompletableFuture<T> future, Duration timeout) throws Exception
+	{
+		try
+		{
+			return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+		}
+		catch (TimeoutException e)
+		{
+			future.cancel(true);
+			throw e;
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = unwrap(e.getCause());
+			if (cause instanceof Exception)
+			{
+				throw (Exception) cause;
+			}
+			if (cause instanceof Error)
+			{
+				throw (Error) cause;
+			}
+			throw e;
+		}
+		catch (InterruptedException e)
+		{
+			future.cancel(true);
+			throw e;
+		}
+	}
+
+	/**
+	 * Failed future for the errors found before sending the request
+	 */
+	public static <T> CompletableFuture<T> failed(Exception e)
+	{
+		CompletableFuture<T> future = new CompletableFuture<T>();
+		future.completeExceptionally(e);
+		return future;
+	}
+
+	private static Throwable unwrap(Throwable error)
+	{
+		while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null)
+		{
+			error = error.getCause();
+		}
+		return error;
+	}
+
+	@FunctionalInterface
+	public interface ResponseParser<T>
+	{
+		T parse(HttpResponse<String> response) throws Exception;
+	}
+
+	/**
+	 * Time of the requests sent through the transport, connection and body included
+	 */
+	public static LatencyHistogram getLatency()
+	{
+		return latency;
+	}
+
+	// ---- READERS -----------------------------------------------------------
+
+	public static ObjectMapper getMapper()
+	{
+		return MAPPER;
+	}
+
+	public static ObjectReader reader(Class<?> type)
+	{
+		return mapReaders.computeIfAbsent(type, (key) -> MAPPER.readerFor(type));
+	}
+
+	public static ObjectReader reader(TypeReference<?> typeReference)
+	{
+		return mapReaders.computeIfAbsent(typeReference.getType(), (key) -> MAPPER.readerFor(typeReference));
+	}
+
+}
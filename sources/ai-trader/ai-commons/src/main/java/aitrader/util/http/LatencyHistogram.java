@@ -0,0 +1,92 @@
+package aitrader.util.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free latency histogram with power of two buckets in microseconds (bucket i holds
+ * [2^(i-1), 2^i) us). Percentiles are the upper bound of their bucket: precise to a factor
+ * of two, enough to compare request latencies before and after a change.
+ */
+public class LatencyHistogram
+{
+	private static final int BUCKETS = 40;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+
+	public void record(long nanos)
+	{
+		long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+		int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+		buckets.incrementAndGet(bucket);
+		count.increment();
+		totalNanos.add(nanos);
+	}
+
+	public void reset()
+	{
+		for (int i = 0; i < BUCKETS; i++)
+		{
+			buckets.set(i, 0);
+		}
+		count.reset();
+		totalNanos.reset();
+	}
+
+	public long getCount()
+	{
+		return count.sum();
+	}
+
+	public double getMeanMicros()
+	{
+		long n = count.sum();
+		return n == 0 ? 0 : totalNanos.sum() / 1000.0 / n;
+	}
+
+	/**
+	 * Upper bound in microseconds of the bucket holding the percentile (0 .. 100)
+	 */
+	public long getPercentileMicros(double percentile)
+	{
+		if (percentile < 0 || percentile > 100)
+		{
+			throw new IllegalArgumentException("Percentile " + percentile);
+		}
+
+		long[] counts = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++)
+		{
+			counts[i] = buckets.get(i);
+			total += counts[i];
+		}
+		if (total == 0)
+		{
+			return 0;
+		}
+
+		long rank = (long) Math.ceil(percentile / 100 * total);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++)
+		{
+			seen += counts[i];
+			if (seen >= Math.max(rank, 1))
+			{
+				return 1L << i;
+			}
+		}
+		return 1L << (BUCKETS - 1);
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("n=%d mean=%.0fus p50<=%dus p90<=%dus p99<=%dus max<=%dus", getCount(), getMeanMicros(),
+				getPercentileMicros(50), getPercentileMicros(90), getPercentileMicros(99), getPercentileMicros(100));
+	}
+
+}
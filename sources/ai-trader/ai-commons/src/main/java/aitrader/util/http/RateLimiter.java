@@ -0,0 +1,627 @@
+package aitrader.util.http;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import aitrader.util.http.HttpTransport.ResponseParser;
+
+/**
+ * Client side limiter of the requests sent to one exchange API (one per IP pool: futures and
+ * spot are counted apart). Every request declares its weight (and 1 order for new orders) and
+ * is sent only when it fits in all the windows, otherwise it waits in a priority queue.
+ *
+ * The windows are aligned on the interval like the exchange ones (1m, 10s, 1d) and reconciled
+ * with the used weight / order count headers of every response: the count becomes the header
+ * plus the requests still in flight, which also takes in the traffic of other processes on the
+ * same IP. A 429 / 418 response holds every request for its Retry-After.
+ *
+ * The requests use 'utilization' of each limit, times the share of their priority: market data
+ * and backfill leave room for the orders and the account requests, and among the queued
+ * requests the higher priority is sent first.
+ *
+ * The request is created when it is sent (a signed request gets its timestamp then, not when
+ * it is queued), and a request still queued after 'maxQueueWait' fails with a TimeoutException.
+ */
+public class RateLimiter
+{
+	public static final double DEFAULT_UTILIZATION = 0.95;
+
+	private static final long DEFAULT_RETRY_AFTER_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+	private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+		Thread thread = new Thread(runnable, "rateLimiter");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	public enum Priority
+	{
+		ORDER(1.0), ACCOUNT(1.0), MARKET_DATA(0.9), BACKFILL(0.75);
+
+		private final double share;
+
+		private Priority(double share)
+		{
+			this.share = share;
+		}
+
+		public double getShare()
+		{
+			return share;
+		}
+	}
+
+	private final String name;
+	private final double utilization;
+
+	private final List<Window> lstWindows = new ArrayList<Window>();
+	private final PriorityQueue<Pending<?>> queue = new PriorityQueue<Pending<?>>();
+	private final AtomicLong sequence = new AtomicLong();
+
+	private long maxQueueMillis = HttpTransport.DEFAULT_QUEUE_TIMEOUT.toMillis();
+
+	private long blockedUntil;
+	private boolean isDrainScheduled;
+
+	private long throttled;
+	private long rejected;
+
+	public RateLimiter(String name)
+	{
+		this(name, DEFAULT_UTILIZATION);
+	}
+
+	public RateLimiter(String name, double utilization)
+	{
+		if (utilization <= 0 || utilization > 1)
+		{
+			throw new IllegalArgumentException("'utilization' must be in (0, 1]");
+		}
+		this.name = name;
+		this.utilization = utilization;
+	}
+
+	// ---- LIMITS ------------------------------------------------------------
+
+	/**
+	 * Replaces the windows, the counts of the windows with the same header are kept
+	 */
+	public synchronized void setLimits(List<Limit> lstLimits)
+	{
+		List<Window> lstPrevious = new ArrayList<Window>(lstWindows);
+		lstWindows.clear();
+		for (Limit limit : lstLimits)
+		{
+			Window window = new Window(limit);
+			for (Window previous : lstPrevious)
+			{
+				if (previous.limit.header.equalsIgnoreCase(limit.header) && previous.limit.intervalMillis == limit.intervalMillis)
+				{
+					window.start = previous.start;
+					window.used = previous.used;
+					window.inFlight = previous.inFlight;
+					window.count = previous.count;
+					window.isSynced = previous.isSynced;
+				}
+			}
+			lstWindows.add(window);
+		}
+		drain();
+	}
+
+	public synchronized void setMaxQueueWait(Duration maxQueueWait)
+	{
+		if (maxQueueWait == null || maxQueueWait.isNegative() || maxQueueWait.isZero())
+		{
+			throw new IllegalArgumentException("'maxQueueWait' must be greater than zero");
+		}
+		this.maxQueueMillis = maxQueueWait.toMillis();
+	}
+
+	public synchronized List<Limit> getLimits()
+	{
+		List<Limit> lst = new ArrayList<Limit>();
+		for (Window window : lstWindows)
+		{
+			lst.add(window.limit);
+		}
+		return lst;
+	}
+
+	// ---- REQUESTS ----------------------------------------------------------
+
+	public <T> CompletableFuture<T> sendAsync(HttpRequest request, Priority priority, int weight, ResponseParser<T> parser)
+	{
+		return sendAsync(() -> request, priority, weight, 0, parser);
+	}
+
+	public <T> CompletableFuture<T> sendAsync(RequestFactory factory, Priority priority, int weight, ResponseParser<T> parser)
+	{
+		return sendAsync(factory, priority, weight, 0, parser);
+	}
+
+	public <T> CompletableFuture<T> sendAsync(HttpRequest request, Priority priority, int weight, int orders, ResponseParser<T> parser)
+	{
+		return sendAsync(() -> request, priority, weight, orders, parser);
+	}
+
+	/**
+	 * HttpTransport.sendAsync of the request created by 'factory' once it fits in the windows.
+	 * Cancelling the future removes a queued request, or aborts it once sent
+	 */
+	public <T> CompletableFuture<T> sendAsync(RequestFactory factory, Priority priority, int weight, int orders, ResponseParser<T> parser)
+	{
+		if (weight < 0 || orders < 0)
+		{
+			throw new IllegalArgumentException("'weight' and 'orders' must not be negative");
+		}
+
+		Pending<T> pending = new Pending<T>(factory, priority, weight, orders, parser, sequence.getAndIncrement());
+		pending.result.whenComplete((value, error) -> {
+			if (pending.exchange != null && !pending.exchange.isDone())
+			{
+				pending.exchange.cancel(true);
+			}
+		});
+
+		synchronized (this)
+		{
+			queue.add(pending);
+			drain();
+			if (!pending.isSent)
+			{
+				throttled++;
+				scheduler.schedule(() -> expire(pending), maxQueueMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+
+		return pending.result;
+	}
+
+	private synchronized void expire(Pending<?> pending)
+	{
+		if (!pending.isSent && queue.remove(pending))
+		{
+			pending.result.completeExceptionally(new TimeoutException(name + " request queued for more than " + maxQueueMillis + " ms"));
+		}
+	}
+
+	// ---- ADMISSION ---------------------------------------------------------
+
+	// Sends the queued requests that fit, by priority. A request that only lacks orders does
+	// not hold back the ones after it (they may not be orders), one that lacks weight does.
+	private void drain()
+	{
+		long now = System.currentTimeMillis();
+		List<Pending<?>> lstSkipped = new ArrayList<Pending<?>>();
+
+		if (now >= blockedUntil)
+		{
+			for (Window window : lstWindows)
+			{
+				window.roll(now);
+			}
+
+			while (!queue.isEmpty())
+			{
+				Pending<?> pending = queue.peek();
+				if (pending.result.isDone())
+				{
+					queue.poll();
+					continue;
+				}
+
+				int fit = fits(pending);
+				if (fit == FITS)
+				{
+					queue.poll();
+					send(pending, now);
+				}
+				else if (fit == NO_ORDERS)
+				{
+					lstSkipped.add(queue.poll());
+				}
+				else
+				{
+					break;
+				}
+			}
+			queue.addAll(lstSkipped);
+		}
+
+		if (!queue.isEmpty())
+		{
+			scheduleDrain(now);
+		}
+	}
+
+	private static final int FITS = 0;
+	private static final int NO_WEIGHT = 1;
+	private static final int NO_ORDERS = 2;
+
+	private int fits(Pending<?> pending)
+	{
+		int result = FITS;
+		for (Window window : lstWindows)
+		{
+			int cost = window.cost(pending);
+			if (cost == 0)
+			{
+				continue;
+			}
+			double budget = window.limit.limit * utilization * pending.priority.share;
+			// one request at a time until a response gives the count of the exchange (other
+			// processes on the IP), except the orders that have the headroom above 'utilization'
+			boolean isProbing = !window.limit.orders && !window.isSynced && window.inFlight > 0 && pending.priority != Priority.ORDER;
+			// a request heavier than the budget goes alone in an empty window
+			if (isProbing || (window.used > 0 && window.used + cost > budget))
+			{
+				if (!window.limit.orders)
+				{
+					return NO_WEIGHT;
+				}
+				result = NO_ORDERS;
+			}
+		}
+		return result;
+	}
+
+	private void scheduleDrain(long now)
+	{
+		if (isDrainScheduled)
+		{
+			return;
+		}
+
+		long next = Long.MAX_VALUE;
+		if (now < blockedUntil)
+		{
+			next = blockedUntil;
+		}
+		else
+		{
+			for (Window window : lstWindows)
+			{
+				next = Math.min(next, window.start + window.limit.intervalMillis);
+			}
+		}
+		if (next == Long.MAX_VALUE)
+		{
+			return;
+		}
+
+		isDrainScheduled = true;
+		scheduler.schedule(() -> {
+			synchronized (this)
+			{
+				isDrainScheduled = false;
+				drain();
+			}
+		}, Math.max(1, next - now), TimeUnit.MILLISECONDS);
+	}
+
+	private <T> void send(Pending<T> pending, long now)
+	{
+		HttpRequest request;
+		try
+		{
+			request = pending.factory.create();
+		}
+		catch (Exception e)
+		{
+			pending.isSent = true;
+			pending.result.completeExceptionally(e);
+			return;
+		}
+
+		pending.windows = lstWindows.toArray(new Window[0]);
+		pending.sendTime = now;
+		for (Window window : pending.windows)
+		{
+			window.used += window.cost(pending);
+			window.inFlight += window.cost(pending);
+		}
+		pending.isSent = true;
+
+		CompletableFuture<T> exchange = HttpTransport.sendAsync(request, (response) -> {
+			update(pending, response);
+			return pending.parser.parse(response);
+		});
+		exchange.whenComplete((value, error) -> {
+			if (error != null)
+			{
+				release(pending);
+				pending.result.completeExceptionally(error);
+			}
+			else
+			{
+				pending.result.complete(value);
+			}
+		});
+		pending.exchange = exchange;
+		if (pending.result.isDone())
+		{
+			exchange.cancel(true);
+		}
+	}
+
+	// ---- RECONCILE ---------------------------------------------------------
+
+	private synchronized void update(Pending<?> pending, HttpResponse<String> response)
+	{
+		long now = System.currentTimeMillis();
+		pending.isReleased = true;
+
+		for (Window window : pending.windows)
+		{
+			window.roll(now);
+			window.inFlight -= window.cost(pending);
+			if (pending.sendTime < window.start)
+			{
+				// the header is the count of a previous window
+				continue;
+			}
+			window.isSynced = true;
+
+			// the responses arrive out of order: the highest header is the latest count, and
+			// every request sent in the window is either in it or still in flight
+			Optional<String> header = response.headers().firstValue(window.limit.header);
+			if (header.isPresent())
+			{
+				try
+				{
+					window.count = Math.max(window.count, Long.parseLong(header.get().trim()));
+					window.used = window.count + window.inFlight;
+				}
+				catch (NumberFormatException e)
+				{
+					// keep the local count
+				}
+			}
+		}
+
+		int status = response.statusCode();
+		if (status == 429 || status == 418)
+		{
+			rejected++;
+			long retryAfter = response.headers().firstValue("Retry-After")
+					.map(this::parseSeconds)
+					.orElse(DEFAULT_RETRY_AFTER_MILLIS);
+			blockedUntil = Math.max(blockedUntil, now + retryAfter);
+		}
+
+		drain();
+	}
+
+	// No response: the request may or may not have been counted, the weight stays used
+	private synchronized void release(Pending<?> pending)
+	{
+		if (pending.isReleased)
+		{
+			return;
+		}
+		pending.isReleased = true;
+
+		long now = System.currentTimeMillis();
+		for (Window window : pending.windows)
+		{
+			window.roll(now);
+			window.inFlight -= window.cost(pending);
+		}
+		drain();
+	}
+
+	private long parseSeconds(String value)
+	{
+		try
+		{
+			return TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim()));
+		}
+		catch (NumberFormatException e)
+		{
+			return DEFAULT_RETRY_AFTER_MILLIS;
+		}
+	}
+
+	// ---- STATUS ------------------------------------------------------------
+
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * Count of the window with the given header, -1 if there is none
+	 */
+	public synchronized long getUsed(String header)
+	{
+		for (Window window : lstWindows)
+		{
+			if (window.limit.header.equalsIgnoreCase(header))
+			{
+				window.roll(System.currentTimeMillis());
+				return window.used;
+			}
+		}
+		return -1;
+	}
+
+	public synchronized int getQueued()
+	{
+		return queue.size();
+	}
+
+	/**
+	 * Requests that waited in the queue
+	 */
+	public synchronized long getThrottled()
+	{
+		return throttled;
+	}
+
+	/**
+	 * 429 / 418 responses received
+	 */
+	public synchronized long getRejected()
+	{
+		return rejected;
+	}
+
+	public synchronized long getBlockedUntil()
+	{
+		return blockedUntil;
+	}
+
+	@Override
+	public synchronized String toString()
+	{
+		StringBuilder sb = new StringBuilder(name);
+		long now = System.currentTimeMillis();
+		for (Window window : lstWindows)
+		{
+			window.roll(now);
+			sb.append(' ').append(window.limit.header).append('=').append(window.used).append('/').append(window.limit.limit);
+		}
+		sb.append(" queued=").append(queue.size()).append(" throttled=").append(throttled).append(" rejected=").append(rejected);
+		return sb.toString();
+	}
+
+	// ---- TYPES -------------------------------------------------------------
+
+	/**
+	 * Creates the request when the limiter sends it
+	 */
+	@FunctionalInterface
+	public interface RequestFactory
+	{
+		HttpRequest create() throws Exception;
+	}
+
+	/**
+	 * Limit of a window: weight (or orders) per interval, and the response header with its count
+	 */
+	public static class Limit
+	{
+		private final String header;
+		private final boolean orders;
+		private final long intervalMillis;
+		private final long limit;
+
+		public Limit(String header, boolean orders, long intervalMillis, long limit)
+		{
+			if (header == null || intervalMillis <= 0 || limit <= 0)
+			{
+				throw new IllegalArgumentException("Invalid limit " + header + " " + intervalMillis + " " + limit);
+			}
+			this.header = header;
+			this.orders = orders;
+			this.intervalMillis = intervalMillis;
+			this.limit = limit;
+		}
+
+		public String getHeader()
+		{
+			return header;
+		}
+
+		public boolean isOrders()
+		{
+			return orders;
+		}
+
+		public long getIntervalMillis()
+		{
+			return intervalMillis;
+		}
+
+		public long getLimit()
+		{
+			return limit;
+		}
+
+		@Override
+		public String toString()
+		{
+			return header + "=" + limit;
+		}
+	}
+
+	private static class Window
+	{
+		private final Limit limit;
+		private long start;
+		private long used;
+		private long inFlight;
+		private long count;
+		private boolean isSynced;
+
+		private Window(Limit limit)
+		{
+			this.limit = limit;
+		}
+
+		private int cost(Pending<?> pending)
+		{
+			return limit.orders ? pending.orders : pending.weight;
+		}
+
+		private void roll(long now)
+		{
+			long current = now - now % limit.intervalMillis;
+			if (current != start)
+			{
+				// the requests still in flight may be counted in the new window
+				start = current;
+				used = inFlight;
+				count = 0;
+				isSynced = false;
+			}
+		}
+	}
+
+	private static class Pending<T> implements Comparable<Pending<?>>
+	{
+		private final RequestFactory factory;
+		private final Priority priority;
+		private final int weight;
+		private final int orders;
+		private final ResponseParser<T> parser;
+		private final long sequence;
+
+		private final CompletableFuture<T> result = new CompletableFuture<T>();
+		private volatile CompletableFuture<T> exchange;
+		private Window[] windows;
+		private long sendTime;
+		private boolean isSent;
+		private boolean isReleased;
+
+		private Pending(RequestFactory factory, Priority priority, int weight, int orders, ResponseParser<T> parser, long sequence)
+		{
+			this.factory = factory;
+			this.priority = priority;
+			this.weight = weight;
+			this.orders = orders;
+			this.parser = parser;
+			this.sequence = sequence;
+		}
+
+		@Override
+		public int compareTo(Pending<?> other)
+		{
+			int compare = priority.compareTo(other.priority);
+			return compare != 0 ? compare : Long.compare(sequence, other.sequence);
+		}
+	}
+
+}
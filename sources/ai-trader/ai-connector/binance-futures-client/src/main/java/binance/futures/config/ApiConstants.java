@@ -4,6 +4,7 @@ public final class ApiConstants
 {
 	public static final String BASE_URL = "https://fapi.binance.com";
 	public static final String WS_BASE_URL = "wss://fstream.binance.com/ws";
+	public static final String WS_STREAM_URL = "wss://fstream.binance.com/stream";
 
 	public static final int MAX_DEPTH_LIMIT = 1000;
 	
@@ -0,0 +1,122 @@
+package binance.futures.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import aitrader.util.http.RateLimiter;
+import aitrader.util.http.RateLimiter.Limit;
+import binance.futures.model.RateLimit;
+
+/**
+ * Rate limits of the futures API (fapi) and the weight of the endpoints used by the clients.
+ * The defaults are replaced by the limits of exchangeInfo with apply().
+ */
+public final class ApiLimits
+{
+	public static final RateLimiter LIMITER = new RateLimiter("fapi");
+
+	static
+	{
+		LIMITER.setLimits(Arrays.asList(
+				new Limit("X-MBX-USED-WEIGHT-1M", false, TimeUnit.MINUTES.toMillis(1), 2400),
+				new Limit("X-MBX-ORDER-COUNT-1M", true, TimeUnit.MINUTES.toMillis(1), 1200),
+				new Limit("X-MBX-ORDER-COUNT-10S", true, TimeUnit.SECONDS.toMillis(10), 300)));
+	}
+
+	// ---- WEIGHTS -----------------------------------------------------------
+
+	public static final int EXCHANGE_INFO = 1;
+	public static final int TICKERS_24H = 40;
+	public static final int FUNDING_RATE = 1;
+	public static final int PREMIUM_INDEX = 1;
+	public static final int PREMIUM_INDEX_ALL = 10;
+	public static final int BALANCE = 5;
+	public static final int POSITION_RISK = 5;
+	public static final int OPEN_ORDERS_ALL = 40;
+	public static final int POSITION_MODE = 30;
+	public static final int LEVERAGE = 1;
+	public static final int ORDER = 1;
+	public static final int LISTEN_KEY = 1;
+
+	private ApiLimits()
+	{
+	}
+
+	public static int klines(int limit)
+	{
+		return limit < 100 ? 1 : limit < 500 ? 2 : limit <= 1000 ? 5 : 10;
+	}
+
+	public static int depth(int limit)
+	{
+		return limit <= 50 ? 2 : limit <= 100 ? 5 : limit <= 500 ? 10 : 20;
+	}
+
+	// ---- EXCHANGE INFO -----------------------------------------------------
+
+	/**
+	 * Uses the REQUEST_WEIGHT and ORDERS limits of exchangeInfo (RAW_REQUESTS has no header)
+	 */
+	public static void apply(List<RateLimit> lstRateLimits)
+	{
+		if (lstRateLimits == null || lstRateLimits.isEmpty())
+		{
+			return;
+		}
+
+		List<Limit> lstLimits = new ArrayList<Limit>();
+		for (RateLimit entry : lstRateLimits)
+		{
+			Limit limit = toLimit(entry);
+			if (limit != null)
+			{
+				lstLimits.add(limit);
+			}
+		}
+
+		if (!lstLimits.isEmpty())
+		{
+			LIMITER.setLimits(lstLimits);
+			ApiLog.info("Rate limits " + lstLimits);
+		}
+	}
+
+	private static Limit toLimit(RateLimit entry)
+	{
+		boolean orders = "ORDERS".equals(entry.getRateLimitType());
+		if (!orders && !"REQUEST_WEIGHT".equals(entry.getRateLimitType()))
+		{
+			return null;
+		}
+
+		if (entry.getInterval() == null || entry.getIntervalNum() == null || entry.getLimit() == null)
+		{
+			return null;
+		}
+
+		TimeUnit unit;
+		switch (entry.getInterval())
+		{
+			case "SECOND":
+				unit = TimeUnit.SECONDS;
+				break;
+			case "MINUTE":
+				unit = TimeUnit.MINUTES;
+				break;
+			case "HOUR":
+				unit = TimeUnit.HOURS;
+				break;
+			case "DAY":
+				unit = TimeUnit.DAYS;
+				break;
+			default:
+				return null;
+		}
+
+		String header = (orders ? "X-MBX-ORDER-COUNT-" : "X-MBX-USED-WEIGHT-") + entry.getIntervalNum() + entry.getInterval().charAt(0);
+		return new Limit(header, orders, unit.toMillis(entry.getIntervalNum()), entry.getLimit());
+	}
+
+}
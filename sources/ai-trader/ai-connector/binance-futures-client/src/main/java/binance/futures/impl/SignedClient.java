@@ -1,24 +1,24 @@
 package binance.futures.impl;
 
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.net.http.HttpResponse.BodyHandlers;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.WebTarget;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
-import binance.futures.commons.BinanceException;
-import binance.futures.commons.ResponseStatus;
+import aitrader.util.http.HttpTransport;
+import aitrader.util.http.RateLimiter.Priority;
+import aitrader.util.http.RateLimiter.RequestFactory;
 import binance.futures.commons.Signer;
 import binance.futures.config.ApiConstants;
+import binance.futures.config.ApiLimits;
 import binance.futures.config.ApiLog;
 import binance.futures.enums.NewOrderRespType;
 import binance.futures.enums.OrderSide;
@@ -31,8 +31,14 @@ import binance.futures.model.AccountBalance;
 import binance.futures.model.Order;
 import binance.futures.model.PositionRisk;
 
+/**
+ * Signed endpoints, with the same ...Async counterparts as UnsignedClient. The request is
+ * timestamped and signed when ApiLimits.LIMITER sends it, not when it is queued.
+ */
 public class SignedClient
 {
+	private static final Client client = ClientBuilder.newClient();
+
 	private String apiKey;
 	private String secretKey;
 
@@ -50,203 +56,154 @@ public class SignedClient
 	// --------------------------------------------------------------------
 
 	public List<AccountBalance> getBalance() throws Exception
+	{
+		return HttpTransport.await(getBalanceAsync());
+	}
+
+	public CompletableFuture<List<AccountBalance>> getBalanceAsync()
 	{
 		final String path = "/fapi/v2/balance";
 
 		String recvWindow = Long.toString(60_000L);
-		String timestamp = Long.toString(System.currentTimeMillis());
 
-		WebTarget target = ClientBuilder.newClient()
+		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
 			.path(path)
-			.queryParam("recvWindow", recvWindow)
-			.queryParam("timestamp", timestamp);
+			.queryParam("recvWindow", recvWindow);
 
-		String signature = Signer.createSignature(apiKey, secretKey, target.getUri().getQuery());
-		URI uri = target.queryParam("signature", signature).getUri();
-
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+		RequestFactory request = () -> HttpTransport.request(sign(target))
             .header("X-MBX-APIKEY", apiKey)
             .GET()
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());		
-
-		if(response.statusCode() != 200)
-		{
-			ResponseStatus responseStatus = ResponseStatus.from(response.body());
-			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
-		}
-
-		String jsonString = response.body();
-		ObjectMapper mapper = new ObjectMapper();
-		List<AccountBalance> lst = mapper.readValue(jsonString, new TypeReference<List<AccountBalance>>(){});
-
-		return lst;	
+		return ApiLimits.LIMITER.sendAsync(request, Priority.ACCOUNT, ApiLimits.BALANCE, (response) -> UnsignedClient.read(response, new TypeReference<List<AccountBalance>>(){}));
 	}
-	
+
 	public List<PositionRisk> getPositionRisk() throws Exception
+	{
+		return HttpTransport.await(getPositionRiskAsync());
+	}
+
+	public CompletableFuture<List<PositionRisk>> getPositionRiskAsync()
 	{
 		final String path = "/fapi/v2/positionRisk";
 
 		String recvWindow = Long.toString(60_000L);
-		String timestamp = Long.toString(System.currentTimeMillis());
 
-		WebTarget target = ClientBuilder.newClient()
+		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
 			.path(path)
-			.queryParam("recvWindow", recvWindow)
-			.queryParam("timestamp", timestamp);
+			.queryParam("recvWindow", recvWindow);
 
-		String signature = Signer.createSignature(apiKey, secretKey, target.getUri().getQuery());
-		URI uri = target.queryParam("signature", signature).getUri();
-
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+		RequestFactory request = () -> HttpTransport.request(sign(target))
             .header("X-MBX-APIKEY", apiKey)
             .GET()
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());		
-
-		if(response.statusCode() != 200)
-		{
-			ResponseStatus responseStatus = ResponseStatus.from(response.body());
-			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
-		}
-
-		String jsonString = response.body();
-		ObjectMapper mapper = new ObjectMapper();
-		List<PositionRisk> lst = mapper.readValue(jsonString, new TypeReference<List<PositionRisk>>(){});
-
-		return lst;	
+		return ApiLimits.LIMITER.sendAsync(request, Priority.ACCOUNT, ApiLimits.POSITION_RISK, (response) -> UnsignedClient.read(response, new TypeReference<List<PositionRisk>>(){}));
 	}
-	
+
 	public List<Order> getOpenOrders() throws Exception
+	{
+		return HttpTransport.await(getOpenOrdersAsync());
+	}
+
+	public CompletableFuture<List<Order>> getOpenOrdersAsync()
 	{
 		final String path = "/fapi/v1/openOrders";
 
 		String recvWindow = Long.toString(60_000L);
-		String timestamp = Long.toString(System.currentTimeMillis());
 
-		WebTarget target = ClientBuilder.newClient()
+		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
 			.path(path)
-			.queryParam("recvWindow", recvWindow)
-			.queryParam("timestamp", timestamp);
+			.queryParam("recvWindow", recvWindow);
 
-		String signature = Signer.createSignature(apiKey, secretKey, target.getUri().getQuery());
-		URI uri = target.queryParam("signature", signature).getUri();
-
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+		RequestFactory request = () -> HttpTransport.request(sign(target))
             .header("X-MBX-APIKEY", apiKey)
             .GET()
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());		
-
-		if(response.statusCode() != 200)
-		{
-			ResponseStatus responseStatus = ResponseStatus.from(response.body());
-			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
-		}
-
-		String jsonString = response.body();
-		ObjectMapper mapper = new ObjectMapper();
-		List<Order> lst = mapper.readValue(jsonString, new TypeReference<List<Order>>(){});
-
-		return lst;	
+		return ApiLimits.LIMITER.sendAsync(request, Priority.ACCOUNT, ApiLimits.OPEN_ORDERS_ALL, (response) -> UnsignedClient.read(response, new TypeReference<List<Order>>(){}));
 	}
 
 	public PositionMode getPositionMode() throws Exception
+	{
+		return HttpTransport.await(getPositionModeAsync());
+	}
+
+	public CompletableFuture<PositionMode> getPositionModeAsync()
 	{
 		final String path = "/fapi/v1/positionSide/dual";
 
 		String recvWindow = Long.toString(60_000L);
-		String timestamp = Long.toString(System.currentTimeMillis());
 
-		WebTarget target = ClientBuilder.newClient()
+		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
 			.path(path)
-			.queryParam("recvWindow", recvWindow)
-			.queryParam("timestamp", timestamp);
-
-		String signature = Signer.createSignature(apiKey, secretKey, target.getUri().getQuery());
-		URI uri = target.queryParam("signature", signature).getUri();
-		
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+			.queryParam("recvWindow", recvWindow);
+
+		RequestFactory request = () -> HttpTransport.request(sign(target))
             .header("X-MBX-APIKEY", apiKey)
             .GET()
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());		
+		return ApiLimits.LIMITER.sendAsync(request, Priority.ACCOUNT, ApiLimits.POSITION_MODE, (response) -> {
+			UnsignedClient.check(response);
 
-		if(response.statusCode() != 200)
-		{
-			ResponseStatus responseStatus = ResponseStatus.from(response.body());
-			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
-		}
+			JsonNode parent= HttpTransport.getMapper().readTree(response.body());
+			boolean dualSidePosition = parent.path("dualSidePosition").asBoolean();
 
-		String jsonString = response.body();
-		JsonNode parent= new ObjectMapper().readTree(jsonString);
-		boolean dualSidePosition = parent.path("dualSidePosition").asBoolean();
-		
-		return dualSidePosition ? PositionMode.HEDGE : PositionMode.ONE_WAY;
-	}	
+			return dualSidePosition ? PositionMode.HEDGE : PositionMode.ONE_WAY;
+		});
+	}
 
 	public String setLeverage(String symbol, int leverage) throws Exception
+	{
+		return HttpTransport.await(setLeverageAsync(symbol, leverage));
+	}
+
+	public CompletableFuture<String> setLeverageAsync(String symbol, int leverage)
 	{
 		final String path = "/fapi/v2/leverage";
 
 		String recvWindow = Long.toString(60_000L);
-		String timestamp = Long.toString(System.currentTimeMillis());
 
-		WebTarget target = ClientBuilder.newClient()
+		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
 			.path(path)
 			.queryParam("symbol", symbol)
 			.queryParam("leverage", leverage)
-			.queryParam("recvWindow", recvWindow)
-			.queryParam("timestamp", timestamp);
-
-		String signature = Signer.createSignature(apiKey, secretKey, target.getUri().getQuery());
-		URI uri = target.queryParam("signature", signature).getUri();
-		
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+			.queryParam("recvWindow", recvWindow);
+
+		RequestFactory request = () -> HttpTransport.request(sign(target))
             .header("X-MBX-APIKEY", apiKey)
             .POST(HttpRequest.BodyPublishers.noBody())
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());		
-
-		if(response.statusCode() != 200)
-		{
-			ResponseStatus responseStatus = ResponseStatus.from(response.body());
-			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
-		}
-
-		return response.body();
+		return ApiLimits.LIMITER.sendAsync(request, Priority.ORDER, ApiLimits.LEVERAGE, (response) -> {
+			UnsignedClient.check(response);
+			return response.body();
+		});
 	}
 
 	public Order postOrder(String symbol, OrderSide side, PositionSide positionSide, OrderType orderType, TimeInForce timeInForce,
 						   String quantity, String price, Boolean reduceOnly, String newClientOrderId, String stopPrice,
 						   WorkingType workingType, NewOrderRespType newOrderRespType, Boolean closePosition) throws Exception
+	{
+		return HttpTransport.await(postOrderAsync(symbol, side, positionSide, orderType, timeInForce, quantity, price, reduceOnly,
+				newClientOrderId, stopPrice, workingType, newOrderRespType, closePosition));
+	}
+
+	public CompletableFuture<Order> postOrderAsync(String symbol, OrderSide side, PositionSide positionSide, OrderType orderType, TimeInForce timeInForce,
+												   String quantity, String price, Boolean reduceOnly, String newClientOrderId, String stopPrice,
+												   WorkingType workingType, NewOrderRespType newOrderRespType, Boolean closePosition)
 	{
 		final String path = "/fapi/v2/order";
 
 		String recvWindow = Long.toString(60_000L);
-		String timestamp = Long.toString(System.currentTimeMillis());
 
-		WebTarget target = ClientBuilder.newClient()
+		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
 			.path(path)
 			.queryParam("symbol", symbol)
@@ -262,189 +219,147 @@ public class SignedClient
 			.queryParam("workingType", workingType)
 			.queryParam("newOrderRespType", newOrderRespType)
 			.queryParam("closePosition", closePosition)
-			.queryParam("recvWindow", recvWindow)
-			.queryParam("timestamp", timestamp);
+			.queryParam("recvWindow", recvWindow);
 
-		String signature = Signer.createSignature(apiKey, secretKey, target.getUri().getQuery());
-		URI uri = target.queryParam("signature", signature).getUri();
-
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+		RequestFactory request = () -> HttpTransport.request(sign(target))
             .header("X-MBX-APIKEY", apiKey)
             .POST(HttpRequest.BodyPublishers.noBody())
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());		
-
-		if(response.statusCode() != 200)
-		{
-			ApiLog.error("POST ORDER ERROR " + symbol + ", " + side + ", " + positionSide + ", " + orderType + ", " 
-					+ timeInForce + ", " + quantity + ", " + price + ", " + reduceOnly + ", " + newClientOrderId 
-					+ ", " + stopPrice + ", " + workingType + ", " + newOrderRespType + ", " + closePosition);
-			
-			ResponseStatus responseStatus = ResponseStatus.from(response.body());
-			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
-		}
-
-		String jsonString = response.body();
-		ObjectMapper mapper = new ObjectMapper();
-		Order order = mapper.readValue(jsonString, Order.class);
-
-		return order;			
-	}	
-	
+		return ApiLimits.LIMITER.sendAsync(request, Priority.ORDER, ApiLimits.ORDER, 1, (response) -> {
+			if(response.statusCode() != 200)
+			{
+				ApiLog.error("POST ORDER ERROR " + symbol + ", " + side + ", " + positionSide + ", " + orderType + ", "
+						+ timeInForce + ", " + quantity + ", " + price + ", " + reduceOnly + ", " + newClientOrderId
+						+ ", " + stopPrice + ", " + workingType + ", " + newOrderRespType + ", " + closePosition);
+			}
+			return UnsignedClient.read(response, Order.class);
+		});
+	}
+
 	public Order cancelOrder(String symbol, Long orderId, String origClientOrderId) throws Exception
+	{
+		return HttpTransport.await(cancelOrderAsync(symbol, orderId, origClientOrderId));
+	}
+
+	public CompletableFuture<Order> cancelOrderAsync(String symbol, Long orderId, String origClientOrderId)
 	{
 		final String path = "/fapi/v2/order";
 
 		String recvWindow = Long.toString(60_000L);
-		String timestamp = Long.toString(System.currentTimeMillis());
 
-		WebTarget target = ClientBuilder.newClient()
+		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
 			.path(path)
 			.queryParam("symbol", symbol)
 			.queryParam("orderId", orderId)
 			.queryParam("origClientOrderId", origClientOrderId)
-			.queryParam("recvWindow", recvWindow)
-			.queryParam("timestamp", timestamp);
+			.queryParam("recvWindow", recvWindow);
 
-		String signature = Signer.createSignature(apiKey, secretKey, target.getUri().getQuery());
-		URI uri = target.queryParam("signature", signature).getUri();
-
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+		RequestFactory request = () -> HttpTransport.request(sign(target))
             .header("X-MBX-APIKEY", apiKey)
             .DELETE()
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());		
-
-		if(response.statusCode() != 200)
-		{
-			ResponseStatus responseStatus = ResponseStatus.from(response.body());
-			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
-		}
-
-		String jsonString = response.body();
-		ObjectMapper mapper = new ObjectMapper();
-		Order order = mapper.readValue(jsonString, Order.class);
-
-		return order;			
+		return ApiLimits.LIMITER.sendAsync(request, Priority.ORDER, ApiLimits.ORDER, (response) -> UnsignedClient.read(response, Order.class));
 	}
 
 	// --------------------------------------------------------------------
 
-	public String startUserDataStream() throws Exception 
+	public String startUserDataStream() throws Exception
+	{
+		return HttpTransport.await(startUserDataStreamAsync());
+	}
+
+	public CompletableFuture<String> startUserDataStreamAsync()
 	{
 		final String path = "/fapi/v1/listenKey";
 
 		String recvWindow = Long.toString(60_000L);
-		String timestamp = Long.toString(System.currentTimeMillis());
 
-		WebTarget target = ClientBuilder.newClient()
+		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
 			.path(path)
-			.queryParam("recvWindow", recvWindow)
-			.queryParam("timestamp", timestamp);
-
-		String signature = Signer.createSignature(apiKey, secretKey, target.getUri().getQuery());
-		URI uri = target.queryParam("signature", signature).getUri();
+			.queryParam("recvWindow", recvWindow);
 
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+		RequestFactory request = () -> HttpTransport.request(sign(target))
             .header("X-MBX-APIKEY", apiKey)
             .POST(HttpRequest.BodyPublishers.noBody())
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());		
+		return ApiLimits.LIMITER.sendAsync(request, Priority.ACCOUNT, ApiLimits.LISTEN_KEY, (response) -> {
+			ObjectNode node = UnsignedClient.read(response, ObjectNode.class);
+			String listenKey = null;
+			if (node.has("listenKey"))
+			{
+				listenKey = node.get("listenKey").asText();
+			}
 
-		if(response.statusCode() != 200)
-		{
-			ResponseStatus responseStatus = ResponseStatus.from(response.body());
-			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
-		}
-
-		String jsonString = response.body();
-		ObjectNode node = new ObjectMapper().readValue(jsonString, ObjectNode.class);
-		String listenKey = null;
-		if (node.has("listenKey"))
-		{
-			listenKey = node.get("listenKey").asText();
-		}
+			return listenKey;
+		});
+	}
 
-		return listenKey;	
+	public String keepUserDataStream() throws Exception
+	{
+		return HttpTransport.await(keepUserDataStreamAsync());
 	}
-	
-	public String keepUserDataStream() throws Exception 
+
+	public CompletableFuture<String> keepUserDataStreamAsync()
 	{
 		final String path = "/fapi/v2/listenKey";
 
 		String recvWindow = Long.toString(60_000L);
-		String timestamp = Long.toString(System.currentTimeMillis());
 
-		WebTarget target = ClientBuilder.newClient()
+		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
 			.path(path)
-			.queryParam("recvWindow", recvWindow)
-			.queryParam("timestamp", timestamp);
+			.queryParam("recvWindow", recvWindow);
 
-		String signature = Signer.createSignature(apiKey, secretKey, target.getUri().getQuery());
-		URI uri = target.queryParam("signature", signature).getUri();
-
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+		RequestFactory request = () -> HttpTransport.request(sign(target))
             .header("X-MBX-APIKEY", apiKey)
             .PUT(HttpRequest.BodyPublishers.noBody())
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());		
-
-		if(response.statusCode() != 200)
-		{
-			ResponseStatus responseStatus = ResponseStatus.from(response.body());
-			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
-		}
+		return ApiLimits.LIMITER.sendAsync(request, Priority.ACCOUNT, ApiLimits.LISTEN_KEY, (response) -> {
+			UnsignedClient.check(response);
+			return "OK";
+		});
+	}
 
-		return "OK";		
+	public String closeUserDataStream() throws Exception
+	{
+		return HttpTransport.await(closeUserDataStreamAsync());
 	}
 
-	public String closeUserDataStream() throws Exception 
+	public CompletableFuture<String> closeUserDataStreamAsync()
 	{
 		final String path = "/fapi/v2/listenKey";
 
 		String recvWindow = Long.toString(60_000L);
-		String timestamp = Long.toString(System.currentTimeMillis());
 
-		WebTarget target = ClientBuilder.newClient()
+		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
 			.path(path)
-			.queryParam("recvWindow", recvWindow)
-			.queryParam("timestamp", timestamp);
+			.queryParam("recvWindow", recvWindow);
 
-		String signature = Signer.createSignature(apiKey, secretKey, target.getUri().getQuery());
-		URI uri = target.queryParam("signature", signature).getUri();
-
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+		RequestFactory request = () -> HttpTransport.request(sign(target))
             .header("X-MBX-APIKEY", apiKey)
             .DELETE()
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());		
+		return ApiLimits.LIMITER.sendAsync(request, Priority.ACCOUNT, ApiLimits.LISTEN_KEY, (response) -> {
+			UnsignedClient.check(response);
+			return "OK";
+		});
+	}
 
-		if(response.statusCode() != 200)
-		{
-			ResponseStatus responseStatus = ResponseStatus.from(response.body());
-			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
-		}
+	// --------------------------------------------------------------------
 
-		return "OK";		
+	private URI sign(WebTarget target) throws Exception
+	{
+		WebTarget timed = target.queryParam("timestamp", Long.toString(System.currentTimeMillis()));
+		String signature = Signer.createSignature(apiKey, secretKey, timed.getUri().getQuery());
+		return timed.queryParam("signature", signature).getUri();
 	}
 
 }
@@ -2,23 +2,24 @@ package binance.futures.impl;
 
 import java.math.BigDecimal;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.net.http.HttpResponse.BodyHandlers;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.WebTarget;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
+import aitrader.util.http.HttpTransport;
+import aitrader.util.http.RateLimiter.Priority;
 import binance.futures.commons.BinanceException;
 import binance.futures.commons.ResponseStatus;
 import binance.futures.config.ApiConstants;
+import binance.futures.config.ApiLimits;
 import binance.futures.enums.IntervalType;
 import binance.futures.model.Candle;
 import binance.futures.model.Depth;
@@ -27,14 +28,32 @@ import binance.futures.model.FundingRate;
 import binance.futures.model.PremiumIndex;
 import binance.futures.model.SymbolTicker;
 
+/**
+ * Public endpoints. Every method has an ...Async counterpart returning a CompletableFuture
+ * that does not block a thread while the request is in flight (cancel() or a timeout aborts
+ * it); the blocking methods wait for it.
+ * The requests go through ApiLimits.LIMITER with the weight of their endpoint.
+ */
 public class UnsignedClient
 {
+	private static final Client client = ClientBuilder.newClient();
 
 	public static List<Candle> getKlines(String symbol, IntervalType interval, int limit) throws Exception
 	{
-		final String path = "/fapi/v1/klines";
+		return HttpTransport.await(getKlinesAsync(symbol, interval, limit));
+	}
+
+	public static CompletableFuture<List<Candle>> getKlinesAsync(String symbol, IntervalType interval, int limit)
+	{
+		return getKlinesAsync(symbol, interval, limit, Priority.MARKET_DATA);
+	}
 
-		Client client = ClientBuilder.newClient();
+	/**
+	 * 'priority' BACKFILL for the bulk downloads, sent after the other requests
+	 */
+	public static CompletableFuture<List<Candle>> getKlinesAsync(String symbol, IntervalType interval, int limit, Priority priority)
+	{
+		final String path = "/fapi/v1/klines";
 
 		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
@@ -45,112 +64,89 @@ public class UnsignedClient
 
 		URI uri = target.getUri();
 
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+		HttpRequest request = HttpTransport.request(uri)
             .GET()
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
-		
-		if(response.statusCode() != 200)
-		{
-			ResponseStatus responseStatus = ResponseStatus.from(response.body());
-			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
-		}
-
-		String jsonString = response.body();
-		ObjectMapper mapper = new ObjectMapper();
-		String[][] lst = mapper.readValue(jsonString, String[][].class);		    
-
-		// Create list of Kline
-		List<Candle> lstResult = new ArrayList<Candle>();
-		for (String[] entry : lst)
-		{
-			Candle kline = new Candle();
-
-			kline.setOpenTime(Long.valueOf(entry[0]));
-			kline.setOpenPrice(new BigDecimal(entry[1]));
-			kline.setHighPrice(new BigDecimal(entry[2]));
-			kline.setLowPrice(new BigDecimal(entry[3]));
-			kline.setClosePrice(new BigDecimal(entry[4]));
-			kline.setVolume(new BigDecimal(entry[5]));
-			kline.setQuoteVolume(new BigDecimal(entry[7]));
-			kline.setCount(Long.valueOf(entry[8]));
-
-			lstResult.add(kline);
-		}
-
-		return lstResult;			
+		return ApiLimits.LIMITER.sendAsync(request, priority, ApiLimits.klines(limit), (response) -> {
+			String[][] lst = read(response, String[][].class);
+
+			// Create list of Kline
+			List<Candle> lstResult = new ArrayList<Candle>();
+			for (String[] entry : lst)
+			{
+				Candle kline = new Candle();
+
+				kline.setOpenTime(Long.valueOf(entry[0]));
+				kline.setOpenPrice(new BigDecimal(entry[1]));
+				kline.setHighPrice(new BigDecimal(entry[2]));
+				kline.setLowPrice(new BigDecimal(entry[3]));
+				kline.setClosePrice(new BigDecimal(entry[4]));
+				kline.setVolume(new BigDecimal(entry[5]));
+				kline.setQuoteVolume(new BigDecimal(entry[7]));
+				kline.setCount(Long.valueOf(entry[8]));
+
+				lstResult.add(kline);
+			}
+
+			return lstResult;
+		});
 	}
 
 	public static ExchangeInfo getExchangeInformation() throws Exception
+	{
+		return HttpTransport.await(getExchangeInformationAsync());
+	}
+
+	public static CompletableFuture<ExchangeInfo> getExchangeInformationAsync()
 	{
 		final String path = "/fapi/v1/exchangeInfo";
 
-		WebTarget target = ClientBuilder.newClient()
+		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
 			.path(path);
 
 		URI uri = target.getUri();
 
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+		HttpRequest request = HttpTransport.request(uri)
             .GET()
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
-
-		if(response.statusCode() != 200)
-		{
-			ResponseStatus responseStatus = ResponseStatus.from(response.body());
-			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
-		}
-
-		String jsonString = response.body();
-		ObjectMapper mapper = new ObjectMapper();
-		ExchangeInfo exchangeInfo = mapper.readValue(jsonString, ExchangeInfo.class);
-
-		return exchangeInfo;			
+		return ApiLimits.LIMITER.sendAsync(request, Priority.MARKET_DATA, ApiLimits.EXCHANGE_INFO, (response) -> read(response, ExchangeInfo.class));
 	}
 
 	public static List<SymbolTicker> getSymbolTickers() throws Exception
+	{
+		return HttpTransport.await(getSymbolTickersAsync());
+	}
+
+	public static CompletableFuture<List<SymbolTicker>> getSymbolTickersAsync()
 	{
 		final String path = "/fapi/v1/ticker/24hr";
 
-		WebTarget target = ClientBuilder.newClient()
+		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
 			.path(path);
 
 		URI uri = target.getUri();
 
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+		HttpRequest request = HttpTransport.request(uri)
             .GET()
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
-		
-		if(response.statusCode() != 200)
-		{
-			ResponseStatus responseStatus = ResponseStatus.from(response.body());
-			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
-		}
-
-		String jsonString = response.body();
-		ObjectMapper mapper = new ObjectMapper();
-		List<SymbolTicker> lst = mapper.readValue(jsonString, new TypeReference<List<SymbolTicker>>(){});
-
-		return lst;			
-	}	
+		return ApiLimits.LIMITER.sendAsync(request, Priority.MARKET_DATA, ApiLimits.TICKERS_24H, (response) -> read(response, new TypeReference<List<SymbolTicker>>(){}));
+	}
 
 	public static List<FundingRate> getFundingRate(String symbol, Integer limit) throws Exception
+	{
+		return HttpTransport.await(getFundingRateAsync(symbol, limit));
+	}
+
+	public static CompletableFuture<List<FundingRate>> getFundingRateAsync(String symbol, Integer limit)
 	{
 		final String path = "/fapi/v2/fundingRate";
 
-		WebTarget target = ClientBuilder.newClient()
+		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
 			.path(path)
 			.queryParam("symbol", symbol)
@@ -158,69 +154,56 @@ public class UnsignedClient
 
 		URI uri = target.getUri();
 
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+		HttpRequest request = HttpTransport.request(uri)
             .GET()
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
-		
-		if(response.statusCode() != 200)
-		{
-			ResponseStatus responseStatus = ResponseStatus.from(response.body());
-			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
-		}
-
-		String jsonString = response.body();
-		ObjectMapper mapper = new ObjectMapper();
-		List<FundingRate> lst = mapper.readValue(jsonString, new TypeReference<List<FundingRate>>(){});
-
-		return lst;			
+		return ApiLimits.LIMITER.sendAsync(request, Priority.MARKET_DATA, ApiLimits.FUNDING_RATE, (response) -> read(response, new TypeReference<List<FundingRate>>(){}));
 	}
 
 	public static List<PremiumIndex> getPremiumIndex(String symbol) throws Exception
+	{
+		return HttpTransport.await(getPremiumIndexAsync(symbol));
+	}
+
+	public static CompletableFuture<List<PremiumIndex>> getPremiumIndexAsync(String symbol)
 	{
 		final String path = "/fapi/v2/premiumIndex";
 
-		WebTarget target = ClientBuilder.newClient()
+		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
 			.path(path)
 			.queryParam("symbol", symbol);
 
 		URI uri = target.getUri();
 
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+		HttpRequest request = HttpTransport.request(uri)
             .GET()
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
-		
-		if(response.statusCode() != 200)
-		{
-			ResponseStatus responseStatus = ResponseStatus.from(response.body());
-			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
-		}
-
-		String jsonString = response.body();
-		ObjectMapper mapper = new ObjectMapper();
-		List<PremiumIndex> lst = mapper.readValue(jsonString, new TypeReference<List<PremiumIndex>>(){});
+		int weight = (symbol == null) ? ApiLimits.PREMIUM_INDEX_ALL : ApiLimits.PREMIUM_INDEX;
 
-		return lst;			
+		return ApiLimits.LIMITER.sendAsync(request, Priority.MARKET_DATA, weight, (response) -> read(response, new TypeReference<List<PremiumIndex>>(){}));
 	}
-	
+
 	public static Depth getDepth(String symbol) throws Exception
 	{
 		return getDepth(symbol, ApiConstants.MAX_DEPTH_LIMIT);
 	}
-	
+
 	public static Depth getDepth(String symbol, int limit) throws Exception
 	{
-		final String path = "/fapi/v1/depth";
+		return HttpTransport.await(getDepthAsync(symbol, limit));
+	}
 
-		Client client = ClientBuilder.newClient();
+	public static CompletableFuture<Depth> getDepthAsync(String symbol)
+	{
+		return getDepthAsync(symbol, ApiConstants.MAX_DEPTH_LIMIT);
+	}
+
+	public static CompletableFuture<Depth> getDepthAsync(String symbol, int limit)
+	{
+		final String path = "/fapi/v1/depth";
 
 		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
@@ -230,25 +213,34 @@ public class UnsignedClient
 
 		URI uri = target.getUri();
 
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+		HttpRequest request = HttpTransport.request(uri)
             .GET()
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
-		
+		return ApiLimits.LIMITER.sendAsync(request, Priority.MARKET_DATA, ApiLimits.depth(limit), (response) -> read(response, Depth.class));
+	}
+
+	// --------------------------------------------------------------------
+
+	static void check(HttpResponse<String> response) throws Exception
+	{
 		if(response.statusCode() != 200)
 		{
 			ResponseStatus responseStatus = ResponseStatus.from(response.body());
 			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
 		}
+	}
 
-		String jsonString = response.body();
-		ObjectMapper mapper = new ObjectMapper();
-		Depth depth = mapper.readValue(jsonString, Depth.class);
+	static <T> T read(HttpResponse<String> response, Class<T> type) throws Exception
+	{
+		check(response);
+		return HttpTransport.reader(type).readValue(response.body());
+	}
 
-		return depth;			
-	}	
+	static <T> T read(HttpResponse<String> response, TypeReference<T> typeReference) throws Exception
+	{
+		check(response);
+		return HttpTransport.reader(typeReference).readValue(response.body());
+	}
 
 }
@@ -0,0 +1,282 @@
+package binance.futures.impl.async;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import binance.futures.model.event.DepthFrame;
+import binance.futures.model.event.TickerFrame;
+
+/**
+ * Streaming decoder of the depth and ticker frames: the fields are read from the parser
+ * tokens and the price / quantity strings are parsed from the parser buffer straight into
+ * doubles, without the String, BigDecimal and List per level of the data binding.
+ *
+ * The decimals are parsed exactly (same double as Double.parseDouble) with a long mantissa
+ * divided by a power of ten; longer or exotic numbers fall back to Double.parseDouble.
+ */
+public final class WsDecoder
+{
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+	private static final double[] POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+			1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	private WsDecoder()
+	{
+	}
+
+	// ---- DEPTH -------------------------------------------------------------
+
+	/**
+	 * Decodes a depth diff ("depthUpdate" payload) into 'frame', false if it is not an object
+	 */
+	public static boolean decodeDepth(String message, DepthFrame frame) throws IOException
+	{
+		try (JsonParser parser = WsReaders.MAPPER.getFactory().createParser(message))
+		{
+			if (parser.nextToken() != JsonToken.START_OBJECT)
+			{
+				return false;
+			}
+			decodeDepth(parser, frame);
+			return true;
+		}
+	}
+
+	/**
+	 * Decodes the object the parser is on (START_OBJECT), the parser ends on its END_OBJECT
+	 */
+	public static void decodeDepth(JsonParser parser, DepthFrame frame) throws IOException
+	{
+		frame.clear();
+		while (parser.nextToken() == JsonToken.FIELD_NAME)
+		{
+			String field = parser.getCurrentName();
+			parser.nextToken();
+
+			switch (field)
+			{
+				case "s":
+					frame.setSymbol(text(parser, frame.getSymbol()));
+					break;
+				case "E":
+					frame.setEventTime(parser.getLongValue());
+					break;
+				case "T":
+					frame.setTransactionTime(parser.getLongValue());
+					break;
+				case "U":
+					frame.setFirstUpdateId(parser.getLongValue());
+					break;
+				case "u":
+					frame.setLastUpdateId(parser.getLongValue());
+					break;
+				case "pu":
+					frame.setPrevUpdateId(parser.getLongValue());
+					break;
+				case "b":
+					decodeLevels(parser, frame, true);
+					break;
+				case "a":
+					decodeLevels(parser, frame, false);
+					break;
+				default:
+					parser.skipChildren();
+			}
+		}
+	}
+
+	// [["price","qty"], ...]
+	private static void decodeLevels(JsonParser parser, DepthFrame frame, boolean bid) throws IOException
+	{
+		if (parser.getCurrentToken() != JsonToken.START_ARRAY)
+		{
+			parser.skipChildren();
+			return;
+		}
+		while (parser.nextToken() == JsonToken.START_ARRAY)
+		{
+			parser.nextToken();
+			double price = decimal(parser);
+			parser.nextToken();
+			double qty = decimal(parser);
+			while (parser.nextToken() != JsonToken.END_ARRAY)
+			{
+				parser.skipChildren();
+			}
+
+			if (bid)
+			{
+				frame.addBid(price, qty);
+			}
+			else
+			{
+				frame.addAsk(price, qty);
+			}
+		}
+	}
+
+	// ---- TICKERS -----------------------------------------------------------
+
+	/**
+	 * Decodes the whole market tickers (array payload) into 'frame', false if it is not an array
+	 */
+	public static boolean decodeTickers(String message, TickerFrame frame) throws IOException
+	{
+		try (JsonParser parser = WsReaders.MAPPER.getFactory().createParser(message))
+		{
+			if (parser.nextToken() != JsonToken.START_ARRAY)
+			{
+				return false;
+			}
+			decodeTickers(parser, frame);
+			return true;
+		}
+	}
+
+	/**
+	 * Decodes the array the parser is on (START_ARRAY), the parser ends on its END_ARRAY
+	 */
+	public static void decodeTickers(JsonParser parser, TickerFrame frame) throws IOException
+	{
+		frame.clear();
+		while (parser.nextToken() == JsonToken.START_OBJECT)
+		{
+			int index = frame.add();
+			while (parser.nextToken() == JsonToken.FIELD_NAME)
+			{
+				String field = parser.getCurrentName();
+				parser.nextToken();
+
+				switch (field)
+				{
+					case "s":
+						frame.setSymbol(index, text(parser, frame.getPreviousSymbol(index)));
+						break;
+					case "E":
+						frame.setEventTime(index, parser.getLongValue());
+						break;
+					case "c":
+						frame.setLastPrice(index, decimal(parser));
+						break;
+					case "o":
+						frame.setOpenPrice(index, decimal(parser));
+						break;
+					case "h":
+						frame.setHighPrice(index, decimal(parser));
+						break;
+					case "l":
+						frame.setLowPrice(index, decimal(parser));
+						break;
+					case "v":
+						frame.setVolume(index, decimal(parser));
+						break;
+					case "q":
+						frame.setQuoteVolume(index, decimal(parser));
+						break;
+					case "p":
+						frame.setPriceChange(index, decimal(parser));
+						break;
+					case "P":
+						frame.setPriceChangePercent(index, decimal(parser));
+						break;
+					default:
+						parser.skipChildren();
+				}
+			}
+		}
+	}
+
+	// ---- VALUES ------------------------------------------------------------
+
+	/**
+	 * Current string token, 'previous' itself when it has the same characters
+	 */
+	private static String text(JsonParser parser, String previous) throws IOException
+	{
+		if (previous != null && parser.getCurrentToken() == JsonToken.VALUE_STRING)
+		{
+			int length = parser.getTextLength();
+			if (previous.length() == length)
+			{
+				char[] buffer = parser.getTextCharacters();
+				int offset = parser.getTextOffset();
+				int i = 0;
+				while (i < length && buffer[offset + i] == previous.charAt(i))
+				{
+					i++;
+				}
+				if (i == length)
+				{
+					return previous;
+				}
+			}
+		}
+		return parser.getText();
+	}
+
+	private static double decimal(JsonParser parser) throws IOException
+	{
+		if (parser.getCurrentToken() == JsonToken.VALUE_STRING)
+		{
+			return parseDecimal(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+		}
+		return parser.getDoubleValue();
+	}
+
+	/**
+	 * Plain decimal ("-123.4500") to double, NumberFormatException if it is not a number
+	 */
+	public static double parseDecimal(char[] buffer, int offset, int length)
+	{
+		int i = offset;
+		int end = offset + length;
+		boolean negative = (i < end && buffer[i] == '-');
+		if (negative)
+		{
+			i++;
+		}
+
+		long mantissa = 0;
+		int digits = 0;
+		int fraction = 0;
+		boolean dot = false;
+		for (; i < end; i++)
+		{
+			char c = buffer[i];
+			if (c >= '0' && c <= '9')
+			{
+				if (mantissa >= MAX_EXACT_MANTISSA / 10)
+				{
+					return Double.parseDouble(new String(buffer, offset, length));
+				}
+				mantissa = mantissa * 10 + (c - '0');
+				digits++;
+				if (dot)
+				{
+					fraction++;
+				}
+			}
+			else if (c == '.' && !dot)
+			{
+				dot = true;
+			}
+			else
+			{
+				return Double.parseDouble(new String(buffer, offset, length));
+			}
+		}
+
+		if (digits == 0 || fraction >= POWERS_OF_TEN.length)
+		{
+			return Double.parseDouble(new String(buffer, offset, length));
+		}
+
+		double value = mantissa / POWERS_OF_TEN[fraction];
+		return negative ? -value : value;
+	}
+
+}
@@ -9,9 +9,6 @@ import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.drafts.Draft;
 import org.java_websocket.handshake.ServerHandshake;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 import aitrader.util.observable.Handler;
 import binance.futures.config.ApiConstants;
 import binance.futures.config.ApiLog;
@@ -49,10 +46,9 @@ public class WsMarketTickers extends WebSocketClient
 	{
 		ApiLog.debug(message);
 
-		ObjectMapper mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 		try
 		{
-			SymbolTickerEvent[] event = mapper.readerFor(SymbolTickerEvent[].class).readValue(message);
+			SymbolTickerEvent[] event = WsReaders.TICKERS.readValue(message);
 
 			observer.handle(event);
 		}
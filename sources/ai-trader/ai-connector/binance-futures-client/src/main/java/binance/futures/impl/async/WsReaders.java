@@ -0,0 +1,39 @@
+package binance.futures.impl.async;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import binance.futures.model.event.CandlestickEvent;
+import binance.futures.model.event.DepthEvent;
+import binance.futures.model.event.SymbolTickerEvent;
+import binance.futures.model.user.UserDataUpdateEvent;
+
+/**
+ * Readers of the websocket events, shared by all the connections. An ObjectReader is
+ * immutable and thread safe, and keeps the deserializers it resolved on the first frame.
+ */
+public final class WsReaders
+{
+	public static final ObjectMapper MAPPER = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+	public static final ObjectReader DEPTH = MAPPER.readerFor(DepthEvent.class);
+	public static final ObjectReader TICKERS = MAPPER.readerFor(SymbolTickerEvent[].class);
+	public static final ObjectReader CANDLESTICK = MAPPER.readerFor(CandlestickEvent.class);
+	public static final ObjectReader USER_DATA = MAPPER.readerFor(UserDataUpdateEvent.class);
+
+	private static final Map<Class<?>, ObjectReader> mapReaders = new ConcurrentHashMap<Class<?>, ObjectReader>();
+
+	private WsReaders()
+	{
+	}
+
+	public static ObjectReader forType(Class<?> type)
+	{
+		return mapReaders.computeIfAbsent(type, MAPPER::readerFor);
+	}
+
+}
@@ -0,0 +1,521 @@
+package binance.futures.impl.async;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.exceptions.WebsocketNotConnectedException;
+import org.java_websocket.handshake.ServerHandshake;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import aitrader.util.observable.Handler;
+import binance.futures.config.ApiConstants;
+import binance.futures.config.ApiLog;
+import binance.futures.enums.IntervalType;
+
+/**
+ * Many streams over a few combined connections (/stream?streams=a/b/c) instead of one
+ * connection per stream. The frames {"stream":"...","data":{...}} are routed by stream name
+ * to the handlers of the stream, and the streams are added and removed at runtime with
+ * SUBSCRIBE / UNSUBSCRIBE messages on an open connection, without reconnecting.
+ *
+ * A connection carries at most 'maxStreams' streams, a new one is opened when all are full
+ * and closed when its last stream is removed. A connection closed by the remote peer is
+ * reopened (with a growing delay) with the streams it carried.
+ *
+ * The connects and the paced control messages run outside the monitor of the instance: a
+ * connection is registered before it connects, and its control messages wait in its queue.
+ */
+public class WsStreams
+{
+	public static final int MAX_STREAMS = 200;
+	public static final String TICKERS = "!ticker@arr";
+
+	private static final long CONNECT_TIMEOUT_SECONDS = 10;
+	private static final long RECONNECT_DELAY_MILLIS = 1000;
+	private static final long MAX_RECONNECT_DELAY_MILLIS = 30_000;
+	private static final long CONTROL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(110); // 10 messages per second
+
+	private static WsStreams instance;
+
+	private final String url;
+	private final int maxStreams;
+
+	private final List<Connection> connections = new ArrayList<Connection>(); // guarded by this
+	private final Map<String, Route<?>> mapRoutes = new ConcurrentHashMap<String, Route<?>>();
+	private final AtomicLong ids = new AtomicLong();
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+		Thread thread = new Thread(runnable, "WsStreams-scheduler");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final AtomicLong messages = new AtomicLong();
+
+	/**
+	 * @param url			combined streams endpoint (without the query)
+	 * @param maxStreams	streams per connection
+	 */
+	public WsStreams(String url, int maxStreams)
+	{
+		if (maxStreams < 1)
+		{
+			throw new IllegalArgumentException("'maxStreams' must be greater than zero");
+		}
+		this.url = url;
+		this.maxStreams = maxStreams;
+	}
+
+	/**
+	 * Shared multiplexer of the futures market streams
+	 */
+	public static synchronized WsStreams getInstance()
+	{
+		if (instance == null)
+		{
+			instance = new WsStreams(ApiConstants.WS_STREAM_URL, MAX_STREAMS);
+		}
+		return instance;
+	}
+
+	// ---- STREAM NAMES ------------------------------------------------------
+
+	public static String depth(String symbolPair)
+	{
+		return symbolPair.toLowerCase() + "@depth";
+	}
+
+	public static String kline(String symbolPair, IntervalType intervalType)
+	{
+		return symbolPair.toLowerCase() + "@kline_" + intervalType;
+	}
+
+	// ---- SUBSCRIPTIONS -----------------------------------------------------
+
+	/**
+	 * Adds the handler to the stream, the events are read as 'type'. The stream is subscribed
+	 * on a connection with room for it, or on a new connection
+	 */
+	public <T> Subscription subscribe(String stream, Class<T> type, Handler<T> handler) throws InterruptedException
+	{
+		Subscription subscription = new Subscription(stream, handler);
+		Connection connection;
+
+		synchronized (this)
+		{
+			@SuppressWarnings("unchecked")
+			Route<T> route = (Route<T>) mapRoutes.get(stream);
+			if (route != null && route.type != type)
+			{
+				throw new IllegalArgumentException("Stream " + stream + " is read as " + route.type.getSimpleName());
+			}
+
+			if (route != null)
+			{
+				route.handlers.add(handler);
+				return subscription;
+			}
+
+			route = new Route<T>(type);
+			route.handlers.add(handler);
+			mapRoutes.put(stream, route);
+
+			for (Connection entry : connections)
+			{
+				if (entry.streams.size() < maxStreams)
+				{
+					entry.streams.add(stream);
+					entry.sendControl("SUBSCRIBE", stream);
+					return subscription;
+				}
+			}
+
+			connection = open(Collections.singletonList(stream), 0);
+		}
+
+		connect(connection);
+		return subscription;
+	}
+
+	private synchronized void unsubscribe(Subscription subscription)
+	{
+		Route<?> route = mapRoutes.get(subscription.stream);
+		if (route == null || !route.handlers.remove(subscription.handler) || !route.handlers.isEmpty())
+		{
+			return;
+		}
+		mapRoutes.remove(subscription.stream);
+
+		for (Connection connection : connections)
+		{
+			if (connection.streams.remove(subscription.stream))
+			{
+				if (connection.streams.isEmpty())
+				{
+					connection.closing = true;
+					connections.remove(connection);
+					connection.close();
+				}
+				else
+				{
+					connection.sendControl("UNSUBSCRIBE", subscription.stream);
+				}
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Closes all the connections and removes all the subscriptions
+	 */
+	public synchronized void close()
+	{
+		for (Connection connection : connections)
+		{
+			connection.closing = true;
+			connection.close();
+		}
+		connections.clear();
+		mapRoutes.clear();
+	}
+
+	public synchronized int getConnections()
+	{
+		return connections.size();
+	}
+
+	public int getStreams()
+	{
+		return mapRoutes.size();
+	}
+
+	public boolean isSubscribed(String stream)
+	{
+		return mapRoutes.containsKey(stream);
+	}
+
+	/**
+	 * Frames received by all the connections
+	 */
+	public long getMessages()
+	{
+		return messages.get();
+	}
+
+	// ---- CONNECTIONS -------------------------------------------------------
+
+	private Connection open(Collection<String> streams, int attempts)
+	{
+		try
+		{
+			Connection connection = new Connection(new URI(url + "?streams=" + String.join("/", streams)));
+			connection.streams.addAll(streams);
+			connection.attempts = attempts;
+			connections.add(connection);
+			return connection;
+		}
+		catch (URISyntaxException e)
+		{
+			throw new IllegalArgumentException(e);
+		}
+	}
+
+	/**
+	 * Called from the connection thread (onClose), the reconnection runs on the scheduler
+	 */
+	private void scheduleReconnect(Connection connection)
+	{
+		if (connection.closing)
+		{
+			return;
+		}
+		long delay = Math.min(MAX_RECONNECT_DELAY_MILLIS, RECONNECT_DELAY_MILLIS << Math.min(connection.attempts, 5));
+		ApiLog.info("WsStreams - reconnecting in " + delay + " ms");
+		scheduler.schedule(() -> reconnect(connection), delay, TimeUnit.MILLISECONDS);
+	}
+
+	private void reconnect(Connection connection)
+	{
+		Connection next;
+		synchronized (this)
+		{
+			if (connection.closing || !connections.remove(connection) || connection.streams.isEmpty())
+			{
+				return;
+			}
+			next = open(connection.streams, connection.attempts + 1);
+		}
+
+		// not blocking the scheduler, the failure of the new connection schedules the next attempt (onClose)
+		next.connect();
+	}
+
+	/**
+	 * Connects a registered connection, outside the monitor. A connection removed meanwhile
+	 * (its last stream unsubscribed, or close()) is closed when it opens
+	 */
+	private void connect(Connection connection) throws InterruptedException
+	{
+		if (!connection.closing)
+		{
+			connection.connectBlocking(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		}
+	}
+
+	// ---- ROUTING -----------------------------------------------------------
+
+	/**
+	 * Reads the stream name, then the data directly with the reader of the stream
+	 */
+	private void route(String message) throws IOException
+	{
+		messages.incrementAndGet();
+
+		String stream = null;
+		JsonNode data = null;
+
+		try (JsonParser parser = WsReaders.MAPPER.getFactory().createParser(message))
+		{
+			if (parser.nextToken() != JsonToken.START_OBJECT)
+			{
+				return;
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME)
+			{
+				String field = parser.getCurrentName();
+				parser.nextToken();
+
+				if ("stream".equals(field))
+				{
+					stream = parser.getText();
+				}
+				else if ("data".equals(field))
+				{
+					if (stream == null)
+					{
+						data = parser.readValueAsTree();
+						continue;
+					}
+					Route<?> route = mapRoutes.get(stream);
+					if (route == null)
+					{
+						parser.skipChildren();
+						continue;
+					}
+					route.dispatch(parser);
+				}
+				else if ("error".equals(field) || "code".equals(field))
+				{
+					ApiLog.error("WsStreams - " + message);
+					return;
+				}
+				else
+				{
+					parser.skipChildren();
+				}
+			}
+		}
+
+		if (data != null && stream != null)
+		{
+			Route<?> route = mapRoutes.get(stream);
+			if (route != null)
+			{
+				route.dispatch(data);
+			}
+		}
+	}
+
+	private static class Route<T>
+	{
+		private final Class<T> type;
+		private final ObjectReader reader;
+		private final List<Handler<T>> handlers = new CopyOnWriteArrayList<Handler<T>>();
+
+		private Route(Class<T> type)
+		{
+			this.type = type;
+			this.reader = WsReaders.forType(type);
+		}
+
+		private void dispatch(JsonParser parser) throws IOException
+		{
+			handle(reader.readValue(parser));
+		}
+
+		private void dispatch(JsonNode node) throws IOException
+		{
+			handle(reader.readValue(node));
+		}
+
+		private void handle(T event)
+		{
+			for (Handler<T> handler : handlers)
+			{
+				handler.handle(event);
+			}
+		}
+	}
+
+	// ---- SUBSCRIPTION ------------------------------------------------------
+
+	/**
+	 * Handler added to a stream, close() removes it (the stream is unsubscribed with its last handler)
+	 */
+	public class Subscription
+	{
+		private final String stream;
+		private final Handler<?> handler;
+
+		private Subscription(String stream, Handler<?> handler)
+		{
+			this.stream = stream;
+			this.handler = handler;
+		}
+
+		public String getStream()
+		{
+			return stream;
+		}
+
+		public void close()
+		{
+			unsubscribe(this);
+		}
+	}
+
+	// ---- CONNECTION --------------------------------------------------------
+
+	private class Connection extends WebSocketClient
+	{
+		private final Set<String> streams = new LinkedHashSet<String>(); // guarded by WsStreams.this
+		private final Queue<String> controls = new ArrayDeque<String>(); // guarded by itself
+		private boolean draining; // guarded by controls
+		private volatile boolean closing;
+		private int attempts;
+		private volatile long lastControlNanos;
+
+		private Connection(URI serverUri)
+		{
+			super(serverUri);
+		}
+
+		/**
+		 * Queues a SUBSCRIBE / UNSUBSCRIBE, sent by the scheduler at most 10 per second once the
+		 * connection is open. A stream added while the connection is down is part of the streams
+		 * it reopens with (the reopened connection has its own queue)
+		 */
+		private void sendControl(String method, String stream)
+		{
+			synchronized (controls)
+			{
+				controls.add("{\"method\":\"" + method + "\",\"params\":[\"" + stream + "\"],\"id\":" + ids.incrementAndGet() + "}");
+			}
+			drainControls();
+		}
+
+		/**
+		 * Schedules the send of the next queued message, paced after the previous one
+		 */
+		private void drainControls()
+		{
+			synchronized (controls)
+			{
+				if (draining || controls.isEmpty() || !isOpen())
+				{
+					return;
+				}
+				draining = true;
+			}
+			long wait = Math.max(0, CONTROL_INTERVAL_NANOS - (System.nanoTime() - lastControlNanos));
+			scheduler.schedule(this::sendNextControl, wait, TimeUnit.NANOSECONDS);
+		}
+
+		// on the scheduler
+		private void sendNextControl()
+		{
+			String message;
+			synchronized (controls)
+			{
+				draining = false;
+				message = isOpen() ? controls.poll() : null;
+			}
+
+			if (message != null)
+			{
+				lastControlNanos = System.nanoTime();
+				try
+				{
+					send(message);
+				}
+				catch (WebsocketNotConnectedException e)
+				{
+					ApiLog.warn("WsStreams - " + message + " not sent, connection closed");
+				}
+			}
+			drainControls();
+		}
+
+		@Override
+		public void onOpen(ServerHandshake handshakedata)
+		{
+			if (closing)
+			{
+				close();
+				return;
+			}
+			attempts = 0;
+			ApiLog.info("WsStreams - opened connection - " + streams.size() + " streams");
+			drainControls();
+		}
+
+		@Override
+		public void onMessage(String message)
+		{
+			ApiLog.debug(message);
+
+			try
+			{
+				route(message);
+			}
+			catch (Exception e)
+			{
+				ApiLog.error(e);
+			}
+		}
+
+		@Override
+		public void onClose(int code, String reason, boolean remote)
+		{
+			ApiLog.info("WsStreams - connection closed by " + (remote ? "remote peer" : "us") + " Code: " + code + " Reason: " + reason);
+			scheduleReconnect(this);
+		}
+
+		@Override
+		public void onError(Exception ex)
+		{
+			ApiLog.error(ex);
+		}
+	}
+
+}
@@ -0,0 +1,174 @@
+package binance.futures.model.event;
+
+import java.util.Arrays;
+
+/**
+ * Depth diff decoded into primitives (WsDecoder): same content as DepthEvent without the
+ * BigDecimal / List per level. A frame is reused for the next decode, copy() to keep it.
+ */
+public class DepthFrame
+{
+	private static final int INITIAL_LEVELS = 64;
+
+	private String symbol;
+	private long eventTime;
+	private long transactionTime;
+	private long firstUpdateId;
+	private long lastUpdateId;
+	private long prevUpdateId;
+
+	private int askLevels;
+	private double[] askPrices = new double[INITIAL_LEVELS];
+	private double[] askQtys = new double[INITIAL_LEVELS];
+
+	private int bidLevels;
+	private double[] bidPrices = new double[INITIAL_LEVELS];
+	private double[] bidQtys = new double[INITIAL_LEVELS];
+
+	public DepthFrame copy()
+	{
+		DepthFrame frame = new DepthFrame();
+		frame.symbol = symbol;
+		frame.eventTime = eventTime;
+		frame.transactionTime = transactionTime;
+		frame.firstUpdateId = firstUpdateId;
+		frame.lastUpdateId = lastUpdateId;
+		frame.prevUpdateId = prevUpdateId;
+		frame.askLevels = askLevels;
+		frame.askPrices = Arrays.copyOf(askPrices, Math.max(askLevels, 1));
+		frame.askQtys = Arrays.copyOf(askQtys, Math.max(askLevels, 1));
+		frame.bidLevels = bidLevels;
+		frame.bidPrices = Arrays.copyOf(bidPrices, Math.max(bidLevels, 1));
+		frame.bidQtys = Arrays.copyOf(bidQtys, Math.max(bidLevels, 1));
+		return frame;
+	}
+
+	// ---- DECODER -----------------------------------------------------------
+
+	/**
+	 * Empties the levels, the arrays and the symbol are kept for the next frame
+	 */
+	public void clear()
+	{
+		eventTime = transactionTime = firstUpdateId = lastUpdateId = prevUpdateId = 0;
+		askLevels = bidLevels = 0;
+	}
+
+	public void setSymbol(String symbol)
+	{
+		this.symbol = symbol;
+	}
+
+	public void setEventTime(long eventTime)
+	{
+		this.eventTime = eventTime;
+	}
+
+	public void setTransactionTime(long transactionTime)
+	{
+		this.transactionTime = transactionTime;
+	}
+
+	public void setFirstUpdateId(long firstUpdateId)
+	{
+		this.firstUpdateId = firstUpdateId;
+	}
+
+	public void setLastUpdateId(long lastUpdateId)
+	{
+		this.lastUpdateId = lastUpdateId;
+	}
+
+	public void setPrevUpdateId(long prevUpdateId)
+	{
+		this.prevUpdateId = prevUpdateId;
+	}
+
+	public void addAsk(double price, double qty)
+	{
+		if (askLevels == askPrices.length)
+		{
+			askPrices = Arrays.copyOf(askPrices, askLevels * 2);
+			askQtys = Arrays.copyOf(askQtys, askLevels * 2);
+		}
+		askPrices[askLevels] = price;
+		askQtys[askLevels++] = qty;
+	}
+
+	public void addBid(double price, double qty)
+	{
+		if (bidLevels == bidPrices.length)
+		{
+			bidPrices = Arrays.copyOf(bidPrices, bidLevels * 2);
+			bidQtys = Arrays.copyOf(bidQtys, bidLevels * 2);
+		}
+		bidPrices[bidLevels] = price;
+		bidQtys[bidLevels++] = qty;
+	}
+
+	// ---- VALUES ------------------------------------------------------------
+
+	public String getSymbol()
+	{
+		return symbol;
+	}
+
+	public long getEventTime()
+	{
+		return eventTime;
+	}
+
+	public long getTransactionTime()
+	{
+		return transactionTime;
+	}
+
+	public long getFirstUpdateId()
+	{
+		return firstUpdateId;
+	}
+
+	public long getLastUpdateId()
+	{
+		return lastUpdateId;
+	}
+
+	/**
+	 * 'pu', last update id of the previous frame of the stream
+	 */
+	public long getPrevUpdateId()
+	{
+		return prevUpdateId;
+	}
+
+	public int getAskLevels()
+	{
+		return askLevels;
+	}
+
+	public double getAskPrice(int level)
+	{
+		return askPrices[level];
+	}
+
+	public double getAskQty(int level)
+	{
+		return askQtys[level];
+	}
+
+	public int getBidLevels()
+	{
+		return bidLevels;
+	}
+
+	public double getBidPrice(int level)
+	{
+		return bidPrices[level];
+	}
+
+	public double getBidQty(int level)
+	{
+		return bidQtys[level];
+	}
+
+}
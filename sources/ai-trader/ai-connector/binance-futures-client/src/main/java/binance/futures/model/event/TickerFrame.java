@@ -0,0 +1,173 @@
+package binance.futures.model.event;
+
+import java.util.Arrays;
+
+/**
+ * Whole market tickers (!ticker@arr) decoded into primitives (WsDecoder), one column per
+ * field instead of a SymbolTickerEvent with BigDecimals per symbol. A frame is reused for the
+ * next decode: the symbol names are kept when they arrive in the same order.
+ */
+public class TickerFrame
+{
+	private static final int INITIAL_SIZE = 512;
+
+	private int size;
+	private String[] symbols = new String[INITIAL_SIZE];
+	private long[] eventTimes = new long[INITIAL_SIZE];
+	private double[] lastPrices = new double[INITIAL_SIZE];
+	private double[] openPrices = new double[INITIAL_SIZE];
+	private double[] highPrices = new double[INITIAL_SIZE];
+	private double[] lowPrices = new double[INITIAL_SIZE];
+	private double[] volumes = new double[INITIAL_SIZE];
+	private double[] quoteVolumes = new double[INITIAL_SIZE];
+	private double[] priceChanges = new double[INITIAL_SIZE];
+	private double[] priceChangePercents = new double[INITIAL_SIZE];
+
+	// ---- DECODER -----------------------------------------------------------
+
+	public void clear()
+	{
+		size = 0;
+	}
+
+	/**
+	 * Adds a ticker with NaN values, returns its index
+	 */
+	public int add()
+	{
+		if (size == symbols.length)
+		{
+			int length = size * 2;
+			symbols = Arrays.copyOf(symbols, length);
+			eventTimes = Arrays.copyOf(eventTimes, length);
+			lastPrices = Arrays.copyOf(lastPrices, length);
+			openPrices = Arrays.copyOf(openPrices, length);
+			highPrices = Arrays.copyOf(highPrices, length);
+			lowPrices = Arrays.copyOf(lowPrices, length);
+			volumes = Arrays.copyOf(volumes, length);
+			quoteVolumes = Arrays.copyOf(quoteVolumes, length);
+			priceChanges = Arrays.copyOf(priceChanges, length);
+			priceChangePercents = Arrays.copyOf(priceChangePercents, length);
+		}
+		eventTimes[size] = 0;
+		lastPrices[size] = openPrices[size] = highPrices[size] = lowPrices[size] = Double.NaN;
+		volumes[size] = quoteVolumes[size] = priceChanges[size] = priceChangePercents[size] = Double.NaN;
+		return size++;
+	}
+
+	/**
+	 * Symbol the last frame had at 'index' (kept by clear), to reuse the name
+	 */
+	public String getPreviousSymbol(int index)
+	{
+		return symbols[index];
+	}
+
+	public void setSymbol(int index, String symbol)
+	{
+		symbols[index] = symbol;
+	}
+
+	public void setEventTime(int index, long eventTime)
+	{
+		eventTimes[index] = eventTime;
+	}
+
+	public void setLastPrice(int index, double lastPrice)
+	{
+		lastPrices[index] = lastPrice;
+	}
+
+	public void setOpenPrice(int index, double openPrice)
+	{
+		openPrices[index] = openPrice;
+	}
+
+	public void setHighPrice(int index, double highPrice)
+	{
+		highPrices[index] = highPrice;
+	}
+
+	public void setLowPrice(int index, double lowPrice)
+	{
+		lowPrices[index] = lowPrice;
+	}
+
+	public void setVolume(int index, double volume)
+	{
+		volumes[index] = volume;
+	}
+
+	public void setQuoteVolume(int index, double quoteVolume)
+	{
+		quoteVolumes[index] = quoteVolume;
+	}
+
+	public void setPriceChange(int index, double priceChange)
+	{
+		priceChanges[index] = priceChange;
+	}
+
+	public void setPriceChangePercent(int index, double priceChangePercent)
+	{
+		priceChangePercents[index] = priceChangePercent;
+	}
+
+	// ---- VALUES ------------------------------------------------------------
+
+	public int size()
+	{
+		return size;
+	}
+
+	public String getSymbol(int index)
+	{
+		return symbols[index];
+	}
+
+	public long getEventTime(int index)
+	{
+		return eventTimes[index];
+	}
+
+	public double getLastPrice(int index)
+	{
+		return lastPrices[index];
+	}
+
+	public double getOpenPrice(int index)
+	{
+		return openPrices[index];
+	}
+
+	public double getHighPrice(int index)
+	{
+		return highPrices[index];
+	}
+
+	public double getLowPrice(int index)
+	{
+		return lowPrices[index];
+	}
+
+	public double getVolume(int index)
+	{
+		return volumes[index];
+	}
+
+	public double getQuoteVolume(int index)
+	{
+		return quoteVolumes[index];
+	}
+
+	public double getPriceChange(int index)
+	{
+		return priceChanges[index];
+	}
+
+	public double getPriceChangePercent(int index)
+	{
+		return priceChangePercents[index];
+	}
+
+}
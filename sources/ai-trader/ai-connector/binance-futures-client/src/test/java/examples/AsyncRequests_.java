@@ -0,0 +1,132 @@
+package examples;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+
+import com.sun.net.httpserver.HttpServer;
+
+import aitrader.util.http.HttpTransport;
+import binance.futures.model.PositionRisk;
+
+/**
+ * Calls against a local stub that answers after DELAY_MILLIS: the same requests awaited one
+ * after another (as the blocking methods do) and all sent with sendAsync before awaiting them.
+ * Expected: the async batch takes about one delay instead of REQUESTS delays, and a request
+ * sent with a shorter timeout fails with a TimeoutException instead of waiting for the stub.
+ */
+public class AsyncRequests_
+{
+	private static final int REQUESTS = 10;
+	private static final long DELAY_MILLIS = 300;
+
+	public static void main(String[] args) throws Exception
+	{
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+
+		byte[] body = "[{\"symbol\":\"BTCUSDT\",\"positionAmt\":\"0.010\",\"entryPrice\":\"65000.0\",\"positionSide\":\"LONG\"}]".getBytes(StandardCharsets.UTF_8);
+
+		ExecutorService executor = Executors.newFixedThreadPool(REQUESTS * 2);
+		HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.setExecutor(executor);
+		server.createContext("/fapi/v2/positionRisk", (exchange) -> {
+			try
+			{
+				Thread.sleep(DELAY_MILLIS);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody())
+			{
+				out.write(body);
+			}
+		});
+		server.start();
+
+		URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/fapi/v2/positionRisk");
+		HttpTransport.ResponseParser<PositionRisk[]> parser = (response) -> HttpTransport.reader(PositionRisk[].class).readValue(response.body());
+
+		try
+		{
+			// warm up (connections, deserializers)
+			await(send(uri, parser, REQUESTS));
+
+			// ---- ONE AFTER ANOTHER -----------------------------------------
+			long t1 = System.nanoTime();
+			int sequential = 0;
+			for (int i = 0; i < REQUESTS; i++)
+			{
+				sequential += HttpTransport.await(HttpTransport.sendAsync(HttpTransport.request(uri).GET().build(), parser)).length;
+			}
+			long sequentialMillis = (System.nanoTime() - t1) / 1_000_000;
+
+			// ---- IN FLIGHT TOGETHER ----------------------------------------
+			long t2 = System.nanoTime();
+			int concurrent = await(send(uri, parser, REQUESTS));
+			long concurrentMillis = (System.nanoTime() - t2) / 1_000_000;
+
+			// ---- TIMEOUT ---------------------------------------------------
+			boolean timedOut = false;
+			long t3 = System.nanoTime();
+			try
+			{
+				HttpTransport.await(HttpTransport.sendAsync(HttpTransport.request(uri).GET().build(), parser, Duration.ofMillis(DELAY_MILLIS / 3)));
+			}
+			catch (TimeoutException e)
+			{
+				timedOut = true;
+			}
+			long timeoutMillis = (System.nanoTime() - t3) / 1_000_000;
+
+			System.out.println(REQUESTS + " requests of " + DELAY_MILLIS + " ms, one after another: " + sequentialMillis + " ms, in flight together: " + concurrentMillis + " ms");
+			System.out.println("timeout of " + DELAY_MILLIS / 3 + " ms: " + (timedOut ? "TimeoutException" : "no exception") + " after " + timeoutMillis + " ms");
+
+			boolean ok = sequential == REQUESTS && concurrent == REQUESTS
+					&& sequentialMillis >= REQUESTS * DELAY_MILLIS && concurrentMillis < 3 * DELAY_MILLIS
+					&& timedOut && timeoutMillis < DELAY_MILLIS;
+			System.out.println(ok ? "OK" : "FAILED");
+			if (!ok)
+			{
+				System.exit(1);
+			}
+		}
+		finally
+		{
+			server.stop(0);
+			executor.shutdownNow();
+		}
+	}
+
+	private static List<CompletableFuture<PositionRisk[]>> send(URI uri, HttpTransport.ResponseParser<PositionRisk[]> parser, int count)
+	{
+		List<CompletableFuture<PositionRisk[]>> lstFutures = new ArrayList<CompletableFuture<PositionRisk[]>>();
+		for (int i = 0; i < count; i++)
+		{
+			lstFutures.add(HttpTransport.sendAsync(HttpTransport.request(uri).GET().build(), parser));
+		}
+		return lstFutures;
+	}
+
+	private static int await(List<CompletableFuture<PositionRisk[]>> lstFutures) throws Exception
+	{
+		int count = 0;
+		for (CompletableFuture<PositionRisk[]> future : lstFutures)
+		{
+			count += HttpTransport.await(future).length;
+		}
+		return count;
+	}
+
+}
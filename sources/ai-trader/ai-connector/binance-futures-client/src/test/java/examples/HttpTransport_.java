@@ -0,0 +1,123 @@
+package examples;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+
+import aitrader.util.http.HttpTransport;
+import aitrader.util.http.LatencyHistogram;
+import binance.futures.model.Depth;
+
+/**
+ * Depth requests against a local stub server: a new HttpClient and ObjectMapper per request
+ * (as the clients did) against the shared HttpTransport. Prints the latency histograms and
+ * the number of connections the server saw (plain HTTP: the TLS handshake saved on the
+ * exchange is not part of the difference).
+ */
+public class HttpTransport_
+{
+	private static final int REQUESTS = 500;
+	private static final int LEVELS = 1000;
+
+	public static void main(String[] args) throws Exception
+	{
+		// headers and body are separate writes: without it a kept-alive connection waits for the delayed ACK
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+
+		byte[] body = depth().getBytes(StandardCharsets.UTF_8);
+		Set<Integer> connections = ConcurrentHashMap.newKeySet();
+
+		HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/fapi/v1/depth", (exchange) -> {
+			connections.add(exchange.getRemoteAddress().getPort());
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody())
+			{
+				out.write(body);
+			}
+		});
+		server.start();
+
+		URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/fapi/v1/depth?symbol=BTCUSDT&limit=" + LEVELS);
+
+		try
+		{
+			// ---- BEFORE ----------------------------------------------------
+			LatencyHistogram before = new LatencyHistogram();
+			for (int i = 0; i < REQUESTS * 2; i++)
+			{
+				long start = System.nanoTime();
+				HttpClient httpClient = HttpClient.newBuilder().build();
+				HttpRequest request = HttpRequest.newBuilder().uri(uri).GET().build();
+				HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
+				Depth depth = new ObjectMapper().readValue(response.body(), Depth.class);
+				check(depth);
+				if (i >= REQUESTS)
+				{
+					before.record(System.nanoTime() - start);
+				}
+			}
+			int connectionsBefore = connections.size();
+			connections.clear();
+
+			// ---- AFTER -----------------------------------------------------
+			LatencyHistogram after = new LatencyHistogram();
+			for (int i = 0; i < REQUESTS * 2; i++)
+			{
+				long start = System.nanoTime();
+				HttpRequest request = HttpTransport.request(uri).GET().build();
+				HttpResponse<String> response = HttpTransport.send(request);
+				Depth depth = HttpTransport.reader(Depth.class).readValue(response.body());
+				check(depth);
+				if (i >= REQUESTS)
+				{
+					after.record(System.nanoTime() - start);
+				}
+			}
+
+			System.out.println("client per request : " + before + " connections=" + connectionsBefore);
+			System.out.println("shared transport   : " + after + " connections=" + connections.size());
+			System.out.println("transport requests : " + HttpTransport.getLatency());
+		}
+		finally
+		{
+			server.stop(0);
+		}
+	}
+
+	private static void check(Depth depth)
+	{
+		if (depth.getAsks().size() != LEVELS || depth.getBids().size() != LEVELS)
+		{
+			throw new IllegalStateException("Depth of " + depth.getAsks().size() + " levels");
+		}
+	}
+
+	private static String depth()
+	{
+		StringBuilder sb = new StringBuilder();
+		sb.append("{\"lastUpdateId\":1027024,\"E\":1589436922972,\"T\":1589436922959,\"bids\":[");
+		for (int i = 0; i < LEVELS; i++)
+		{
+			sb.append(i == 0 ? "" : ",").append("[\"").append(64999.9 - i / 10.0).append("\",\"").append(i % 97 + 0.125).append("\"]");
+		}
+		sb.append("],\"asks\":[");
+		for (int i = 0; i < LEVELS; i++)
+		{
+			sb.append(i == 0 ? "" : ",").append("[\"").append(65000.0 + i / 10.0).append("\",\"").append(i % 89 + 0.25).append("\"]");
+		}
+		sb.append("]}");
+		return sb.toString();
+	}
+
+}
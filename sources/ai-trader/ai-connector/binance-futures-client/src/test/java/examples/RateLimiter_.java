@@ -0,0 +1,145 @@
+package examples;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpServer;
+
+import aitrader.util.http.HttpTransport;
+import aitrader.util.http.RateLimiter;
+import aitrader.util.http.RateLimiter.Limit;
+import aitrader.util.http.RateLimiter.Priority;
+
+/**
+ * RateLimiter against a local stub with the exchange rules on a 1 second window (100 weight):
+ * the stub answers X-MBX-USED-WEIGHT-1S, 429 over the limit, and counts 10 weight of another
+ * process per window. A burst of backfill requests is sent with a few orders in the middle:
+ * prints the 429s (none expected), the orders latency and the weight used per window.
+ * Then a request that cannot fit in its window before 'maxQueueWait' fails with a timeout.
+ */
+public class RateLimiter_
+{
+	private static final int LIMIT = 100;
+	private static final int EXTERNAL = 10;
+	private static final int BACKFILL = 400;
+	private static final int ORDERS = 5;
+
+	public static void main(String[] args) throws Exception
+	{
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+
+		AtomicLong window = new AtomicLong();
+		AtomicInteger used = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		List<Integer> lstUsed = new ArrayList<Integer>();
+
+		HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/w", (exchange) -> {
+			int weight = Integer.parseInt(exchange.getRequestURI().getQuery().substring("weight=".length()));
+			int count;
+			synchronized (window)
+			{
+				long current = System.currentTimeMillis() / 1000;
+				if (current != window.get())
+				{
+					if (window.get() != 0)
+					{
+						lstUsed.add(used.get());
+					}
+					window.set(current);
+					used.set(EXTERNAL);
+				}
+				count = used.addAndGet(weight);
+			}
+
+			byte[] body = "{}".getBytes();
+			exchange.getResponseHeaders().add("X-MBX-USED-WEIGHT-1S", Integer.toString(count));
+			if (count > LIMIT)
+			{
+				rejected.incrementAndGet();
+				exchange.getResponseHeaders().add("Retry-After", "1");
+				exchange.sendResponseHeaders(429, body.length);
+			}
+			else
+			{
+				exchange.sendResponseHeaders(200, body.length);
+			}
+			try (OutputStream out = exchange.getResponseBody())
+			{
+				out.write(body);
+			}
+		});
+		server.start();
+
+		String base = "http://127.0.0.1:" + server.getAddress().getPort() + "/w?weight=";
+
+		RateLimiter limiter = new RateLimiter("stub");
+		limiter.setLimits(Arrays.asList(new Limit("X-MBX-USED-WEIGHT-1S", false, 1000, LIMIT)));
+
+		try
+		{
+			long start = System.currentTimeMillis();
+			List<CompletableFuture<Integer>> lstBackfill = new ArrayList<CompletableFuture<Integer>>();
+			for (int i = 0; i < BACKFILL; i++)
+			{
+				HttpRequest request = HttpTransport.request(URI.create(base + 1)).GET().build();
+				lstBackfill.add(limiter.sendAsync(request, Priority.BACKFILL, 1, (response) -> response.statusCode()));
+			}
+
+			Thread.sleep(1500);
+
+			long ordersStart = System.currentTimeMillis();
+			List<CompletableFuture<Integer>> lstOrders = new ArrayList<CompletableFuture<Integer>>();
+			for (int i = 0; i < ORDERS; i++)
+			{
+				HttpRequest request = HttpTransport.request(URI.create(base + 1)).POST(HttpRequest.BodyPublishers.noBody()).build();
+				lstOrders.add(limiter.sendAsync(request, Priority.ORDER, 1, 1, (response) -> response.statusCode()));
+			}
+			CompletableFuture.allOf(lstOrders.toArray(new CompletableFuture[0])).join();
+			long ordersMillis = System.currentTimeMillis() - ordersStart;
+			int backfillLeft = (int) lstBackfill.stream().filter((f) -> !f.isDone()).count();
+
+			CompletableFuture.allOf(lstBackfill.toArray(new CompletableFuture[0])).join();
+			long totalMillis = System.currentTimeMillis() - start;
+
+			System.out.println("429 responses      : " + rejected.get());
+			System.out.println("orders sent in     : " + ordersMillis + " ms, backfill still queued " + backfillLeft);
+			System.out.println("backfill done in   : " + totalMillis + " ms");
+			System.out.println("weight per window  : " + lstUsed + " (limit " + LIMIT + ", " + EXTERNAL + " external)");
+			System.out.println("limiter            : " + limiter);
+
+			RateLimiter slow = new RateLimiter("slow");
+			slow.setLimits(Arrays.asList(new Limit("X-MBX-USED-WEIGHT-1M", false, 60_000, 1)));
+			slow.setMaxQueueWait(Duration.ofMillis(200));
+
+			CompletableFuture<Integer> first = slow.sendAsync(HttpTransport.request(URI.create(base + 0)).GET().build(), Priority.MARKET_DATA, 1, (response) -> response.statusCode());
+			CompletableFuture<Integer> second = slow.sendAsync(HttpTransport.request(URI.create(base + 0)).GET().build(), Priority.MARKET_DATA, 1, (response) -> response.statusCode());
+			first.join();
+			long queuedStart = System.currentTimeMillis();
+			try
+			{
+				second.get();
+				System.out.println("queue timeout      : NOT RAISED");
+			}
+			catch (ExecutionException e)
+			{
+				System.out.println("queue timeout      : " + e.getCause() + " after " + (System.currentTimeMillis() - queuedStart) + " ms");
+			}
+		}
+		finally
+		{
+			server.stop(0);
+		}
+	}
+
+}
@@ -0,0 +1,193 @@
+package examples;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+
+import binance.futures.impl.async.WsDecoder;
+import binance.futures.impl.async.WsReaders;
+import binance.futures.model.event.DepthEvent;
+import binance.futures.model.event.DepthFrame;
+import binance.futures.model.event.SymbolTickerEvent;
+import binance.futures.model.event.TickerFrame;
+
+/**
+ * WsDecoder against the WsReaders models on recorded depth and ticker frames: every field of
+ * the DepthFrame / TickerFrame must match the Jackson event, and every price and quantity the
+ * double of Double.parseDouble on the same string (exponents, long mantissas, negative values
+ * and random decimals included, compared bit by bit).
+ */
+public class WsDecoder_
+{
+	private static final String DEPTH = "{\"e\":\"depthUpdate\",\"E\":1700000000123,\"T\":1700000000119,\"s\":\"BTCUSDT\",\"U\":3290561718400,\"u\":3290561720135,\"pu\":3290561718391,"
+			+ "\"b\":[[\"37012.40\",\"0.004\"],[\"37012.30\",\"0.000\"],[\"37011.00\",\"12.345678901234567890\"],[\"1E+4\",\"2.5e-3\"]],"
+			+ "\"a\":[[\"37012.50\",\"6.812\"],[\"37015.10\",\"0\"],[\"99999999999999.99\",\"1.000000000000000000001\"]]}";
+
+	private static final String DEPTH_EMPTY = "{\"e\":\"depthUpdate\",\"E\":1700000000223,\"T\":1700000000220,\"s\":\"BTCUSDT\",\"U\":3290561720136,\"u\":3290561720140,\"pu\":3290561720135,\"b\":[],\"a\":[]}";
+
+	private static final String TICKERS = "[{\"e\":\"24hrTicker\",\"E\":1700000000500,\"s\":\"BTCUSDT\",\"p\":\"-412.30\",\"P\":\"-1.102\",\"w\":\"37120.11\",\"c\":\"37012.40\",\"Q\":\"0.010\",\"o\":\"37424.70\",\"h\":\"37980.00\",\"l\":\"36800.00\",\"v\":\"312456.123\",\"q\":\"11598765432.12345678\",\"O\":1699914000000,\"C\":1700000000499,\"F\":4200000000,\"L\":4203456789,\"n\":3456790},"
+			+ "{\"e\":\"24hrTicker\",\"E\":1700000000501,\"s\":\"1000PEPEUSDT\",\"p\":\"0.0000123\",\"P\":\"1.25E-1\",\"w\":\"0.0012345\",\"c\":\"0.0012346\",\"Q\":\"100000\",\"o\":\"0.0012223\",\"h\":\"0.0012500\",\"l\":\"0.0012000\",\"v\":\"98765432109876\",\"q\":\"123456789.0123456789012\",\"O\":1699914000000,\"C\":1700000000500,\"F\":1,\"L\":2,\"n\":2},"
+			+ "{\"e\":\"24hrTicker\",\"E\":1700000000502,\"s\":\"ETHUSDT\",\"p\":\"-0.001\",\"P\":\"0.000\",\"w\":\"2050.5\",\"c\":\"2050.51\",\"Q\":\"1.5\",\"o\":\"2050.511\",\"h\":\"2100\",\"l\":\"2000.0\",\"v\":\"1e6\",\"q\":\"2.05E+9\",\"O\":1699914000000,\"C\":1700000000501,\"F\":7,\"L\":9,\"n\":3}]";
+
+	private static final String[] DECIMALS = { "0", "-0", "0.0", "-0.000", "1", "-1", "0.1", "-0.1", "0.3", "123.456", "-123.4500", "37012.40",
+			"9007199254740991", "9007199254740993", "90071992547409.93", "0.1234567890123456789", "-98765.432109876543210987",
+			"1e-7", "1E+10", "-2.5e-3", "1.7976931348623157E308", "4.9E-324", "0.00000000000000000000001", "123456789012345678901234567890",
+			".5", "5.", "00012.300" };
+
+	public static void main(String[] args) throws Exception
+	{
+		int failed = 0;
+
+		// ---- DECIMALS ------------------------------------------------------
+		for (String decimal : DECIMALS)
+		{
+			failed += checkDecimal(decimal);
+		}
+
+		Random random = new Random(42);
+		StringBuilder sb = new StringBuilder();
+		int randoms = 1_000_000;
+		for (int i = 0; i < randoms; i++)
+		{
+			sb.setLength(0);
+			if (random.nextInt(4) == 0)
+			{
+				sb.append('-');
+			}
+			int digits = 1 + random.nextInt(20);
+			int dot = random.nextInt(digits + 1);
+			for (int j = 0; j < digits; j++)
+			{
+				if (j == dot && j > 0)
+				{
+					sb.append('.');
+				}
+				sb.append((char) ('0' + random.nextInt(10)));
+			}
+			if (random.nextInt(10) == 0)
+			{
+				sb.append('e').append(random.nextInt(40) - 20);
+			}
+			failed += checkDecimal(sb.toString());
+		}
+		System.out.println(DECIMALS.length + " + " + randoms + " random decimals, " + failed + " different from Double.parseDouble");
+
+		// ---- DEPTH ---------------------------------------------------------
+		DepthFrame depthFrame = new DepthFrame();
+		int depthFailed = 0;
+		for (String message : new String[] { DEPTH, DEPTH_EMPTY, DEPTH })
+		{
+			DepthEvent event = WsReaders.DEPTH.readValue(message);
+			if (!WsDecoder.decodeDepth(message, depthFrame) || !sameDepth(event, depthFrame))
+			{
+				depthFailed++;
+			}
+		}
+		System.out.println("depth frames " + (depthFailed == 0 ? "OK" : "FAILED") + ", " + depthFrame.getAskLevels() + " asks, " + depthFrame.getBidLevels() + " bids");
+
+		// ---- TICKERS -------------------------------------------------------
+		TickerFrame tickerFrame = new TickerFrame();
+		int tickersFailed = 0;
+		for (int i = 0; i < 2; i++)
+		{
+			SymbolTickerEvent[] events = WsReaders.TICKERS.readValue(TICKERS);
+			if (!WsDecoder.decodeTickers(TICKERS, tickerFrame) || !sameTickers(events, tickerFrame))
+			{
+				tickersFailed++;
+			}
+		}
+		System.out.println("ticker frames " + (tickersFailed == 0 ? "OK" : "FAILED") + ", " + tickerFrame.size() + " tickers");
+
+		boolean notDecoded = !WsDecoder.decodeDepth(TICKERS, depthFrame) && !WsDecoder.decodeTickers(DEPTH, tickerFrame);
+
+		boolean ok = failed == 0 && depthFailed == 0 && tickersFailed == 0 && notDecoded;
+		System.out.println(ok ? "OK" : "FAILED");
+		if (!ok)
+		{
+			System.exit(1);
+		}
+	}
+
+	private static int checkDecimal(String decimal)
+	{
+		double expected = Double.parseDouble(decimal);
+		double actual = WsDecoder.parseDecimal(decimal.toCharArray(), 0, decimal.length());
+		if (Double.doubleToRawLongBits(expected) != Double.doubleToRawLongBits(actual))
+		{
+			System.out.println(decimal + " : " + actual + " expected " + expected);
+			return 1;
+		}
+		return 0;
+	}
+
+	// ---- DEPTH -------------------------------------------------------------
+
+	private static boolean sameDepth(DepthEvent event, DepthFrame frame)
+	{
+		boolean same = event.getSymbol().equals(frame.getSymbol())
+				&& event.getEventTime() == frame.getEventTime()
+				&& event.getTransactionTime() == frame.getTransactionTime()
+				&& event.getFirstUpdateId() == frame.getFirstUpdateId()
+				&& event.getLastUpdateId() == frame.getLastUpdateId()
+				&& event.getLastUpdateIdInlastStream() == frame.getPrevUpdateId()
+				&& event.getAsks().size() == frame.getAskLevels()
+				&& event.getBids().size() == frame.getBidLevels();
+
+		for (int i = 0; same && i < frame.getAskLevels(); i++)
+		{
+			List<BigDecimal> level = event.getAsks().get(i);
+			same = same(level.get(0), frame.getAskPrice(i)) && same(level.get(1), frame.getAskQty(i));
+		}
+		for (int i = 0; same && i < frame.getBidLevels(); i++)
+		{
+			List<BigDecimal> level = event.getBids().get(i);
+			same = same(level.get(0), frame.getBidPrice(i)) && same(level.get(1), frame.getBidQty(i));
+		}
+
+		if (!same)
+		{
+			System.out.println("depth " + event.getLastUpdateId() + " different");
+		}
+		return same;
+	}
+
+	// ---- TICKERS -----------------------------------------------------------
+
+	private static boolean sameTickers(SymbolTickerEvent[] events, TickerFrame frame)
+	{
+		if (events.length != frame.size())
+		{
+			return false;
+		}
+
+		for (int i = 0; i < events.length; i++)
+		{
+			SymbolTickerEvent event = events[i];
+			boolean same = event.getSymbol().equals(frame.getSymbol(i))
+					&& event.getEventTime() == frame.getEventTime(i)
+					&& same(event.getLastPrice(), frame.getLastPrice(i))
+					&& same(event.getOpenPrice(), frame.getOpenPrice(i))
+					&& same(event.getHighPrice(), frame.getHighPrice(i))
+					&& same(event.getLowPrice(), frame.getLowPrice(i))
+					&& same(event.getVolume(), frame.getVolume(i))
+					&& same(event.getQuoteVolume(), frame.getQuoteVolume(i))
+					&& same(event.getPriceChange(), frame.getPriceChange(i))
+					&& same(event.getPriceChangePercent(), frame.getPriceChangePercent(i));
+			if (!same)
+			{
+				System.out.println("ticker " + event.getSymbol() + " different");
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Same double as Double.parseDouble of the decimal (a BigDecimal has no negative zero, compared by value)
+	 */
+	private static boolean same(BigDecimal expected, double actual)
+	{
+		return Double.parseDouble(expected.toString()) == actual;
+	}
+
+}
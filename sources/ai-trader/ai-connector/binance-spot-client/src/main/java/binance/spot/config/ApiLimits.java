@@ -0,0 +1,112 @@
+package binance.spot.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import aitrader.util.http.RateLimiter;
+import aitrader.util.http.RateLimiter.Limit;
+import binance.spot.model.RateLimit;
+
+/**
+ * Rate limits of the spot API and the weight of the endpoints used by the clients.
+ * The defaults are replaced by the limits of exchangeInfo with apply().
+ */
+public final class ApiLimits
+{
+	public static final RateLimiter LIMITER = new RateLimiter("api");
+
+	static
+	{
+		LIMITER.setLimits(Arrays.asList(
+				new Limit("X-MBX-USED-WEIGHT-1M", false, TimeUnit.MINUTES.toMillis(1), 6000),
+				new Limit("X-MBX-ORDER-COUNT-10S", true, TimeUnit.SECONDS.toMillis(10), 100),
+				new Limit("X-MBX-ORDER-COUNT-1D", true, TimeUnit.DAYS.toMillis(1), 200000)));
+	}
+
+	// ---- WEIGHTS -----------------------------------------------------------
+
+	public static final int EXCHANGE_INFO = 20;
+	public static final int KLINES = 2;
+	public static final int TICKERS_24H = 80;
+	public static final int ACCOUNT = 20;
+	public static final int OPEN_ORDERS_ALL = 80;
+	public static final int ALL_ORDERS = 20;
+	public static final int ORDER = 1;
+
+	private ApiLimits()
+	{
+	}
+
+	public static int depth(int limit)
+	{
+		return limit <= 100 ? 5 : limit <= 500 ? 25 : limit <= 1000 ? 50 : 250;
+	}
+
+	// ---- EXCHANGE INFO -----------------------------------------------------
+
+	/**
+	 * Uses the REQUEST_WEIGHT and ORDERS limits of exchangeInfo (RAW_REQUESTS has no header)
+	 */
+	public static void apply(List<RateLimit> lstRateLimits)
+	{
+		if (lstRateLimits == null || lstRateLimits.isEmpty())
+		{
+			return;
+		}
+
+		List<Limit> lstLimits = new ArrayList<Limit>();
+		for (RateLimit entry : lstRateLimits)
+		{
+			Limit limit = toLimit(entry);
+			if (limit != null)
+			{
+				lstLimits.add(limit);
+			}
+		}
+
+		if (!lstLimits.isEmpty())
+		{
+			LIMITER.setLimits(lstLimits);
+			ApiLog.info("Rate limits " + lstLimits);
+		}
+	}
+
+	private static Limit toLimit(RateLimit entry)
+	{
+		boolean orders = "ORDERS".equals(entry.getRateLimitType());
+		if (!orders && !"REQUEST_WEIGHT".equals(entry.getRateLimitType()))
+		{
+			return null;
+		}
+
+		if (entry.getInterval() == null || entry.getIntervalNum() == null || entry.getLimit() == null)
+		{
+			return null;
+		}
+
+		TimeUnit unit;
+		switch (entry.getInterval())
+		{
+			case "SECOND":
+				unit = TimeUnit.SECONDS;
+				break;
+			case "MINUTE":
+				unit = TimeUnit.MINUTES;
+				break;
+			case "HOUR":
+				unit = TimeUnit.HOURS;
+				break;
+			case "DAY":
+				unit = TimeUnit.DAYS;
+				break;
+			default:
+				return null;
+		}
+
+		String header = (orders ? "X-MBX-ORDER-COUNT-" : "X-MBX-USED-WEIGHT-") + entry.getIntervalNum() + entry.getInterval().charAt(0);
+		return new Limit(header, orders, unit.toMillis(entry.getIntervalNum()), entry.getLimit());
+	}
+
+}
@@ -2,22 +2,22 @@ package binance.spot.impl;
 
 import java.math.BigDecimal;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.net.http.HttpResponse.BodyHandlers;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.WebTarget;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
-import binance.spot.commons.BinanceException;
-import binance.spot.commons.ResponseStatus;
+import aitrader.util.http.HttpTransport;
+import aitrader.util.http.RateLimiter.Priority;
+import aitrader.util.http.RateLimiter.RequestFactory;
 import binance.spot.commons.Signer;
 import binance.spot.config.ApiConstants;
+import binance.spot.config.ApiLimits;
 import binance.spot.enums.NewOrderRespType;
 import binance.spot.enums.OrderSide;
 import binance.spot.enums.OrderType;
@@ -26,8 +26,14 @@ import binance.spot.model.Account;
 import binance.spot.model.AssetBalance;
 import binance.spot.model.Order;
 
+/**
+ * Signed endpoints, with the same ...Async counterparts as UnsignedClient. The request is
+ * timestamped and signed when ApiLimits.LIMITER sends it, not when it is queued.
+ */
 public class SignedClient
 {
+	private static final Client client = ClientBuilder.newClient();
+
 	private String apiKey;
 	private String secretKey;
 
@@ -45,133 +51,102 @@ public class SignedClient
 	// --------------------------------------------------------------------
 
 	public Account getAccountInformation() throws Exception
+	{
+		return HttpTransport.await(getAccountInformationAsync());
+	}
+
+	public CompletableFuture<Account> getAccountInformationAsync()
 	{
 		final String path = "/api/v3/account";
 
 		String recvWindow = Long.toString(60_000L);
-		String timestamp = Long.toString(System.currentTimeMillis());
 
-		WebTarget target = ClientBuilder.newClient()
+		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
 			.path(path)
-			.queryParam("recvWindow", recvWindow)
-			.queryParam("timestamp", timestamp);
-
-		String signature = Signer.createSignature(apiKey, secretKey, target.getUri().getQuery());
-		URI uri = target.queryParam("signature", signature).getUri();
+			.queryParam("recvWindow", recvWindow);
 
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+		RequestFactory request = () -> HttpTransport.request(sign(target))
             .header("X-MBX-APIKEY", apiKey)
             .GET()
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());		
+		return ApiLimits.LIMITER.sendAsync(request, Priority.ACCOUNT, ApiLimits.ACCOUNT, (response) -> {
+			Account account = UnsignedClient.read(response, Account.class);
 
-		if(response.statusCode() != 200)
-		{
-			ResponseStatus responseStatus = ResponseStatus.from(response.body());
-			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
-		}
+			// Remove all zero balances
+			account.getBalances().removeIf((AssetBalance entry) -> BigDecimal.ZERO.compareTo(entry.getFree()) == 0 && BigDecimal.ZERO.compareTo(entry.getLocked()) == 0);
 
-		String jsonString = response.body();
-		ObjectMapper mapper = new ObjectMapper();
-		Account account = mapper.readValue(jsonString, Account.class);
-
-		// Remove all zero balances
-		account.getBalances().removeIf((AssetBalance entry) -> BigDecimal.ZERO.compareTo(entry.getFree()) == 0 && BigDecimal.ZERO.compareTo(entry.getLocked()) == 0);
-
-		return account;
+			return account;
+		});
 	}
-	
+
 	public List<Order> getOpenOrders() throws Exception
+	{
+		return HttpTransport.await(getOpenOrdersAsync());
+	}
+
+	public CompletableFuture<List<Order>> getOpenOrdersAsync()
 	{
 		final String path = "/api/v3/openOrders";
 
 		String recvWindow = Long.toString(60_000L);
-		String timestamp = Long.toString(System.currentTimeMillis());
 
-		WebTarget target = ClientBuilder.newClient()
+		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
 			.path(path)
-			.queryParam("recvWindow", recvWindow)
-			.queryParam("timestamp", timestamp);
-
-		String signature = Signer.createSignature(apiKey, secretKey, target.getUri().getQuery());
-		URI uri = target.queryParam("signature", signature).getUri();
+			.queryParam("recvWindow", recvWindow);
 
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+		RequestFactory request = () -> HttpTransport.request(sign(target))
             .header("X-MBX-APIKEY", apiKey)
             .GET()
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());		
-
-		if(response.statusCode() != 200)
-		{
-			ResponseStatus responseStatus = ResponseStatus.from(response.body());
-			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
-		}
-
-		String jsonString = response.body();
-		ObjectMapper mapper = new ObjectMapper();
-		List<Order> lst = mapper.readValue(jsonString, new TypeReference<List<Order>>(){});
-
-		return lst;	
+		return ApiLimits.LIMITER.sendAsync(request, Priority.ACCOUNT, ApiLimits.OPEN_ORDERS_ALL, (response) -> UnsignedClient.read(response, new TypeReference<List<Order>>(){}));
 	}
 
 	public List<Order> getAllOrders(String symbol) throws Exception
+	{
+		return HttpTransport.await(getAllOrdersAsync(symbol));
+	}
+
+	public CompletableFuture<List<Order>> getAllOrdersAsync(String symbol)
 	{
 		final String path = "/api/v3/allOrders";
 
 		String recvWindow = Long.toString(60_000L);
-		String timestamp = Long.toString(System.currentTimeMillis());
 
-		WebTarget target = ClientBuilder.newClient()
+		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
 			.path(path)
 			.queryParam("symbol", symbol)
-			.queryParam("recvWindow", recvWindow)
-			.queryParam("timestamp", timestamp);
-
-		String signature = Signer.createSignature(apiKey, secretKey, target.getUri().getQuery());
-		URI uri = target.queryParam("signature", signature).getUri();
+			.queryParam("recvWindow", recvWindow);
 
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+		RequestFactory request = () -> HttpTransport.request(sign(target))
             .header("X-MBX-APIKEY", apiKey)
             .GET()
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());		
-
-		if(response.statusCode() != 200)
-		{
-			ResponseStatus responseStatus = ResponseStatus.from(response.body());
-			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
-		}
-		
-		String jsonString = response.body();
-		ObjectMapper mapper = new ObjectMapper();
-		List<Order> lstOrders = mapper.readValue(jsonString, new TypeReference<List<Order>>(){});
-
-		return lstOrders;
+		return ApiLimits.LIMITER.sendAsync(request, Priority.ACCOUNT, ApiLimits.ALL_ORDERS, (response) -> UnsignedClient.read(response, new TypeReference<List<Order>>(){}));
 	}
-	
+
 	public Order postOrder(String symbol, OrderSide side, OrderType orderType, TimeInForce timeInForce,
 						   String quantity, String price, String newClientOrderId, String stopPrice,
 						   String icebergQty, NewOrderRespType newOrderRespType) throws Exception
+	{
+		return HttpTransport.await(postOrderAsync(symbol, side, orderType, timeInForce, quantity, price, newClientOrderId,
+				stopPrice, icebergQty, newOrderRespType));
+	}
+
+	public CompletableFuture<Order> postOrderAsync(String symbol, OrderSide side, OrderType orderType, TimeInForce timeInForce,
+												   String quantity, String price, String newClientOrderId, String stopPrice,
+												   String icebergQty, NewOrderRespType newOrderRespType)
 	{
 		final String path = "/api/v3/order";
 
 		String recvWindow = Long.toString(60_000L);
-		String timestamp = Long.toString(System.currentTimeMillis());
 
-		WebTarget target = ClientBuilder.newClient()
+		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
 			.path(path)
 			.queryParam("symbol", symbol)
@@ -184,73 +159,50 @@ public class SignedClient
 			.queryParam("stopPrice", stopPrice)
 			.queryParam("icebergQty", icebergQty)
 			.queryParam("newOrderRespType", newOrderRespType)
-			.queryParam("recvWindow", recvWindow)
-			.queryParam("timestamp", timestamp);
-
-		String signature = Signer.createSignature(apiKey, secretKey, target.getUri().getQuery());
-		URI uri = target.queryParam("signature", signature).getUri();
+			.queryParam("recvWindow", recvWindow);
 
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+		RequestFactory request = () -> HttpTransport.request(sign(target))
             .header("X-MBX-APIKEY", apiKey)
             .POST(HttpRequest.BodyPublishers.noBody())
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());		
-
-		if(response.statusCode() != 200)
-		{
-			ResponseStatus responseStatus = ResponseStatus.from(response.body());
-			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
-		}
-
-		String jsonString = response.body();
-		ObjectMapper mapper = new ObjectMapper();
-		Order order = mapper.readValue(jsonString, Order.class);
+		return ApiLimits.LIMITER.sendAsync(request, Priority.ORDER, ApiLimits.ORDER, 1, (response) -> UnsignedClient.read(response, Order.class));
+	}
 
-		return order;			
-	}	
-	
 	public Order cancelOrder(String symbol, Long orderId, String origClientOrderId) throws Exception
+	{
+		return HttpTransport.await(cancelOrderAsync(symbol, orderId, origClientOrderId));
+	}
+
+	public CompletableFuture<Order> cancelOrderAsync(String symbol, Long orderId, String origClientOrderId)
 	{
 		final String path = "/api/v3/order";
 
 		String recvWindow = Long.toString(60_000L);
-		String timestamp = Long.toString(System.currentTimeMillis());
 
-		WebTarget target = ClientBuilder.newClient()
+		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
 			.path(path)
 			.queryParam("symbol", symbol)
 			.queryParam("orderId", orderId)
 			.queryParam("origClientOrderId", origClientOrderId)
-			.queryParam("recvWindow", recvWindow)
-			.queryParam("timestamp", timestamp);
-
-		String signature = Signer.createSignature(apiKey, secretKey, target.getUri().getQuery());
-		URI uri = target.queryParam("signature", signature).getUri();
+			.queryParam("recvWindow", recvWindow);
 
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+		RequestFactory request = () -> HttpTransport.request(sign(target))
             .header("X-MBX-APIKEY", apiKey)
             .DELETE()
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());		
-
-		if(response.statusCode() != 200)
-		{
-			ResponseStatus responseStatus = ResponseStatus.from(response.body());
-			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
-		}
+		return ApiLimits.LIMITER.sendAsync(request, Priority.ORDER, ApiLimits.ORDER, (response) -> UnsignedClient.read(response, Order.class));
+	}
 
-		String jsonString = response.body();
-		ObjectMapper mapper = new ObjectMapper();
-		Order order = mapper.readValue(jsonString, Order.class);
+	// --------------------------------------------------------------------
 
-		return order;			
+	private URI sign(WebTarget target) throws Exception
+	{
+		WebTarget timed = target.queryParam("timestamp", Long.toString(System.currentTimeMillis()));
+		String signature = Signer.createSignature(apiKey, secretKey, timed.getUri().getQuery());
+		return timed.queryParam("signature", signature).getUri();
 	}
 
 }
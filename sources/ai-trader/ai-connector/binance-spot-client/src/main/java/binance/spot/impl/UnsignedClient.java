@@ -2,37 +2,47 @@ package binance.spot.impl;
 
 import java.math.BigDecimal;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.net.http.HttpResponse.BodyHandlers;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.WebTarget;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
+import aitrader.util.http.HttpTransport;
+import aitrader.util.http.RateLimiter.Priority;
 import binance.spot.commons.BinanceException;
 import binance.spot.commons.ResponseStatus;
 import binance.spot.config.ApiConstants;
+import binance.spot.config.ApiLimits;
 import binance.spot.enums.IntervalType;
 import binance.spot.model.Candle;
 import binance.spot.model.Depth;
 import binance.spot.model.ExchangeInfo;
 import binance.spot.model.SymbolTicker;
 
+/**
+ * Public endpoints. Every method has an ...Async counterpart returning a CompletableFuture
+ * that does not block a thread while the request is in flight; the blocking methods wait for it.
+ * The requests go through ApiLimits.LIMITER with the weight of their endpoint.
+ */
 public class UnsignedClient
 {
+	private static final Client client = ClientBuilder.newClient();
 
 	public static List<Candle> getKlines(String symbol, IntervalType interval, int limit) throws Exception
 	{
-		final String path = "/api/v3/klines";
+		return HttpTransport.await(getKlinesAsync(symbol, interval, limit));
+	}
 
-		Client client = ClientBuilder.newClient();
+	public static CompletableFuture<List<Candle>> getKlinesAsync(String symbol, IntervalType interval, int limit)
+	{
+		final String path = "/api/v3/klines";
 
 		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
@@ -43,117 +53,104 @@ public class UnsignedClient
 
 		URI uri = target.getUri();
 
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+		HttpRequest request = HttpTransport.request(uri)
             .GET()
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
-		
-		if(response.statusCode() != 200)
-		{
-			ResponseStatus responseStatus = ResponseStatus.from(response.body());
-			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
-		}
-
-		String jsonString = response.body();
-		ObjectMapper mapper = new ObjectMapper();
-		String[][] lst = mapper.readValue(jsonString, String[][].class);		    
-
-		// Create list of Kline
-		List<Candle> lstResult = new ArrayList<Candle>();
-		for (String[] entry : lst)
-		{
-			Candle kline = new Candle();
-
-			kline.setOpenTime(Long.valueOf(entry[0]));
-			kline.setOpenPrice(new BigDecimal(entry[1]));
-			kline.setHighPrice(new BigDecimal(entry[2]));
-			kline.setLowPrice(new BigDecimal(entry[3]));
-			kline.setClosePrice(new BigDecimal(entry[4]));
-			kline.setVolume(new BigDecimal(entry[5]));
-			kline.setQuoteVolume(new BigDecimal(entry[7]));
-			kline.setCount(Long.valueOf(entry[8]));
-
-			lstResult.add(kline);
-		}
-
-		return lstResult;			
+		return ApiLimits.LIMITER.sendAsync(request, Priority.MARKET_DATA, ApiLimits.KLINES, (response) -> {
+			String[][] lst = read(response, String[][].class);
+
+			// Create list of Kline
+			List<Candle> lstResult = new ArrayList<Candle>();
+			for (String[] entry : lst)
+			{
+				Candle kline = new Candle();
+
+				kline.setOpenTime(Long.valueOf(entry[0]));
+				kline.setOpenPrice(new BigDecimal(entry[1]));
+				kline.setHighPrice(new BigDecimal(entry[2]));
+				kline.setLowPrice(new BigDecimal(entry[3]));
+				kline.setClosePrice(new BigDecimal(entry[4]));
+				kline.setVolume(new BigDecimal(entry[5]));
+				kline.setQuoteVolume(new BigDecimal(entry[7]));
+				kline.setCount(Long.valueOf(entry[8]));
+
+				lstResult.add(kline);
+			}
+
+			return lstResult;
+		});
 	}
 
 	public static ExchangeInfo getExchangeInformation() throws Exception
+	{
+		return HttpTransport.await(getExchangeInformationAsync());
+	}
+
+	/**
+	 * Exchange information, its rate limits replace the ApiLimits defaults (no other spot service loads it)
+	 */
+	public static CompletableFuture<ExchangeInfo> getExchangeInformationAsync()
 	{
 		final String path = "/api/v3/exchangeInfo";
 
-		WebTarget target = ClientBuilder.newClient()
+		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
 			.path(path);
 
 		URI uri = target.getUri();
 
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+		HttpRequest request = HttpTransport.request(uri)
             .GET()
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
-
-		if(response.statusCode() != 200)
-		{
-			ResponseStatus responseStatus = ResponseStatus.from(response.body());
-			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
-		}
-
-		String jsonString = response.body();
-		ObjectMapper mapper = new ObjectMapper();
-		ExchangeInfo exchangeInfo = mapper.readValue(jsonString, ExchangeInfo.class);
-
-		return exchangeInfo;			
+		return ApiLimits.LIMITER.sendAsync(request, Priority.MARKET_DATA, ApiLimits.EXCHANGE_INFO, (response) -> {
+			ExchangeInfo exchangeInfo = read(response, ExchangeInfo.class);
+			ApiLimits.apply(exchangeInfo.getRateLimits());
+			return exchangeInfo;
+		});
 	}
 
 	public static List<SymbolTicker> getSymbolTickers() throws Exception
+	{
+		return HttpTransport.await(getSymbolTickersAsync());
+	}
+
+	public static CompletableFuture<List<SymbolTicker>> getSymbolTickersAsync()
 	{
 		final String path = "/api/v3/ticker/24hr";
 
-		WebTarget target = ClientBuilder.newClient()
+		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
 			.path(path);
 
 		URI uri = target.getUri();
 
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+		HttpRequest request = HttpTransport.request(uri)
             .GET()
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
-		
-		if(response.statusCode() != 200)
-		{
-			ResponseStatus responseStatus = ResponseStatus.from(response.body());
-			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
-		}
-
-		String jsonString = response.body();
-		ObjectMapper mapper = new ObjectMapper();
-		List<SymbolTicker> lst = mapper.readValue(jsonString, new TypeReference<List<SymbolTicker>>(){});
+		return ApiLimits.LIMITER.sendAsync(request, Priority.MARKET_DATA, ApiLimits.TICKERS_24H, (response) -> read(response, new TypeReference<List<SymbolTicker>>(){}));
+	}
 
-		return lst;			
-	}	
-	
 	public static Depth getDepth(String symbol) throws Exception
 	{
 		return getDepth(symbol, ApiConstants.MAX_DEPTH_LIMIT);
 	}
-	
+
 	public static Depth getDepth(String symbol, int limit) throws Exception
 	{
-		final String path = "/api/v3/depth";
+		return HttpTransport.await(getDepthAsync(symbol, limit));
+	}
 
-		Client client = ClientBuilder.newClient();
+	public static CompletableFuture<Depth> getDepthAsync(String symbol)
+	{
+		return getDepthAsync(symbol, ApiConstants.MAX_DEPTH_LIMIT);
+	}
+
+	public static CompletableFuture<Depth> getDepthAsync(String symbol, int limit)
+	{
+		final String path = "/api/v3/depth";
 
 		WebTarget target = client
 			.target(ApiConstants.BASE_URL)
@@ -163,25 +160,34 @@ public class UnsignedClient
 
 		URI uri = target.getUri();
 
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
-            .uri(uri)
+		HttpRequest request = HttpTransport.request(uri)
             .GET()
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
-		
+		return ApiLimits.LIMITER.sendAsync(request, Priority.MARKET_DATA, ApiLimits.depth(limit), (response) -> read(response, Depth.class));
+	}
+
+	// --------------------------------------------------------------------
+
+	static void check(HttpResponse<String> response) throws Exception
+	{
 		if(response.statusCode() != 200)
 		{
 			ResponseStatus responseStatus = ResponseStatus.from(response.body());
 			throw new BinanceException(responseStatus.getCode() + " : " + responseStatus.getMsg());
 		}
+	}
 
-		String jsonString = response.body();
-		ObjectMapper mapper = new ObjectMapper();
-		Depth depth = mapper.readValue(jsonString, Depth.class);
+	static <T> T read(HttpResponse<String> response, Class<T> type) throws Exception
+	{
+		check(response);
+		return HttpTransport.reader(type).readValue(response.body());
+	}
 
-		return depth;			
-	}	
+	static <T> T read(HttpResponse<String> response, TypeReference<T> typeReference) throws Exception
+	{
+		check(response);
+		return HttpTransport.reader(typeReference).readValue(response.body());
+	}
 
 }
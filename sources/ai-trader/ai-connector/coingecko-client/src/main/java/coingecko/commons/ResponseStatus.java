@@ -4,7 +4,8 @@ import java.io.IOException;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+
+import aitrader.util.http.HttpTransport;
 
 public class ResponseStatus
 {
@@ -24,8 +25,7 @@ public class ResponseStatus
 
 	public static ResponseStatus from(String jsonString) throws JsonParseException, JsonMappingException, IOException
 	{
-		ObjectMapper mapper = new ObjectMapper();
-		ResponseStatus responseStatus = mapper.readValue(jsonString, ResponseStatus.class);
+		ResponseStatus responseStatus = HttpTransport.reader(ResponseStatus.class).readValue(jsonString);
 		return responseStatus;
 	}
 
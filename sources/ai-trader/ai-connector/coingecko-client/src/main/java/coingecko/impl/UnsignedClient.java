@@ -1,17 +1,15 @@
 package coingecko.impl;
 
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.net.http.HttpResponse.BodyHandlers;
 import java.util.List;
 
 import javax.ws.rs.core.UriBuilder;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
+import aitrader.util.http.HttpTransport;
 import coingecko.commons.CoingeckoException;
 import coingecko.commons.ResponseStatus;
 import coingecko.model.CoinMarket;
@@ -29,13 +27,11 @@ public class UnsignedClient
 			.queryParam("sparkline", false)
 			.build();
 
-		HttpClient httpClient = HttpClient.newBuilder().build();
-		HttpRequest request = HttpRequest.newBuilder()
+		HttpRequest request = HttpTransport.request(uri)
             .GET()
-            .uri(uri)
             .build();
 
-		HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
+		HttpResponse<String> response = HttpTransport.send(request);
 
 		if(response.statusCode() != 200)
 		{
@@ -44,8 +40,7 @@ public class UnsignedClient
 		}
 
 		String jsonString = response.body();
-		ObjectMapper mapper = new ObjectMapper();
-		List<CoinMarket> lst = mapper.readValue(jsonString, new TypeReference<List<CoinMarket>>(){});		    
+		List<CoinMarket> lst = HttpTransport.reader(new TypeReference<List<CoinMarket>>(){}).readValue(jsonString);		    
 
 		return lst;
 	}
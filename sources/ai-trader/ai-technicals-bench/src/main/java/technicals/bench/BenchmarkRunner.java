@@ -0,0 +1,30 @@
+package technicals.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar, same arguments as the JMH command line with the GC
+ * profiler always enabled (gc.alloc.rate, gc.alloc.rate.norm = bytes per operation)
+ *
+ * java -jar target/benchmarks.jar                          all the benchmarks
+ * java -jar target/benchmarks.jar MovingAverageBench -p size=240
+ * java -jar target/benchmarks.jar "sma.*" -rf json -rff sma.json
+ */
+public class BenchmarkRunner
+{
+
+	public static void main(String[] args) throws Exception
+	{
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.build();
+
+		new Runner(options).run();
+	}
+
+}
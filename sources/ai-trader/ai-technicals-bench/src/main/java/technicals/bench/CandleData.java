@@ -0,0 +1,56 @@
+package technicals.bench;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import technicals.indicators.streaming.StreamingIndicator;
+import technicals.model.CandleSeries;
+import technicals.model.TechCandle;
+import technicals.test.SyntheticCandles;
+
+/**
+ * Synthetic candles (random walk, fixed seed) shared by the indicator benchmarks,
+ * as TechCandle[] for the batch / streaming versions and CandleSeries for the columnar one
+ */
+@State(Scope.Benchmark)
+public class CandleData
+{
+	@Param({ "240", "10000", "1000000" })
+	public int size;
+
+	public TechCandle[] candles;
+	public CandleSeries series;
+
+	// result columns for the columnar versions
+	public double[] out1;
+	public double[] out2;
+	public double[] out3;
+	public double[] out4;
+
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		candles = SyntheticCandles.candles(size, 65000, 0.002, 1);
+		series = CandleSeries.from(candles);
+		out1 = series.newColumn();
+		out2 = series.newColumn();
+		out3 = series.newColumn();
+		out4 = series.newColumn();
+	}
+
+	/**
+	 * Feeds all the candles (closed) to the stream, returns the last value
+	 */
+	public double feed(StreamingIndicator stream)
+	{
+		for (TechCandle candle : candles)
+		{
+			stream.update(candle);
+		}
+		return stream.getValue();
+	}
+
+}
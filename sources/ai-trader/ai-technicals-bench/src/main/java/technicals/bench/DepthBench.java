@@ -0,0 +1,88 @@
+package technicals.bench;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import technicals.indicators.depth.DephMergedPoints;
+import technicals.indicators.depth.DephMergedPoints.MergeMode;
+import technicals.indicators.depth.DepthBlockPoints;
+import technicals.indicators.depth.DepthDelta;
+import technicals.indicators.depth.DepthMiddlePrice;
+import technicals.indicators.depth.DepthPoints;
+import technicals.indicators.depth.DepthSuperPrices;
+import technicals.indicators.depth.DepthTrueRange;
+import technicals.indicators.depth.DepthWeightedPoints;
+
+/**
+ * Order book indicators with the parameters used by FrmCoin / SignalGenerator
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class DepthBench
+{
+
+	@Benchmark
+	public BigDecimal trueRange(OrderBookData data)
+	{
+		return new DepthTrueRange(data.orderBook).calculate(0.15, true);
+	}
+
+	@Benchmark
+	public BigDecimal middlePrice(OrderBookData data)
+	{
+		return new DepthMiddlePrice(data.orderBook).calculate(0.15, false);
+	}
+
+	@Benchmark
+	public DepthDelta delta(OrderBookData data)
+	{
+		return new DepthDelta(data.orderBook).calculate(0.05);
+	}
+
+	@Benchmark
+	public DepthBlockPoints blockPoints(OrderBookData data)
+	{
+		return new DepthBlockPoints(data.orderBook).calculate(8);
+	}
+
+	@Benchmark
+	public DepthWeightedPoints weightedPoints(OrderBookData data)
+	{
+		return new DepthWeightedPoints(data.orderBook).calculate(0.05, 0.15, 0.75);
+	}
+
+	@Benchmark
+	public DephMergedPoints mergedPoints(OrderBookData data)
+	{
+		DepthBlockPoints blockPoints = new DepthBlockPoints(data.orderBook).calculate(8);
+		DepthWeightedPoints weightedPoints = new DepthWeightedPoints(data.orderBook).calculate(0.05, 0.15, 0.75);
+		return DephMergedPoints.getInstance().calculate(blockPoints, weightedPoints, MergeMode.MAX);
+	}
+
+	/**
+	 * Same output as blockPoints + weightedPoints + mergedPoints in a single pass
+	 */
+	@Benchmark
+	public DepthPoints fusedPoints(OrderBookData data)
+	{
+		return new DepthPoints().calculate(data.snapshot, 2, 8, 0.05, 0.15, 0.75, MergeMode.MAX);
+	}
+
+	@Benchmark
+	public DepthSuperPrices superPrices(OrderBookData data)
+	{
+		return new DepthSuperPrices(data.orderBook).searchSuperAskPrices(12).searchSuperBidPrices(12);
+	}
+
+}
@@ -0,0 +1,95 @@
+package technicals.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import technicals.indicators.misc.Fractals;
+import technicals.indicators.misc.Ichimoku;
+import technicals.indicators.pp.CamarillaPivotPoints;
+import technicals.indicators.pp.DemarksPivotPoints;
+import technicals.indicators.pp.FibonacciPivotPoints;
+import technicals.indicators.pp.StandardPivotPoints;
+import technicals.indicators.pp.WoodiePivotPoints;
+import technicals.indicators.streaming.IchimokuStream;
+import technicals.model.indicators.FractalEntry;
+import technicals.model.indicators.IchimokuEntry;
+import technicals.model.pp.PivotPointsEntry;
+
+/**
+ * Ichimoku, fractals and pivot points (merging the whole series into one candle)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class MiscBench
+{
+	// ---- ICHIMOKU ----------------------------------------------------------
+
+	@Benchmark
+	public IchimokuEntry[] ichimoku(CandleData data)
+	{
+		return Ichimoku.calculate(data.candles);
+	}
+
+	@Benchmark
+	public double[] ichimokuColumnar(CandleData data)
+	{
+		Ichimoku.calculate(data.series, data.out1, data.out2, data.out3, data.out4);
+		return data.out4;
+	}
+
+	@Benchmark
+	public double ichimokuStream(CandleData data)
+	{
+		return data.feed(new IchimokuStream());
+	}
+
+	// ---- FRACTALS ----------------------------------------------------------
+
+	@Benchmark
+	public FractalEntry[] fractals(CandleData data)
+	{
+		return Fractals.calculate(data.candles);
+	}
+
+	// ---- PIVOT POINTS ------------------------------------------------------
+
+	@Benchmark
+	public PivotPointsEntry standardPivotPoints(CandleData data)
+	{
+		return new StandardPivotPoints().calculate(data.candles, data.size);
+	}
+
+	@Benchmark
+	public PivotPointsEntry camarillaPivotPoints(CandleData data)
+	{
+		return new CamarillaPivotPoints().calculate(data.candles, data.size);
+	}
+
+	@Benchmark
+	public PivotPointsEntry demarksPivotPoints(CandleData data)
+	{
+		return new DemarksPivotPoints().calculate(data.candles, data.size);
+	}
+
+	@Benchmark
+	public PivotPointsEntry fibonacciPivotPoints(CandleData data)
+	{
+		return new FibonacciPivotPoints().calculate(data.candles, data.size);
+	}
+
+	@Benchmark
+	public PivotPointsEntry woodiePivotPoints(CandleData data)
+	{
+		return new WoodiePivotPoints().calculate(data.candles, data.size);
+	}
+}
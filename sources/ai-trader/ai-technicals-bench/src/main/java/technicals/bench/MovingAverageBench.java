@@ -0,0 +1,141 @@
+package technicals.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import technicals.indicators.ma.ExponentialMovingAverage;
+import technicals.indicators.ma.HullMovingAverage;
+import technicals.indicators.ma.SimpleMovingAverage;
+import technicals.indicators.ma.VWMovingAverage;
+import technicals.indicators.ma.WeightedMovingAverage;
+import technicals.indicators.streaming.ExponentialMovingAverageStream;
+import technicals.indicators.streaming.HullMovingAverageStream;
+import technicals.indicators.streaming.SimpleMovingAverageStream;
+import technicals.indicators.streaming.VWMovingAverageStream;
+import technicals.indicators.streaming.WeightedMovingAverageStream;
+import technicals.model.indicators.IndicatorEntry;
+
+/**
+ * Moving averages: batch (entries), columnar (CandleSeries) and streaming versions
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class MovingAverageBench
+{
+	private static final int PERIODS = 20;
+
+	// ---- SMA ---------------------------------------------------------------
+
+	@Benchmark
+	public IndicatorEntry[] sma(CandleData data)
+	{
+		return SimpleMovingAverage.calculate(data.candles, PERIODS);
+	}
+
+	@Benchmark
+	public double[] smaColumnar(CandleData data)
+	{
+		SimpleMovingAverage.calculate(data.series, PERIODS, data.out1);
+		return data.out1;
+	}
+
+	@Benchmark
+	public double smaStream(CandleData data)
+	{
+		return data.feed(new SimpleMovingAverageStream(PERIODS));
+	}
+
+	// ---- EMA ---------------------------------------------------------------
+
+	@Benchmark
+	public IndicatorEntry[] ema(CandleData data)
+	{
+		return ExponentialMovingAverage.calculate(data.candles, PERIODS);
+	}
+
+	@Benchmark
+	public double[] emaColumnar(CandleData data)
+	{
+		ExponentialMovingAverage.calculate(data.series, PERIODS, data.out1);
+		return data.out1;
+	}
+
+	@Benchmark
+	public double emaStream(CandleData data)
+	{
+		return data.feed(new ExponentialMovingAverageStream(PERIODS));
+	}
+
+	// ---- WMA ---------------------------------------------------------------
+
+	@Benchmark
+	public IndicatorEntry[] wma(CandleData data)
+	{
+		return WeightedMovingAverage.calculate(data.candles, PERIODS);
+	}
+
+	@Benchmark
+	public double[] wmaColumnar(CandleData data)
+	{
+		WeightedMovingAverage.calculate(data.series, PERIODS, data.out1);
+		return data.out1;
+	}
+
+	@Benchmark
+	public double wmaStream(CandleData data)
+	{
+		return data.feed(new WeightedMovingAverageStream(PERIODS));
+	}
+
+	// ---- VWMA --------------------------------------------------------------
+
+	@Benchmark
+	public IndicatorEntry[] vwma(CandleData data)
+	{
+		return VWMovingAverage.calculate(data.candles, PERIODS);
+	}
+
+	@Benchmark
+	public double[] vwmaColumnar(CandleData data)
+	{
+		VWMovingAverage.calculate(data.series, PERIODS, data.out1);
+		return data.out1;
+	}
+
+	@Benchmark
+	public double vwmaStream(CandleData data)
+	{
+		return data.feed(new VWMovingAverageStream(PERIODS));
+	}
+
+	// ---- HMA ---------------------------------------------------------------
+
+	@Benchmark
+	public IndicatorEntry[] hma(CandleData data)
+	{
+		return HullMovingAverage.calculate(data.candles, PERIODS);
+	}
+
+	@Benchmark
+	public double[] hmaColumnar(CandleData data)
+	{
+		HullMovingAverage.calculate(data.series, PERIODS, data.out1);
+		return data.out1;
+	}
+
+	@Benchmark
+	public double hmaStream(CandleData data)
+	{
+		return data.feed(new HullMovingAverageStream(PERIODS));
+	}
+}
@@ -0,0 +1,70 @@
+package technicals.bench;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import technicals.model.BookSnapshot;
+import technicals.model.OrderBook;
+import technicals.model.OrderBookEntry;
+
+/**
+ * Synthetic order book (fixed seed), 'levels' price levels per side spread over +/- 5%
+ * of the middle price. 1000 is the largest Binance snapshot, diff-maintained books grow larger.
+ */
+@State(Scope.Benchmark)
+public class OrderBookData
+{
+	private static final int PRICE_PRECISION = 2;
+	private static final double MIDDLE_PRICE = 65000;
+
+	@Param({ "100", "1000", "10000" })
+	public int levels;
+
+	public OrderBook orderBook;
+	public BookSnapshot snapshot;
+
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		Random random = new Random(1);
+		double step = Math.max(MIDDLE_PRICE * 0.05 / levels, 0.01);
+
+		TreeMap<BigDecimal, OrderBookEntry> asks = new TreeMap<BigDecimal, OrderBookEntry>();
+		TreeMap<BigDecimal, OrderBookEntry> bids = new TreeMap<BigDecimal, OrderBookEntry>(Collections.reverseOrder());
+
+		for (int i = 0; i < levels; i++)
+		{
+			BigDecimal askPrice = BigDecimal.valueOf(MIDDLE_PRICE + step * (i + 1)).setScale(PRICE_PRECISION, RoundingMode.HALF_UP);
+			BigDecimal bidPrice = BigDecimal.valueOf(MIDDLE_PRICE - step * (i + 1)).setScale(PRICE_PRECISION, RoundingMode.HALF_UP);
+			asks.put(askPrice, new OrderBookEntry(askPrice, quantity(random)));
+			bids.put(bidPrice, new OrderBookEntry(bidPrice, quantity(random)));
+		}
+
+		orderBook = new OrderBook(PRICE_PRECISION);
+		orderBook.setAsks(asks);
+		orderBook.setBids(bids);
+
+		snapshot = BookSnapshot.of(orderBook);
+	}
+
+	// mostly small orders with a few walls
+	private static BigDecimal quantity(Random random)
+	{
+		double qty = random.nextDouble() * 2;
+		if (random.nextInt(50) == 0)
+		{
+			qty *= 100;
+		}
+		return BigDecimal.valueOf(qty).setScale(3, RoundingMode.HALF_UP).max(BigDecimal.valueOf(0.001));
+	}
+
+}
@@ -0,0 +1,123 @@
+package technicals.bench;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import technicals.model.OrderBookEntry;
+import technicals.model.TickOrderBook;
+
+/**
+ * Applying depth diffs: TickOrderBook against the BigDecimal maps DepthService used before
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class OrderBookUpdateBench
+{
+	private static final int DIFFS = 1 << 16;
+	private static final BigDecimal TICK_SIZE = new BigDecimal("0.10");
+
+	@State(Scope.Thread)
+	public static class Diffs
+	{
+		@Param({ "1000", "10000" })
+		public int levels;
+
+		public boolean[] sides = new boolean[DIFFS];
+		public BigDecimal[] prices = new BigDecimal[DIFFS];
+		public BigDecimal[] qtys = new BigDecimal[DIFFS];
+		public int next;
+
+		public TickOrderBook book;
+		public Map<BigDecimal, OrderBookEntry> mapAsks;
+		public Map<BigDecimal, OrderBookEntry> mapBids;
+
+		@Setup(Level.Trial)
+		public void setup()
+		{
+			Random random = new Random(1);
+			long mid = 650_000;
+
+			// diffs concentrated near the top of the book, a quarter of them remove the level
+			for (int i = 0; i < DIFFS; i++)
+			{
+				sides[i] = random.nextBoolean();
+				long distance = (long) Math.abs(random.nextGaussian() * levels / 4);
+				long ticks = sides[i] ? mid - 1 - distance : mid + 1 + distance;
+				prices[i] = TICK_SIZE.multiply(BigDecimal.valueOf(ticks));
+				qtys[i] = random.nextInt(4) == 0 ? BigDecimal.ZERO : BigDecimal.valueOf(random.nextInt(1000), 2);
+			}
+
+			book = new TickOrderBook(TICK_SIZE);
+			mapAsks = new ConcurrentHashMap<BigDecimal, OrderBookEntry>();
+			mapBids = new ConcurrentHashMap<BigDecimal, OrderBookEntry>();
+			for (int i = 0; i < DIFFS; i++)
+			{
+				updateBook(this, i);
+				updateMaps(this, i);
+			}
+		}
+	}
+
+	@Benchmark
+	public int tickBook(Diffs d)
+	{
+		return updateBook(d, d.next++ & (DIFFS - 1));
+	}
+
+	@Benchmark
+	public int maps(Diffs d)
+	{
+		return updateMaps(d, d.next++ & (DIFFS - 1));
+	}
+
+	@Benchmark
+	public double tickBookTop10(Diffs d)
+	{
+		double qty = 0;
+		for (int level = 0; level < 10 && level < d.book.getBidLevels(); level++)
+		{
+			qty += d.book.getBidQty(level);
+		}
+		return qty;
+	}
+
+	private static int updateBook(Diffs d, int i)
+	{
+		d.book.update(d.sides[i], d.prices[i].doubleValue(), d.qtys[i].doubleValue());
+		return d.book.getAskLevels();
+	}
+
+	// DepthService.onMessage before TickOrderBook
+	private static int updateMaps(Diffs d, int i)
+	{
+		Map<BigDecimal, OrderBookEntry> map = d.sides[i] ? d.mapBids : d.mapAsks;
+
+		OrderBookEntry orderBookEntry = new OrderBookEntry(d.prices[i], d.qtys[i]);
+		if (orderBookEntry.getQty().doubleValue() == 0)
+			map.remove(orderBookEntry.getPrice());
+		else
+			map.put(orderBookEntry.getPrice(), orderBookEntry);
+
+		return map.size();
+	}
+
+}
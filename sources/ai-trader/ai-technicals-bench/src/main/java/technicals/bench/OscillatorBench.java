@@ -0,0 +1,300 @@
+package technicals.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import technicals.indicators.oscillator.*;
+import technicals.indicators.streaming.*;
+import technicals.model.indicators.IndicatorEntry;
+import technicals.model.oscillator.*;
+
+/**
+ * Oscillators: batch (entries), columnar (CandleSeries) and streaming versions, default parameters
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class OscillatorBench
+{
+	// ---- RSI ---------------------------------------------------------------
+
+	@Benchmark
+	public RsiEntry[] rsi(CandleData data)
+	{
+		return RelativeStrengthIndex.calculate(data.candles);
+	}
+
+	@Benchmark
+	public double[] rsiColumnar(CandleData data)
+	{
+		RelativeStrengthIndex.calculate(data.series, 14, data.out1);
+		return data.out1;
+	}
+
+	@Benchmark
+	public double rsiStream(CandleData data)
+	{
+		return data.feed(new RelativeStrengthIndexStream());
+	}
+
+	// ---- STOCHASTIC --------------------------------------------------------
+
+	@Benchmark
+	public StochasticEntry[] stochastic(CandleData data)
+	{
+		return Stochastic.calculate(data.candles);
+	}
+
+	@Benchmark
+	public double[] stochasticColumnar(CandleData data)
+	{
+		Stochastic.calculate(data.series, 14, 1, 3, data.out1, data.out2);
+		return data.out2;
+	}
+
+	@Benchmark
+	public double stochasticStream(CandleData data)
+	{
+		return data.feed(new StochasticStream());
+	}
+
+	// ---- STOCHASTIC RSI ----------------------------------------------------
+
+	@Benchmark
+	public StochRsiEntry[] stochasticRsi(CandleData data)
+	{
+		return StochasticRSI.calculate(data.candles);
+	}
+
+	@Benchmark
+	public double[] stochasticRsiColumnar(CandleData data)
+	{
+		StochasticRSI.calculate(data.series, 14, 14, 3, 3, data.out1, data.out2);
+		return data.out2;
+	}
+
+	@Benchmark
+	public double stochasticRsiStream(CandleData data)
+	{
+		return data.feed(new StochasticRSIStream());
+	}
+
+	// ---- CCI ---------------------------------------------------------------
+
+	@Benchmark
+	public IndicatorEntry[] cci(CandleData data)
+	{
+		return CommodityChannelIndex.calculate(data.candles);
+	}
+
+	@Benchmark
+	public double[] cciColumnar(CandleData data)
+	{
+		CommodityChannelIndex.calculate(data.series, 20, data.out1);
+		return data.out1;
+	}
+
+	@Benchmark
+	public double cciStream(CandleData data)
+	{
+		return data.feed(new CommodityChannelIndexStream());
+	}
+
+	// ---- ADX ---------------------------------------------------------------
+
+	@Benchmark
+	public AdxEntry[] adx(CandleData data)
+	{
+		return AverageDirectionalIndex.calculate(data.candles);
+	}
+
+	@Benchmark
+	public double[] adxColumnar(CandleData data)
+	{
+		AverageDirectionalIndex.calculate(data.series, 14, data.out1, data.out2, data.out3);
+		return data.out3;
+	}
+
+	@Benchmark
+	public double adxStream(CandleData data)
+	{
+		return data.feed(new AverageDirectionalIndexStream());
+	}
+
+	// ---- AO ----------------------------------------------------------------
+
+	@Benchmark
+	public IndicatorEntry[] ao(CandleData data)
+	{
+		return AwesomeOscillator.calculate(data.candles);
+	}
+
+	@Benchmark
+	public double[] aoColumnar(CandleData data)
+	{
+		AwesomeOscillator.calculate(data.series, data.out1);
+		return data.out1;
+	}
+
+	@Benchmark
+	public double aoStream(CandleData data)
+	{
+		return data.feed(new AwesomeOscillatorStream());
+	}
+
+	// ---- MOMENTUM ----------------------------------------------------------
+
+	@Benchmark
+	public IndicatorEntry[] momentum(CandleData data)
+	{
+		return Momentum.calculate(data.candles);
+	}
+
+	@Benchmark
+	public double[] momentumColumnar(CandleData data)
+	{
+		Momentum.calculate(data.series, 10, 0, data.out1);
+		return data.out1;
+	}
+
+	@Benchmark
+	public double momentumStream(CandleData data)
+	{
+		return data.feed(new MomentumStream());
+	}
+
+	// ---- ROC ---------------------------------------------------------------
+
+	@Benchmark
+	public IndicatorEntry[] roc(CandleData data)
+	{
+		return RateOfChange.calculate(data.candles);
+	}
+
+	@Benchmark
+	public double[] rocColumnar(CandleData data)
+	{
+		RateOfChange.calculate(data.series, 9, data.out1);
+		return data.out1;
+	}
+
+	@Benchmark
+	public double rocStream(CandleData data)
+	{
+		return data.feed(new RateOfChangeStream());
+	}
+
+	// ---- MACD --------------------------------------------------------------
+
+	@Benchmark
+	public MACDEntry[] macd(CandleData data)
+	{
+		return MACD.calculate(data.candles);
+	}
+
+	@Benchmark
+	public double[] macdColumnar(CandleData data)
+	{
+		MACD.calculate(data.series, 12, 26, 9, data.out1, data.out2, data.out3);
+		return data.out3;
+	}
+
+	@Benchmark
+	public double macdStream(CandleData data)
+	{
+		return data.feed(new MACDStream());
+	}
+
+	// ---- WILLIAMS R --------------------------------------------------------
+
+	@Benchmark
+	public WilliamsREntry[] williamsR(CandleData data)
+	{
+		return WilliamsR.calculate(data.candles);
+	}
+
+	@Benchmark
+	public double[] williamsRColumnar(CandleData data)
+	{
+		WilliamsR.calculate(data.series, 14, data.out1);
+		return data.out1;
+	}
+
+	@Benchmark
+	public double williamsRStream(CandleData data)
+	{
+		return data.feed(new WilliamsRStream());
+	}
+
+	// ---- BULL BEAR POWER ---------------------------------------------------
+
+	@Benchmark
+	public IndicatorEntry[] bullBearPower(CandleData data)
+	{
+		return BullBearPower.calculate(data.candles);
+	}
+
+	@Benchmark
+	public double[] bullBearPowerColumnar(CandleData data)
+	{
+		BullBearPower.calculate(data.series, 13, data.out1);
+		return data.out1;
+	}
+
+	@Benchmark
+	public double bullBearPowerStream(CandleData data)
+	{
+		return data.feed(new BullBearPowerStream());
+	}
+
+	// ---- ULTIMATE OSCILLATOR -----------------------------------------------
+
+	@Benchmark
+	public IndicatorEntry[] uo(CandleData data)
+	{
+		return UltimateOscillator.calculate(data.candles);
+	}
+
+	@Benchmark
+	public double[] uoColumnar(CandleData data)
+	{
+		UltimateOscillator.calculate(data.series, 7, 14, 28, data.out1);
+		return data.out1;
+	}
+
+	@Benchmark
+	public double uoStream(CandleData data)
+	{
+		return data.feed(new UltimateOscillatorStream());
+	}
+
+	// ---- AROON -------------------------------------------------------------
+
+	@Benchmark
+	public AroonEntry[] aroon(CandleData data)
+	{
+		return Aroon.calculate(data.candles);
+	}
+
+	@Benchmark
+	public double[] aroonColumnar(CandleData data)
+	{
+		Aroon.calculate(data.series, 14, data.out1, data.out2, data.out3);
+		return data.out3;
+	}
+
+	@Benchmark
+	public double aroonStream(CandleData data)
+	{
+		return data.feed(new AroonStream());
+	}
+}
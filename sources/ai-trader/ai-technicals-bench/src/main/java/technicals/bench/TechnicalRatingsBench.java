@@ -0,0 +1,49 @@
+package technicals.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import technicals.indicators.complex.RatingsWorkspace;
+import technicals.indicators.complex.TechnicalRatings;
+
+/**
+ * TechnicalRatings.calculate, allocating per call and with a reused workspace (zero allocation expected)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class TechnicalRatingsBench
+{
+	@State(Scope.Thread)
+	public static class Workspace
+	{
+		public final RatingsWorkspace workspace = new RatingsWorkspace();
+		public final TechnicalRatings ratings = new TechnicalRatings(2);
+	}
+
+	@Benchmark
+	public TechnicalRatings calculate(CandleData data) throws Exception
+	{
+		TechnicalRatings ratings = new TechnicalRatings(2);
+		ratings.calculate(data.candles);
+		return ratings;
+	}
+
+	@Benchmark
+	public TechnicalRatings calculateWorkspace(CandleData data, Workspace workspace) throws Exception
+	{
+		workspace.ratings.calculate(data.candles, workspace.workspace);
+		return workspace.ratings;
+	}
+}
@@ -0,0 +1,143 @@
+package technicals.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import technicals.indicators.streaming.AverageTrueRangeStream;
+import technicals.indicators.streaming.BollingerStream;
+import technicals.indicators.streaming.KeltnerChannelStream;
+import technicals.indicators.streaming.PriceChannelStream;
+import technicals.indicators.streaming.StandardDeviationStream;
+import technicals.indicators.volatility.AverageTrueRange;
+import technicals.indicators.volatility.Bollinger;
+import technicals.indicators.volatility.KeltnerChannel;
+import technicals.indicators.volatility.PriceChannel;
+import technicals.indicators.volatility.StandardDeviation;
+import technicals.model.indicators.AtrEntry;
+import technicals.model.indicators.BollingerEntry;
+import technicals.model.indicators.IndicatorEntry;
+import technicals.model.indicators.KeltnerChannelEntry;
+import technicals.model.indicators.PriceChannelEntry;
+
+/**
+ * Volatility indicators: batch (entries), columnar (CandleSeries) and streaming versions, default parameters
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class VolatilityBench
+{
+	// ---- ATR ---------------------------------------------------------------
+
+	@Benchmark
+	public AtrEntry[] atr(CandleData data)
+	{
+		return AverageTrueRange.calculate(data.candles);
+	}
+
+	@Benchmark
+	public double[] atrColumnar(CandleData data)
+	{
+		AverageTrueRange.calculate(data.series, 20, data.out1, data.out2);
+		return data.out1;
+	}
+
+	@Benchmark
+	public double atrStream(CandleData data)
+	{
+		return data.feed(new AverageTrueRangeStream());
+	}
+
+	// ---- BOLLINGER ---------------------------------------------------------
+
+	@Benchmark
+	public BollingerEntry[] bollinger(CandleData data)
+	{
+		return Bollinger.calculate(data.candles);
+	}
+
+	@Benchmark
+	public double[] bollingerColumnar(CandleData data)
+	{
+		Bollinger.calculate(data.series, 20, 2, data.out1, data.out2, data.out3);
+		return data.out2;
+	}
+
+	@Benchmark
+	public double bollingerStream(CandleData data)
+	{
+		return data.feed(new BollingerStream());
+	}
+
+	// ---- KELTNER CHANNEL ---------------------------------------------------
+
+	@Benchmark
+	public KeltnerChannelEntry[] keltnerChannel(CandleData data)
+	{
+		return KeltnerChannel.calculate(data.candles);
+	}
+
+	@Benchmark
+	public double[] keltnerChannelColumnar(CandleData data)
+	{
+		KeltnerChannel.calculate(data.series, 20, 1, data.out1, data.out2, data.out3);
+		return data.out2;
+	}
+
+	@Benchmark
+	public double keltnerChannelStream(CandleData data)
+	{
+		return data.feed(new KeltnerChannelStream());
+	}
+
+	// ---- PRICE CHANNEL -----------------------------------------------------
+
+	@Benchmark
+	public PriceChannelEntry[] priceChannel(CandleData data)
+	{
+		return PriceChannel.calculate(data.candles);
+	}
+
+	@Benchmark
+	public double[] priceChannelColumnar(CandleData data)
+	{
+		PriceChannel.calculate(data.series, 20, data.out1, data.out2, data.out3);
+		return data.out2;
+	}
+
+	@Benchmark
+	public double priceChannelStream(CandleData data)
+	{
+		return data.feed(new PriceChannelStream());
+	}
+
+	// ---- STANDARD DEVIATION ------------------------------------------------
+
+	@Benchmark
+	public IndicatorEntry[] standardDeviation(CandleData data)
+	{
+		return StandardDeviation.calculate(data.candles);
+	}
+
+	@Benchmark
+	public double[] standardDeviationColumnar(CandleData data)
+	{
+		StandardDeviation.calculate(data.series, 5, data.out1);
+		return data.out1;
+	}
+
+	@Benchmark
+	public double standardDeviationStream(CandleData data)
+	{
+		return data.feed(new StandardDeviationStream());
+	}
+}
@@ -0,0 +1,117 @@
+package technicals.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import technicals.indicators.streaming.AccumulationDistributionStream;
+import technicals.indicators.streaming.MoneyFlowIndexStream;
+import technicals.indicators.streaming.OnBalanceVolumeStream;
+import technicals.indicators.streaming.VolumeWeightedAveragePriceStream;
+import technicals.indicators.volume.AccumulationDistribution;
+import technicals.indicators.volume.MoneyFlowIndex;
+import technicals.indicators.volume.OnBalanceVolume;
+import technicals.indicators.volume.VolumeWeightedAveragePrice;
+import technicals.model.indicators.IndicatorEntry;
+import technicals.model.indicators.VWAPEntry;
+
+/**
+ * Volume indicators: batch (entries), columnar (CandleSeries) and streaming versions, default parameters
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class VolumeBench
+{
+	// ---- ACCUMULATION DISTRIBUTION -----------------------------------------
+
+	@Benchmark
+	public IndicatorEntry[] accumulationDistribution(CandleData data)
+	{
+		return AccumulationDistribution.calculate(data.candles);
+	}
+
+	@Benchmark
+	public double[] accumulationDistributionColumnar(CandleData data)
+	{
+		AccumulationDistribution.calculate(data.series, data.out1);
+		return data.out1;
+	}
+
+	@Benchmark
+	public double accumulationDistributionStream(CandleData data)
+	{
+		return data.feed(new AccumulationDistributionStream());
+	}
+
+	// ---- MONEY FLOW INDEX --------------------------------------------------
+
+	@Benchmark
+	public IndicatorEntry[] moneyFlowIndex(CandleData data)
+	{
+		return MoneyFlowIndex.calculate(data.candles);
+	}
+
+	@Benchmark
+	public double[] moneyFlowIndexColumnar(CandleData data)
+	{
+		MoneyFlowIndex.calculate(data.series, 14, data.out1);
+		return data.out1;
+	}
+
+	@Benchmark
+	public double moneyFlowIndexStream(CandleData data)
+	{
+		return data.feed(new MoneyFlowIndexStream());
+	}
+
+	// ---- ON BALANCE VOLUME -------------------------------------------------
+
+	@Benchmark
+	public IndicatorEntry[] onBalanceVolume(CandleData data)
+	{
+		return OnBalanceVolume.calculate(data.candles);
+	}
+
+	@Benchmark
+	public double[] onBalanceVolumeColumnar(CandleData data)
+	{
+		OnBalanceVolume.calculate(data.series, data.out1);
+		return data.out1;
+	}
+
+	@Benchmark
+	public double onBalanceVolumeStream(CandleData data)
+	{
+		return data.feed(new OnBalanceVolumeStream());
+	}
+
+	// ---- VWAP --------------------------------------------------------------
+
+	@Benchmark
+	public VWAPEntry[] vwap(CandleData data)
+	{
+		return VolumeWeightedAveragePrice.calculate(data.candles);
+	}
+
+	@Benchmark
+	public double[] vwapColumnar(CandleData data)
+	{
+		VolumeWeightedAveragePrice.calculate(data.series, data.out1);
+		return data.out1;
+	}
+
+	@Benchmark
+	public double vwapStream(CandleData data)
+	{
+		return data.feed(new VolumeWeightedAveragePriceStream());
+	}
+}
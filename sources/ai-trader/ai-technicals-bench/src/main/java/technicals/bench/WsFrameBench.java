@@ -0,0 +1,95 @@
+package technicals.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import binance.futures.impl.async.WsDecoder;
+import binance.futures.impl.async.WsReaders;
+import binance.futures.model.event.DepthEvent;
+import binance.futures.model.event.DepthFrame;
+import binance.futures.model.event.SymbolTickerEvent;
+import binance.futures.model.event.TickerFrame;
+
+/**
+ * Decoding of a websocket frame: a new ObjectMapper per frame (as the Ws* clients did), the
+ * shared ObjectReader, and the streaming WsDecoder into a reused frame
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class WsFrameBench
+{
+
+	@State(Scope.Thread)
+	public static class Frames
+	{
+		public DepthFrame depthFrame = new DepthFrame();
+		public TickerFrame tickerFrame = new TickerFrame();
+		public int next;
+	}
+
+	private static String nextDepth(WsFrameData data, Frames frames)
+	{
+		return data.depthFrames[frames.next++ % data.depthFrames.length];
+	}
+
+	// ---- DEPTH -------------------------------------------------------------
+
+	@Benchmark
+	public DepthEvent depthMapperPerFrame(WsFrameData data, Frames frames) throws IOException
+	{
+		ObjectMapper mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+		return mapper.readerFor(DepthEvent.class).readValue(nextDepth(data, frames));
+	}
+
+	@Benchmark
+	public DepthEvent depthSharedReader(WsFrameData data, Frames frames) throws IOException
+	{
+		return WsReaders.DEPTH.readValue(nextDepth(data, frames));
+	}
+
+	@Benchmark
+	public DepthFrame depthStreaming(WsFrameData data, Frames frames) throws IOException
+	{
+		WsDecoder.decodeDepth(nextDepth(data, frames), frames.depthFrame);
+		return frames.depthFrame;
+	}
+
+	// ---- TICKERS -----------------------------------------------------------
+
+	@Benchmark
+	public SymbolTickerEvent[] tickersMapperPerFrame(WsFrameData data) throws IOException
+	{
+		ObjectMapper mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+		return mapper.readerFor(SymbolTickerEvent[].class).readValue(data.tickersFrame);
+	}
+
+	@Benchmark
+	public SymbolTickerEvent[] tickersSharedReader(WsFrameData data) throws IOException
+	{
+		return WsReaders.TICKERS.readValue(data.tickersFrame);
+	}
+
+	@Benchmark
+	public TickerFrame tickersStreaming(WsFrameData data, Frames frames) throws IOException
+	{
+		WsDecoder.decodeTickers(data.tickersFrame, frames.tickerFrame);
+		return frames.tickerFrame;
+	}
+
+}
@@ -0,0 +1,118 @@
+package technicals.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Websocket payloads in the format of the Binance futures streams: depth diffs (@depth, about
+ * 20 levels per side) and the whole market tickers (!ticker@arr, 300 symbols). Synthetic with a
+ * fixed seed, or the frames captured in 'frames' (one payload per line, arrays are tickers).
+ */
+@State(Scope.Benchmark)
+public class WsFrameData
+{
+	private static final int DEPTH_FRAMES = 256;
+	private static final int SYMBOLS = 300;
+
+	@Param({ "" })
+	public String frames;
+
+	public String[] depthFrames;
+	public String tickersFrame;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException
+	{
+		if (!frames.isEmpty())
+		{
+			load();
+			return;
+		}
+
+		Random random = new Random(1);
+		depthFrames = new String[DEPTH_FRAMES];
+		long updateId = 7_000_000_000L;
+		for (int i = 0; i < DEPTH_FRAMES; i++)
+		{
+			StringBuilder sb = new StringBuilder(2048);
+			long time = 1_700_000_000_000L + i * 250L;
+			sb.append("{\"e\":\"depthUpdate\",\"E\":").append(time).append(",\"T\":").append(time - 2);
+			sb.append(",\"s\":\"BTCUSDT\",\"U\":").append(updateId + 1).append(",\"u\":").append(updateId + 40);
+			sb.append(",\"pu\":").append(updateId).append(",\"b\":[");
+			levels(sb, random, 649_990, -1);
+			sb.append("],\"a\":[");
+			levels(sb, random, 650_010, 1);
+			sb.append("]}");
+			depthFrames[i] = sb.toString();
+			updateId += 40;
+		}
+
+		StringBuilder sb = new StringBuilder(SYMBOLS * 400);
+		sb.append('[');
+		for (int i = 0; i < SYMBOLS; i++)
+		{
+			double price = 0.01 + random.nextDouble() * 1000;
+			sb.append(i == 0 ? "" : ",");
+			sb.append("{\"e\":\"24hrTicker\",\"E\":1700000000123,\"s\":\"SYM").append(i).append("USDT\"");
+			sb.append(",\"p\":\"").append(decimal(price * 0.01, 4)).append("\",\"P\":\"").append(decimal(random.nextDouble() * 10, 3)).append('"');
+			sb.append(",\"w\":\"").append(decimal(price, 4)).append("\",\"c\":\"").append(decimal(price, 4)).append('"');
+			sb.append(",\"Q\":\"").append(decimal(random.nextDouble() * 100, 3)).append("\",\"o\":\"").append(decimal(price * 0.99, 4)).append('"');
+			sb.append(",\"h\":\"").append(decimal(price * 1.05, 4)).append("\",\"l\":\"").append(decimal(price * 0.95, 4)).append('"');
+			sb.append(",\"v\":\"").append(decimal(random.nextDouble() * 1e7, 3)).append("\",\"q\":\"").append(decimal(random.nextDouble() * 1e9, 2)).append('"');
+			sb.append(",\"O\":1699913600000,\"C\":1700000000000,\"F\":123456789,\"L\":123999999,\"n\":543210}");
+		}
+		sb.append(']');
+		tickersFrame = sb.toString();
+	}
+
+	// 20 levels near the top, a quarter of them removed (qty 0)
+	private static void levels(StringBuilder sb, Random random, long top, int direction)
+	{
+		for (int i = 0; i < 20; i++)
+		{
+			long ticks = top + direction * (long) Math.abs(random.nextGaussian() * 200);
+			double qty = random.nextInt(4) == 0 ? 0 : random.nextInt(100_000) / 1000.0;
+			sb.append(i == 0 ? "" : ",");
+			sb.append("[\"").append(decimal(ticks / 10.0, 2)).append("\",\"").append(decimal(qty, 3)).append("\"]");
+		}
+	}
+
+	private static String decimal(double value, int scale)
+	{
+		return String.format(Locale.ROOT, "%." + scale + "f", value);
+	}
+
+	private void load() throws IOException
+	{
+		List<String> depth = new ArrayList<String>();
+		for (String line : Files.readAllLines(Paths.get(frames)))
+		{
+			line = line.trim();
+			if (line.startsWith("["))
+			{
+				tickersFrame = line;
+			}
+			else if (line.contains("depthUpdate"))
+			{
+				depth.add(line);
+			}
+		}
+		if (depth.isEmpty() || tickersFrame == null)
+		{
+			throw new IllegalArgumentException("No depth or tickers frames in " + frames);
+		}
+		depthFrames = depth.toArray(new String[0]);
+	}
+
+}
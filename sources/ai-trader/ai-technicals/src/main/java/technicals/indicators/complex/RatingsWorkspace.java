@@ -0,0 +1,190 @@
+package technicals.indicators.complex;
+
+import technicals.indicators.streaming.AverageDirectionalIndexStream;
+import technicals.indicators.streaming.CommodityChannelIndexStream;
+import technicals.indicators.streaming.IchimokuStream;
+import technicals.indicators.streaming.MomentumStream;
+import technicals.indicators.streaming.StochasticStream;
+import technicals.indicators.streaming.UltimateOscillatorStream;
+import technicals.indicators.streaming.VWMovingAverageStream;
+import technicals.indicators.streaming.WilliamsRStream;
+import technicals.util.SlidingWindowExtremum;
+
+/**
+ * Reusable state for TechnicalRatings: the pooled series columns and the streaming
+ * indicators, recreated only when the candle count or a parameter changes.
+ *
+ * Once warmed up, calculating the ratings with the same workspace does not allocate.
+ * A workspace is not thread safe, use one per thread.
+ */
+public class RatingsWorkspace
+{
+	// series columns used by a default calculation
+	private static final int DEFAULT_COLUMNS = 40;
+
+	private final SeriesCache seriesCache = new SeriesCache();
+
+	private VWMovingAverageStream vwma;
+	private IchimokuStream ichimoku;
+
+	private StochasticStream stochastic;
+	private int stochasticPeriods, stochasticSmoothK, stochasticSmoothD;
+	private CommodityChannelIndexStream cci;
+	private int cciPeriods;
+	private AverageDirectionalIndexStream adx;
+	private int adxPeriods;
+	private MomentumStream momentum;
+	private int momentumPeriods;
+	private WilliamsRStream williamsR;
+	private int williamsRPeriods;
+	private UltimateOscillatorStream uo;
+	private int uoPeriods1, uoPeriods2, uoPeriods3;
+
+	private SlidingWindowExtremum maxRsi;
+	private SlidingWindowExtremum minRsi;
+
+	public RatingsWorkspace()
+	{
+		//
+	}
+
+	/**
+	 * Workspace with the series columns preallocated for the given candle count
+	 */
+	public RatingsWorkspace(int candleCount)
+	{
+		seriesCache.ensureCapacity(candleCount, DEFAULT_COLUMNS);
+	}
+
+	public SeriesCache getSeriesCache()
+	{
+		return seriesCache;
+	}
+
+	// ---- STREAMS (reset, ready to be fed) ------------------------------------
+
+	VWMovingAverageStream vwma(int periods)
+	{
+		if (vwma == null || vwma.getPeriods() != periods)
+			vwma = new VWMovingAverageStream(periods);
+		else
+			vwma.reset();
+		return vwma;
+	}
+
+	IchimokuStream ichimoku()
+	{
+		if (ichimoku == null)
+			ichimoku = new IchimokuStream();
+		else
+			ichimoku.reset();
+		return ichimoku;
+	}
+
+	StochasticStream stochastic(int periods, int smoothK, int smoothD)
+	{
+		if (stochastic == null || stochasticPeriods != periods || stochasticSmoothK != smoothK || stochasticSmoothD != smoothD)
+		{
+			stochastic = new StochasticStream(periods, smoothK, smoothD);
+			stochasticPeriods = periods;
+			stochasticSmoothK = smoothK;
+			stochasticSmoothD = smoothD;
+		}
+		else
+		{
+			stochastic.reset();
+		}
+		return stochastic;
+	}
+
+	CommodityChannelIndexStream cci(int periods)
+	{
+		if (cci == null || cciPeriods != periods)
+		{
+			cci = new CommodityChannelIndexStream(periods);
+			cciPeriods = periods;
+		}
+		else
+		{
+			cci.reset();
+		}
+		return cci;
+	}
+
+	AverageDirectionalIndexStream adx(int periods)
+	{
+		if (adx == null || adxPeriods != periods)
+		{
+			adx = new AverageDirectionalIndexStream(periods);
+			adxPeriods = periods;
+		}
+		else
+		{
+			adx.reset();
+		}
+		return adx;
+	}
+
+	MomentumStream momentum(int periods)
+	{
+		if (momentum == null || momentumPeriods != periods)
+		{
+			momentum = new MomentumStream(periods);
+			momentumPeriods = periods;
+		}
+		else
+		{
+			momentum.reset();
+		}
+		return momentum;
+	}
+
+	WilliamsRStream williamsR(int periods)
+	{
+		if (williamsR == null || williamsRPeriods != periods)
+		{
+			williamsR = new WilliamsRStream(periods);
+			williamsRPeriods = periods;
+		}
+		else
+		{
+			williamsR.reset();
+		}
+		return williamsR;
+	}
+
+	UltimateOscillatorStream uo(int periods1, int periods2, int periods3)
+	{
+		if (uo == null || uoPeriods1 != periods1 || uoPeriods2 != periods2 || uoPeriods3 != periods3)
+		{
+			uo = new UltimateOscillatorStream(periods1, periods2, periods3);
+			uoPeriods1 = periods1;
+			uoPeriods2 = periods2;
+			uoPeriods3 = periods3;
+		}
+		else
+		{
+			uo.reset();
+		}
+		return uo;
+	}
+
+	SlidingWindowExtremum maxRsi(int periods)
+	{
+		if (maxRsi == null || maxRsi.getPeriods() != periods)
+			maxRsi = SlidingWindowExtremum.max(periods);
+		else
+			maxRsi.clear();
+		return maxRsi;
+	}
+
+	SlidingWindowExtremum minRsi(int periods)
+	{
+		if (minRsi == null || minRsi.getPeriods() != periods)
+			minRsi = SlidingWindowExtremum.min(periods);
+		else
+			minRsi.clear();
+		return minRsi;
+	}
+
+}
@@ -0,0 +1,342 @@
+package technicals.indicators.complex;
+
+import java.util.Arrays;
+
+import technicals.model.TechCandle;
+
+/**
+ * Intermediate series shared by the indicators of TechnicalRatings.
+ *
+ * Each series is keyed by (source, kind, periods) and computed once per load, the
+ * next requests are served from the cache. Series are aligned with the candles and
+ * NaN while warming up. EMA depends on the SMA of the same source and periods (seed).
+ *
+ * Columns come from a pool that is kept between loads with the same candle count, so
+ * once warmed up a load and its series do not allocate. Series returned by a previous
+ * load are overwritten by the next one.
+ */
+public class SeriesCache
+{
+	public enum Kind
+	{
+		SMA, EMA, WMA, RSI
+	}
+
+	public static final int CLOSE = 0;
+	public static final int HL2 = 1;
+
+	private int length;
+
+	private double[][] sources = new double[4][];
+	private int sourceCount;
+
+	private long[] keys = new long[32];
+	private double[][] series = new double[32][];
+	private int seriesCount;
+
+	private double[][] pool = new double[0][];
+	private int poolUsed;
+
+	private long hits;
+	private long misses;
+
+	// ---- LOAD ------------------------------------------------------------------
+
+	/**
+	 * Clears the cache and loads the base sources (close, hl2) of the candles
+	 */
+	public void load(TechCandle[] candles)
+	{
+		if (candles.length != length)
+		{
+			ensureCapacity(candles.length, 0);
+		}
+
+		poolUsed = 0;
+		sourceCount = 0;
+		seriesCount = 0;
+		hits = 0;
+		misses = 0;
+
+		double[] close = take();
+		double[] hl2 = take();
+		for (int i = 0; i < length; i++)
+		{
+			close[i] = candles[i].getClosePrice();
+			hl2[i] = candles[i].getHL2();
+		}
+
+		addSource(close);
+		addSource(hl2);
+	}
+
+	public int length()
+	{
+		return length;
+	}
+
+	public double[] source(int source)
+	{
+		return sources[source];
+	}
+
+	/**
+	 * Registers a derived series (aligned with the candles) as a new source
+	 */
+	public int addSource(double[] values)
+	{
+		if (sourceCount == sources.length)
+		{
+			sources = Arrays.copyOf(sources, sourceCount * 2);
+		}
+		sources[sourceCount] = values;
+		return sourceCount++;
+	}
+
+	/**
+	 * Empty column for a derived series, filled with NaN
+	 */
+	public double[] newColumn()
+	{
+		double[] column = take();
+		Arrays.fill(column, Double.NaN);
+		return column;
+	}
+
+	/**
+	 * Preallocates 'columns' columns for candle arrays of the given length
+	 */
+	public void ensureCapacity(int length, int columns)
+	{
+		if (length != this.length)
+		{
+			this.length = length;
+			this.pool = new double[columns][];
+			this.poolUsed = 0;
+		}
+		else if (columns > pool.length)
+		{
+			pool = Arrays.copyOf(pool, columns);
+		}
+
+		for (int i = 0; i < pool.length; i++)
+		{
+			if (pool[i] == null)
+			{
+				pool[i] = new double[length];
+			}
+		}
+	}
+
+	private double[] take()
+	{
+		if (poolUsed == pool.length)
+		{
+			pool = Arrays.copyOf(pool, Math.max(8, pool.length * 2));
+		}
+		if (pool[poolUsed] == null)
+		{
+			pool[poolUsed] = new double[length];
+		}
+		return pool[poolUsed++];
+	}
+
+	// ---- COUNTERS --------------------------------------------------------------
+
+	public long getHits()
+	{
+		return hits;
+	}
+
+	public long getMisses()
+	{
+		return misses;
+	}
+
+	public int size()
+	{
+		return seriesCount;
+	}
+
+	// ---- SERIES ----------------------------------------------------------------
+
+	public double[] get(int source, Kind kind, int periods)
+	{
+		long key = ((long) source << 40) | ((long) kind.ordinal() << 32) | periods;
+
+		for (int i = 0; i < seriesCount; i++)
+		{
+			if (keys[i] == key)
+			{
+				hits++;
+				return series[i];
+			}
+		}
+		misses++;
+
+		double[] values = sources[source];
+		double[] result = newColumn();
+
+		switch (kind)
+		{
+			case SMA:
+				sma(values, periods, result);
+				break;
+			case EMA:
+				ema(values, get(source, Kind.SMA, periods), periods, result);
+				break;
+			case WMA:
+				wma(values, periods, result);
+				break;
+			case RSI:
+				rsi(values, periods, result);
+				break;
+		}
+
+		if (seriesCount == keys.length)
+		{
+			keys = Arrays.copyOf(keys, seriesCount * 2);
+			series = Arrays.copyOf(series, seriesCount * 2);
+		}
+		keys[seriesCount] = key;
+		series[seriesCount] = result;
+		seriesCount++;
+
+		return result;
+	}
+
+	public double last(int source, Kind kind, int periods)
+	{
+		return get(source, kind, periods)[length - 1];
+	}
+
+	// ---- KERNELS ---------------------------------------------------------------
+	// Leading NaN values of a source (warm-up of a derived series) are skipped
+
+	private static int firstValid(double[] values)
+	{
+		int i = 0;
+		while (i < values.length && Double.isNaN(values[i]))
+		{
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Compensated running sum, same arithmetic as RollingSum reading the evicted value from the source
+	 */
+	private static void sma(double[] values, int periods, double[] result)
+	{
+		int start = firstValid(values);
+
+		double sum = 0;
+		double compensation = 0;
+
+		for (int i = start; i < values.length; i++)
+		{
+			double t = sum + values[i];
+			compensation += (Math.abs(sum) >= Math.abs(values[i])) ? (sum - t) + values[i] : (values[i] - t) + sum;
+			sum = t;
+
+			if (i - start >= periods)
+			{
+				double evicted = -values[i - periods];
+				t = sum + evicted;
+				compensation += (Math.abs(sum) >= Math.abs(evicted)) ? (sum - t) + evicted : (evicted - t) + sum;
+				sum = t;
+			}
+
+			if (i - start >= periods - 1)
+			{
+				result[i] = (sum + compensation) / periods;
+			}
+		}
+	}
+
+	private static void ema(double[] values, double[] sma, int periods, double[] result)
+	{
+		double smoothing = 2d / (periods + 1);
+
+		int start = firstValid(sma);
+		if (start == values.length)
+		{
+			return;
+		}
+
+		result[start] = sma[start];
+		for (int i = start + 1; i < values.length; i++)
+		{
+			result[i] = values[i] * smoothing + result[i - 1] * (1 - smoothing);
+		}
+	}
+
+	private static void wma(double[] values, int periods, double[] result)
+	{
+		double divider = (periods * (periods + 1)) / 2;
+		int start = firstValid(values);
+
+		double sum = 0;
+		double weightedSum = 0;
+
+		for (int i = start; i < values.length; i++)
+		{
+			int count = i - start;
+			if (count < periods)
+			{
+				weightedSum += (count + 1) * values[i];
+				sum += values[i];
+			}
+			else
+			{
+				weightedSum = weightedSum - sum + periods * values[i];
+				sum = sum - values[i - periods] + values[i];
+			}
+
+			if (count >= periods - 1)
+			{
+				result[i] = weightedSum / divider;
+			}
+		}
+	}
+
+	private static void rsi(double[] values, int periods, double[] result)
+	{
+		int start = firstValid(values);
+
+		double sumGain = 0;
+		double sumLoss = 0;
+		double avgGain = 0;
+		double avgLoss = 0;
+
+		for (int i = start + 1; i < values.length; i++)
+		{
+			double change = values[i] - values[i - 1];
+			double gain = change > 0 ? change : 0;
+			double loss = change < 0 ? change * -1 : 0;
+
+			int changes = i - start;
+			if (changes < periods)
+			{
+				sumGain += gain;
+				sumLoss += loss;
+				continue;
+			}
+
+			if (changes == periods)
+			{
+				avgGain = (sumGain + gain) / periods;
+				avgLoss = (sumLoss + loss) / periods;
+			}
+			else
+			{
+				avgGain = (avgGain * (periods - 1) + gain) / periods;
+				avgLoss = (avgLoss * (periods - 1) + loss) / periods;
+			}
+
+			double rs = avgGain / avgLoss;
+			result[i] = 100 - (100 / (1 + rs));
+		}
+	}
+
+}
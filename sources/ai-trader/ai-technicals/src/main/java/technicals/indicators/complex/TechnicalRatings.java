@@ -1,15 +1,11 @@
 package technicals.indicators.complex;
 
-import technicals.indicators.ma.ExponentialMovingAverage;
-import technicals.indicators.ma.HullMovingAverage;
-import technicals.indicators.ma.SimpleMovingAverage;
-import technicals.indicators.ma.VWMovingAverage;
-import technicals.indicators.misc.Ichimoku;
-import technicals.indicators.oscillator.*;
+import technicals.config.Labels;
+import technicals.indicators.complex.SeriesCache.Kind;
+import technicals.indicators.streaming.*;
 import technicals.model.TechCandle;
-import technicals.model.indicators.IchimokuEntry;
-import technicals.model.indicators.IndicatorEntry;
-import technicals.model.oscillator.*;
+import technicals.util.SlidingWindowExtremum;
+import technicals.util.Tail;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -38,10 +34,19 @@ public class TechnicalRatings
 	public static final int DOWN_TREND = -1;
 	public static final int NEUTRAL = 0;
 
+	private static final int[] SMA_PERIODS = { 10, 20, 30, 50, 100, 200 };
+	private static final int[] EMA_PERIODS = { 10, 20, 30, 50, 100, 200 };
+	private static final int[] VWMA_PERIODS = { 20 };
+	private static final int[] HMA_PERIODS = { 20 };
+
 	private int pricePrecision;
+	private double trendScale;
 
 	private TechCandle[] candles;
 
+	private RatingsWorkspace workspace;
+	private TechCandle[] cachedCandles;
+
 	private double[] sma;
 	private int[] smaTrend;
 	private double[] ema;
@@ -90,6 +95,7 @@ public class TechnicalRatings
 	public TechnicalRatings(int pricePrecision)
 	{
 		this.pricePrecision = pricePrecision;
+		this.trendScale = Math.pow(10, pricePrecision - 1);
 	}
 	
 	// ---- PROPERTIES -----------------------------------------------------------------
@@ -99,9 +105,18 @@ public class TechnicalRatings
 		return candles;
 	}
 
+	/**
+	 * Candles of the next 'withX' calls, the series cache is reloaded even if it is the same (refilled) array
+	 */
 	public void setCandles(TechCandle[] candles)
 	{
 		this.candles = candles;
+		this.cachedCandles = null;
+	}
+
+	public RatingsWorkspace getWorkspace()
+	{
+		return workspace;
 	}
 
 	public double[] getSma()
@@ -282,17 +297,29 @@ public class TechnicalRatings
 	// ---- Calc -----------------------------------------------------------------------
 
 	public void calculate(TechCandle[] candles) throws Exception
+	{
+		calculate(candles, workspace());
+	}
+
+	/**
+	 * Calculates the ratings with a caller supplied workspace, once the workspace is warmed
+	 * up with the same candle count the calculation does not allocate. The result arrays
+	 * (sma, ema, ...) are reused by the next calculation.
+	 */
+	public void calculate(TechCandle[] candles, RatingsWorkspace workspace) throws Exception
 	{
 		this.candles = candles;
+		this.workspace = workspace;
+		this.cachedCandles = null;
 
 		// ---- Trend ------------------------------------------------
 		startCalcMA();
 		// withSMA(13, 21, 34, 55, 89, 144, 233);
-		withSMA(10, 20, 30, 50, 100, 200);
+		withSMA(SMA_PERIODS);
 		// withEMA(13, 21, 34, 55, 89, 144, 233);
-		withEMA(10, 20, 30, 50, 100, 200);
-		withVWMA(20);
-		withHMA(20);
+		withEMA(EMA_PERIODS);
+		withVWMA(VWMA_PERIODS);
+		withHMA(HMA_PERIODS);
 		withIchimoku();
 		calcRatingMA();
 
@@ -317,16 +344,19 @@ public class TechnicalRatings
 
 	public TechnicalRatings withSMA(int... periods)
 	{
-		sma = new double[periods.length];
-		smaTrend = new int[periods.length];
+		if (sma == null || sma.length != periods.length)
+		{
+			sma = new double[periods.length];
+			smaTrend = new int[periods.length];
+		}
 
 		double closePrice = last(candles).getClosePrice();
 
 		// SMA
 		for (int i = 0; i < periods.length; i++)
 		{
-			IndicatorEntry[] smaEntries = SimpleMovingAverage.calculate(candles, periods[i]);
-			sma[i] = last(smaEntries).getValue();
+			checkLength(periods[i]);
+			sma[i] = cache().last(SeriesCache.CLOSE, Kind.SMA, periods[i]);
 			smaTrend[i] = calcMAvgTrend(sma[i], closePrice);
 
 			addRatingMA(smaTrend[i]);
@@ -337,16 +367,19 @@ public class TechnicalRatings
 
 	public TechnicalRatings withEMA(int... periods)
 	{
-		ema = new double[periods.length];
-		emaTrend = new int[periods.length];
+		if (ema == null || ema.length != periods.length)
+		{
+			ema = new double[periods.length];
+			emaTrend = new int[periods.length];
+		}
 		
 		double closePrice = last(candles).getClosePrice();
 
 		// EMA
 		for (int i = 0; i < periods.length; i++)
 		{
-			IndicatorEntry[] emaEntries = ExponentialMovingAverage.calculate(candles, periods[i]);
-			ema[i] = last(emaEntries).getValue();
+			checkLength(periods[i]);
+			ema[i] = cache().last(SeriesCache.CLOSE, Kind.EMA, periods[i]);
 			emaTrend[i] = calcMAvgTrend(ema[i], closePrice);
 			
 			addRatingMA(emaTrend[i]);
@@ -357,16 +390,24 @@ public class TechnicalRatings
 
 	public TechnicalRatings withVWMA(int... periods)
 	{
-		vwma = new double[periods.length];
-		vwmaTrend = new int[periods.length];
+		if (vwma == null || vwma.length != periods.length)
+		{
+			vwma = new double[periods.length];
+			vwmaTrend = new int[periods.length];
+		}
 
 		double closePrice = last(candles).getClosePrice();
 
 		// VWMA
 		for (int i = 0; i < periods.length; i++)
 		{
-			IndicatorEntry[] vwmaEntries = VWMovingAverage.calculate(candles, periods[i]);
-			vwma[i] = last(vwmaEntries).getValue();
+			checkLength(periods[i]);
+			VWMovingAverageStream stream = workspace().vwma(periods[i]);
+			for (int j = Tail.start(candles.length, 1, periods[i] - 1); j < candles.length; j++)
+			{
+				stream.update(candles[j]);
+			}
+			vwma[i] = stream.getValue();
 			vwmaTrend[i] = calcMAvgTrend(vwma[i], closePrice);
 
 			addRatingMA(vwmaTrend[i]);
@@ -377,16 +418,32 @@ public class TechnicalRatings
 
 	public TechnicalRatings withHMA(int... periods)
 	{
-		hma = new double[periods.length];
-		hmaTrend = new int[periods.length];
+		if (hma == null || hma.length != periods.length)
+		{
+			hma = new double[periods.length];
+			hmaTrend = new int[periods.length];
+		}
 
 		double closePrice = last(candles).getClosePrice();
 
 		// HMA
 		for (int i = 0; i < periods.length; i++)
 		{
-			IndicatorEntry[] vwmaEntries = HullMovingAverage.calculate(candles, periods[i]);
-			hma[i] = last(vwmaEntries).getValue();
+			int periodsHalf = periods[i] / 2;
+			int periodsSqrt = (int) Math.sqrt(periods[i]);
+			checkLength(periods[i] + periodsSqrt);
+
+			SeriesCache cache = cache();
+			double[] wmaHalf = cache.get(SeriesCache.CLOSE, Kind.WMA, periodsHalf);
+			double[] wmaFull = cache.get(SeriesCache.CLOSE, Kind.WMA, periods[i]);
+
+			double[] rawValues = cache.newColumn();
+			for (int j = periods[i] - 1; j < rawValues.length; j++)
+			{
+				rawValues[j] = (2 * wmaHalf[j]) - wmaFull[j];
+			}
+
+			hma[i] = cache.last(cache.addSource(rawValues), Kind.WMA, periodsSqrt);
 			hmaTrend[i] = calcMAvgTrend(hma[i], closePrice);
 
 			addRatingMA(hmaTrend[i]);
@@ -401,21 +458,26 @@ public class TechnicalRatings
 		double closePricePrev = prev1(candles).getClosePrice();
 
 		// ICHIMOKU
-		IchimokuEntry[] ichimokuEntries = Ichimoku.calculate(candles);
-		ichimokuBaseLine = last(ichimokuEntries).getBaseLine();
+		checkLength(52);
+		IchimokuStream ichimoku = workspace().ichimoku();
+		for (int i = Tail.start(candles.length, 1, 52); i < candles.length; i++)
+		{
+			ichimoku.update(candles[i]);
+		}
+		ichimokuBaseLine = ichimoku.getBaseLine();
 
 		if (ichimokuBaseLine > closePrice && 
-			last(ichimokuEntries).getConversionLine() < closePrice &&
-			last(ichimokuEntries).getConversionLine() > closePricePrev &&
-			last(ichimokuEntries).getLeadingSpanA() < closePrice && 
-			last(ichimokuEntries).getLeadingSpanA() > last(ichimokuEntries).getLeadingSpanB())
+			ichimoku.getConversionLine() < closePrice &&
+			ichimoku.getConversionLine() > closePricePrev &&
+			ichimoku.getLeadingSpanA() < closePrice && 
+			ichimoku.getLeadingSpanA() > ichimoku.getLeadingSpanB())
 		{
 			ichimokuTrend = UP_TREND;
 		} else if (ichimokuBaseLine < closePrice && 
-				 last(ichimokuEntries).getConversionLine() > closePrice && 
-				 last(ichimokuEntries).getConversionLine() < closePricePrev &&
-				 last(ichimokuEntries).getLeadingSpanA() > closePrice && 
-				 last(ichimokuEntries).getLeadingSpanA() < last(ichimokuEntries).getLeadingSpanB())
+				 ichimoku.getConversionLine() > closePrice && 
+				 ichimoku.getConversionLine() < closePricePrev &&
+				 ichimoku.getLeadingSpanA() > closePrice && 
+				 ichimoku.getLeadingSpanA() < ichimoku.getLeadingSpanB())
 		{
 			ichimokuTrend = UP_TREND;
 		} else {
@@ -426,12 +488,30 @@ public class TechnicalRatings
 		return this;	
 	}
 
+	/**
+	 * Compares both prices rounded (half up) to pricePrecision - 1 decimals, in scaled units
+	 */
 	private int calcMAvgTrend(double avgPrice, double closePrice)
 	{
-		BigDecimal close = BigDecimal.valueOf(closePrice).setScale(pricePrecision - 1, RoundingMode.HALF_UP);
-		BigDecimal price = BigDecimal.valueOf(avgPrice).setScale(pricePrecision - 1, RoundingMode.HALF_UP);
-		
-		return (price.doubleValue() < close.doubleValue()) ? UP_TREND : (price.doubleValue() > close.doubleValue()) ? DOWN_TREND : NEUTRAL;
+		long close = round(closePrice);
+		long price = round(avgPrice);
+
+		return (price < close) ? UP_TREND : (price > close) ? DOWN_TREND : NEUTRAL;
+	}
+
+	/**
+	 * Price scaled to pricePrecision - 1 decimals, same rounding as BigDecimal.valueOf(price).setScale(.., HALF_UP):
+	 * Math.round, unless the scaled price is a few ulps from a half (ties away from zero, decimal ties not exact in binary)
+	 */
+	private long round(double price)
+	{
+		double scaled = price * trendScale;
+		double fraction = Math.abs(scaled - Math.rint(scaled));
+		if (Math.abs(fraction - 0.5) > 4 * Math.ulp(scaled))
+		{
+			return Math.round(scaled);
+		}
+		return BigDecimal.valueOf(price).setScale(pricePrecision - 1, RoundingMode.HALF_UP).unscaledValue().longValue();
 	}
 
 	public TechnicalRatings startCalcMA()
@@ -475,11 +555,12 @@ public class TechnicalRatings
 	public TechnicalRatings withRSI(int periods)
 	{
 		// RSI
-		RsiEntry[] rsiEntries = RelativeStrengthIndex.calculate(candles, periods);
-		rsi = last(rsiEntries).getRsi();
-		if (rsi < 30 && prev1(rsiEntries).getRsi() < rsi)
+		checkLength(periods + 1);
+		double[] rsiValues = cache().get(SeriesCache.CLOSE, Kind.RSI, periods);
+		rsi = last(rsiValues);
+		if (rsi < 30 && prev1(rsiValues) < rsi)
 			rsiStatus = 1;
-		else if (rsi > 70 && prev1(rsiEntries).getRsi() > rsi)
+		else if (rsi > 70 && prev1(rsiValues) > rsi)
 			rsiStatus = -1;
 		else
 			rsiStatus = 0;
@@ -491,11 +572,21 @@ public class TechnicalRatings
 	public TechnicalRatings withStochastic(int periods, int smoothK, int smoothD)
 	{
 		// Stochastic
-		StochasticEntry[] stochEntries = Stochastic.calculate(candles, periods, smoothK, smoothD);
-		stoch = last(stochEntries).getD();
-		if (last(stochEntries).getK() < 20 && last(stochEntries).getD() < 20 && last(stochEntries).getK() > last(stochEntries).getD() && prev1(stochEntries).getK() < prev1(stochEntries).getD())
+		checkLength(periods);
+		StochasticStream stream = workspace().stochastic(periods, smoothK, smoothD);
+		double kPrev = Double.NaN;
+		double dPrev = Double.NaN;
+		for (int i = Tail.start(candles.length, 2, periods + smoothK + smoothD); i < candles.length; i++)
+		{
+			kPrev = stream.getK();
+			dPrev = stream.getD();
+			stream.update(candles[i]);
+		}
+		double k = stream.getK();
+		stoch = stream.getD();
+		if (k < 20 && stoch < 20 && k > stoch && kPrev < dPrev)
 			stochStatus = 1;
-		else if (last(stochEntries).getK() > 80 && last(stochEntries).getD() > 80 && last(stochEntries).getK() < last(stochEntries).getD() && prev1(stochEntries).getK() > prev1(stochEntries).getD())
+		else if (k > 80 && stoch > 80 && k < stoch && kPrev > dPrev)
 			stochStatus = -1;
 		else
 			stochStatus = 0;
@@ -507,11 +598,18 @@ public class TechnicalRatings
 	public TechnicalRatings withCCI(int periods)
 	{
 		// CCI
-		IndicatorEntry[] cciEntries = CommodityChannelIndex.calculate(candles, periods);
-		cci = last(cciEntries).getValue();
-		if (cci < -100 && cci > prev1(cciEntries).getValue())
+		checkLength(periods + 1);
+		CommodityChannelIndexStream stream = workspace().cci(periods);
+		double cciPrev = Double.NaN;
+		for (int i = Tail.start(candles.length, 2, periods); i < candles.length; i++)
+		{
+			cciPrev = stream.getValue();
+			stream.update(candles[i]);
+		}
+		cci = stream.getValue();
+		if (cci < -100 && cci > cciPrev)
 			cciStatus = 1;
-		else if (cci > 100 && cci < prev1(cciEntries).getValue())
+		else if (cci > 100 && cci < cciPrev)
 			cciStatus = -1;
 		else
 			cciStatus = 0;
@@ -523,11 +621,20 @@ public class TechnicalRatings
 	public TechnicalRatings withADX(int periods)
 	{
 		// ADX
-		AdxEntry[] adxEntries = AverageDirectionalIndex.calculate(candles, periods);
-		adx = last(adxEntries).getAdx();
-		if (adx > 20 && last(adxEntries).getPosDI() > last(adxEntries).getNegDI() && prev1(adxEntries).getPosDI() < prev1(adxEntries).getNegDI())
+		checkLength(periods + 1);
+		AverageDirectionalIndexStream stream = workspace().adx(periods);
+		double posDIPrev = Double.NaN;
+		double negDIPrev = Double.NaN;
+		for (TechCandle candle : candles)
+		{
+			posDIPrev = stream.getPosDI();
+			negDIPrev = stream.getNegDI();
+			stream.update(candle);
+		}
+		adx = stream.getValue();
+		if (adx > 20 && stream.getPosDI() > stream.getNegDI() && posDIPrev < negDIPrev)
 			adxStatus = 1;
-		else if (adx > 20 && last(adxEntries).getPosDI() < last(adxEntries).getNegDI() && prev1(adxEntries).getPosDI() > prev1(adxEntries).getNegDI())
+		else if (adx > 20 && stream.getPosDI() < stream.getNegDI() && posDIPrev > negDIPrev)
 			adxStatus = -1;
 		else
 			adxStatus = 0;
@@ -539,11 +646,15 @@ public class TechnicalRatings
 	public TechnicalRatings withAO()
 	{
 		// Awesome Oscillator
-		IndicatorEntry[] aoEntries = AwesomeOscillator.calculate(candles);
-		ao = last(aoEntries).getValue();
-		if (ao > 0 && prev1(aoEntries).getValue() > 0 && ao > prev1(aoEntries).getValue() && prev2(aoEntries).getValue() > prev1(aoEntries).getValue())
+		checkLength(34);
+		double[] smaFast = cache().get(SeriesCache.HL2, Kind.SMA, 5);
+		double[] smaSlow = cache().get(SeriesCache.HL2, Kind.SMA, 34);
+		ao = last(smaFast) - last(smaSlow);
+		double aoPrev1 = prev1(smaFast) - prev1(smaSlow);
+		double aoPrev2 = prev2(smaFast) - prev2(smaSlow);
+		if (ao > 0 && aoPrev1 > 0 && ao > aoPrev1 && aoPrev2 > aoPrev1)
 			aoStatus = 1;
-		else if (ao < 0 && prev1(aoEntries).getValue() < 0 && ao < prev1(aoEntries).getValue() && prev2(aoEntries).getValue() < prev1(aoEntries).getValue())
+		else if (ao < 0 && aoPrev1 < 0 && ao < aoPrev1 && aoPrev2 < aoPrev1)
 			aoStatus = -1;
 		else
 			aoStatus = 0;
@@ -555,9 +666,15 @@ public class TechnicalRatings
 	public TechnicalRatings withMomentum(int periods)
 	{
 		// Momentum
-		IndicatorEntry[] momEntries = Momentum.calculate(candles, periods);
-		mom = last(momEntries).getValue();
-		double momPrev = prev1(momEntries).getValue();
+		checkLength(periods + 1);
+		MomentumStream stream = workspace().momentum(periods);
+		double momPrev = Double.NaN;
+		for (int i = Tail.start(candles.length, 2, periods); i < candles.length; i++)
+		{
+			momPrev = stream.getValue();
+			stream.update(candles[i]);
+		}
+		mom = stream.getValue();
 		if (mom > 0 && momPrev > 0 && mom > momPrev )
 			momStatus = 1;
 		else if (mom < 0 && momPrev < 0 && mom < momPrev )
@@ -572,11 +689,27 @@ public class TechnicalRatings
 	public TechnicalRatings withMACD(int fastPeriods, int slowPeriods, int signalPeriods)
 	{
 		// MACD
-		MACDEntry[] macdEntries = MACD.calculate(candles, fastPeriods, slowPeriods, signalPeriods);
-		macd = last(macdEntries).getMacd();
-		if (macd > last(macdEntries).getSignal())
+		checkLength(slowPeriods + signalPeriods);
+		if (fastPeriods >= slowPeriods)
+		{
+			throw new IllegalArgumentException("'slowPeriods' must be greater than 'fastPeriods'");
+		}
+
+		SeriesCache cache = cache();
+		double[] emaFast = cache.get(SeriesCache.CLOSE, Kind.EMA, fastPeriods);
+		double[] emaSlow = cache.get(SeriesCache.CLOSE, Kind.EMA, slowPeriods);
+
+		double[] macdValues = cache.newColumn();
+		for (int i = slowPeriods - 1; i < macdValues.length; i++)
+		{
+			macdValues[i] = emaFast[i] - emaSlow[i];
+		}
+
+		macd = last(macdValues);
+		double signal = cache.last(cache.addSource(macdValues), Kind.EMA, signalPeriods);
+		if (macd > signal)
 			macdStatus = 1;
-		else if (macd < last(macdEntries).getSignal())
+		else if (macd < signal)
 			macdStatus = -1;
 		else
 			macdStatus = 0;
@@ -588,11 +721,20 @@ public class TechnicalRatings
 	public TechnicalRatings withStochasticRSI(int periodsRsi, int periodsStoch, int smoothK, int smoothD)
 	{
 		// Stochastic RSI
-		StochRsiEntry[] stochRsiEntries = StochasticRSI.calculate(candles, periodsRsi, periodsStoch, smoothK, smoothD);
-		stochRsi = last(stochRsiEntries).getD();
-		if (trend == DOWN_TREND && last(stochRsiEntries).getK() < 20 && last(stochRsiEntries).getD() < 20 && last(stochRsiEntries).getK() > last(stochRsiEntries).getD() && prev1(stochRsiEntries).getK() < prev1(stochRsiEntries).getD())
+		checkLength(periodsRsi + periodsStoch);
+		SeriesCache cache = cache();
+		double[] rsiValues = cache.get(SeriesCache.CLOSE, Kind.RSI, periodsRsi);
+		double[] k1Values = cache.newColumn();
+		double[] kValues = cache.newColumn();
+		double[] dValues = cache.newColumn();
+		SlidingWindowExtremum maxRsi = workspace().maxRsi(periodsStoch);
+		SlidingWindowExtremum minRsi = workspace().minRsi(periodsStoch);
+		calcStochasticRSI(rsiValues, periodsRsi, periodsStoch, smoothK, smoothD, maxRsi, minRsi, k1Values, kValues, dValues);
+
+		stochRsi = last(dValues);
+		if (trend == DOWN_TREND && last(kValues) < 20 && last(dValues) < 20 && last(kValues) > last(dValues) && prev1(kValues) < prev1(dValues))
 			stochRsiStatus = 1;
-		else if (trend == UP_TREND && last(stochRsiEntries).getK() > 80 && last(stochRsiEntries).getD() > 80 && last(stochRsiEntries).getK() < last(stochRsiEntries).getD() && prev1(stochRsiEntries).getK() > prev1(stochRsiEntries).getD())
+		else if (trend == UP_TREND && last(kValues) > 80 && last(dValues) > 80 && last(kValues) < last(dValues) && prev1(kValues) > prev1(dValues))
 			stochRsiStatus = -1;
 		else
 			stochRsiStatus = 0;
@@ -604,11 +746,18 @@ public class TechnicalRatings
 	public TechnicalRatings withWilliamsR(int periods)
 	{
 		// Williams R
-		WilliamsREntry[] williamsREntries = WilliamsR.calculate(candles);
-		williamsR = last(williamsREntries).getR();
-		if (williamsR < -80 && williamsR > prev1(williamsREntries).getR())
+		checkLength(periods);
+		WilliamsRStream stream = workspace().williamsR(periods);
+		double williamsRPrev = Double.NaN;
+		for (int i = Tail.start(candles.length, 2, periods); i < candles.length; i++)
+		{
+			williamsRPrev = stream.getValue();
+			stream.update(candles[i]);
+		}
+		williamsR = stream.getValue();
+		if (williamsR < -80 && williamsR > williamsRPrev)
 			williamsRStatus = 1;
-		else if (williamsR > -20 && williamsR < prev1(williamsREntries).getR())
+		else if (williamsR > -20 && williamsR < williamsRPrev)
 			williamsRStatus = -1;
 		else
 			williamsRStatus = 0;
@@ -620,11 +769,13 @@ public class TechnicalRatings
 	public TechnicalRatings withBullBearPower()
 	{
 		// Bull Bear Power
-		IndicatorEntry[] bbpEntries = BullBearPower.calculate(candles, 13);
-		bbp = last(bbpEntries).getValue();
-		if (trend == UP_TREND && bbp < 0 && bbp > prev1(bbpEntries).getValue())
+		checkLength(13);
+		double[] emaValues = cache().get(SeriesCache.CLOSE, Kind.EMA, 13);
+		bbp = calcBullBearPower(last(candles), last(emaValues));
+		double bbpPrev = calcBullBearPower(prev1(candles), prev1(emaValues));
+		if (trend == UP_TREND && bbp < 0 && bbp > bbpPrev)
 			bbpStatus = 1;
-		else if (trend == DOWN_TREND && bbp > 0 && bbp < prev1(bbpEntries).getValue())
+		else if (trend == DOWN_TREND && bbp > 0 && bbp < bbpPrev)
 			bbpStatus = -1;
 		else
 			bbpStatus = 0;
@@ -636,8 +787,13 @@ public class TechnicalRatings
 	public TechnicalRatings withUO(int periods1, int periods2, int periods3)
 	{
 		// UO
-		IndicatorEntry[] uoEntries = UltimateOscillator.calculate(candles, periods1, periods2, periods3);
-		uo = last(uoEntries).getValue();
+		checkLength(periods3);
+		UltimateOscillatorStream stream = workspace().uo(periods1, periods2, periods3);
+		for (int i = Tail.start(candles.length, 1, Math.max(periods1, Math.max(periods2, periods3))); i < candles.length; i++)
+		{
+			stream.update(candles[i]);
+		}
+		uo = stream.getValue();
 		if (uo > 70)
 			uoStatus = 1;
 		else if (uo < 30)
@@ -679,6 +835,83 @@ public class TechnicalRatings
 			oscRatingStatus = RatingStatus.NEUTRAL;
 	}
 
+	private static double calcBullBearPower(TechCandle candle, double ema)
+	{
+		double bullPower = candle.getHighPrice() - ema;
+		double bearPower = candle.getLowPrice() - ema;
+		return bullPower + bearPower;
+	}
+
+	/**
+	 * Same as StochasticRSI.calculate, on the shared RSI series
+	 */
+	private static void calcStochasticRSI(double[] rsiValues, int periodsRsi, int periodsStoch, int smoothK, int smoothD,
+			SlidingWindowExtremum maxRsi, SlidingWindowExtremum minRsi, double[] k1Values, double[] kValues, double[] dValues)
+	{
+		int start = periodsRsi + periodsStoch - 1;
+		for (int i = periodsRsi; i < rsiValues.length; i++)
+		{
+			maxRsi.add(rsiValues[i]);
+			minRsi.add(rsiValues[i]);
+
+			if (i < start)
+			{
+				continue;
+			}
+
+			k1Values[i] = 100 * (rsiValues[i] - minRsi.get()) / (maxRsi.get() - minRsi.get());
+			kValues[i] = avg(k1Values, start, i, smoothK);
+			dValues[i] = avg(kValues, start, i, smoothD);
+		}
+	}
+
+	/**
+	 * Average of the last values up to 'index', partial when the series starts later
+	 */
+	private static double avg(double[] values, int start, int index, int periods)
+	{
+		double sum = 0;
+		int count = 0;
+
+		for (int i = index; i > index - periods && i >= start; i--)
+		{
+			sum += values[i];
+			count++;
+		}
+
+		return sum / count;
+	}
+
+	// ---------------------------------------------------------------------------------
+
+	private RatingsWorkspace workspace()
+	{
+		if (workspace == null)
+		{
+			workspace = new RatingsWorkspace();
+		}
+		return workspace;
+	}
+
+	private SeriesCache cache()
+	{
+		SeriesCache seriesCache = workspace().getSeriesCache();
+		if (cachedCandles != candles)
+		{
+			seriesCache.load(candles);
+			cachedCandles = candles;
+		}
+		return seriesCache;
+	}
+
+	private void checkLength(int minLength)
+	{
+		if (candles.length < minLength)
+		{
+			throw new IllegalArgumentException(Labels.NOT_ENOUGH_VALUES);
+		}
+	}
+
 	// ---------------------------------------------------------------------------------
 	
 	private static <T> T last(T[] t)
@@ -691,7 +924,17 @@ public class TechnicalRatings
 		return t[t.length - 2];
 	}
 
-	private static <T> T prev2(T[] t)
+	private static double last(double[] t)
+	{
+		return t[t.length - 1];
+	}
+
+	private static double prev1(double[] t)
+	{
+		return t[t.length - 2];
+	}
+
+	private static double prev2(double[] t)
 	{
 		return t[t.length - 3];
 	}
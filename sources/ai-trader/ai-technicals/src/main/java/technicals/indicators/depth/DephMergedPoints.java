@@ -49,42 +49,49 @@ public class DephMergedPoints
 	}
 
 	public DephMergedPoints calculate(DepthBlockPoints depthBlockPoints, DepthWeightedPoints depthWeightedPoints, MergeMode mode)
+	{
+		return calculate(depthBlockPoints.getR1(), depthBlockPoints.getS1(), depthBlockPoints.getR2(), depthBlockPoints.getS2(),
+				depthWeightedPoints.getR1(), depthWeightedPoints.getS1(), depthWeightedPoints.getR2(), depthWeightedPoints.getS2(), mode);
+	}
+
+	public DephMergedPoints calculate(BigDecimal bbR1, BigDecimal bbS1, BigDecimal bbR2, BigDecimal bbS2,
+			BigDecimal waR1, BigDecimal waS1, BigDecimal waR2, BigDecimal waS2, MergeMode mode)
 	{
 		if (mode == MergeMode.BB)
 		{
-			r2 = depthBlockPoints.getR2();
-			r1 = depthBlockPoints.getR1();
-			s1 = depthBlockPoints.getS1();
-			s2 = depthBlockPoints.getS2();
+			r2 = bbR2;
+			r1 = bbR1;
+			s1 = bbS1;
+			s2 = bbS2;
 		}
 		else if (mode == MergeMode.WA)
 		{
-			r2 = depthWeightedPoints.getR2();
-			r1 = depthWeightedPoints.getR1();
-			s1 = depthWeightedPoints.getS1();
-			s2 = depthWeightedPoints.getS2();
+			r2 = waR2;
+			r1 = waR1;
+			s1 = waS1;
+			s2 = waS2;
 		}
 		else if (mode == MergeMode.MAX)
 		{
-			if (depthWeightedPoints.getR1() != null && depthWeightedPoints.getR1().doubleValue() > depthBlockPoints.getR1().doubleValue())
-				r1 = depthWeightedPoints.getR1();
+			if (waR1 != null && waR1.doubleValue() > bbR1.doubleValue())
+				r1 = waR1;
 			else
-				r1 = depthBlockPoints.getR1();
+				r1 = bbR1;
 
-			if (depthWeightedPoints.getS1() != null && depthWeightedPoints.getS1().doubleValue() < depthBlockPoints.getS1().doubleValue())
-				s1 = depthWeightedPoints.getS1();
+			if (waS1 != null && waS1.doubleValue() < bbS1.doubleValue())
+				s1 = waS1;
 			else
-				s1 = depthBlockPoints.getS1();
+				s1 = bbS1;
 
-			if (depthWeightedPoints.getR2() != null && depthWeightedPoints.getR2().doubleValue() > depthBlockPoints.getR2().doubleValue())
-				r2 = depthWeightedPoints.getR2();
+			if (waR2 != null && waR2.doubleValue() > bbR2.doubleValue())
+				r2 = waR2;
 			else
-				r2 = depthBlockPoints.getR2();
+				r2 = bbR2;
 
-			if (depthWeightedPoints.getS2() != null && depthWeightedPoints.getS2().doubleValue() < depthBlockPoints.getS2().doubleValue())
-				s2 = depthWeightedPoints.getS2();
+			if (waS2 != null && waS2.doubleValue() < bbS2.doubleValue())
+				s2 = waS2;
 			else
-				s2 = depthBlockPoints.getS2();
+				s2 = bbS2;
 		}
 		else if (mode == MergeMode.MIN)
 		{
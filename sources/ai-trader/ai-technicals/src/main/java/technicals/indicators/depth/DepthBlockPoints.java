@@ -118,7 +118,7 @@ public class DepthBlockPoints
 		return this;
 	}
 
-	private static BigDecimal getBlockSize(BigDecimal price, BigDecimal size)
+	static BigDecimal getBlockSize(BigDecimal price, BigDecimal size)
 	{
 		if (price.doubleValue() < 0.0001)
 			return BigDecimal.valueOf(0.0000001).multiply(size);
@@ -142,7 +142,7 @@ public class DepthBlockPoints
 			return BigDecimal.valueOf(100).multiply(size);
 	}
 
-	private static BigDecimal roundNearest(BigDecimal price, BigDecimal blockSize)
+	static BigDecimal roundNearest(BigDecimal price, BigDecimal blockSize)
 	{
 		double _blockSize = blockSize.doubleValue();
 		if (_blockSize < 1)
@@ -0,0 +1,522 @@
+package technicals.indicators.depth;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import technicals.model.BookSnapshot;
+import technicals.model.TickSize;
+
+/**
+ * DepthDelta, DepthMiddlePrice and DepthTrueRange kept up to date from the depth diffs, for a set of
+ * percentage bands around the middle price, plus depth histograms and the rate of change of the delta.
+ *
+ * Each side keeps the quantity, quote (price x qty) and price x quote of its levels in Fenwick trees
+ * (prefix sums) over price buckets of a window around the middle price: a diff costs O(log buckets)
+ * per changed level and a band is two prefix sums. When the middle price moves too far the window
+ * must be rebuilt from a snapshot ('commit' returns false), which is rare.
+ *
+ * With one tick per bucket (the window fits in 'resolution' buckets) the values are the same as the
+ * OrderBook indicators; otherwise the bands are rounded to whole buckets. Levels outside the window
+ * are not counted until the next rebuild, the window always covers the largest band.
+ *
+ * Not thread safe, the owner must synchronize the writer and the readers.
+ */
+public class DepthDeltaStream
+{
+	private final TickSize tickSize;
+	private final int resolution;
+	private final long rocWindowMillis;
+	private final double[] bands;
+	private final double maxBand;
+
+	// ---- window ----
+	private boolean loaded;
+	private long base;        // ticks of the first bucket
+	private long bucketTicks;
+	private int buckets;
+	private final Side asks = new Side();
+	private final Side bids = new Side();
+
+	// ---- last commit ----
+	private double middlePrice = Double.NaN;
+	private long time;
+	private final double[] askQty;
+	private final double[] askQuoted;
+	private final double[] askQuotedProd;
+	private final double[] bidQty;
+	private final double[] bidQuoted;
+	private final double[] bidQuotedProd;
+
+	// ---- delta percent samples for the rate of change (ring) ----
+	private long[] sampleTimes = new long[256];
+	private double[] sampleDeltas;
+	private int sampleFirst;
+	private int sampleCount;
+
+	/**
+	 * @param tickSize			price tick of the symbol
+	 * @param resolution		max buckets per side (memory: 48 bytes per bucket)
+	 * @param rocWindowMillis	period of the delta rate of change
+	 * @param bands				distances from the middle price (0.01 = 1%)
+	 */
+	public DepthDeltaStream(BigDecimal tickSize, int resolution, long rocWindowMillis, double... bands)
+	{
+		if (bands.length == 0)
+		{
+			throw new IllegalArgumentException("At least one band is required");
+		}
+		if (resolution < 1)
+		{
+			throw new IllegalArgumentException("'resolution' must be greater than zero");
+		}
+		for (double band : bands)
+		{
+			if (band <= 0 || band >= 1)
+			{
+				throw new IllegalArgumentException("Bands must be between 0 and 1: " + band);
+			}
+		}
+
+		this.tickSize = new TickSize(tickSize);
+		this.resolution = resolution;
+		this.rocWindowMillis = rocWindowMillis;
+		this.bands = bands.clone();
+		this.maxBand = Arrays.stream(bands).max().getAsDouble();
+
+		askQty = new double[bands.length];
+		askQuoted = new double[bands.length];
+		askQuotedProd = new double[bands.length];
+		bidQty = new double[bands.length];
+		bidQuoted = new double[bands.length];
+		bidQuotedProd = new double[bands.length];
+		sampleDeltas = new double[sampleTimes.length * bands.length];
+	}
+
+	public int getBands()
+	{
+		return bands.length;
+	}
+
+	public double getBand(int band)
+	{
+		return bands[band];
+	}
+
+	public boolean isLoaded()
+	{
+		return loaded;
+	}
+
+	// ---- UPDATE ------------------------------------------------------------
+
+	/**
+	 * Rebuilds the window around the middle price of the snapshot and calculates the bands
+	 */
+	public void load(BookSnapshot snapshot, long time)
+	{
+		if (snapshot.getAskLevels() == 0 || snapshot.getBidLevels() == 0)
+		{
+			loaded = false;
+			return;
+		}
+
+		double pp = (snapshot.getBestAsk() + snapshot.getBestBid()) / 2;
+		double margin = maxBand / 2;
+		long low = tickSize.toTicks(pp * (1 - maxBand - margin));
+		long high = tickSize.toTicks(pp * (1 + maxBand + margin));
+
+		base = low;
+		bucketTicks = Math.max(1, (high - low + resolution) / resolution);
+		buckets = (int) ((high - low) / bucketTicks) + 1;
+		asks.reset(buckets);
+		bids.reset(buckets);
+
+		for (int i = 0; i < snapshot.getAskLevels(); i++)
+		{
+			asks.set(bucket(snapshot.getAskTicks(i)), snapshot.getAskPrice(i), snapshot.getAskQty(i));
+		}
+		for (int i = 0; i < snapshot.getBidLevels(); i++)
+		{
+			bids.set(bucket(snapshot.getBidTicks(i)), snapshot.getBidPrice(i), snapshot.getBidQty(i));
+		}
+		asks.build();
+		bids.build();
+		loaded = true;
+
+		calculate(snapshot.getAskTicks(0), snapshot.getBidTicks(0), time);
+	}
+
+	/**
+	 * Quantity of a level changed from 'previousQty' to 'qty' (see TickOrderBook.updateTicks)
+	 */
+	public void update(boolean bid, long ticks, double previousQty, double qty)
+	{
+		if (!loaded || qty == previousQty)
+		{
+			return;
+		}
+		int bucket = bucket(ticks);
+		if (bucket >= 0)
+		{
+			(bid ? bids : asks).add(bucket, tickSize.toPrice(ticks), qty - previousQty);
+		}
+	}
+
+	/**
+	 * Calculates the bands after the updates of an event. False if the middle price has moved out of
+	 * the window (or nothing is loaded): the owner must call 'load' with a snapshot of the book
+	 */
+	public boolean commit(long bestAskTicks, long bestBidTicks, long time)
+	{
+		if (!loaded)
+		{
+			return false;
+		}
+		if (bestAskTicks < 0 || bestBidTicks < 0)
+		{
+			return true;
+		}
+
+		double pp = (tickSize.toPrice(bestAskTicks) + tickSize.toPrice(bestBidTicks)) / 2;
+		if (bucket(tickSize.toTicks(pp * (1 - maxBand)) - 1) < 0 || bucket(tickSize.toTicks(pp * (1 + maxBand)) + 1) < 0)
+		{
+			loaded = false;
+			return false;
+		}
+
+		calculate(bestAskTicks, bestBidTicks, time);
+		return true;
+	}
+
+	private void calculate(long bestAskTicks, long bestBidTicks, long time)
+	{
+		double pp = (tickSize.toPrice(bestAskTicks) + tickSize.toPrice(bestBidTicks)) / 2;
+		this.middlePrice = pp;
+		this.time = time;
+
+		for (int b = 0; b < bands.length; b++)
+		{
+			// asks: price <= pp * (1 + distance), bids: price >= pp * (1 - distance)
+			int askTo = bucket(maxTicks(pp * (1 + bands[b])));
+			int bidFrom = bucket(minTicks(pp * (1 - bands[b])));
+
+			askQty[b] = asks.qty.sum(askTo);
+			askQuoted[b] = asks.quoted.sum(askTo);
+			askQuotedProd[b] = asks.quotedProd.sum(askTo);
+			bidQty[b] = bids.qty.sum(buckets - 1) - bids.qty.sum(bidFrom - 1);
+			bidQuoted[b] = bids.quoted.sum(buckets - 1) - bids.quoted.sum(bidFrom - 1);
+			bidQuotedProd[b] = bids.quotedProd.sum(buckets - 1) - bids.quotedProd.sum(bidFrom - 1);
+		}
+
+		addSample(time);
+	}
+
+	// ---- DELTA -------------------------------------------------------------
+
+	public double getMiddlePrice()
+	{
+		return middlePrice;
+	}
+
+	public long getTime()
+	{
+		return time;
+	}
+
+	public double getAskSumQty(int band)
+	{
+		return askQty[band];
+	}
+
+	public double getAskSumQuoted(int band)
+	{
+		return askQuoted[band];
+	}
+
+	public double getBidSumQty(int band)
+	{
+		return bidQty[band];
+	}
+
+	public double getBidSumQuoted(int band)
+	{
+		return bidQuoted[band];
+	}
+
+	public double getDelta(int band)
+	{
+		return askQty[band] - bidQty[band];
+	}
+
+	public double getDeltaPercent(int band)
+	{
+		return ((bidQty[band] - askQty[band]) / (askQty[band] + bidQty[band])) * 100;
+	}
+
+	public double getDeltaQuoted(int band)
+	{
+		return askQuoted[band] - bidQuoted[band];
+	}
+
+	public double getDeltaQuotedPercent(int band)
+	{
+		return ((bidQuoted[band] - askQuoted[band]) / (askQuoted[band] + bidQuoted[band])) * 100;
+	}
+
+	/**
+	 * Change of 'getDeltaPercent' per second over the last 'rocWindowMillis', NaN without an older sample
+	 */
+	public double getDeltaRateOfChange(int band)
+	{
+		if (sampleCount < 2)
+		{
+			return Double.NaN;
+		}
+		int first = sampleFirst;
+		int last = (sampleFirst + sampleCount - 1) & (sampleTimes.length - 1);
+		long elapsed = sampleTimes[last] - sampleTimes[first];
+		if (elapsed <= 0)
+		{
+			return Double.NaN;
+		}
+		double change = sampleDeltas[last * bands.length + band] - sampleDeltas[first * bands.length + band];
+		return change * 1000 / elapsed;
+	}
+
+	// ---- MIDDLE PRICE / TRUE RANGE -----------------------------------------
+
+	/**
+	 * Same as DepthMiddlePrice.calculate(distance, quoted) (not rounded)
+	 */
+	public double getDepthMiddlePrice(int band, boolean quoted)
+	{
+		if (quoted)
+		{
+			return (askQuotedProd[band] + bidQuotedProd[band]) / (askQuoted[band] + bidQuoted[band]);
+		}
+		return (askQuoted[band] + bidQuoted[band]) / (askQty[band] + bidQty[band]);
+	}
+
+	/**
+	 * Same as DepthTrueRange.calculate(distance, inPercentage) (not rounded)
+	 */
+	public double getDepthTrueRange(int band, boolean inPercentage)
+	{
+		double awa = askQuoted[band] / askQty[band];
+		double awb = bidQuoted[band] / bidQty[band];
+		return inPercentage ? ((awa / awb) - 1) * 100 : awa - awb;
+	}
+
+	// ---- HISTOGRAM ---------------------------------------------------------
+
+	/**
+	 * Quantity (or quote) of the asks in consecutive slices of 'step' above the middle price:
+	 * qtys[i] = levels in (pp * (1 + i * step), pp * (1 + (i + 1) * step)], the first slice from pp.
+	 * Slices beyond the largest band are clipped to the window.
+	 */
+	public void getAskHistogram(double step, boolean quoted, double[] qtys)
+	{
+		Fenwick tree = quoted ? asks.quoted : asks.qty;
+		double prev = 0;
+		for (int i = 0; i < qtys.length; i++)
+		{
+			int to = bucket(maxTicks(middlePrice * (1 + (i + 1) * step)));
+			double sum = tree.sum(to < 0 ? buckets - 1 : to);
+			qtys[i] = sum - prev;
+			prev = sum;
+		}
+	}
+
+	/**
+	 * Quantity (or quote) of the bids in consecutive slices of 'step' below the middle price:
+	 * qtys[i] = levels in [pp * (1 - (i + 1) * step), pp * (1 - i * step)), the first slice up to pp.
+	 */
+	public void getBidHistogram(double step, boolean quoted, double[] qtys)
+	{
+		Fenwick tree = quoted ? bids.quoted : bids.qty;
+		double total = tree.sum(buckets - 1);
+		double prev = 0;
+		for (int i = 0; i < qtys.length; i++)
+		{
+			int from = bucket(minTicks(middlePrice * (1 - (i + 1) * step)));
+			double sum = total - tree.sum((from < 0 ? 0 : from) - 1);
+			qtys[i] = sum - prev;
+			prev = sum;
+		}
+	}
+
+	// ---- WINDOW ------------------------------------------------------------
+
+	// bucket of the ticks, -1 outside the window
+	private int bucket(long ticks)
+	{
+		long offset = ticks - base;
+		if (offset < 0)
+		{
+			return -1;
+		}
+		long bucket = offset / bucketTicks;
+		return bucket < buckets ? (int) bucket : -1;
+	}
+
+	// largest ticks with price <= maxPrice (prices compared as in the OrderBook indicators)
+	private long maxTicks(double maxPrice)
+	{
+		long ticks = tickSize.toTicks(maxPrice);
+		while (tickSize.toPrice(ticks) > maxPrice)
+		{
+			ticks--;
+		}
+		while (tickSize.toPrice(ticks + 1) <= maxPrice)
+		{
+			ticks++;
+		}
+		return ticks;
+	}
+
+	// smallest ticks with price >= minPrice
+	private long minTicks(double minPrice)
+	{
+		long ticks = tickSize.toTicks(minPrice);
+		while (tickSize.toPrice(ticks) < minPrice)
+		{
+			ticks++;
+		}
+		while (tickSize.toPrice(ticks - 1) >= minPrice)
+		{
+			ticks--;
+		}
+		return ticks;
+	}
+
+	private void addSample(long time)
+	{
+		int mask = sampleTimes.length - 1;
+
+		// keep the newest sample at or before the start of the window as the reference
+		while (sampleCount > 1 && sampleTimes[(sampleFirst + 1) & mask] <= time - rocWindowMillis)
+		{
+			sampleFirst = (sampleFirst + 1) & mask;
+			sampleCount--;
+		}
+
+		if (sampleCount == sampleTimes.length)
+		{
+			long[] times = new long[2 * sampleTimes.length];
+			double[] deltas = new double[times.length * bands.length];
+			for (int i = 0; i < sampleCount; i++)
+			{
+				int j = (sampleFirst + i) & mask;
+				times[i] = sampleTimes[j];
+				System.arraycopy(sampleDeltas, j * bands.length, deltas, i * bands.length, bands.length);
+			}
+			sampleTimes = times;
+			sampleDeltas = deltas;
+			sampleFirst = 0;
+			mask = sampleTimes.length - 1;
+		}
+
+		int last = (sampleFirst + sampleCount) & mask;
+		sampleTimes[last] = time;
+		for (int b = 0; b < bands.length; b++)
+		{
+			sampleDeltas[last * bands.length + b] = getDeltaPercent(b);
+		}
+		sampleCount++;
+	}
+
+	// ---- SIDE --------------------------------------------------------------
+
+	private static final class Side
+	{
+		private final Fenwick qty = new Fenwick();
+		private final Fenwick quoted = new Fenwick();
+		private final Fenwick quotedProd = new Fenwick();
+
+		private void reset(int size)
+		{
+			qty.reset(size);
+			quoted.reset(size);
+			quotedProd.reset(size);
+		}
+
+		// loading: point values, then 'build'
+		private void set(int bucket, double price, double levelQty)
+		{
+			if (bucket >= 0)
+			{
+				qty.tree[bucket + 1] += levelQty;
+				quoted.tree[bucket + 1] += price * levelQty;
+				quotedProd.tree[bucket + 1] += price * price * levelQty;
+			}
+		}
+
+		private void build()
+		{
+			qty.build();
+			quoted.build();
+			quotedProd.build();
+		}
+
+		private void add(int bucket, double price, double deltaQty)
+		{
+			qty.add(bucket, deltaQty);
+			quoted.add(bucket, price * deltaQty);
+			quotedProd.add(bucket, price * price * deltaQty);
+		}
+	}
+
+	/**
+	 * Binary indexed tree of sums, 1-based
+	 */
+	private static final class Fenwick
+	{
+		private double[] tree = new double[1];
+		private int size;
+
+		private void reset(int size)
+		{
+			if (tree.length < size + 1)
+			{
+				tree = new double[size + 1];
+			}
+			else
+			{
+				Arrays.fill(tree, 0, size + 1, 0);
+			}
+			this.size = size;
+		}
+
+		private void build()
+		{
+			for (int i = 1; i <= size; i++)
+			{
+				int parent = i + (i & -i);
+				if (parent <= size)
+				{
+					tree[parent] += tree[i];
+				}
+			}
+		}
+
+		private void add(int index, double value)
+		{
+			for (int i = index + 1; i <= size; i += i & -i)
+			{
+				tree[i] += value;
+			}
+		}
+
+		// sum of [0, index], 0 if index < 0
+		private double sum(int index)
+		{
+			double sum = 0;
+			for (int i = Math.min(index, size - 1) + 1; i > 0; i -= i & -i)
+			{
+				sum += tree[i];
+			}
+			return sum;
+		}
+	}
+
+}
@@ -0,0 +1,416 @@
+package technicals.indicators.depth;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+import technicals.indicators.depth.DephMergedPoints.MergeMode;
+import technicals.model.BookSnapshot;
+import technicals.model.OrderBook;
+
+/**
+ * DepthBlockPoints, DepthWeightedPoints and DephMergedPoints in a single pass over each side.
+ *
+ * The weighted points are the running sums (prefix sums) of quantity and notional taken at
+ * each distance, the block points group the levels on the fly for both block sizes and keep
+ * the largest block inside the range. Prices are compared as exact integers (ticks scaled to
+ * the block size decimals) and the pass stops as soon as every range has been covered.
+ *
+ * Results are the same as the separate classes: the weighted points are bit for bit equal
+ * (same summation order), the block prices are equal unless two candidate blocks have
+ * quantities within double rounding of each other (the classes sum them in BigDecimal).
+ * Points without levels in their range are null.
+ */
+public class DepthPoints
+{
+	private BigDecimal blockSize1;
+	private BigDecimal blockSize2;
+
+	private BigDecimal blockR1;
+	private BigDecimal blockS1;
+	private BigDecimal blockR2;
+	private BigDecimal blockS2;
+
+	private BigDecimal weightedR1;
+	private BigDecimal weightedS1;
+	private BigDecimal weightedR2;
+	private BigDecimal weightedS2;
+	private BigDecimal weightedR3;
+	private BigDecimal weightedS3;
+
+	private BigDecimal r1;
+	private BigDecimal s1;
+	private BigDecimal r2;
+	private BigDecimal s2;
+
+	// reused between calls
+	private final Blocks blocks1 = new Blocks();
+	private final Blocks blocks2 = new Blocks();
+	private final double[] cutoffs = new double[3];
+	private final double[] averages = new double[3];
+	private final boolean[] resolved = new boolean[3];
+
+	public BigDecimal getBlockSize1()
+	{
+		return blockSize1;
+	}
+
+	public BigDecimal getBlockSize2()
+	{
+		return blockSize2;
+	}
+
+	public BigDecimal getBlockR1()
+	{
+		return blockR1;
+	}
+
+	public BigDecimal getBlockS1()
+	{
+		return blockS1;
+	}
+
+	public BigDecimal getBlockR2()
+	{
+		return blockR2;
+	}
+
+	public BigDecimal getBlockS2()
+	{
+		return blockS2;
+	}
+
+	public BigDecimal getWeightedR1()
+	{
+		return weightedR1;
+	}
+
+	public BigDecimal getWeightedS1()
+	{
+		return weightedS1;
+	}
+
+	public BigDecimal getWeightedR2()
+	{
+		return weightedR2;
+	}
+
+	public BigDecimal getWeightedS2()
+	{
+		return weightedS2;
+	}
+
+	public BigDecimal getWeightedR3()
+	{
+		return weightedR3;
+	}
+
+	public BigDecimal getWeightedS3()
+	{
+		return weightedS3;
+	}
+
+	/**
+	 * Merged resistance 1
+	 */
+	public BigDecimal getR1()
+	{
+		return r1;
+	}
+
+	public BigDecimal getS1()
+	{
+		return s1;
+	}
+
+	public BigDecimal getR2()
+	{
+		return r2;
+	}
+
+	public BigDecimal getS2()
+	{
+		return s2;
+	}
+
+	public DepthPoints calculate(OrderBook orderBook, int blocks, double distance1, double distance2, double distance3, MergeMode mode)
+	{
+		return calculate(BookSnapshot.of(orderBook), orderBook.getPricePrecision(), blocks, distance1, distance2, distance3, mode);
+	}
+
+	public DepthPoints calculate(BookSnapshot book, int pricePrecision, int blocks, double distance1, double distance2, double distance3, MergeMode mode)
+	{
+		if (book.getAskLevels() == 0 || book.getBidLevels() == 0)
+		{
+			throw new IllegalArgumentException("Empty order book");
+		}
+
+		double pp = (book.getBestAsk() + book.getBestBid()) / 2;
+		BigDecimal ppDecimal = BigDecimal.valueOf(pp);
+
+		// ---- Ranges (same as DepthBlockPoints) ------------------------------
+		blockSize1 = DepthBlockPoints.getBlockSize(ppDecimal, BigDecimal.valueOf(1));
+		blockSize2 = DepthBlockPoints.getBlockSize(ppDecimal, BigDecimal.valueOf(10));
+
+		BigDecimal askPriceFrom1 = DepthBlockPoints.roundNearest(ppDecimal, blockSize1);
+		BigDecimal bidPriceFrom1 = askPriceFrom1.add(blockSize1);
+		BigDecimal askPriceFrom2 = DepthBlockPoints.roundNearest(ppDecimal, blockSize2);
+		BigDecimal bidPriceFrom2 = askPriceFrom2.add(blockSize2);
+
+		// exact integer prices: units of 10^-scale
+		BigDecimal tickSize = book.getTickSize();
+		int scale = Math.max(0, tickSize.stripTrailingZeros().scale());
+		scale = Math.max(scale, blockSize1.stripTrailingZeros().scale());
+		scale = Math.max(scale, askPriceFrom1.stripTrailingZeros().scale());
+		scale = Math.max(scale, askPriceFrom2.stripTrailingZeros().scale());
+		long unitsPerTick = units(tickSize, scale);
+
+		long size1 = units(blockSize1, scale);
+		long size2 = units(blockSize2, scale);
+		long askFrom1 = units(askPriceFrom1, scale);
+		long askFrom2 = units(askPriceFrom2, scale);
+		long bidFrom1 = units(bidPriceFrom1, scale);
+		long bidFrom2 = units(bidPriceFrom2, scale);
+
+		// ---- Asks -----------------------------------------------------------
+		blocks1.start(false, size1, askFrom1, askFrom1 + size1 * blocks);
+		blocks2.start(false, size2, askFrom2, askFrom2 + size2 * blocks);
+		cutoffs[0] = pp * (1 + distance1);
+		cutoffs[1] = pp * (1 + distance2);
+		cutoffs[2] = pp * (1 + distance3);
+		scanAsks(book, pp, unitsPerTick);
+
+		blockR1 = blocks1.getPrice(tickSize);
+		blockR2 = blocks2.getPrice(tickSize);
+		weightedR1 = toPrice(averages[0], pricePrecision);
+		weightedR2 = toPrice(averages[1], pricePrecision);
+		weightedR3 = toPrice(averages[2], pricePrecision);
+
+		// ---- Bids -----------------------------------------------------------
+		blocks1.start(true, size1, bidFrom1, bidFrom1 - size1 * blocks);
+		blocks2.start(true, size2, bidFrom2, bidFrom2 - size2 * blocks);
+		cutoffs[0] = pp * (1 - distance1);
+		cutoffs[1] = pp * (1 - distance2);
+		cutoffs[2] = pp * (1 - distance3);
+		scanBids(book, pp, unitsPerTick);
+
+		blockS1 = blocks1.getPrice(tickSize);
+		blockS2 = blocks2.getPrice(tickSize);
+		weightedS1 = toPrice(averages[0], pricePrecision);
+		weightedS2 = toPrice(averages[1], pricePrecision);
+		weightedS3 = toPrice(averages[2], pricePrecision);
+
+		// ---- Merged ---------------------------------------------------------
+		DephMergedPoints merged = DephMergedPoints.getInstance().calculate(blockR1, blockS1, blockR2, blockS2,
+				weightedR1, weightedS1, weightedR2, weightedS2, mode);
+		r1 = merged.getR1();
+		s1 = merged.getS1();
+		r2 = merged.getR2();
+		s2 = merged.getS2();
+
+		return this;
+	}
+
+	private void scanAsks(BookSnapshot book, double pp, long unitsPerTick)
+	{
+		double sumProd = 0;
+		double sumQty = 0;
+		int pending = 3;
+		Arrays.fill(resolved, false);
+
+		int levels = book.getAskLevels();
+		long prevUnits = book.getAskTicks(0) * unitsPerTick;
+
+		for (int i = 0; i < levels; i++)
+		{
+			double price = book.getAskPrice(i);
+			double qty = book.getAskQty(i);
+
+			// weighted: levels in (pp, cutoff], the sums are read at the first level past each cutoff
+			if (pending > 0 && price > pp)
+			{
+				for (int k = 0; k < 3; k++)
+				{
+					if (!resolved[k] && price > cutoffs[k])
+					{
+						averages[k] = sumProd / sumQty;
+						resolved[k] = true;
+						pending--;
+					}
+				}
+				sumProd += price * qty;
+				sumQty += qty;
+			}
+
+			// blocks: the first level only opens the group
+			if (i > 0)
+			{
+				long units = book.getAskTicks(i) * unitsPerTick;
+				blocks1.add(prevUnits, units, qty, book.getAskTicks(i - 1));
+				blocks2.add(prevUnits, units, qty, book.getAskTicks(i - 1));
+				prevUnits = units;
+			}
+
+			if (pending == 0 && blocks1.done && blocks2.done)
+			{
+				return;
+			}
+		}
+
+		for (int k = 0; k < 3; k++)
+		{
+			if (!resolved[k])
+			{
+				averages[k] = sumProd / sumQty;
+			}
+		}
+		blocks1.emit(prevUnits, book.getAskTicks(levels - 1));
+		blocks2.emit(prevUnits, book.getAskTicks(levels - 1));
+	}
+
+	private void scanBids(BookSnapshot book, double pp, long unitsPerTick)
+	{
+		double sumProd = 0;
+		double sumQty = 0;
+		int pending = 3;
+		Arrays.fill(resolved, false);
+
+		int levels = book.getBidLevels();
+		long prevUnits = book.getBidTicks(0) * unitsPerTick;
+
+		for (int i = 0; i < levels; i++)
+		{
+			double price = book.getBidPrice(i);
+			double qty = book.getBidQty(i);
+
+			if (pending > 0 && price < pp)
+			{
+				for (int k = 0; k < 3; k++)
+				{
+					if (!resolved[k] && price < cutoffs[k])
+					{
+						averages[k] = sumProd / sumQty;
+						resolved[k] = true;
+						pending--;
+					}
+				}
+				sumProd += price * qty;
+				sumQty += qty;
+			}
+
+			if (i > 0)
+			{
+				long units = book.getBidTicks(i) * unitsPerTick;
+				blocks1.add(prevUnits, units, qty, book.getBidTicks(i - 1));
+				blocks2.add(prevUnits, units, qty, book.getBidTicks(i - 1));
+				prevUnits = units;
+			}
+
+			if (pending == 0 && blocks1.done && blocks2.done)
+			{
+				return;
+			}
+		}
+
+		for (int k = 0; k < 3; k++)
+		{
+			if (!resolved[k])
+			{
+				averages[k] = sumProd / sumQty;
+			}
+		}
+		blocks1.emit(prevUnits, book.getBidTicks(levels - 1));
+		blocks2.emit(prevUnits, book.getBidTicks(levels - 1));
+	}
+
+	private static long units(BigDecimal price, int scale)
+	{
+		return price.movePointRight(scale).setScale(0, RoundingMode.DOWN).longValueExact();
+	}
+
+	private static BigDecimal toPrice(double avg, int pricePrecision)
+	{
+		if (Double.isNaN(avg) || Double.isInfinite(avg))
+		{
+			return null;
+		}
+		return BigDecimal.valueOf(avg).setScale(pricePrecision, RoundingMode.HALF_UP);
+	}
+
+	// ---- BLOCKS ------------------------------------------------------------
+
+	/**
+	 * Grouping of DepthBlockPoints.loadAsksGrp / loadBidsGrp (the group boundary moves one block
+	 * per group) followed by getBestBlockAsks / getBestBlockBids on each group as it is closed
+	 */
+	private static final class Blocks
+	{
+		private boolean bid;
+		private long size;
+		private long from;
+		private long to;
+
+		private long boundary;
+		private double qty;
+
+		private boolean found;
+		private boolean done;
+		private long maxTicks;
+		private double maxQty;
+
+		private void start(boolean bid, long size, long from, long to)
+		{
+			this.bid = bid;
+			this.size = size;
+			this.from = from;
+			this.to = to;
+			this.boundary = bid ? from - size : from + size;
+			this.qty = 0;
+			this.found = false;
+			this.done = false;
+		}
+
+		private void add(long prevUnits, long units, double levelQty, long prevTicks)
+		{
+			if (bid ? units >= boundary : units <= boundary)
+			{
+				qty += levelQty;
+			}
+			else
+			{
+				emit(prevUnits, prevTicks);
+				boundary = bid ? boundary - size : boundary + size;
+				qty = levelQty;
+			}
+		}
+
+		private void emit(long units, long ticks)
+		{
+			if (done)
+			{
+				return;
+			}
+			if (bid ? units >= from : units <= from)
+			{
+				return;
+			}
+			if (bid ? units < to : units > to)
+			{
+				done = true;
+				return;
+			}
+			if (!found || maxQty < qty)
+			{
+				found = true;
+				maxTicks = ticks;
+				maxQty = qty;
+			}
+		}
+
+		private BigDecimal getPrice(BigDecimal tickSize)
+		{
+			return found ? tickSize.multiply(BigDecimal.valueOf(maxTicks)) : null;
+		}
+	}
+
+}
@@ -0,0 +1,220 @@
+package technicals.indicators.depth;
+
+import technicals.model.BookLevels;
+
+/**
+ * Top of book metrics recalculated from the best levels after each update of the book:
+ *
+ *   microprice			(bestAsk x bidQty + bestBid x askQty) / (askQty + bidQty), best level quantities
+ *   queue imbalance	(bidQty - askQty) / (bidQty + askQty) of the best levels, -1 .. 1
+ *   book pressure		the same imbalance with the quantities of the N best levels
+ *   depth weighted mid	(askVwap x bidQty + bidVwap x askQty) / (askQty + bidQty) over the N best levels
+ *
+ * plus exponential averages of the imbalance and the pressure over time (half-life), to use
+ * them as short horizon filters. An update reads at most N levels per side: its cost does not
+ * depend on the size of the book, and nothing is allocated.
+ *
+ * Not thread safe, the owner must synchronize the writer and the readers.
+ */
+public class DepthPressure
+{
+	private final int levels;
+	private final long halfLifeMillis;
+
+	private long time = Long.MIN_VALUE;
+
+	private double bestAsk = Double.NaN;
+	private double bestBid = Double.NaN;
+	private double microPrice = Double.NaN;
+	private double queueImbalance = Double.NaN;
+	private double bookPressure = Double.NaN;
+	private double depthWeightedMid = Double.NaN;
+
+	private double imbalanceEma = Double.NaN;
+	private double pressureEma = Double.NaN;
+
+	/**
+	 * @param levels			best levels of each side for the book pressure and the depth weighted mid
+	 * @param halfLifeMillis	half-life of the averages
+	 */
+	public DepthPressure(int levels, long halfLifeMillis)
+	{
+		if (levels < 1)
+		{
+			throw new IllegalArgumentException("'levels' must be greater than zero");
+		}
+		if (halfLifeMillis < 1)
+		{
+			throw new IllegalArgumentException("'halfLifeMillis' must be greater than zero");
+		}
+		this.levels = levels;
+		this.halfLifeMillis = halfLifeMillis;
+	}
+
+	/**
+	 * Copy of the last values
+	 */
+	public DepthPressure(DepthPressure other)
+	{
+		this.levels = other.levels;
+		this.halfLifeMillis = other.halfLifeMillis;
+		this.time = other.time;
+		this.bestAsk = other.bestAsk;
+		this.bestBid = other.bestBid;
+		this.microPrice = other.microPrice;
+		this.queueImbalance = other.queueImbalance;
+		this.bookPressure = other.bookPressure;
+		this.depthWeightedMid = other.depthWeightedMid;
+		this.imbalanceEma = other.imbalanceEma;
+		this.pressureEma = other.pressureEma;
+	}
+
+	// ---- UPDATE ------------------------------------------------------------
+
+	/**
+	 * Recalculates the metrics from the book at 'time' (millis). Returns false, and the values are
+	 * NaN, if a side of the book is empty; the averages keep their last value
+	 */
+	public boolean update(BookLevels book, long time)
+	{
+		int asks = Math.min(levels, book.getAskLevels());
+		int bids = Math.min(levels, book.getBidLevels());
+
+		if (asks == 0 || bids == 0)
+		{
+			this.time = Math.max(this.time, time);
+			bestAsk = bestBid = microPrice = queueImbalance = bookPressure = depthWeightedMid = Double.NaN;
+			return false;
+		}
+
+		bestAsk = book.getAskPrice(0);
+		bestBid = book.getBidPrice(0);
+		double askQty0 = book.getAskQty(0);
+		double bidQty0 = book.getBidQty(0);
+		microPrice = (bestAsk * bidQty0 + bestBid * askQty0) / (askQty0 + bidQty0);
+		queueImbalance = (bidQty0 - askQty0) / (bidQty0 + askQty0);
+
+		double askQty = 0;
+		double askQuoted = 0;
+		for (int i = 0; i < asks; i++)
+		{
+			double qty = book.getAskQty(i);
+			askQty += qty;
+			askQuoted += book.getAskPrice(i) * qty;
+		}
+
+		double bidQty = 0;
+		double bidQuoted = 0;
+		for (int i = 0; i < bids; i++)
+		{
+			double qty = book.getBidQty(i);
+			bidQty += qty;
+			bidQuoted += book.getBidPrice(i) * qty;
+		}
+
+		bookPressure = (bidQty - askQty) / (bidQty + askQty);
+		depthWeightedMid = (askQuoted / askQty * bidQty + bidQuoted / bidQty * askQty) / (askQty + bidQty);
+
+		// time weighted averages: the older value loses half its weight every half-life
+		if (Double.isNaN(imbalanceEma))
+		{
+			imbalanceEma = queueImbalance;
+			pressureEma = bookPressure;
+		}
+		else if (time > this.time)
+		{
+			double alpha = 1 - Math.pow(0.5, (double) (time - this.time) / halfLifeMillis);
+			imbalanceEma += alpha * (queueImbalance - imbalanceEma);
+			pressureEma += alpha * (bookPressure - pressureEma);
+		}
+		this.time = Math.max(this.time, time);
+
+		return true;
+	}
+
+	// ---- VALUES ------------------------------------------------------------
+
+	public int getLevels()
+	{
+		return levels;
+	}
+
+	public long getHalfLifeMillis()
+	{
+		return halfLifeMillis;
+	}
+
+	/**
+	 * Time of the last update
+	 */
+	public long getTime()
+	{
+		return time;
+	}
+
+	public double getBestAsk()
+	{
+		return bestAsk;
+	}
+
+	public double getBestBid()
+	{
+		return bestBid;
+	}
+
+	public double getMidPrice()
+	{
+		return (bestAsk + bestBid) / 2;
+	}
+
+	public double getSpread()
+	{
+		return bestAsk - bestBid;
+	}
+
+	public double getMicroPrice()
+	{
+		return microPrice;
+	}
+
+	/**
+	 * Distance from the mid to the microprice in percentage (positive = pushed up by the bids)
+	 */
+	public double getMicroPriceEdge()
+	{
+		double mid = getMidPrice();
+		return (microPrice - mid) / mid * 100;
+	}
+
+	/**
+	 * Best level imbalance: 1 = only bids, -1 = only asks
+	 */
+	public double getQueueImbalance()
+	{
+		return queueImbalance;
+	}
+
+	/**
+	 * Imbalance of the N best levels: 1 = only bids, -1 = only asks
+	 */
+	public double getBookPressure()
+	{
+		return bookPressure;
+	}
+
+	public double getDepthWeightedMid()
+	{
+		return depthWeightedMid;
+	}
+
+	public double getImbalanceEma()
+	{
+		return imbalanceEma;
+	}
+
+	public double getPressureEma()
+	{
+		return pressureEma;
+	}
+
+}
@@ -1,18 +1,22 @@
 package technicals.indicators.depth;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import technicals.model.OrderBook;
 import technicals.model.OrderBookEntry;
 
 /**
- * Search for the n-prices with the largest number of orders 
+ * Search for the n-prices with the largest number of orders
+ *
+ * The levels are streamed through a bounded min-heap of the n largest quantities, O(levels log n)
+ * instead of sorting the whole book. On equal quantities the level closer to the best price wins.
+ * See DepthSuperPricesStream to keep the result up to date from the depth diffs.
  */
-public class DepthSuperPrices 
+public class DepthSuperPrices
 {
 	private OrderBook orderBook;
 
@@ -24,6 +28,15 @@ public class DepthSuperPrices
 		this.orderBook = orderBook;
 	}
 
+	/**
+	 * Result already searched, e.g. by DepthSuperPricesStream
+	 */
+	public DepthSuperPrices(List<OrderBookEntry> asks, List<OrderBookEntry> bids)
+	{
+		this.asks = asks;
+		this.bids = bids;
+	}
+
 	public List<OrderBookEntry> getAsks()
 	{
 		return asks;
@@ -39,19 +52,17 @@ public class DepthSuperPrices
 		double firstPrice = orderBook.getAsks().firstEntry().getValue().getPrice().doubleValue();
 		double maxPrice = firstPrice * 5;
 
-		asks = new ArrayList<OrderBookEntry>();
-
+		TopQty top = new TopQty(maxSize);
 		for (OrderBookEntry e : orderBook.getAsks().values())
 		{
 			if (e.getPrice().doubleValue() > maxPrice)
 			{
 				break;
 			}
-			asks.add(new OrderBookEntry(e.getPrice(), e.getQty()));
+			top.offer(e);
 		}
 
-		Collections.sort(asks, Comparator.comparing(OrderBookEntry::getQty).reversed());
-		asks = asks.stream().limit(maxSize).collect(Collectors.toList());
+		asks = top.toList();
 		Collections.sort(asks, Comparator.comparing(OrderBookEntry::getPrice));
 
 		return this;
@@ -62,22 +73,130 @@ public class DepthSuperPrices
 		double firstPrice = orderBook.getAsks().firstEntry().getValue().getPrice().doubleValue();
 		double minPrice = firstPrice * 0.2;
 
-		bids = new ArrayList<OrderBookEntry>();
-
+		TopQty top = new TopQty((int) Math.min(maxSize, Integer.MAX_VALUE));
 		for (OrderBookEntry e : orderBook.getBids().values())
 		{
 			if (e.getPrice().doubleValue() < minPrice)
 			{
 				break;
 			}
-			bids.add(new OrderBookEntry(e.getPrice(), e.getQty()));
+			top.offer(e);
 		}
 
-		Collections.sort(bids, Comparator.comparing(OrderBookEntry::getQty).reversed());
-		bids = bids.stream().limit(maxSize).collect(Collectors.toList());
+		bids = top.toList();
 		Collections.sort(bids, Comparator.comparing(OrderBookEntry::getPrice).reversed());
 
 		return this;
 	}
 
+	// ---- TOP QTY -----------------------------------------------------------
+
+	/**
+	 * Bounded min-heap of the entries with the largest quantity, the root is the one to be replaced
+	 * (smallest quantity, the latest offered on ties). Entries must be offered from the best price.
+	 */
+	private static final class TopQty
+	{
+		private final int maxSize;
+		private OrderBookEntry[] entries;
+		private int[] seqs;
+		private int size;
+		private int seq;
+
+		private TopQty(int maxSize)
+		{
+			this.maxSize = Math.max(maxSize, 0);
+			int capacity = Math.min(this.maxSize, 1024);
+			entries = new OrderBookEntry[capacity];
+			seqs = new int[capacity];
+		}
+
+		private void offer(OrderBookEntry e)
+		{
+			int s = seq++;
+			if (size < maxSize)
+			{
+				if (size == entries.length)
+				{
+					int capacity = (int) Math.min((long) maxSize, 2L * size);
+					entries = Arrays.copyOf(entries, capacity);
+					seqs = Arrays.copyOf(seqs, capacity);
+				}
+				entries[size] = e;
+				seqs[size] = s;
+				siftUp(size++);
+			}
+			else if (size > 0 && e.getQty().compareTo(entries[0].getQty()) > 0)
+			{
+				// an equal quantity offered later never beats the root
+				entries[0] = e;
+				seqs[0] = s;
+				siftDown(0);
+			}
+		}
+
+		private List<OrderBookEntry> toList()
+		{
+			List<OrderBookEntry> list = new ArrayList<OrderBookEntry>(size);
+			for (int i = 0; i < size; i++)
+			{
+				list.add(new OrderBookEntry(entries[i].getPrice(), entries[i].getQty()));
+			}
+			return list;
+		}
+
+		// true if 'a' must be closer to the root than 'b'
+		private boolean lower(int a, int b)
+		{
+			int cmp = entries[a].getQty().compareTo(entries[b].getQty());
+			return cmp < 0 || (cmp == 0 && seqs[a] > seqs[b]);
+		}
+
+		private void siftUp(int i)
+		{
+			while (i > 0)
+			{
+				int parent = (i - 1) >>> 1;
+				if (!lower(i, parent))
+				{
+					break;
+				}
+				swap(i, parent);
+				i = parent;
+			}
+		}
+
+		private void siftDown(int i)
+		{
+			while (true)
+			{
+				int child = 2 * i + 1;
+				if (child >= size)
+				{
+					break;
+				}
+				if (child + 1 < size && lower(child + 1, child))
+				{
+					child++;
+				}
+				if (!lower(child, i))
+				{
+					break;
+				}
+				swap(i, child);
+				i = child;
+			}
+		}
+
+		private void swap(int a, int b)
+		{
+			OrderBookEntry e = entries[a];
+			entries[a] = entries[b];
+			entries[b] = e;
+			int s = seqs[a];
+			seqs[a] = seqs[b];
+			seqs[b] = s;
+		}
+	}
+
 }
@@ -0,0 +1,472 @@
+package technicals.indicators.depth;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import technicals.model.OrderBookEntry;
+
+/**
+ * DepthSuperPrices kept up to date from the depth diffs (same levels and order as DepthSuperPrices).
+ *
+ * Each side is an indexed max-heap of its levels by quantity (a hash of ticks to heap position makes
+ * every diff O(log levels)), and the n largest are read by walking the top of the heap in O(n log n),
+ * without scanning the book. Levels are keyed by price ticks like TickOrderBook; nothing is allocated
+ * once the arrays have grown to the book size.
+ *
+ * Not thread safe, the owner must synchronize the writer and the readers.
+ */
+public class DepthSuperPricesStream
+{
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private final BigDecimal tickSize;
+
+	private final Side asks = new Side(false);
+	private final Side bids = new Side(true);
+
+	public DepthSuperPricesStream(BigDecimal tickSize)
+	{
+		if (tickSize.signum() <= 0)
+		{
+			throw new IllegalArgumentException("'tickSize' must be greater than zero");
+		}
+		this.tickSize = tickSize;
+	}
+
+	public BigDecimal getTickSize()
+	{
+		return tickSize;
+	}
+
+	// ---- UPDATE ------------------------------------------------------------
+
+	/**
+	 * Sets the quantity of a level, zero removes it
+	 */
+	public void update(boolean bid, long ticks, double qty)
+	{
+		(bid ? bids : asks).update(ticks, qty);
+	}
+
+	public void clear()
+	{
+		asks.clear();
+		bids.clear();
+	}
+
+	// ---- SEARCH ------------------------------------------------------------
+
+	/**
+	 * Largest asks up to 5 x the best ask, ordered by price ascending
+	 */
+	public DepthSuperPricesStream searchSuperAskPrices(long bestAskTicks, int maxSize)
+	{
+		asks.search(maxSize, 5 * bestAskTicks);
+		return this;
+	}
+
+	/**
+	 * Largest bids down to 0.2 x the best ask, ordered by price descending
+	 */
+	public DepthSuperPricesStream searchSuperBidPrices(long bestAskTicks, int maxSize)
+	{
+		bids.search(maxSize, bestAskTicks);
+		return this;
+	}
+
+	public int getAskCount()
+	{
+		return asks.found;
+	}
+
+	public long getAskTicks(int i)
+	{
+		return asks.foundTicks[i];
+	}
+
+	public double getAskQty(int i)
+	{
+		return asks.foundQtys[i];
+	}
+
+	public int getBidCount()
+	{
+		return bids.found;
+	}
+
+	public long getBidTicks(int i)
+	{
+		return bids.foundTicks[i];
+	}
+
+	public double getBidQty(int i)
+	{
+		return bids.foundQtys[i];
+	}
+
+	/**
+	 * Result of the last ask search as in DepthSuperPrices.getAsks
+	 */
+	public List<OrderBookEntry> getAsks()
+	{
+		return asks.toList(tickSize);
+	}
+
+	public List<OrderBookEntry> getBids()
+	{
+		return bids.toList(tickSize);
+	}
+
+	// ---- SIDE --------------------------------------------------------------
+
+	/**
+	 * Max-heap of the levels, the root has the largest quantity (the closest to the best price on ties)
+	 */
+	private static final class Side
+	{
+		private final boolean bid;
+
+		private long[] ticks = new long[INITIAL_CAPACITY];
+		private double[] qtys = new double[INITIAL_CAPACITY];
+		private int size;
+
+		// open addressing ticks -> heap position + 1 (0 = empty), at most half full
+		private long[] keys = new long[2 * INITIAL_CAPACITY];
+		private int[] positions = new int[2 * INITIAL_CAPACITY];
+
+		// search
+		private int[] candidates = new int[64];
+		private long[] foundTicks = new long[16];
+		private double[] foundQtys = new double[16];
+		private int found;
+
+		private Side(boolean bid)
+		{
+			this.bid = bid;
+		}
+
+		private void clear()
+		{
+			size = 0;
+			found = 0;
+			Arrays.fill(positions, 0);
+		}
+
+		private void update(long levelTicks, double qty)
+		{
+			int i = get(levelTicks);
+			if (qty == 0)
+			{
+				if (i >= 0)
+				{
+					remove(i);
+				}
+			}
+			else if (i < 0)
+			{
+				if (size == ticks.length)
+				{
+					grow();
+				}
+				i = size++;
+				ticks[i] = levelTicks;
+				qtys[i] = qty;
+				put(levelTicks, i);
+				siftUp(i);
+			}
+			else
+			{
+				double old = qtys[i];
+				qtys[i] = qty;
+				if (qty > old)
+				{
+					siftUp(i);
+				}
+				else
+				{
+					siftDown(i);
+				}
+			}
+		}
+
+		private void remove(int i)
+		{
+			delete(ticks[i]);
+			int last = --size;
+			if (i != last)
+			{
+				ticks[i] = ticks[last];
+				qtys[i] = qtys[last];
+				put(ticks[i], i);
+				siftUp(i);
+				siftDown(i);
+			}
+		}
+
+		// ---- TOP N ----
+
+		/**
+		 * The n best levels inside the range, popped from a candidate heap seeded with the root: the
+		 * children of a level can only be next after the level itself
+		 */
+		private void search(int maxSize, long limit)
+		{
+			if (foundTicks.length < maxSize)
+			{
+				foundTicks = new long[maxSize];
+				foundQtys = new double[maxSize];
+			}
+			found = 0;
+
+			int count = 0;
+			if (size > 0)
+			{
+				candidates[count++] = 0;
+			}
+			while (count > 0 && found < maxSize)
+			{
+				int best = candidates[0];
+				candidates[0] = candidates[--count];
+				siftDownCandidate(count);
+
+				if (inRange(ticks[best], limit))
+				{
+					foundTicks[found] = ticks[best];
+					foundQtys[found] = qtys[best];
+					found++;
+				}
+
+				for (int child = 2 * best + 1; child <= 2 * best + 2 && child < size; child++)
+				{
+					if (count == candidates.length)
+					{
+						candidates = Arrays.copyOf(candidates, 2 * count);
+					}
+					candidates[count] = child;
+					siftUpCandidate(count++);
+				}
+			}
+
+			sortByPrice();
+		}
+
+		private boolean inRange(long levelTicks, long limit)
+		{
+			// asks: price <= 5 x best ask; bids: price >= 0.2 x best ask
+			return bid ? 5 * levelTicks >= limit : levelTicks <= limit;
+		}
+
+		// insertion sort of the (few) levels found: asks ascending, bids descending
+		private void sortByPrice()
+		{
+			for (int i = 1; i < found; i++)
+			{
+				long t = foundTicks[i];
+				double q = foundQtys[i];
+				int j = i - 1;
+				while (j >= 0 && (bid ? foundTicks[j] < t : foundTicks[j] > t))
+				{
+					foundTicks[j + 1] = foundTicks[j];
+					foundQtys[j + 1] = foundQtys[j];
+					j--;
+				}
+				foundTicks[j + 1] = t;
+				foundQtys[j + 1] = q;
+			}
+		}
+
+		private List<OrderBookEntry> toList(BigDecimal tickSize)
+		{
+			List<OrderBookEntry> list = new ArrayList<OrderBookEntry>(found);
+			for (int i = 0; i < found; i++)
+			{
+				list.add(new OrderBookEntry(tickSize.multiply(BigDecimal.valueOf(foundTicks[i])), BigDecimal.valueOf(foundQtys[i])));
+			}
+			return list;
+		}
+
+		private void siftUpCandidate(int i)
+		{
+			while (i > 0)
+			{
+				int parent = (i - 1) >>> 1;
+				if (!higher(candidates[i], candidates[parent]))
+				{
+					break;
+				}
+				int c = candidates[i];
+				candidates[i] = candidates[parent];
+				candidates[parent] = c;
+				i = parent;
+			}
+		}
+
+		private void siftDownCandidate(int count)
+		{
+			int i = 0;
+			while (true)
+			{
+				int child = 2 * i + 1;
+				if (child >= count)
+				{
+					break;
+				}
+				if (child + 1 < count && higher(candidates[child + 1], candidates[child]))
+				{
+					child++;
+				}
+				if (!higher(candidates[child], candidates[i]))
+				{
+					break;
+				}
+				int c = candidates[i];
+				candidates[i] = candidates[child];
+				candidates[child] = c;
+				i = child;
+			}
+		}
+
+		// ---- HEAP ----
+
+		// true if level 'a' ranks before level 'b': larger quantity, or closer to the best price
+		private boolean higher(int a, int b)
+		{
+			if (qtys[a] != qtys[b])
+			{
+				return qtys[a] > qtys[b];
+			}
+			return bid ? ticks[a] > ticks[b] : ticks[a] < ticks[b];
+		}
+
+		private void siftUp(int i)
+		{
+			while (i > 0)
+			{
+				int parent = (i - 1) >>> 1;
+				if (!higher(i, parent))
+				{
+					break;
+				}
+				swap(i, parent);
+				i = parent;
+			}
+		}
+
+		private void siftDown(int i)
+		{
+			while (true)
+			{
+				int child = 2 * i + 1;
+				if (child >= size)
+				{
+					break;
+				}
+				if (child + 1 < size && higher(child + 1, child))
+				{
+					child++;
+				}
+				if (!higher(child, i))
+				{
+					break;
+				}
+				swap(i, child);
+				i = child;
+			}
+		}
+
+		private void swap(int a, int b)
+		{
+			long t = ticks[a];
+			ticks[a] = ticks[b];
+			ticks[b] = t;
+			double q = qtys[a];
+			qtys[a] = qtys[b];
+			qtys[b] = q;
+			put(ticks[a], a);
+			put(ticks[b], b);
+		}
+
+		private void grow()
+		{
+			ticks = Arrays.copyOf(ticks, 2 * ticks.length);
+			qtys = Arrays.copyOf(qtys, 2 * qtys.length);
+
+			long[] oldKeys = keys;
+			int[] oldPositions = positions;
+			keys = new long[2 * oldKeys.length];
+			positions = new int[2 * oldPositions.length];
+			for (int i = 0; i < oldKeys.length; i++)
+			{
+				if (oldPositions[i] != 0)
+				{
+					put(oldKeys[i], oldPositions[i] - 1);
+				}
+			}
+		}
+
+		// ---- HASH ----
+
+		private int slot(long key)
+		{
+			long h = key * 0x9E3779B97F4A7C15L;
+			return (int) (h >>> 32) & (keys.length - 1);
+		}
+
+		private int get(long key)
+		{
+			int mask = keys.length - 1;
+			for (int s = slot(key); positions[s] != 0; s = (s + 1) & mask)
+			{
+				if (keys[s] == key)
+				{
+					return positions[s] - 1;
+				}
+			}
+			return -1;
+		}
+
+		private void put(long key, int position)
+		{
+			int mask = keys.length - 1;
+			int s = slot(key);
+			while (positions[s] != 0 && keys[s] != key)
+			{
+				s = (s + 1) & mask;
+			}
+			keys[s] = key;
+			positions[s] = position + 1;
+		}
+
+		// linear probing delete: shift back the following entries of the cluster
+		private void delete(long key)
+		{
+			int mask = keys.length - 1;
+			int s = slot(key);
+			while (positions[s] != 0 && keys[s] != key)
+			{
+				s = (s + 1) & mask;
+			}
+			if (positions[s] == 0)
+			{
+				return;
+			}
+
+			int hole = s;
+			for (int next = (hole + 1) & mask; positions[next] != 0; next = (next + 1) & mask)
+			{
+				int home = slot(keys[next]);
+				// move the entry if its home slot is not in (hole, next]
+				if (((next - home) & mask) >= ((next - hole) & mask))
+				{
+					keys[hole] = keys[next];
+					positions[hole] = positions[next];
+					hole = next;
+				}
+			}
+			positions[hole] = 0;
+		}
+	}
+
+}
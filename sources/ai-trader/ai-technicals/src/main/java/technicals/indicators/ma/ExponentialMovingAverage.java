@@ -1,10 +1,13 @@
 package technicals.indicators.ma;
 
 import technicals.config.Labels;
+import technicals.indicators.streaming.ExponentialMovingAverageStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.indicators.IndicatorEntry;
-import technicals.util.DoubleArrayUtils;
 import technicals.util.CandleUtils;
+import technicals.util.DoubleArrayUtils;
+import technicals.util.Tail;
 
 /**
  * EMA - Exponential Moving Average
@@ -75,4 +78,34 @@ public class ExponentialMovingAverage
 		return emaEntries;
 	}
 
+	/**
+	 * Last 'n' entries, the calculation starts 'warmUp' candles before them (default
+	 * Tail.warmUp), same values as calculate when the series is not longer than that
+	 */
+	public static IndicatorEntry[] lastN(TechCandle[] candles, int periods, int n)
+	{
+		return lastN(candles, periods, n, Tail.warmUp(periods));
+	}
+
+	public static IndicatorEntry[] lastN(TechCandle[] candles, int periods, int n, int warmUp)
+	{
+		return Tail.last(calculate(Tail.candles(candles, n, periods - 1 + warmUp), periods), n);
+	}
+
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, int periods, double[] results)
+	{
+		series.check(periods, results);
+
+		double[] close = series.getClose();
+		ExponentialMovingAverageStream stream = new ExponentialMovingAverageStream(periods);
+
+		for (int i = 0; i < series.size(); i++)
+		{
+			results[i] = stream.update(close[i], true);
+		}
+	}
+
 }
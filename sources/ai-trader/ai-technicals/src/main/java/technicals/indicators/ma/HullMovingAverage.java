@@ -1,8 +1,11 @@
 package technicals.indicators.ma;
 
 import technicals.config.Labels;
+import technicals.indicators.streaming.HullMovingAverageStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.indicators.IndicatorEntry;
+import technicals.util.Tail;
 
 /**
  * HMA - Hull Moving Average
@@ -61,6 +64,29 @@ public class HullMovingAverage
 		}
 		return sum / ((periods * (periods + 1)) / 2);
 	}
-	
-	
+
+	/**
+	 * Last 'n' entries, calculated only on the candles they depend on (same values as calculate)
+	 */
+	public static IndicatorEntry[] lastN(TechCandle[] candles, int periods, int n)
+	{
+		return Tail.last(calculate(Tail.candles(candles, n, periods + (int) Math.sqrt(periods)), periods), n);
+	}
+
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, int periods, double[] results)
+	{
+		series.check(periods, results);
+
+		double[] close = series.getClose();
+		HullMovingAverageStream stream = new HullMovingAverageStream(periods);
+
+		for (int i = 0; i < series.size(); i++)
+		{
+			results[i] = stream.update(close[i], true);
+		}
+	}
+
 }
@@ -1,10 +1,12 @@
 package technicals.indicators.ma;
 
 import technicals.config.Labels;
+import technicals.indicators.streaming.SimpleMovingAverageStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.indicators.IndicatorEntry;
-import technicals.util.CandleUtils;
-import technicals.util.DoubleArrayUtils;
+import technicals.util.RollingSum;
+import technicals.util.Tail;
 
 /**
  * SMA - Simple Moving Average
@@ -22,9 +24,16 @@ public class SimpleMovingAverage
 		int len = values.length - periods + 1;
 		double[] results = new double[len];
 
-		for (int i = 0; i < len; i++)
+		RollingSum sum = new RollingSum(periods);
+
+		for (int i = 0; i < values.length; i++)
 		{
-			results[i] = DoubleArrayUtils.avg(values, i, i + periods - 1);
+			sum.add(values[i]);
+
+			if (sum.isFull())
+			{
+				results[i - periods + 1] = sum.mean();
+			}
 		}
 
 		return results;
@@ -40,13 +49,44 @@ public class SimpleMovingAverage
 		int len = candles.length - periods + 1;
 		IndicatorEntry[] smaEntries = new IndicatorEntry[len];
 
-		for (int i = 0; i < len; i++)
+		RollingSum sum = new RollingSum(periods);
+
+		for (int i = 0; i < candles.length; i++)
 		{
-			smaEntries[i] = new IndicatorEntry(candles[i + periods - 1]);
-			smaEntries[i].setValue(CandleUtils.avgPrice(candles, i, i + periods - 1));
+			sum.add(candles[i].getDefaultPrice());
+
+			if (sum.isFull())
+			{
+				smaEntries[i - periods + 1] = new IndicatorEntry(candles[i]);
+				smaEntries[i - periods + 1].setValue(sum.mean());
+			}
 		}
 
 		return smaEntries;
 	}
 
+	/**
+	 * Last 'n' entries, calculated only on the candles they depend on (same values as calculate)
+	 */
+	public static IndicatorEntry[] lastN(TechCandle[] candles, int periods, int n)
+	{
+		return Tail.last(calculate(Tail.candles(candles, n, periods - 1), periods), n);
+	}
+
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, int periods, double[] results)
+	{
+		series.check(periods, results);
+
+		double[] close = series.getClose();
+		SimpleMovingAverageStream stream = new SimpleMovingAverageStream(periods);
+
+		for (int i = 0; i < series.size(); i++)
+		{
+			results[i] = stream.update(close[i], true);
+		}
+	}
+
 }
@@ -1,8 +1,12 @@
 package technicals.indicators.ma;
 
 import technicals.config.Labels;
+import technicals.indicators.streaming.VWMovingAverageStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.indicators.IndicatorEntry;
+import technicals.util.RollingSum;
+import technicals.util.Tail;
 
 /**
  * VWMA - Volume-Weighted Moving Average
@@ -20,26 +24,50 @@ public class VWMovingAverage
 		int len = candles.length - periods + 1;
 		IndicatorEntry[] smaEntries = new IndicatorEntry[len];
 
-		for (int i = 0; i < len; i++)
+		RollingSum sumPriceVolume = new RollingSum(periods);
+		RollingSum sumVolume = new RollingSum(periods);
+
+		for (int i = 0; i < candles.length; i++)
 		{
-			smaEntries[i] = new IndicatorEntry(candles[i + periods - 1]);
-			smaEntries[i].setValue(calcAvg(candles, i, periods));
+			sumPriceVolume.add(candles[i].getDefaultPrice() * candles[i].getVolume());
+			sumVolume.add(candles[i].getVolume());
+
+			if (sumVolume.isFull())
+			{
+				smaEntries[i - periods + 1] = new IndicatorEntry(candles[i]);
+				smaEntries[i - periods + 1].setValue(sumPriceVolume.sum() / sumVolume.sum());
+			}
 		}
 
 		return smaEntries;
 	}
 
-	private static double calcAvg(TechCandle[] candles, int startIndex, int periods)
+	/**
+	 * Last 'n' entries, calculated only on the candles they depend on (same values as calculate)
+	 */
+	public static IndicatorEntry[] lastN(TechCandle[] candles, int periods, int n)
+	{
+		return Tail.last(calculate(Tail.candles(candles, n, periods - 1), periods), n);
+	}
+
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, int periods, double[] results)
 	{
-		double sum = 0;
-		double vol = 0;
+		series.check(periods, results);
+
+		double[] open = series.getOpen();
+		double[] high = series.getHigh();
+		double[] low = series.getLow();
+		double[] close = series.getClose();
+		double[] volume = series.getVolume();
+		VWMovingAverageStream stream = new VWMovingAverageStream(periods);
 
-		for (int i = 0; i < periods; i++)
+		for (int i = 0; i < series.size(); i++)
 		{
-			sum += candles[startIndex + i].getDefaultPrice() * candles[startIndex + i].getVolume();
-			vol += candles[startIndex + i].getVolume();
+			results[i] = stream.update(open[i], high[i], low[i], close[i], volume[i], true);
 		}
-
-		return sum / vol;
 	}
+
 }
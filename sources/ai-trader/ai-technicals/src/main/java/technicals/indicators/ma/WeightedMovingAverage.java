@@ -1,8 +1,11 @@
 package technicals.indicators.ma;
 
 import technicals.config.Labels;
+import technicals.indicators.streaming.WeightedMovingAverageStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.indicators.IndicatorEntry;
+import technicals.util.Tail;
 
 /**
  * WMA - Weighted Moving Average
@@ -67,4 +70,28 @@ public class WeightedMovingAverage
 		return sum / ((periods * (periods + 1)) / 2);
 	}
 
+	/**
+	 * Last 'n' entries, calculated only on the candles they depend on (same values as calculate)
+	 */
+	public static IndicatorEntry[] lastN(TechCandle[] candles, int periods, int n)
+	{
+		return Tail.last(calculate(Tail.candles(candles, n, periods - 1), periods), n);
+	}
+
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, int periods, double[] results)
+	{
+		series.check(periods, results);
+
+		double[] close = series.getClose();
+		WeightedMovingAverageStream stream = new WeightedMovingAverageStream(periods);
+
+		for (int i = 0; i < series.size(); i++)
+		{
+			results[i] = stream.update(close[i], true);
+		}
+	}
+
 }
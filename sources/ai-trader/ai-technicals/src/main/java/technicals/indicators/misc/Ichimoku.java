@@ -1,9 +1,12 @@
 package technicals.indicators.misc;
 
 import technicals.config.Labels;
+import technicals.indicators.streaming.IchimokuStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.indicators.IchimokuEntry;
-import technicals.util.CandleUtils;
+import technicals.util.SlidingWindowExtremum;
+import technicals.util.Tail;
 
 /**
  * Ichimoku Cloud
@@ -19,18 +22,40 @@ public class Ichimoku
 
 		IchimokuEntry[] ichimokuEntries = new IchimokuEntry[candles.length - 52 + 1];
 
-		for (int i = 52 - 1; i < candles.length; i++)
+		SlidingWindowExtremum highs9 = SlidingWindowExtremum.max(9);
+		SlidingWindowExtremum lows9 = SlidingWindowExtremum.min(9);
+		SlidingWindowExtremum highs26 = SlidingWindowExtremum.max(26);
+		SlidingWindowExtremum lows26 = SlidingWindowExtremum.min(26);
+		SlidingWindowExtremum highs52 = SlidingWindowExtremum.max(52);
+		SlidingWindowExtremum lows52 = SlidingWindowExtremum.min(52);
+
+		for (int i = 0; i < candles.length; i++)
 		{
+			double high = candles[i].getHighPrice();
+			double low = candles[i].getLowPrice();
+
+			highs9.add(high);
+			lows9.add(low);
+			highs26.add(high);
+			lows26.add(low);
+			highs52.add(high);
+			lows52.add(low);
+
+			if (i < 52 - 1)
+			{
+				continue;
+			}
+
 			ichimokuEntries[i - 52 + 1] = new IchimokuEntry(candles[i]);
 
-			double ph9 = CandleUtils.highestHigh(candles, i - 9 + 1, i);
-			double pl9 = CandleUtils.lowestLow(candles, i - 9 + 1, i);
+			double ph9 = highs9.get();
+			double pl9 = lows9.get();
 
-			double ph26 = CandleUtils.highestHigh(candles, i - 26 + 1, i);
-			double pl26 = CandleUtils.lowestLow(candles, i - 26 + 1, i);
+			double ph26 = highs26.get();
+			double pl26 = lows26.get();
 
-			double ph52 = CandleUtils.highestHigh(candles, i - 52 + 1, i);
-			double pl52 = CandleUtils.lowestLow(candles, i - 52 + 1, i);
+			double ph52 = highs52.get();
+			double pl52 = lows52.get();
 
 			double conversionLine = (ph9 + pl9) / 2;
 			double baseLine = (ph26 + pl26) / 2;
@@ -45,4 +70,36 @@ public class Ichimoku
 
 		return ichimokuEntries;
 	}
+
+	/**
+	 * Last 'n' entries, calculated only on the candles they depend on (same values as calculate)
+	 */
+	public static IchimokuEntry[] lastN(TechCandle[] candles, int n)
+	{
+		return Tail.last(calculate(Tail.candles(candles, n, 52)), n);
+	}
+
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, double[] conversionLine, double[] baseLine, double[] leadingSpanA, double[] leadingSpanB)
+	{
+		series.check(52, conversionLine, baseLine, leadingSpanA, leadingSpanB);
+
+		double[] open = series.getOpen();
+		double[] high = series.getHigh();
+		double[] low = series.getLow();
+		double[] close = series.getClose();
+		double[] volume = series.getVolume();
+		IchimokuStream stream = new IchimokuStream();
+
+		for (int i = 0; i < series.size(); i++)
+		{
+			baseLine[i] = stream.update(open[i], high[i], low[i], close[i], volume[i], true);
+			conversionLine[i] = stream.getConversionLine();
+			leadingSpanA[i] = stream.getLeadingSpanA();
+			leadingSpanB[i] = stream.getLeadingSpanB();
+		}
+	}
+
 }
@@ -1,9 +1,12 @@
 package technicals.indicators.oscillator;
 
 import technicals.config.Labels;
+import technicals.indicators.streaming.AroonStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.oscillator.AroonEntry;
-import technicals.util.CandleUtils;
+import technicals.util.SlidingWindowExtremum;
+import technicals.util.Tail;
 
 /**
  * Aroon Oscillator
@@ -26,18 +29,30 @@ public class Aroon
 		int len = candles.length - periods + 1;
 		AroonEntry[] aroonEntries = new AroonEntry[len];
 
+		SlidingWindowExtremum highestHighs = SlidingWindowExtremum.max(periods);
+		SlidingWindowExtremum lowestLows = SlidingWindowExtremum.min(periods);
+
+		for (int i = 0; i < periods - 1; i++)
+		{
+			highestHighs.add(candles[i].getHighPrice());
+			lowestLows.add(candles[i].getLowPrice());
+		}
+
 		for (int i = 0; i < len; i++)
 		{
 			aroonEntries[i] = new AroonEntry(candles[i + periods - 1]);
 
+			highestHighs.add(candles[i + periods - 1].getHighPrice());
+			lowestLows.add(candles[i + periods - 1].getLowPrice());
+
 			// aroon Up
-			int highestHighIndex = CandleUtils.highestHighIndex(candles, i, i + periods - 1);
+			int highestHighIndex = (int) highestHighs.getIndex();
 			int sinceHigh = (i + periods - 1) - highestHighIndex;
 			double aroonUp = 100 * (((double) periods - (double) sinceHigh) / (double) periods);
 			aroonEntries[i].setAroonUp(aroonUp);
 
 			// aroon Down
-			int lowestLowIndex = CandleUtils.lowestLowIndex(candles, i, i + periods - 1);
+			int lowestLowIndex = (int) lowestLows.getIndex();
 			int sinceLow = (i + periods - 1) - lowestLowIndex;
 			double aroonDown = 100 * (((double) periods - (double) sinceLow) / (double) periods);
 			aroonEntries[i].setAroonDown(aroonDown);
@@ -49,4 +64,34 @@ public class Aroon
 		return aroonEntries;
 	}
 
+	/**
+	 * Last 'n' entries, calculated only on the candles they depend on (same values as calculate)
+	 */
+	public static AroonEntry[] lastN(TechCandle[] candles, int periods, int n)
+	{
+		return Tail.last(calculate(Tail.candles(candles, n, periods), periods), n);
+	}
+
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, int periods, double[] aroonUp, double[] aroonDown, double[] oscillator)
+	{
+		series.check(periods, aroonUp, aroonDown, oscillator);
+
+		double[] open = series.getOpen();
+		double[] high = series.getHigh();
+		double[] low = series.getLow();
+		double[] close = series.getClose();
+		double[] volume = series.getVolume();
+		AroonStream stream = new AroonStream(periods);
+
+		for (int i = 0; i < series.size(); i++)
+		{
+			oscillator[i] = stream.update(open[i], high[i], low[i], close[i], volume[i], true);
+			aroonUp[i] = stream.getAroonUp();
+			aroonDown[i] = stream.getAroonDown();
+		}
+	}
+
 }
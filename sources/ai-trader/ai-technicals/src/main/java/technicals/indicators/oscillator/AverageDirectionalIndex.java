@@ -1,8 +1,11 @@
 package technicals.indicators.oscillator;
 
 import technicals.config.Labels;
+import technicals.indicators.streaming.AverageDirectionalIndexStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.oscillator.AdxEntry;
+import technicals.util.Tail;
 
 /**
  * ADX - Average Directional Index
@@ -229,4 +232,40 @@ public class AverageDirectionalIndex
 		}
 	}
 
+	/**
+	 * Last 'n' entries, the calculation starts 'warmUp' candles before them (default
+	 * Tail.warmUp), same values as calculate when the series is not longer than that
+	 */
+	public static AdxEntry[] lastN(TechCandle[] candles, int periods, int n)
+	{
+		return lastN(candles, periods, n, Tail.warmUp(periods));
+	}
+
+	public static AdxEntry[] lastN(TechCandle[] candles, int periods, int n, int warmUp)
+	{
+		return Tail.last(calculate(Tail.candles(candles, n, 2 * periods + warmUp), periods), n);
+	}
+
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, int periods, double[] posDI, double[] negDI, double[] adx)
+	{
+		series.check(periods + periods, posDI, negDI, adx);
+
+		double[] open = series.getOpen();
+		double[] high = series.getHigh();
+		double[] low = series.getLow();
+		double[] close = series.getClose();
+		double[] volume = series.getVolume();
+		AverageDirectionalIndexStream stream = new AverageDirectionalIndexStream(periods);
+
+		for (int i = 0; i < series.size(); i++)
+		{
+			adx[i] = stream.update(open[i], high[i], low[i], close[i], volume[i], true);
+			posDI[i] = stream.getPosDI();
+			negDI[i] = stream.getNegDI();
+		}
+	}
+
 }
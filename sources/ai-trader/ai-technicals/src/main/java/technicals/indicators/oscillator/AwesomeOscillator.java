@@ -1,8 +1,11 @@
 package technicals.indicators.oscillator;
 
 import technicals.config.Labels;
+import technicals.indicators.streaming.AwesomeOscillatorStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.indicators.IndicatorEntry;
+import technicals.util.Tail;
 
 /**
  * AO - Awesome Oscillator
@@ -47,4 +50,32 @@ public class AwesomeOscillator
 		return sum / periods;
 	}
 
+	/**
+	 * Last 'n' entries, calculated only on the candles they depend on (same values as calculate)
+	 */
+	public static IndicatorEntry[] lastN(TechCandle[] candles, int n)
+	{
+		return Tail.last(calculate(Tail.candles(candles, n, 34)), n);
+	}
+
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, double[] results)
+	{
+		series.check(34, results);
+
+		double[] open = series.getOpen();
+		double[] high = series.getHigh();
+		double[] low = series.getLow();
+		double[] close = series.getClose();
+		double[] volume = series.getVolume();
+		AwesomeOscillatorStream stream = new AwesomeOscillatorStream();
+
+		for (int i = 0; i < series.size(); i++)
+		{
+			results[i] = stream.update(open[i], high[i], low[i], close[i], volume[i], true);
+		}
+	}
+
 }
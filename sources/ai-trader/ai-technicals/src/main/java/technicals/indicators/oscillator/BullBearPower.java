@@ -2,8 +2,11 @@ package technicals.indicators.oscillator;
 
 import technicals.config.Labels;
 import technicals.indicators.ma.ExponentialMovingAverage;
+import technicals.indicators.streaming.BullBearPowerStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.indicators.IndicatorEntry;
+import technicals.util.Tail;
 
 /**
  * BBP - Bull Bear Power
@@ -39,4 +42,38 @@ public class BullBearPower
 		return uoEntries;
 	}
 
+	/**
+	 * Last 'n' entries, the calculation starts 'warmUp' candles before them (default
+	 * Tail.warmUp), same values as calculate when the series is not longer than that
+	 */
+	public static IndicatorEntry[] lastN(TechCandle[] candles, int periods, int n)
+	{
+		return lastN(candles, periods, n, Tail.warmUp(periods));
+	}
+
+	public static IndicatorEntry[] lastN(TechCandle[] candles, int periods, int n, int warmUp)
+	{
+		return Tail.last(calculate(Tail.candles(candles, n, periods - 1 + warmUp), periods), n);
+	}
+
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, int periods, double[] results)
+	{
+		series.check(periods, results);
+
+		double[] open = series.getOpen();
+		double[] high = series.getHigh();
+		double[] low = series.getLow();
+		double[] close = series.getClose();
+		double[] volume = series.getVolume();
+		BullBearPowerStream stream = new BullBearPowerStream(periods);
+
+		for (int i = 0; i < series.size(); i++)
+		{
+			results[i] = stream.update(open[i], high[i], low[i], close[i], volume[i], true);
+		}
+	}
+
 }
@@ -1,8 +1,11 @@
 package technicals.indicators.oscillator;
 
 import technicals.config.Labels;
+import technicals.indicators.streaming.CommodityChannelIndexStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.indicators.IndicatorEntry;
+import technicals.util.Tail;
 
 /**
  * CCI - Commodity Channel Index
@@ -57,4 +60,32 @@ public class CommodityChannelIndex
 		return cciEntries;
 	}
 
+	/**
+	 * Last 'n' entries, calculated only on the candles they depend on (same values as calculate)
+	 */
+	public static IndicatorEntry[] lastN(TechCandle[] candles, int periods, int n)
+	{
+		return Tail.last(calculate(Tail.candles(candles, n, periods), periods), n);
+	}
+
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, int periods, double[] results)
+	{
+		series.check(periods, results);
+
+		double[] open = series.getOpen();
+		double[] high = series.getHigh();
+		double[] low = series.getLow();
+		double[] close = series.getClose();
+		double[] volume = series.getVolume();
+		CommodityChannelIndexStream stream = new CommodityChannelIndexStream(periods);
+
+		for (int i = 0; i < series.size(); i++)
+		{
+			results[i] = stream.update(open[i], high[i], low[i], close[i], volume[i], true);
+		}
+	}
+
 }
@@ -2,9 +2,12 @@ package technicals.indicators.oscillator;
 
 import technicals.config.Labels;
 import technicals.indicators.ma.ExponentialMovingAverage;
+import technicals.indicators.streaming.MACDStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.oscillator.MACDEntry;
 import technicals.util.CandleUtils;
+import technicals.util.Tail;
 
 /**
  * MACD - Moving Average Convergence / Divergence
@@ -59,4 +62,37 @@ public class MACD
 		return macdEntries;
 	}
 
+	/**
+	 * Last 'n' entries, the calculation starts 'warmUp' candles before them (default
+	 * Tail.warmUp), same values as calculate when the series is not longer than that
+	 */
+	public static MACDEntry[] lastN(TechCandle[] candles, int fastPeriods, int slowPeriods, int signalPeriods, int n)
+	{
+		return lastN(candles, fastPeriods, slowPeriods, signalPeriods, n, Tail.warmUp(slowPeriods));
+	}
+
+	public static MACDEntry[] lastN(TechCandle[] candles, int fastPeriods, int slowPeriods, int signalPeriods, int n, int warmUp)
+	{
+		return Tail.last(calculate(Tail.candles(candles, n, slowPeriods + signalPeriods + warmUp), fastPeriods, slowPeriods, signalPeriods), n);
+	}
+
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, int fastPeriods, int slowPeriods, int signalPeriods, double[] macd, double[] signal, double[] histogram)
+	{
+		series.check(slowPeriods + signalPeriods - 1, macd, signal, histogram);
+
+		double[] close = series.getClose();
+		MACDStream stream = new MACDStream(fastPeriods, slowPeriods, signalPeriods);
+
+		for (int i = 0; i < series.size(); i++)
+		{
+			stream.update(close[i], true);
+			macd[i] = stream.getValue();
+			signal[i] = stream.isReady() ? stream.getSignal() : Double.NaN;
+			histogram[i] = stream.isReady() ? stream.getHistogram() : Double.NaN;
+		}
+	}
+
 }
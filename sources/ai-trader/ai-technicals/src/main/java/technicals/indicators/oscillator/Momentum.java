@@ -1,8 +1,11 @@
 package technicals.indicators.oscillator;
 
 import technicals.config.Labels;
+import technicals.indicators.streaming.MomentumStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.indicators.IndicatorEntry;
+import technicals.util.Tail;
 
 /**
  * MOM - Momentum
@@ -47,4 +50,32 @@ public class Momentum
 		return momEntries;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Last 'n' entries, calculated only on the candles they depend on (same values as calculate)
+	 */
+	public static IndicatorEntry[] lastN(TechCandle[] candles, int periods, int version, int n)
+	{
+		return Tail.last(calculate(Tail.candles(candles, n, periods), periods, version), n);
+	}
+
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, int periods, int version, double[] results)
+	{
+		series.check(periods + 1, results);
+
+		double[] open = series.getOpen();
+		double[] high = series.getHigh();
+		double[] low = series.getLow();
+		double[] close = series.getClose();
+		double[] volume = series.getVolume();
+		MomentumStream stream = new MomentumStream(periods, version);
+
+		for (int i = 0; i < series.size(); i++)
+		{
+			results[i] = stream.update(open[i], high[i], low[i], close[i], volume[i], true);
+		}
+	}
+
+}
@@ -1,9 +1,12 @@
 package technicals.indicators.oscillator;
 
 import technicals.config.Labels;
+import technicals.indicators.streaming.RelativeStrengthIndexStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.oscillator.RsiEntry;
 import technicals.util.DoubleArrayUtils;
+import technicals.util.Tail;
 
 /**
  * RSI - Relative Strength Index
@@ -75,4 +78,34 @@ public class RelativeStrengthIndex
 		return rsiEntries;
 	}
 
+	/**
+	 * Last 'n' entries, the calculation starts 'warmUp' candles before them (default
+	 * Tail.warmUp), same values as calculate when the series is not longer than that
+	 */
+	public static RsiEntry[] lastN(TechCandle[] candles, int periods, int n)
+	{
+		return lastN(candles, periods, n, Tail.warmUp(periods));
+	}
+
+	public static RsiEntry[] lastN(TechCandle[] candles, int periods, int n, int warmUp)
+	{
+		return Tail.last(calculate(Tail.candles(candles, n, periods + warmUp), periods), n);
+	}
+
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, int periods, double[] results)
+	{
+		series.check(periods + 1, results);
+
+		double[] close = series.getClose();
+		RelativeStrengthIndexStream stream = new RelativeStrengthIndexStream(periods);
+
+		for (int i = 0; i < series.size(); i++)
+		{
+			results[i] = stream.update(close[i], true);
+		}
+	}
+
 }
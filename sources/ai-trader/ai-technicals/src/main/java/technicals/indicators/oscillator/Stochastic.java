@@ -1,9 +1,12 @@
 package technicals.indicators.oscillator;
 
 import technicals.config.Labels;
+import technicals.indicators.streaming.StochasticStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.oscillator.StochasticEntry;
-import technicals.util.CandleUtils;
+import technicals.util.SlidingWindowExtremum;
+import technicals.util.Tail;
 
 /**
  * Stochastic
@@ -26,14 +29,26 @@ public class Stochastic
 		int len = candles.length - periods + 1;
 		StochasticEntry[] stochasticEntries = new StochasticEntry[len];
 
+		SlidingWindowExtremum highestHighs = SlidingWindowExtremum.max(periods);
+		SlidingWindowExtremum lowestLows = SlidingWindowExtremum.min(periods);
+
+		for (int i = 0; i < periods - 1; i++)
+		{
+			highestHighs.add(candles[i].getHighPrice());
+			lowestLows.add(candles[i].getLowPrice());
+		}
+
 		for (int i = 0; i < len; i++)
 		{
 			stochasticEntries[i] = new StochasticEntry(candles[i + periods - 1]);
 
-			double highestHigh = CandleUtils.highestHigh(candles, i, i + periods - 1);
+			highestHighs.add(candles[i + periods - 1].getHighPrice());
+			lowestLows.add(candles[i + periods - 1].getLowPrice());
+
+			double highestHigh = highestHighs.get();
 			stochasticEntries[i].setHighestHigh(highestHigh);
 
-			double lowestLow = CandleUtils.lowestLow(candles, i, i + periods - 1);
+			double lowestLow = lowestLows.get();
 			stochasticEntries[i].setLowestLow(lowestLow);
 
 			double k1 = 100 * (candles[i + periods - 1].getClosePrice() - lowestLow) / (highestHigh - lowestLow);
@@ -75,4 +90,33 @@ public class Stochastic
 		return sum / count;
 	}
 
+	/**
+	 * Last 'n' entries, calculated only on the candles they depend on (same values as calculate)
+	 */
+	public static StochasticEntry[] lastN(TechCandle[] candles, int periods, int smoothK, int smoothD, int n)
+	{
+		return Tail.last(calculate(Tail.candles(candles, n, periods + smoothK + smoothD), periods, smoothK, smoothD), n);
+	}
+
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, int periods, int smoothK, int smoothD, double[] k, double[] d)
+	{
+		series.check(periods, k, d);
+
+		double[] open = series.getOpen();
+		double[] high = series.getHigh();
+		double[] low = series.getLow();
+		double[] close = series.getClose();
+		double[] volume = series.getVolume();
+		StochasticStream stream = new StochasticStream(periods, smoothK, smoothD);
+
+		for (int i = 0; i < series.size(); i++)
+		{
+			d[i] = stream.update(open[i], high[i], low[i], close[i], volume[i], true);
+			k[i] = stream.getK();
+		}
+	}
+
 }
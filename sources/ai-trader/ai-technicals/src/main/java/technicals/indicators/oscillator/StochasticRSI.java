@@ -1,9 +1,12 @@
 package technicals.indicators.oscillator;
 
 import technicals.config.Labels;
+import technicals.indicators.streaming.StochasticRSIStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.oscillator.RsiEntry;
 import technicals.model.oscillator.StochRsiEntry;
+import technicals.util.Tail;
 
 /**
  * StochRSI - Stochastic RSI
@@ -107,4 +110,39 @@ public class StochasticRSI
 		return value;
 	}
 
+	/**
+	 * Last 'n' entries, the calculation starts 'warmUp' candles before them (default
+	 * Tail.warmUp), same values as calculate when the series is not longer than that
+	 */
+	public static StochRsiEntry[] lastN(TechCandle[] candles, int periodsRsi, int periodsStoch, int smoothK, int smoothD, int n)
+	{
+		return lastN(candles, periodsRsi, periodsStoch, smoothK, smoothD, n, Tail.warmUp(periodsRsi));
+	}
+
+	public static StochRsiEntry[] lastN(TechCandle[] candles, int periodsRsi, int periodsStoch, int smoothK, int smoothD, int n, int warmUp)
+	{
+		return Tail.last(calculate(Tail.candles(candles, n, periodsRsi + periodsStoch + smoothK + smoothD + warmUp), periodsRsi, periodsStoch, smoothK, smoothD), n);
+	}
+
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, int periodsRsi, int periodsStoch, int smoothK, int smoothD, double[] k, double[] d)
+	{
+		series.check(periodsRsi + periodsStoch, k, d);
+
+		double[] open = series.getOpen();
+		double[] high = series.getHigh();
+		double[] low = series.getLow();
+		double[] close = series.getClose();
+		double[] volume = series.getVolume();
+		StochasticRSIStream stream = new StochasticRSIStream(periodsRsi, periodsStoch, smoothK, smoothD);
+
+		for (int i = 0; i < series.size(); i++)
+		{
+			d[i] = stream.update(open[i], high[i], low[i], close[i], volume[i], true);
+			k[i] = stream.getK();
+		}
+	}
+
 }
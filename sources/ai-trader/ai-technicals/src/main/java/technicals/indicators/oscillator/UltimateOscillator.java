@@ -1,8 +1,11 @@
 package technicals.indicators.oscillator;
 
 import technicals.config.Labels;
+import technicals.indicators.streaming.UltimateOscillatorStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.indicators.IndicatorEntry;
+import technicals.util.Tail;
 
 /**
  * UO - Ultimate Oscillator
@@ -66,4 +69,32 @@ public class UltimateOscillator
 		return sumBP / sumTR;
 	}
 
+	/**
+	 * Last 'n' entries, calculated only on the candles they depend on (same values as calculate)
+	 */
+	public static IndicatorEntry[] lastN(TechCandle[] candles, int periods1, int periods2, int periods3, int n)
+	{
+		return Tail.last(calculate(Tail.candles(candles, n, Math.max(periods1, Math.max(periods2, periods3))), periods1, periods2, periods3), n);
+	}
+
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, int periods1, int periods2, int periods3, double[] results)
+	{
+		series.check(periods3, results);
+
+		double[] open = series.getOpen();
+		double[] high = series.getHigh();
+		double[] low = series.getLow();
+		double[] close = series.getClose();
+		double[] volume = series.getVolume();
+		UltimateOscillatorStream stream = new UltimateOscillatorStream(periods1, periods2, periods3);
+
+		for (int i = 0; i < series.size(); i++)
+		{
+			results[i] = stream.update(open[i], high[i], low[i], close[i], volume[i], true);
+		}
+	}
+
 }
@@ -1,9 +1,12 @@
 package technicals.indicators.oscillator;
 
 import technicals.config.Labels;
+import technicals.indicators.streaming.WilliamsRStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.oscillator.WilliamsREntry;
-import technicals.util.CandleUtils;
+import technicals.util.SlidingWindowExtremum;
+import technicals.util.Tail;
 
 /**
  * Williams %R
@@ -26,14 +29,26 @@ public class WilliamsR
 		int len = candles.length - periods + 1;
 		WilliamsREntry[] williamsREntries = new WilliamsREntry[len];
 
+		SlidingWindowExtremum highestHighs = SlidingWindowExtremum.max(periods);
+		SlidingWindowExtremum lowestLows = SlidingWindowExtremum.min(periods);
+
+		for (int i = 0; i < periods - 1; i++)
+		{
+			highestHighs.add(candles[i].getHighPrice());
+			lowestLows.add(candles[i].getLowPrice());
+		}
+
 		for (int i = 0; i < len; i++)
 		{
 			williamsREntries[i] = new WilliamsREntry(candles[i + periods - 1]);
 
-			double highestHigh = CandleUtils.highestHigh(candles, i, i + periods - 1);
+			highestHighs.add(candles[i + periods - 1].getHighPrice());
+			lowestLows.add(candles[i + periods - 1].getLowPrice());
+
+			double highestHigh = highestHighs.get();
 			williamsREntries[i].setHighestHigh(highestHigh);
 
-			double lowestLow = CandleUtils.lowestLow(candles, i, i + periods - 1);
+			double lowestLow = lowestLows.get();
 			williamsREntries[i].setLowestLow(lowestLow);
 
 			double closePrice = candles[i + periods - 1].getClosePrice();
@@ -44,4 +59,32 @@ public class WilliamsR
 		return williamsREntries;
 	}
 
+	/**
+	 * Last 'n' entries, calculated only on the candles they depend on (same values as calculate)
+	 */
+	public static WilliamsREntry[] lastN(TechCandle[] candles, int periods, int n)
+	{
+		return Tail.last(calculate(Tail.candles(candles, n, periods), periods), n);
+	}
+
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, int periods, double[] results)
+	{
+		series.check(periods, results);
+
+		double[] open = series.getOpen();
+		double[] high = series.getHigh();
+		double[] low = series.getLow();
+		double[] close = series.getClose();
+		double[] volume = series.getVolume();
+		WilliamsRStream stream = new WilliamsRStream(periods);
+
+		for (int i = 0; i < series.size(); i++)
+		{
+			results[i] = stream.update(open[i], high[i], low[i], close[i], volume[i], true);
+		}
+	}
+
 }
@@ -0,0 +1,33 @@
+package technicals.indicators.streaming;
+
+/**
+ * A/D - Accumulation/Distribution (streaming)
+ */
+public class AccumulationDistributionStream extends StreamingIndicator
+{
+	private double ad;
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		double mfm = ((close - low) - (high - close)) / (high - low);
+		double mfv = mfm * volume;
+		double newAd = ad + mfv;
+
+		if (closed)
+		{
+			ad = newAd;
+		}
+
+		value = newAd;
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		ad = 0;
+		value = Double.NaN;
+	}
+
+}
@@ -0,0 +1,83 @@
+package technicals.indicators.streaming;
+
+import technicals.util.SlidingWindowExtremum;
+
+/**
+ * Aroon Oscillator (streaming)
+ *
+ * Value is the oscillator, up and down are available through the getters
+ */
+public class AroonStream extends StreamingIndicator
+{
+	private final int periods;
+	private final SlidingWindowExtremum highs;
+	private final SlidingWindowExtremum lows;
+
+	private double aroonUp = Double.NaN;
+	private double aroonDown = Double.NaN;
+
+	public AroonStream()
+	{
+		this(14);
+	}
+
+	public AroonStream(int periods)
+	{
+		this.periods = periods;
+		this.highs = SlidingWindowExtremum.max(periods);
+		this.lows = SlidingWindowExtremum.min(periods);
+	}
+
+	public double getAroonUp()
+	{
+		return aroonUp;
+	}
+
+	public double getAroonDown()
+	{
+		return aroonDown;
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		boolean ready = highs.count() + 1 >= periods;
+
+		if (ready)
+		{
+			// position of the current candle
+			long index = highs.count();
+
+			long sinceHigh = index - highs.peekIndex(high);
+			long sinceLow = index - lows.peekIndex(low);
+
+			aroonUp = 100 * (((double) periods - (double) sinceHigh) / (double) periods);
+			aroonDown = 100 * (((double) periods - (double) sinceLow) / (double) periods);
+			value = aroonUp - aroonDown;
+		}
+		else
+		{
+			aroonUp = Double.NaN;
+			aroonDown = Double.NaN;
+			value = Double.NaN;
+		}
+
+		if (closed)
+		{
+			highs.add(high);
+			lows.add(low);
+		}
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		highs.clear();
+		lows.clear();
+		aroonUp = Double.NaN;
+		aroonDown = Double.NaN;
+		value = Double.NaN;
+	}
+
+}
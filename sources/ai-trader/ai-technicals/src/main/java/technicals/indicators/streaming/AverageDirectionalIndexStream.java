@@ -0,0 +1,151 @@
+package technicals.indicators.streaming;
+
+/**
+ * ADX - Average Directional Index (streaming)
+ *
+ * Value is the ADX, +DI and -DI are available through the getters
+ */
+public class AverageDirectionalIndexStream extends StreamingIndicator
+{
+	private final int periods;
+
+	private int count;
+	private double prevHigh;
+	private double prevLow;
+	private double prevClose;
+
+	private double trX;
+	private double posDmX;
+	private double negDmX;
+	private double dxSum;
+	private double adx;
+
+	private double posDI = Double.NaN;
+	private double negDI = Double.NaN;
+
+	public AverageDirectionalIndexStream()
+	{
+		this(14);
+	}
+
+	public AverageDirectionalIndexStream(int periods)
+	{
+		this.periods = periods;
+	}
+
+	public double getPosDI()
+	{
+		return posDI;
+	}
+
+	public double getNegDI()
+	{
+		return negDI;
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		// index of this candle in the batch version
+		int index = count;
+
+		if (index == 0)
+		{
+			if (closed)
+			{
+				prevHigh = high;
+				prevLow = low;
+				prevClose = close;
+				count++;
+			}
+			value = Double.NaN;
+			return value;
+		}
+
+		double tr1 = trueRange(high, low, prevClose);
+		double upMove = high - prevHigh;
+		double downMove = prevLow - low;
+		double posDm1 = (upMove > downMove) ? Math.max(upMove, 0) : 0;
+		double negDm1 = (downMove > upMove) ? Math.max(downMove, 0) : 0;
+
+		double newTrX;
+		double newPosDmX;
+		double newNegDmX;
+
+		if (index <= periods)
+		{
+			newTrX = trX + tr1;
+			newPosDmX = posDmX + posDm1;
+			newNegDmX = negDmX + negDm1;
+		}
+		else
+		{
+			newTrX = trX - (trX / periods) + tr1;
+			newPosDmX = posDmX - (posDmX / periods) + posDm1;
+			newNegDmX = negDmX - (negDmX / periods) + negDm1;
+		}
+
+		double newDxSum = dxSum;
+		double newAdx = adx;
+
+		if (index >= periods)
+		{
+			posDI = (newTrX > 0) ? 100 * (newPosDmX / newTrX) : 0;
+			negDI = (newTrX > 0) ? 100 * (newNegDmX / newTrX) : 0;
+
+			double diffDI = Math.abs(posDI - negDI);
+			double sumDI = Math.abs(posDI + negDI);
+			double dx = (sumDI > 0) ? 100 * (diffDI / sumDI) : 0;
+
+			if (index < (periods + periods - 1))
+			{
+				newDxSum += dx;
+			}
+			else if (index == (periods + periods - 1))
+			{
+				newAdx = (newDxSum + dx) / periods;
+			}
+			else
+			{
+				newAdx = ((adx * (periods - 1)) + dx) / periods;
+			}
+		}
+		else
+		{
+			posDI = Double.NaN;
+			negDI = Double.NaN;
+		}
+
+		value = (index >= (periods + periods - 1)) ? newAdx : Double.NaN;
+
+		if (closed)
+		{
+			trX = newTrX;
+			posDmX = newPosDmX;
+			negDmX = newNegDmX;
+			dxSum = newDxSum;
+			adx = newAdx;
+
+			prevHigh = high;
+			prevLow = low;
+			prevClose = close;
+			count++;
+		}
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		count = 0;
+		trX = 0;
+		posDmX = 0;
+		negDmX = 0;
+		dxSum = 0;
+		adx = 0;
+		posDI = Double.NaN;
+		negDI = Double.NaN;
+		value = Double.NaN;
+	}
+
+}
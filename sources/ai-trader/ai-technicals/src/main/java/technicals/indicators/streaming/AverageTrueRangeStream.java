@@ -0,0 +1,66 @@
+package technicals.indicators.streaming;
+
+/**
+ * ATR - Average True Range (streaming)
+ *
+ * Values are not rounded, same as the batch version without precision
+ */
+public class AverageTrueRangeStream extends StreamingIndicator
+{
+	private final int periods;
+
+	private double prevClose = Double.NaN;
+	private double atr = Double.NaN;
+
+	private double tr = Double.NaN;
+	private double atrp = Double.NaN;
+
+	public AverageTrueRangeStream()
+	{
+		this(20);
+	}
+
+	public AverageTrueRangeStream(int periods)
+	{
+		this.periods = periods;
+	}
+
+	public double getTr()
+	{
+		return tr;
+	}
+
+	public double getAtrp()
+	{
+		return atrp;
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		tr = trueRange(high, low, prevClose);
+
+		double newAtr = Double.isNaN(atr) ? tr : ((atr * (periods - 1)) + tr) / periods;
+
+		if (closed)
+		{
+			atr = newAtr;
+			prevClose = close;
+		}
+
+		atrp = newAtr / close * 100;
+		value = newAtr;
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		prevClose = Double.NaN;
+		atr = Double.NaN;
+		tr = Double.NaN;
+		atrp = Double.NaN;
+		value = Double.NaN;
+	}
+
+}
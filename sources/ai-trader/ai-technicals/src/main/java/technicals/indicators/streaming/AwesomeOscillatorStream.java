@@ -0,0 +1,31 @@
+package technicals.indicators.streaming;
+
+/**
+ * AO - Awesome Oscillator (streaming)
+ */
+public class AwesomeOscillatorStream extends StreamingIndicator
+{
+	private final SimpleMovingAverageStream smaFast = new SimpleMovingAverageStream(5);
+	private final SimpleMovingAverageStream smaSlow = new SimpleMovingAverageStream(34);
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		double hl2 = (high + low) / 2;
+
+		double fast = smaFast.update(hl2, closed);
+		double slow = smaSlow.update(hl2, closed);
+
+		value = fast - slow;
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		smaFast.reset();
+		smaSlow.reset();
+		value = Double.NaN;
+	}
+
+}
@@ -0,0 +1,67 @@
+package technicals.indicators.streaming;
+
+/**
+ * Bollinger Bands (streaming)
+ *
+ * Value is the middle band, upper and lower bands are available through the getters
+ */
+public class BollingerStream extends StreamingIndicator
+{
+	private final int mult;
+	private final StandardDeviationStream sdStream;
+
+	private double upperBand = Double.NaN;
+	private double lowerBand = Double.NaN;
+
+	public BollingerStream()
+	{
+		this(20, 2);
+	}
+
+	public BollingerStream(int periods, int mult)
+	{
+		this.mult = mult;
+		this.sdStream = new StandardDeviationStream(periods);
+	}
+
+	public double getStandardDeviation()
+	{
+		return sdStream.getValue();
+	}
+
+	public double getMiddleBand()
+	{
+		return value;
+	}
+
+	public double getUpperBand()
+	{
+		return upperBand;
+	}
+
+	public double getLowerBand()
+	{
+		return lowerBand;
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		double sd = sdStream.update(close, closed);
+
+		value = sdStream.getMean();
+		upperBand = value + mult * sd;
+		lowerBand = value - mult * sd;
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		sdStream.reset();
+		upperBand = Double.NaN;
+		lowerBand = Double.NaN;
+		value = Double.NaN;
+	}
+
+}
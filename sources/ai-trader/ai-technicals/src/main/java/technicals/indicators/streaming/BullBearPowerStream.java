@@ -0,0 +1,38 @@
+package technicals.indicators.streaming;
+
+/**
+ * BBP - Bull Bear Power (streaming)
+ */
+public class BullBearPowerStream extends StreamingIndicator
+{
+	private final ExponentialMovingAverageStream ema;
+
+	public BullBearPowerStream()
+	{
+		this(13);
+	}
+
+	public BullBearPowerStream(int periods)
+	{
+		this.ema = new ExponentialMovingAverageStream(periods);
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		double avg = ema.update(close, closed);
+
+		double bullPower = high - avg;
+		double bearPower = low - avg;
+		value = bullPower + bearPower;
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		ema.reset();
+		value = Double.NaN;
+	}
+
+}
@@ -0,0 +1,69 @@
+package technicals.indicators.streaming;
+
+import technicals.util.DoubleRingBuffer;
+
+/**
+ * CCI - Commodity Channel Index (streaming)
+ *
+ * The mean deviation has no running form, it is scanned over the window (O(periods), no allocation)
+ */
+public class CommodityChannelIndexStream extends StreamingIndicator
+{
+	private final int periods;
+	private final DoubleRingBuffer typicalPrices;
+	private double sum;
+
+	public CommodityChannelIndexStream()
+	{
+		this(20);
+	}
+
+	public CommodityChannelIndexStream(int periods)
+	{
+		this.periods = periods;
+		this.typicalPrices = new DoubleRingBuffer(periods);
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		double typicalPrice = (high + low + close) / 3;
+		boolean ready = typicalPrices.isFull() || typicalPrices.size() + 1 == periods;
+
+		double newSum = sum + typicalPrice - typicalPrices.peekEvicted();
+
+		if (ready)
+		{
+			double ma = newSum / periods;
+
+			double devSum = Math.abs(typicalPrice - ma);
+			for (int i = typicalPrices.isFull() ? 1 : 0; i < typicalPrices.size(); i++)
+			{
+				devSum += Math.abs(typicalPrices.get(i) - ma);
+			}
+			double meanDeviation = devSum / periods;
+
+			value = (meanDeviation > 0) ? (typicalPrice - ma) / (0.015 * meanDeviation) : 0;
+		}
+		else
+		{
+			value = Double.NaN;
+		}
+
+		if (closed)
+		{
+			typicalPrices.add(typicalPrice);
+			sum = newSum;
+		}
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		typicalPrices.clear();
+		sum = 0;
+		value = Double.NaN;
+	}
+
+}
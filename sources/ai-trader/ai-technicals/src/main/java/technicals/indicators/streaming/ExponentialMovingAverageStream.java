@@ -0,0 +1,68 @@
+package technicals.indicators.streaming;
+
+/**
+ * EMA - Exponential Moving Average (streaming)
+ *
+ * Seeded with the SMA of the first 'periods' values, like the batch version
+ */
+public class ExponentialMovingAverageStream extends StreamingIndicator
+{
+	private final int periods;
+	private final double smoothing;
+
+	private int count;
+	private double seedSum;
+	private double ema = Double.NaN;
+
+	public ExponentialMovingAverageStream(int periods)
+	{
+		this.periods = periods;
+		this.smoothing = 2d / (periods + 1);
+	}
+
+	public int getPeriods()
+	{
+		return periods;
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		return update(close, closed);
+	}
+
+	public double update(double price, boolean closed)
+	{
+		if (count < periods)
+		{
+			double newSeedSum = seedSum + price;
+			value = (count + 1 == periods) ? newSeedSum / periods : Double.NaN;
+
+			if (closed)
+			{
+				seedSum = newSeedSum;
+				ema = value;
+				count++;
+			}
+			return value;
+		}
+
+		value = price * smoothing + ema * (1 - smoothing);
+
+		if (closed)
+		{
+			ema = value;
+		}
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		count = 0;
+		seedSum = 0;
+		ema = Double.NaN;
+		value = Double.NaN;
+	}
+
+}
@@ -0,0 +1,57 @@
+package technicals.indicators.streaming;
+
+/**
+ * HMA - Hull Moving Average (streaming)
+ */
+public class HullMovingAverageStream extends StreamingIndicator
+{
+	private final int periods;
+
+	private final WeightedMovingAverageStream wmaHalf;
+	private final WeightedMovingAverageStream wmaFull;
+	private final WeightedMovingAverageStream wmaSqrt;
+
+	public HullMovingAverageStream(int periods)
+	{
+		this.periods = periods;
+		this.wmaHalf = new WeightedMovingAverageStream(periods / 2);
+		this.wmaFull = new WeightedMovingAverageStream(periods);
+		this.wmaSqrt = new WeightedMovingAverageStream((int) Math.sqrt(periods));
+	}
+
+	public int getPeriods()
+	{
+		return periods;
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		return update(close, closed);
+	}
+
+	public double update(double price, boolean closed)
+	{
+		double wma1 = wmaHalf.update(price, closed);
+		double wma2 = wmaFull.update(price, closed);
+
+		if (Double.isNaN(wma2))
+		{
+			value = Double.NaN;
+			return value;
+		}
+
+		value = wmaSqrt.update((2 * wma1) - wma2, closed);
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		wmaHalf.reset();
+		wmaFull.reset();
+		wmaSqrt.reset();
+		value = Double.NaN;
+	}
+
+}
@@ -0,0 +1,94 @@
+package technicals.indicators.streaming;
+
+import technicals.util.SlidingWindowExtremum;
+
+/**
+ * Ichimoku Cloud (streaming)
+ *
+ * Value is the base line, the other lines are available through the getters
+ */
+public class IchimokuStream extends StreamingIndicator
+{
+	private static final int CONVERSION_PERIODS = 9;
+	private static final int BASE_PERIODS = 26;
+	private static final int SPAN_B_PERIODS = 52;
+
+	private final SlidingWindowExtremum highs9 = SlidingWindowExtremum.max(CONVERSION_PERIODS);
+	private final SlidingWindowExtremum lows9 = SlidingWindowExtremum.min(CONVERSION_PERIODS);
+	private final SlidingWindowExtremum highs26 = SlidingWindowExtremum.max(BASE_PERIODS);
+	private final SlidingWindowExtremum lows26 = SlidingWindowExtremum.min(BASE_PERIODS);
+	private final SlidingWindowExtremum highs52 = SlidingWindowExtremum.max(SPAN_B_PERIODS);
+	private final SlidingWindowExtremum lows52 = SlidingWindowExtremum.min(SPAN_B_PERIODS);
+
+	private double conversionLine = Double.NaN;
+	private double leadingSpanA = Double.NaN;
+	private double leadingSpanB = Double.NaN;
+
+	public double getConversionLine()
+	{
+		return conversionLine;
+	}
+
+	public double getBaseLine()
+	{
+		return value;
+	}
+
+	public double getLeadingSpanA()
+	{
+		return leadingSpanA;
+	}
+
+	public double getLeadingSpanB()
+	{
+		return leadingSpanB;
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		boolean ready = highs52.count() + 1 >= SPAN_B_PERIODS;
+
+		if (ready)
+		{
+			conversionLine = (highs9.peek(high) + lows9.peek(low)) / 2;
+			value = (highs26.peek(high) + lows26.peek(low)) / 2;
+			leadingSpanA = (conversionLine + value) / 2;
+			leadingSpanB = (highs52.peek(high) + lows52.peek(low)) / 2;
+		}
+		else
+		{
+			conversionLine = Double.NaN;
+			leadingSpanA = Double.NaN;
+			leadingSpanB = Double.NaN;
+			value = Double.NaN;
+		}
+
+		if (closed)
+		{
+			highs9.add(high);
+			lows9.add(low);
+			highs26.add(high);
+			lows26.add(low);
+			highs52.add(high);
+			lows52.add(low);
+		}
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		highs9.clear();
+		lows9.clear();
+		highs26.clear();
+		lows26.clear();
+		highs52.clear();
+		lows52.clear();
+		conversionLine = Double.NaN;
+		leadingSpanA = Double.NaN;
+		leadingSpanB = Double.NaN;
+		value = Double.NaN;
+	}
+
+}
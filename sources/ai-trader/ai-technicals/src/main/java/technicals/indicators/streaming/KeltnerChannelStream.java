@@ -0,0 +1,71 @@
+package technicals.indicators.streaming;
+
+/**
+ * Keltner Channel (streaming)
+ *
+ * Value is the middle band, upper and lower bands are available through the getters
+ */
+public class KeltnerChannelStream extends StreamingIndicator
+{
+	private final double multiplier;
+	private final ExponentialMovingAverageStream emaStream;
+	private final AverageTrueRangeStream atrStream;
+
+	private double upperBand = Double.NaN;
+	private double lowerBand = Double.NaN;
+
+	public KeltnerChannelStream()
+	{
+		this(20, 1);
+	}
+
+	public KeltnerChannelStream(int periods, double multiplier)
+	{
+		this.multiplier = multiplier;
+		this.emaStream = new ExponentialMovingAverageStream(periods);
+		this.atrStream = new AverageTrueRangeStream(periods);
+	}
+
+	public double getAtr()
+	{
+		return atrStream.getValue();
+	}
+
+	public double getMiddleBand()
+	{
+		return value;
+	}
+
+	public double getUpperBand()
+	{
+		return upperBand;
+	}
+
+	public double getLowerBand()
+	{
+		return lowerBand;
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		double ema = emaStream.update(close, closed);
+		double atr = atrStream.update(open, high, low, close, volume, closed);
+
+		value = ema;
+		upperBand = ema + atr * multiplier;
+		lowerBand = ema - atr * multiplier;
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		emaStream.reset();
+		atrStream.reset();
+		upperBand = Double.NaN;
+		lowerBand = Double.NaN;
+		value = Double.NaN;
+	}
+
+}
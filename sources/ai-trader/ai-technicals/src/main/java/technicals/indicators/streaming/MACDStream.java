@@ -0,0 +1,104 @@
+package technicals.indicators.streaming;
+
+/**
+ * MACD - Moving Average Convergence / Divergence (streaming)
+ *
+ * Value is the MACD line, signal and histogram are available through the getters
+ */
+public class MACDStream extends StreamingIndicator
+{
+	private final ExponentialMovingAverageStream emaFast;
+	private final ExponentialMovingAverageStream emaSlow;
+	private final ExponentialMovingAverageStream emaSignal;
+
+	private double signal = Double.NaN;
+	private double histogram = Double.NaN;
+
+	public MACDStream()
+	{
+		this(12, 26, 9);
+	}
+
+	public MACDStream(int fastPeriods, int slowPeriods, int signalPeriods)
+	{
+		if (fastPeriods >= slowPeriods)
+		{
+			throw new IllegalArgumentException("'slowPeriods' must be greater than 'fastPeriods'");
+		}
+
+		this.emaFast = new ExponentialMovingAverageStream(fastPeriods);
+		this.emaSlow = new ExponentialMovingAverageStream(slowPeriods);
+		this.emaSignal = new ExponentialMovingAverageStream(signalPeriods);
+	}
+
+	public double getEmaFast()
+	{
+		return emaFast.getValue();
+	}
+
+	public double getEmaSlow()
+	{
+		return emaSlow.getValue();
+	}
+
+	public double getMacd()
+	{
+		return value;
+	}
+
+	public double getSignal()
+	{
+		return signal;
+	}
+
+	public double getHistogram()
+	{
+		return histogram;
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		return update(close, closed);
+	}
+
+	public double update(double price, boolean closed)
+	{
+		double fast = emaFast.update(price, closed);
+		double slow = emaSlow.update(price, closed);
+
+		if (Double.isNaN(slow))
+		{
+			signal = Double.NaN;
+			histogram = Double.NaN;
+			value = Double.NaN;
+			return value;
+		}
+
+		double macd = fast - slow;
+		signal = emaSignal.update(macd, closed);
+
+		if (Double.isNaN(signal))
+		{
+			histogram = Double.NaN;
+			value = Double.NaN;
+			return value;
+		}
+
+		histogram = macd - signal;
+		value = macd;
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		emaFast.reset();
+		emaSlow.reset();
+		emaSignal.reset();
+		signal = Double.NaN;
+		histogram = Double.NaN;
+		value = Double.NaN;
+	}
+
+}
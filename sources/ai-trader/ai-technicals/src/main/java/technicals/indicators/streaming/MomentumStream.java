@@ -0,0 +1,60 @@
+package technicals.indicators.streaming;
+
+import technicals.util.DoubleRingBuffer;
+
+/**
+ * MOM - Momentum (streaming)
+ */
+public class MomentumStream extends StreamingIndicator
+{
+	private final int version;
+	private final DoubleRingBuffer prices;
+
+	public MomentumStream()
+	{
+		this(10, 0);
+	}
+
+	public MomentumStream(int periods)
+	{
+		this(periods, 0);
+	}
+
+	public MomentumStream(int periods, int version)
+	{
+		this.version = version;
+		this.prices = new DoubleRingBuffer(periods);
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		if (prices.isFull())
+		{
+			double previousPrice = prices.first();
+
+			if (version == 0)
+				value = close - previousPrice;
+			else
+				value = (close / previousPrice) * 100;
+		}
+		else
+		{
+			value = Double.NaN;
+		}
+
+		if (closed)
+		{
+			prices.add(close);
+		}
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		prices.clear();
+		value = Double.NaN;
+	}
+
+}
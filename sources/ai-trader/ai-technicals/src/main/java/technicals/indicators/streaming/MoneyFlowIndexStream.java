@@ -0,0 +1,80 @@
+package technicals.indicators.streaming;
+
+import technicals.util.DoubleRingBuffer;
+
+/**
+ * MFI - Money Flow Index (streaming)
+ */
+public class MoneyFlowIndexStream extends StreamingIndicator
+{
+	private final int periods;
+	private final DoubleRingBuffer posMoneyFlow;
+	private final DoubleRingBuffer negMoneyFlow;
+	private double sumPosMf;
+	private double sumNegMf;
+
+	private double prevTypicalPrice = Double.NaN;
+
+	public MoneyFlowIndexStream()
+	{
+		this(14);
+	}
+
+	public MoneyFlowIndexStream(int periods)
+	{
+		this.periods = periods;
+		this.posMoneyFlow = new DoubleRingBuffer(periods);
+		this.negMoneyFlow = new DoubleRingBuffer(periods);
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		double typicalPrice = (high + low + close) / 3;
+		double moneyFlow = typicalPrice * volume;
+
+		double posMf = 0;
+		double negMf = 0;
+		if (!Double.isNaN(prevTypicalPrice))
+		{
+			posMf = typicalPrice > prevTypicalPrice ? moneyFlow : 0;
+			negMf = typicalPrice < prevTypicalPrice ? moneyFlow : 0;
+		}
+
+		double newSumPosMf = sumPosMf + posMf - posMoneyFlow.peekEvicted();
+		double newSumNegMf = sumNegMf + negMf - negMoneyFlow.peekEvicted();
+		boolean ready = posMoneyFlow.isFull() || posMoneyFlow.size() + 1 == periods;
+
+		if (ready)
+		{
+			double mr = newSumPosMf / newSumNegMf;
+			value = 100 - (100 / (1 + mr));
+		}
+		else
+		{
+			value = Double.NaN;
+		}
+
+		if (closed)
+		{
+			posMoneyFlow.add(posMf);
+			negMoneyFlow.add(negMf);
+			sumPosMf = newSumPosMf;
+			sumNegMf = newSumNegMf;
+			prevTypicalPrice = typicalPrice;
+		}
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		posMoneyFlow.clear();
+		negMoneyFlow.clear();
+		sumPosMf = 0;
+		sumNegMf = 0;
+		prevTypicalPrice = Double.NaN;
+		value = Double.NaN;
+	}
+
+}
@@ -0,0 +1,51 @@
+package technicals.indicators.streaming;
+
+/**
+ * OBV - On Balance Volume (streaming)
+ */
+public class OnBalanceVolumeStream extends StreamingIndicator
+{
+	private double obv;
+	private double prevClose = Double.NaN;
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		double newObv;
+
+		if (Double.isNaN(prevClose))
+		{
+			newObv = volume;
+		}
+		else if (close > prevClose)
+		{
+			newObv = obv + volume;
+		}
+		else if (close < prevClose)
+		{
+			newObv = obv - volume;
+		}
+		else
+		{
+			newObv = obv;
+		}
+
+		if (closed)
+		{
+			obv = newObv;
+			prevClose = close;
+		}
+
+		value = newObv;
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		obv = 0;
+		prevClose = Double.NaN;
+		value = Double.NaN;
+	}
+
+}
@@ -0,0 +1,82 @@
+package technicals.indicators.streaming;
+
+import technicals.util.SlidingWindowExtremum;
+
+/**
+ * Price Channel (streaming)
+ *
+ * Value is the center line, upper and lower channels are available through the getters
+ */
+public class PriceChannelStream extends StreamingIndicator
+{
+	private final int periods;
+	private final SlidingWindowExtremum highs;
+	private final SlidingWindowExtremum lows;
+
+	private double upperChannel = Double.NaN;
+	private double lowerChannel = Double.NaN;
+
+	public PriceChannelStream()
+	{
+		this(20);
+	}
+
+	public PriceChannelStream(int periods)
+	{
+		this.periods = periods;
+		this.highs = SlidingWindowExtremum.max(periods);
+		this.lows = SlidingWindowExtremum.min(periods);
+	}
+
+	public double getUpperChannel()
+	{
+		return upperChannel;
+	}
+
+	public double getLowerChannel()
+	{
+		return lowerChannel;
+	}
+
+	public double getCenterLine()
+	{
+		return value;
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		boolean ready = highs.count() + 1 >= periods;
+
+		if (ready)
+		{
+			upperChannel = highs.peek(high);
+			lowerChannel = lows.peek(low);
+			value = (upperChannel + lowerChannel) / 2;
+		}
+		else
+		{
+			upperChannel = Double.NaN;
+			lowerChannel = Double.NaN;
+			value = Double.NaN;
+		}
+
+		if (closed)
+		{
+			highs.add(high);
+			lows.add(low);
+		}
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		highs.clear();
+		lows.clear();
+		upperChannel = Double.NaN;
+		lowerChannel = Double.NaN;
+		value = Double.NaN;
+	}
+
+}
@@ -0,0 +1,49 @@
+package technicals.indicators.streaming;
+
+import technicals.util.DoubleRingBuffer;
+
+/**
+ * ROC - Rate Of Change (streaming)
+ */
+public class RateOfChangeStream extends StreamingIndicator
+{
+	private final DoubleRingBuffer prices;
+
+	public RateOfChangeStream()
+	{
+		this(9);
+	}
+
+	public RateOfChangeStream(int periods)
+	{
+		this.prices = new DoubleRingBuffer(periods);
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		if (prices.isFull())
+		{
+			double prevPrice = prices.first();
+			value = 100 * ((close - prevPrice) / prevPrice);
+		}
+		else
+		{
+			value = Double.NaN;
+		}
+
+		if (closed)
+		{
+			prices.add(close);
+		}
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		prices.clear();
+		value = Double.NaN;
+	}
+
+}
@@ -0,0 +1,125 @@
+package technicals.indicators.streaming;
+
+/**
+ * RSI - Relative Strength Index (streaming)
+ *
+ * Seeded with the simple average of the first 'periods' gains / losses, then Wilder smoothing
+ */
+public class RelativeStrengthIndexStream extends StreamingIndicator
+{
+	private final int periods;
+
+	private double prevPrice = Double.NaN;
+	private int changes;
+	private double sumGain;
+	private double sumLoss;
+	private double avgGain;
+	private double avgLoss;
+
+	public RelativeStrengthIndexStream()
+	{
+		this(14);
+	}
+
+	public RelativeStrengthIndexStream(int periods)
+	{
+		this.periods = periods;
+	}
+
+	public int getPeriods()
+	{
+		return periods;
+	}
+
+	public double getAvgGain()
+	{
+		return avgGain;
+	}
+
+	public double getAvgLoss()
+	{
+		return avgLoss;
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		return update(close, closed);
+	}
+
+	public double update(double price, boolean closed)
+	{
+		if (Double.isNaN(prevPrice))
+		{
+			if (closed)
+			{
+				prevPrice = price;
+			}
+			value = Double.NaN;
+			return value;
+		}
+
+		double change = price - prevPrice;
+		double gain = change > 0 ? change : 0;
+		double loss = change < 0 ? change * -1 : 0;
+
+		double newAvgGain;
+		double newAvgLoss;
+
+		if (changes < periods)
+		{
+			double newSumGain = sumGain + gain;
+			double newSumLoss = sumLoss + loss;
+			newAvgGain = newSumGain / periods;
+			newAvgLoss = newSumLoss / periods;
+
+			if (closed)
+			{
+				sumGain = newSumGain;
+				sumLoss = newSumLoss;
+			}
+		}
+		else
+		{
+			newAvgGain = (avgGain * (periods - 1) + gain) / periods;
+			newAvgLoss = (avgLoss * (periods - 1) + loss) / periods;
+		}
+
+		boolean ready = changes + 1 >= periods;
+
+		if (closed)
+		{
+			prevPrice = price;
+			changes++;
+			if (ready)
+			{
+				avgGain = newAvgGain;
+				avgLoss = newAvgLoss;
+			}
+		}
+
+		if (ready)
+		{
+			double rs = newAvgGain / newAvgLoss;
+			value = 100 - (100 / (1 + rs));
+		}
+		else
+		{
+			value = Double.NaN;
+		}
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		prevPrice = Double.NaN;
+		changes = 0;
+		sumGain = 0;
+		sumLoss = 0;
+		avgGain = 0;
+		avgLoss = 0;
+		value = Double.NaN;
+	}
+
+}
@@ -0,0 +1,50 @@
+package technicals.indicators.streaming;
+
+import technicals.util.RollingSum;
+
+/**
+ * SMA - Simple Moving Average (streaming)
+ */
+public class SimpleMovingAverageStream extends StreamingIndicator
+{
+	private final int periods;
+	private final RollingSum sum;
+
+	public SimpleMovingAverageStream(int periods)
+	{
+		this.periods = periods;
+		this.sum = new RollingSum(periods);
+	}
+
+	public int getPeriods()
+	{
+		return periods;
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		return update(close, closed);
+	}
+
+	public double update(double price, boolean closed)
+	{
+		boolean ready = sum.isFull() || sum.size() + 1 == periods;
+
+		value = ready ? sum.meanWith(price) : Double.NaN;
+
+		if (closed)
+		{
+			sum.add(price);
+		}
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		sum.clear();
+		value = Double.NaN;
+	}
+
+}
@@ -0,0 +1,72 @@
+package technicals.indicators.streaming;
+
+import technicals.util.RollingVariance;
+
+/**
+ * STDEV - Standard Deviation (streaming)
+ *
+ * Population standard deviation of the close price, from a rolling Welford variance
+ */
+public class StandardDeviationStream extends StreamingIndicator
+{
+	private final int periods;
+	private final RollingVariance variance;
+
+	private double mean = Double.NaN;
+
+	public StandardDeviationStream()
+	{
+		this(5);
+	}
+
+	public StandardDeviationStream(int periods)
+	{
+		this.periods = periods;
+		this.variance = new RollingVariance(periods);
+	}
+
+	/**
+	 * Mean of the window, same as the SMA of the same periods
+	 */
+	public double getMean()
+	{
+		return mean;
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		return update(close, closed);
+	}
+
+	public double update(double price, boolean closed)
+	{
+		boolean ready = variance.isFull() || variance.size() + 1 == periods;
+
+		if (ready)
+		{
+			mean = variance.meanWith(price);
+			value = variance.standardDeviationWith(price);
+		}
+		else
+		{
+			mean = Double.NaN;
+			value = Double.NaN;
+		}
+
+		if (closed)
+		{
+			variance.add(price);
+		}
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		variance.clear();
+		mean = Double.NaN;
+		value = Double.NaN;
+	}
+
+}
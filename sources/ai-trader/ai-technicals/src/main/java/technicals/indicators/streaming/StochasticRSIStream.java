@@ -0,0 +1,105 @@
+package technicals.indicators.streaming;
+
+import technicals.util.DoubleRingBuffer;
+import technicals.util.SlidingWindowExtremum;
+
+/**
+ * StochRSI - Stochastic RSI (streaming)
+ *
+ * Value is %D, %K and the RSI are available through the getters
+ */
+public class StochasticRSIStream extends StreamingIndicator
+{
+	private final int periodsStoch;
+	private final RelativeStrengthIndexStream rsiStream;
+	private final SlidingWindowExtremum maxRsiValues;
+	private final SlidingWindowExtremum minRsiValues;
+
+	private final DoubleRingBuffer k1Values;
+	private double k1Sum;
+	private final DoubleRingBuffer kValues;
+	private double kSum;
+
+	private double k = Double.NaN;
+
+	public StochasticRSIStream()
+	{
+		this(14, 14, 3, 3);
+	}
+
+	public StochasticRSIStream(int periodsRsi, int periodsStoch, int smoothK, int smoothD)
+	{
+		this.periodsStoch = periodsStoch;
+		this.rsiStream = new RelativeStrengthIndexStream(periodsRsi);
+		this.maxRsiValues = SlidingWindowExtremum.max(periodsStoch);
+		this.minRsiValues = SlidingWindowExtremum.min(periodsStoch);
+		this.k1Values = new DoubleRingBuffer(smoothK);
+		this.kValues = new DoubleRingBuffer(smoothD);
+	}
+
+	public double getRsi()
+	{
+		return rsiStream.getValue();
+	}
+
+	public double getK()
+	{
+		return k;
+	}
+
+	public double getD()
+	{
+		return value;
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		double rsi = rsiStream.update(close, closed);
+
+		boolean ready = !Double.isNaN(rsi) && maxRsiValues.count() + 1 >= periodsStoch;
+
+		if (!ready)
+		{
+			if (closed && !Double.isNaN(rsi))
+			{
+				maxRsiValues.add(rsi);
+				minRsiValues.add(rsi);
+			}
+			k = Double.NaN;
+			value = Double.NaN;
+			return value;
+		}
+
+		double maxRsi = maxRsiValues.peek(rsi);
+		double minRsi = minRsiValues.peek(rsi);
+
+		double k1 = 100 * (rsi - minRsi) / (maxRsi - minRsi);
+		k = avgWith(k1Values, k1Sum, k1);
+		value = avgWith(kValues, kSum, k);
+
+		if (closed)
+		{
+			maxRsiValues.add(rsi);
+			minRsiValues.add(rsi);
+			k1Sum += k1 - k1Values.add(k1);
+			kSum += k - kValues.add(k);
+		}
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		rsiStream.reset();
+		maxRsiValues.clear();
+		minRsiValues.clear();
+		k1Values.clear();
+		k1Sum = 0;
+		kValues.clear();
+		kSum = 0;
+		k = Double.NaN;
+		value = Double.NaN;
+	}
+
+}
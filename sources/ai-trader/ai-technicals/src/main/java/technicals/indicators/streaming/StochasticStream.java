@@ -0,0 +1,95 @@
+package technicals.indicators.streaming;
+
+import technicals.util.DoubleRingBuffer;
+import technicals.util.SlidingWindowExtremum;
+
+/**
+ * Stochastic (streaming)
+ *
+ * Value is %D, %K is available through the getter
+ */
+public class StochasticStream extends StreamingIndicator
+{
+	private final int periods;
+	private final SlidingWindowExtremum highs;
+	private final SlidingWindowExtremum lows;
+
+	private final DoubleRingBuffer k1Values;
+	private double k1Sum;
+	private final DoubleRingBuffer kValues;
+	private double kSum;
+
+	private double k = Double.NaN;
+
+	public StochasticStream()
+	{
+		this(14, 1, 3);
+	}
+
+	public StochasticStream(int periods, int smoothK, int smoothD)
+	{
+		this.periods = periods;
+		this.highs = SlidingWindowExtremum.max(periods);
+		this.lows = SlidingWindowExtremum.min(periods);
+		this.k1Values = new DoubleRingBuffer(smoothK);
+		this.kValues = new DoubleRingBuffer(smoothD);
+	}
+
+	public double getK()
+	{
+		return k;
+	}
+
+	public double getD()
+	{
+		return value;
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		boolean ready = highs.count() + 1 >= periods;
+
+		if (!ready)
+		{
+			if (closed)
+			{
+				highs.add(high);
+				lows.add(low);
+			}
+			k = Double.NaN;
+			value = Double.NaN;
+			return value;
+		}
+
+		double highestHigh = highs.peek(high);
+		double lowestLow = lows.peek(low);
+
+		double k1 = 100 * (close - lowestLow) / (highestHigh - lowestLow);
+		k = avgWith(k1Values, k1Sum, k1);
+		value = avgWith(kValues, kSum, k);
+
+		if (closed)
+		{
+			highs.add(high);
+			lows.add(low);
+			k1Sum += k1 - k1Values.add(k1);
+			kSum += k - kValues.add(k);
+		}
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		highs.clear();
+		lows.clear();
+		k1Values.clear();
+		k1Sum = 0;
+		kValues.clear();
+		kSum = 0;
+		k = Double.NaN;
+		value = Double.NaN;
+	}
+
+}
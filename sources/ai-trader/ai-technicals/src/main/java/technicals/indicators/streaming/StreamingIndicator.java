@@ -0,0 +1,70 @@
+package technicals.indicators.streaming;
+
+import technicals.model.TechCandle;
+import technicals.util.DoubleRingBuffer;
+
+/**
+ * Stateful counterpart of the batch indicators, each candle is processed in constant time.
+ *
+ * A closed candle is committed to the internal state. An in-progress candle (closed = false)
+ * is only evaluated against the committed state, so it can be sent again on every update
+ * until the candle closes.
+ */
+public abstract class StreamingIndicator
+{
+	protected double value = Double.NaN;
+
+	public double update(TechCandle candle)
+	{
+		return update(candle, true);
+	}
+
+	public double update(TechCandle candle, boolean closed)
+	{
+		return update(candle.getOpenPrice(), candle.getHighPrice(), candle.getLowPrice(), candle.getClosePrice(), candle.getVolume(), closed);
+	}
+
+	public abstract double update(double open, double high, double low, double close, double volume, boolean closed);
+
+	public abstract void reset();
+
+	/**
+	 * Value for the last processed candle, NaN while the indicator is warming up
+	 */
+	public double getValue()
+	{
+		return value;
+	}
+
+	public boolean isReady()
+	{
+		return !Double.isNaN(value);
+	}
+
+	// ---- HELPERS -----------------------------------------------------------
+
+	protected static double trueRange(double high, double low, double prevClose)
+	{
+		double tr = high - low;
+
+		if (!Double.isNaN(prevClose))
+		{
+			double tr2 = Math.abs(high - prevClose);
+			double tr3 = Math.abs(low - prevClose);
+
+			tr = Math.max(Math.max(tr, tr2), tr3);
+		}
+
+		return tr;
+	}
+
+	/**
+	 * Average of the last values once 'next' is appended, partial while the window is filling
+	 */
+	protected static double avgWith(DoubleRingBuffer window, double sum, double next)
+	{
+		int count = window.isFull() ? window.capacity() : window.size() + 1;
+		return (sum + next - window.peekEvicted()) / count;
+	}
+
+}
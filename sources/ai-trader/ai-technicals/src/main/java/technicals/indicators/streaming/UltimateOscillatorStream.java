@@ -0,0 +1,107 @@
+package technicals.indicators.streaming;
+
+import technicals.util.DoubleRingBuffer;
+
+/**
+ * UO - Ultimate Oscillator (streaming)
+ */
+public class UltimateOscillatorStream extends StreamingIndicator
+{
+	private final int periods1;
+	private final int periods2;
+	private final int periods3;
+	private final double divider;
+
+	private final DoubleRingBuffer buyingPressures;
+	private final DoubleRingBuffer trueRanges;
+
+	private double prevClose = Double.NaN;
+	private double sumBP1, sumBP2, sumBP3;
+	private double sumTR1, sumTR2, sumTR3;
+
+	public UltimateOscillatorStream()
+	{
+		this(7, 14, 28);
+	}
+
+	public UltimateOscillatorStream(int periods1, int periods2, int periods3)
+	{
+		if (periods1 >= periods2 || periods2 >= periods3)
+		{
+			throw new IllegalArgumentException("Periods must be periods1 < periods2 < periods3");
+		}
+
+		this.periods1 = periods1;
+		this.periods2 = periods2;
+		this.periods3 = periods3;
+		this.divider = (periods3 / periods1 + periods3 / periods2 + 1);
+
+		this.buyingPressures = new DoubleRingBuffer(periods3);
+		this.trueRanges = new DoubleRingBuffer(periods3);
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		double prev = Double.isNaN(prevClose) ? open : prevClose;
+
+		double buyingPressure = close - Math.min(low, prev);
+		double trueRange = Math.max(high, prev) - Math.min(low, prev);
+
+		double newSumBP1 = sumBP1 + buyingPressure - evicted(buyingPressures, periods1);
+		double newSumBP2 = sumBP2 + buyingPressure - evicted(buyingPressures, periods2);
+		double newSumBP3 = sumBP3 + buyingPressure - evicted(buyingPressures, periods3);
+		double newSumTR1 = sumTR1 + trueRange - evicted(trueRanges, periods1);
+		double newSumTR2 = sumTR2 + trueRange - evicted(trueRanges, periods2);
+		double newSumTR3 = sumTR3 + trueRange - evicted(trueRanges, periods3);
+
+		boolean ready = buyingPressures.isFull() || buyingPressures.size() + 1 == periods3;
+
+		if (ready)
+		{
+			double avg1 = newSumBP1 / newSumTR1;
+			double avg2 = newSumBP2 / newSumTR2;
+			double avg3 = newSumBP3 / newSumTR3;
+
+			value = 100 * (((4 * avg1) + (2 * avg2) + avg3) / divider);
+		}
+		else
+		{
+			value = Double.NaN;
+		}
+
+		if (closed)
+		{
+			buyingPressures.add(buyingPressure);
+			trueRanges.add(trueRange);
+			sumBP1 = newSumBP1;
+			sumBP2 = newSumBP2;
+			sumBP3 = newSumBP3;
+			sumTR1 = newSumTR1;
+			sumTR2 = newSumTR2;
+			sumTR3 = newSumTR3;
+			prevClose = close;
+		}
+		return value;
+	}
+
+	/**
+	 * Value that leaves a window of 'periods' values when the next one is appended
+	 */
+	private static double evicted(DoubleRingBuffer buffer, int periods)
+	{
+		return (buffer.size() >= periods) ? buffer.get(buffer.size() - periods) : 0;
+	}
+
+	@Override
+	public void reset()
+	{
+		buyingPressures.clear();
+		trueRanges.clear();
+		prevClose = Double.NaN;
+		sumBP1 = sumBP2 = sumBP3 = 0;
+		sumTR1 = sumTR2 = sumTR3 = 0;
+		value = Double.NaN;
+	}
+
+}
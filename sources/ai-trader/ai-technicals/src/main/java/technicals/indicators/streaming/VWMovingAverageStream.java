@@ -0,0 +1,50 @@
+package technicals.indicators.streaming;
+
+import technicals.util.RollingSum;
+
+/**
+ * VWMA - Volume-Weighted Moving Average (streaming)
+ */
+public class VWMovingAverageStream extends StreamingIndicator
+{
+	private final int periods;
+	private final RollingSum sumPriceVolume;
+	private final RollingSum sumVolume;
+
+	public VWMovingAverageStream(int periods)
+	{
+		this.periods = periods;
+		this.sumPriceVolume = new RollingSum(periods);
+		this.sumVolume = new RollingSum(periods);
+	}
+
+	public int getPeriods()
+	{
+		return periods;
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		double priceVolume = close * volume;
+		boolean ready = sumVolume.isFull() || sumVolume.size() + 1 == periods;
+
+		value = ready ? sumPriceVolume.sumWith(priceVolume) / sumVolume.sumWith(volume) : Double.NaN;
+
+		if (closed)
+		{
+			sumPriceVolume.add(priceVolume);
+			sumVolume.add(volume);
+		}
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		sumPriceVolume.clear();
+		sumVolume.clear();
+		value = Double.NaN;
+	}
+
+}
@@ -0,0 +1,40 @@
+package technicals.indicators.streaming;
+
+/**
+ * VWAP - Volume Weighted Average Price (streaming)
+ */
+public class VolumeWeightedAveragePriceStream extends StreamingIndicator
+{
+	private boolean started;
+	private double sumVol;
+	private double sumTpv;
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		double typicalPrice = (high + low + close) / 3;
+		double tpv = typicalPrice * volume;
+		double newSumVol = sumVol + volume;
+		double newSumTpv = sumTpv + tpv;
+
+		value = started ? newSumTpv / newSumVol : typicalPrice;
+
+		if (closed)
+		{
+			sumVol = newSumVol;
+			sumTpv = newSumTpv;
+			started = true;
+		}
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		started = false;
+		sumVol = 0;
+		sumTpv = 0;
+		value = Double.NaN;
+	}
+
+}
@@ -0,0 +1,76 @@
+package technicals.indicators.streaming;
+
+import technicals.util.DoubleRingBuffer;
+
+/**
+ * WMA - Weighted Moving Average (streaming)
+ *
+ * Keeps the plain and the weighted sums of the window, when the window slides
+ * every weight decreases by one, so weightedSum = weightedSum - sum + periods * price
+ */
+public class WeightedMovingAverageStream extends StreamingIndicator
+{
+	private final int periods;
+	private final double divider;
+	private final DoubleRingBuffer window;
+
+	private double sum;
+	private double weightedSum;
+
+	public WeightedMovingAverageStream(int periods)
+	{
+		this.periods = periods;
+		this.divider = (periods * (periods + 1)) / 2;
+		this.window = new DoubleRingBuffer(periods);
+	}
+
+	public int getPeriods()
+	{
+		return periods;
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		return update(close, closed);
+	}
+
+	public double update(double price, boolean closed)
+	{
+		double newSum;
+		double newWeightedSum;
+
+		if (window.isFull())
+		{
+			newWeightedSum = weightedSum - sum + periods * price;
+			newSum = sum - window.first() + price;
+		}
+		else
+		{
+			newWeightedSum = weightedSum + (window.size() + 1) * price;
+			newSum = sum + price;
+		}
+
+		boolean ready = window.isFull() || window.size() + 1 == periods;
+
+		if (closed)
+		{
+			window.add(price);
+			sum = newSum;
+			weightedSum = newWeightedSum;
+		}
+
+		value = ready ? newWeightedSum / divider : Double.NaN;
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		window.clear();
+		sum = 0;
+		weightedSum = 0;
+		value = Double.NaN;
+	}
+
+}
@@ -0,0 +1,58 @@
+package technicals.indicators.streaming;
+
+import technicals.util.SlidingWindowExtremum;
+
+/**
+ * Williams %R (streaming)
+ */
+public class WilliamsRStream extends StreamingIndicator
+{
+	private final int periods;
+	private final SlidingWindowExtremum highs;
+	private final SlidingWindowExtremum lows;
+
+	public WilliamsRStream()
+	{
+		this(14);
+	}
+
+	public WilliamsRStream(int periods)
+	{
+		this.periods = periods;
+		this.highs = SlidingWindowExtremum.max(periods);
+		this.lows = SlidingWindowExtremum.min(periods);
+	}
+
+	@Override
+	public double update(double open, double high, double low, double close, double volume, boolean closed)
+	{
+		boolean ready = highs.count() + 1 >= periods;
+
+		if (ready)
+		{
+			double highestHigh = highs.peek(high);
+			double lowestLow = lows.peek(low);
+			value = (highestHigh - close) / (highestHigh - lowestLow) * -100;
+		}
+		else
+		{
+			value = Double.NaN;
+		}
+
+		if (closed)
+		{
+			highs.add(high);
+			lows.add(low);
+		}
+		return value;
+	}
+
+	@Override
+	public void reset()
+	{
+		highs.clear();
+		lows.clear();
+		value = Double.NaN;
+	}
+
+}
@@ -1,9 +1,12 @@
 package technicals.indicators.volatility;
 
 import technicals.config.Labels;
+import technicals.indicators.streaming.AverageTrueRangeStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.indicators.AtrEntry;
 import technicals.util.Precision;
+import technicals.util.Tail;
 
 /**
  * ATR - Average True Range
@@ -75,4 +78,39 @@ public class AverageTrueRange
 		return tr;
 	}
 
+	/**
+	 * Last 'n' entries, the calculation starts 'warmUp' candles before them (default
+	 * Tail.warmUp), same values as calculate when the series is not longer than that
+	 */
+	public static AtrEntry[] lastN(TechCandle[] candles, int periods, int n)
+	{
+		return lastN(candles, periods, n, Tail.warmUp(periods));
+	}
+
+	public static AtrEntry[] lastN(TechCandle[] candles, int periods, int n, int warmUp)
+	{
+		return Tail.last(calculate(Tail.candles(candles, n, 1 + warmUp), periods), n);
+	}
+
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, int periods, double[] atr, double[] atrp)
+	{
+		series.check(periods, atr, atrp);
+
+		double[] open = series.getOpen();
+		double[] high = series.getHigh();
+		double[] low = series.getLow();
+		double[] close = series.getClose();
+		double[] volume = series.getVolume();
+		AverageTrueRangeStream stream = new AverageTrueRangeStream(periods);
+
+		for (int i = 0; i < series.size(); i++)
+		{
+			atr[i] = stream.update(open[i], high[i], low[i], close[i], volume[i], true);
+			atrp[i] = stream.getAtrp();
+		}
+	}
+
 }
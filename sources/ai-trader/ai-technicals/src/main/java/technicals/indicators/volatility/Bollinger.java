@@ -1,10 +1,12 @@
 package technicals.indicators.volatility;
 
 import technicals.config.Labels;
-import technicals.indicators.ma.SimpleMovingAverage;
+import technicals.indicators.streaming.BollingerStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.indicators.BollingerEntry;
-import technicals.model.indicators.IndicatorEntry;
+import technicals.util.RollingVariance;
+import technicals.util.Tail;
 
 /**
  * Bollinger bands 布林线
@@ -26,21 +28,60 @@ public class Bollinger
 		int len = candles.length - periods + 1;
 		BollingerEntry[] bollinger = new BollingerEntry[len];
 
-		IndicatorEntry[] smaEntries = SimpleMovingAverage.calculate(candles, periods);
-		IndicatorEntry[] sdEntries = StandardDeviation.calculate(candles, periods);
+		RollingVariance variance = new RollingVariance(periods);
 
-		for (int i = 0; i < len; i++)
+		for (int i = 0; i < candles.length; i++)
 		{
-			bollinger[i] = new BollingerEntry(candles[i + periods - 1]);
+			variance.add(candles[i].getDefaultPrice());
 
-			bollinger[i].setStandardDeviation(sdEntries[i].getValue());
-			bollinger[i].setMiddleBand(smaEntries[i].getValue());
+			if (!variance.isFull())
+			{
+				continue;
+			}
 
-			bollinger[i].setUpperBand(smaEntries[i].getValue() + mult * sdEntries[i].getValue());
-			bollinger[i].setLowerBand(smaEntries[i].getValue() - mult * sdEntries[i].getValue());
+			double sma = variance.mean();
+			double sd = variance.standardDeviation();
+
+			bollinger[i - periods + 1] = new BollingerEntry(candles[i]);
+
+			bollinger[i - periods + 1].setStandardDeviation(sd);
+			bollinger[i - periods + 1].setMiddleBand(sma);
+
+			bollinger[i - periods + 1].setUpperBand(sma + mult * sd);
+			bollinger[i - periods + 1].setLowerBand(sma - mult * sd);
 		}
 
 		return bollinger;
 	}
 
+	/**
+	 * Last 'n' entries, calculated only on the candles they depend on (same values as calculate)
+	 */
+	public static BollingerEntry[] lastN(TechCandle[] candles, int periods, int mult, int n)
+	{
+		return Tail.last(calculate(Tail.candles(candles, n, periods), periods, mult), n);
+	}
+
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, int periods, int mult, double[] middleBand, double[] upperBand, double[] lowerBand)
+	{
+		series.check(periods + 1, middleBand, upperBand, lowerBand);
+
+		double[] open = series.getOpen();
+		double[] high = series.getHigh();
+		double[] low = series.getLow();
+		double[] close = series.getClose();
+		double[] volume = series.getVolume();
+		BollingerStream stream = new BollingerStream(periods, mult);
+
+		for (int i = 0; i < series.size(); i++)
+		{
+			middleBand[i] = stream.update(open[i], high[i], low[i], close[i], volume[i], true);
+			upperBand[i] = stream.getUpperBand();
+			lowerBand[i] = stream.getLowerBand();
+		}
+	}
+
 }
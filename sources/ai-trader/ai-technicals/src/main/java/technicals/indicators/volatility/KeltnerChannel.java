@@ -2,10 +2,13 @@ package technicals.indicators.volatility;
 
 import technicals.config.Labels;
 import technicals.indicators.ma.ExponentialMovingAverage;
+import technicals.indicators.streaming.KeltnerChannelStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.indicators.AtrEntry;
 import technicals.model.indicators.IndicatorEntry;
 import technicals.model.indicators.KeltnerChannelEntry;
+import technicals.util.Tail;
 
 public class KeltnerChannel
 {
@@ -41,4 +44,40 @@ public class KeltnerChannel
 		return kcEntries;
 	}
 
+	/**
+	 * Last 'n' entries, the calculation starts 'warmUp' candles before them (default
+	 * Tail.warmUp), same values as calculate when the series is not longer than that
+	 */
+	public static KeltnerChannelEntry[] lastN(TechCandle[] candles, int periods, double multiplier, int n)
+	{
+		return lastN(candles, periods, multiplier, n, Tail.warmUp(periods));
+	}
+
+	public static KeltnerChannelEntry[] lastN(TechCandle[] candles, int periods, double multiplier, int n, int warmUp)
+	{
+		return Tail.last(calculate(Tail.candles(candles, n, periods + warmUp), periods, multiplier), n);
+	}
+
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, int periods, double multiplier, double[] middleBand, double[] upperBand, double[] lowerBand)
+	{
+		series.check(periods, middleBand, upperBand, lowerBand);
+
+		double[] open = series.getOpen();
+		double[] high = series.getHigh();
+		double[] low = series.getLow();
+		double[] close = series.getClose();
+		double[] volume = series.getVolume();
+		KeltnerChannelStream stream = new KeltnerChannelStream(periods, multiplier);
+
+		for (int i = 0; i < series.size(); i++)
+		{
+			middleBand[i] = stream.update(open[i], high[i], low[i], close[i], volume[i], true);
+			upperBand[i] = stream.isReady() ? stream.getUpperBand() : Double.NaN;
+			lowerBand[i] = stream.isReady() ? stream.getLowerBand() : Double.NaN;
+		}
+	}
+
 }
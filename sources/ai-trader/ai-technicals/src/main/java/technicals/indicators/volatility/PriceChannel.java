@@ -1,9 +1,12 @@
 package technicals.indicators.volatility;
 
 import technicals.config.Labels;
+import technicals.indicators.streaming.PriceChannelStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.indicators.PriceChannelEntry;
-import technicals.util.CandleUtils;
+import technicals.util.SlidingWindowExtremum;
+import technicals.util.Tail;
 
 /**
  * Price Channel
@@ -26,14 +29,26 @@ public class PriceChannel
 		int len = candles.length - periods + 1;
 		PriceChannelEntry[] priceChannelEntries = new PriceChannelEntry[len];
 
+		SlidingWindowExtremum highestHighs = SlidingWindowExtremum.max(periods);
+		SlidingWindowExtremum lowestLows = SlidingWindowExtremum.min(periods);
+
+		for (int i = 0; i < periods - 1; i++)
+		{
+			highestHighs.add(candles[i].getHighPrice());
+			lowestLows.add(candles[i].getLowPrice());
+		}
+
 		for (int i = 0; i < len; i++)
 		{
 			priceChannelEntries[i] = new PriceChannelEntry(candles[i + periods - 1]);
 
-			double highestHigh = CandleUtils.highestHigh(candles, i, i + periods - 1);
+			highestHighs.add(candles[i + periods - 1].getHighPrice());
+			lowestLows.add(candles[i + periods - 1].getLowPrice());
+
+			double highestHigh = highestHighs.get();
 			priceChannelEntries[i].setUpperChannel(highestHigh);
 
-			double lowestLow = CandleUtils.lowestLow(candles, i, i + periods - 1);
+			double lowestLow = lowestLows.get();
 			priceChannelEntries[i].setLowerChannel(lowestLow);
 
 			double centerLine = (highestHigh + lowestLow) / 2;
@@ -43,4 +58,34 @@ public class PriceChannel
 		return priceChannelEntries;
 	}
 
+	/**
+	 * Last 'n' entries, calculated only on the candles they depend on (same values as calculate)
+	 */
+	public static PriceChannelEntry[] lastN(TechCandle[] candles, int periods, int n)
+	{
+		return Tail.last(calculate(Tail.candles(candles, n, periods), periods), n);
+	}
+
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, int periods, double[] upperChannel, double[] centerLine, double[] lowerChannel)
+	{
+		series.check(periods, upperChannel, centerLine, lowerChannel);
+
+		double[] open = series.getOpen();
+		double[] high = series.getHigh();
+		double[] low = series.getLow();
+		double[] close = series.getClose();
+		double[] volume = series.getVolume();
+		PriceChannelStream stream = new PriceChannelStream(periods);
+
+		for (int i = 0; i < series.size(); i++)
+		{
+			centerLine[i] = stream.update(open[i], high[i], low[i], close[i], volume[i], true);
+			upperChannel[i] = stream.getUpperChannel();
+			lowerChannel[i] = stream.getLowerChannel();
+		}
+	}
+
 }
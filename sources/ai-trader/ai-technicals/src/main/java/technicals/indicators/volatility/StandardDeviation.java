@@ -1,8 +1,12 @@
 package technicals.indicators.volatility;
 
 import technicals.config.Labels;
+import technicals.indicators.streaming.StandardDeviationStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.indicators.IndicatorEntry;
+import technicals.util.RollingVariance;
+import technicals.util.Tail;
 
 /**
  * STDEV - Standard Deviation
@@ -24,33 +28,44 @@ public class StandardDeviation
 		int len = candles.length - periods + 1;
 		IndicatorEntry[] sdEntries = new IndicatorEntry[len];
 
-		for (int i = 0; i < len; i++)
+		RollingVariance variance = new RollingVariance(periods);
+
+		for (int i = 0; i < candles.length; i++)
 		{
-			sdEntries[i] = new IndicatorEntry(candles[i + periods - 1]);
-			sdEntries[i].setValue(standardDeviation(candles, i, periods));
+			variance.add(candles[i].getDefaultPrice());
+
+			if (variance.isFull())
+			{
+				sdEntries[i - periods + 1] = new IndicatorEntry(candles[i]);
+				sdEntries[i - periods + 1].setValue(variance.standardDeviation());
+			}
 		}
 
 		return sdEntries;
 	}
 
-	private static double standardDeviation(TechCandle[] candles, int startIndex, int periods)
+	/**
+	 * Last 'n' entries, calculated only on the candles they depend on (same values as calculate)
+	 */
+	public static IndicatorEntry[] lastN(TechCandle[] candles, int periods, int n)
 	{
-		double priceSum = 0.0;
-		double stdevSum = 0.0;
-		int lenght = periods;
+		return Tail.last(calculate(Tail.candles(candles, n, periods), periods), n);
+	}
 
-		for (int i = startIndex; i < startIndex + periods; i++)
-		{
-			priceSum += candles[i].getDefaultPrice();
-		}
-		double mean = priceSum / lenght;
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, int periods, double[] results)
+	{
+		series.check(periods, results);
 
-		for (int i = startIndex; i < startIndex + periods; i++)
+		double[] close = series.getClose();
+		StandardDeviationStream stream = new StandardDeviationStream(periods);
+
+		for (int i = 0; i < series.size(); i++)
 		{
-			stdevSum += Math.pow(candles[i].getDefaultPrice() - mean, 2);
+			results[i] = stream.update(close[i], true);
 		}
-
-		return Math.sqrt(stdevSum / lenght);
 	}
 
 }
@@ -1,6 +1,8 @@
 package technicals.indicators.volume;
 
 import technicals.config.Labels;
+import technicals.indicators.streaming.AccumulationDistributionStream;
+import technicals.model.CandleSeries;
 import technicals.model.TechCandle;
 import technicals.model.indicators.IndicatorEntry;
 
@@ -34,4 +36,24 @@ public class AccumulationDistribution
 		return entries;
 	}
 
+	/**
+	 * Columnar version, results are aligned with the series and NaN while warming up
+	 */
+	public static void calculate(CandleSeries series, double[] results)
+	{
+		series.check(2, results);
+
+		double[] open = series.getOpen();
+		double[] high = series.getHigh();
+		double[] low = series.getLow();
+		double[] close = series.getClose();
+		double[] volume = series.getVolume();
+		AccumulationDistributionStream stream = new AccumulationDistributionStream();
+
+		for (int i = 0; i < series.size(); i++)
+		{
+			results[i] = stream.update(open[i], high[i], low[i], close[i], volume[i], true);
+		}
+	}
+
 }
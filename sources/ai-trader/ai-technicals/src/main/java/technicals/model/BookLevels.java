@@ -0,0 +1,19 @@
+package technicals.model;
+
+/**
+ * Read access to the levels of a book, ordered from the best one (level 0)
+ */
+public interface BookLevels
+{
+	int getAskLevels();
+
+	double getAskPrice(int level);
+
+	double getAskQty(int level);
+
+	int getBidLevels();
+
+	double getBidPrice(int level);
+
+	double getBidQty(int level);
+}
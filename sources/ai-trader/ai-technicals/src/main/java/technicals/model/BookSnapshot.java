@@ -0,0 +1,221 @@
+package technicals.model;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.TreeMap;
+
+/**
+ * Immutable copy of a TickOrderBook at a version, levels ordered from the best one
+ */
+public class BookSnapshot implements BookLevels
+{
+	private final long version;
+	private final BigDecimal tickSize;
+
+	private final long[] askTicks;
+	private final double[] askPrices;
+	private final double[] askQtys;
+
+	private final long[] bidTicks;
+	private final double[] bidPrices;
+	private final double[] bidQtys;
+
+	private volatile OrderBook orderBook;
+
+	BookSnapshot(TickOrderBook book, long version)
+	{
+		this(book, version, null, true, true);
+	}
+
+	/**
+	 * Copy of the changed sides of the book, the unchanged ones are shared with 'previous'
+	 */
+	BookSnapshot(TickOrderBook book, long version, BookSnapshot previous, boolean asksChanged, boolean bidsChanged)
+	{
+		this.version = version;
+		this.tickSize = book.getTickSize();
+
+		if (asksChanged || previous == null)
+		{
+			int asks = book.getAskLevels();
+			askTicks = new long[asks];
+			askPrices = new double[asks];
+			askQtys = new double[asks];
+			for (int i = 0; i < asks; i++)
+			{
+				askTicks[i] = book.getAskTicks(i);
+				askPrices[i] = book.toPrice(askTicks[i]);
+				askQtys[i] = book.getAskQty(i);
+			}
+		}
+		else
+		{
+			askTicks = previous.askTicks;
+			askPrices = previous.askPrices;
+			askQtys = previous.askQtys;
+		}
+
+		if (bidsChanged || previous == null)
+		{
+			int bids = book.getBidLevels();
+			bidTicks = new long[bids];
+			bidPrices = new double[bids];
+			bidQtys = new double[bids];
+			for (int i = 0; i < bids; i++)
+			{
+				bidTicks[i] = book.getBidTicks(i);
+				bidPrices[i] = book.toPrice(bidTicks[i]);
+				bidQtys[i] = book.getBidQty(i);
+			}
+		}
+		else
+		{
+			bidTicks = previous.bidTicks;
+			bidPrices = previous.bidPrices;
+			bidQtys = previous.bidQtys;
+		}
+	}
+
+	/**
+	 * Snapshot of a BigDecimal OrderBook, the tick size is the smallest price step of its prices
+	 */
+	public static BookSnapshot of(OrderBook orderBook)
+	{
+		int scale = 0;
+		for (BigDecimal price : orderBook.getAsks().keySet())
+		{
+			scale = Math.max(scale, price.stripTrailingZeros().scale());
+		}
+		for (BigDecimal price : orderBook.getBids().keySet())
+		{
+			scale = Math.max(scale, price.stripTrailingZeros().scale());
+		}
+
+		TickOrderBook book = new TickOrderBook(BigDecimal.ONE.movePointLeft(scale));
+		for (OrderBookEntry entry : orderBook.getAsks().values())
+		{
+			book.updateTicks(false, entry.getPrice().movePointRight(scale).longValueExact(), entry.getQty().doubleValue());
+		}
+		for (OrderBookEntry entry : orderBook.getBids().values())
+		{
+			book.updateTicks(true, entry.getPrice().movePointRight(scale).longValueExact(), entry.getQty().doubleValue());
+		}
+
+		return new BookSnapshot(book, 0);
+	}
+
+	public long getVersion()
+	{
+		return version;
+	}
+
+	public BigDecimal getTickSize()
+	{
+		return tickSize;
+	}
+
+	// ---- ASKS --------------------------------------------------------------
+
+	public int getAskLevels()
+	{
+		return askTicks.length;
+	}
+
+	public long getAskTicks(int level)
+	{
+		return askTicks[level];
+	}
+
+	public double getAskPrice(int level)
+	{
+		return askPrices[level];
+	}
+
+	public double getAskQty(int level)
+	{
+		return askQtys[level];
+	}
+
+	// ---- BIDS --------------------------------------------------------------
+
+	public int getBidLevels()
+	{
+		return bidTicks.length;
+	}
+
+	public long getBidTicks(int level)
+	{
+		return bidTicks[level];
+	}
+
+	public double getBidPrice(int level)
+	{
+		return bidPrices[level];
+	}
+
+	public double getBidQty(int level)
+	{
+		return bidQtys[level];
+	}
+
+	// ---- CALCULATED FIELDS -------------------------------------------------
+
+	/**
+	 * Best ask price, NaN if there are no asks
+	 */
+	public double getBestAsk()
+	{
+		return askPrices.length > 0 ? askPrices[0] : Double.NaN;
+	}
+
+	/**
+	 * Best bid price, NaN if there are no bids
+	 */
+	public double getBestBid()
+	{
+		return bidPrices.length > 0 ? bidPrices[0] : Double.NaN;
+	}
+
+	public double getMidPrice()
+	{
+		return (getBestAsk() + getBestBid()) / 2;
+	}
+
+	/**
+	 * BigDecimal OrderBook for the depth indicators, built once per snapshot and shared (must not be modified)
+	 */
+	public OrderBook toOrderBook(int pricePrecision)
+	{
+		OrderBook result = orderBook;
+		if (result == null || result.getPricePrecision() != pricePrecision)
+		{
+			result = buildOrderBook(pricePrecision);
+			orderBook = result;
+		}
+		return result;
+	}
+
+	private OrderBook buildOrderBook(int pricePrecision)
+	{
+		TreeMap<BigDecimal, OrderBookEntry> mapAsks = new TreeMap<BigDecimal, OrderBookEntry>();
+		for (int i = 0; i < askTicks.length; i++)
+		{
+			BigDecimal price = tickSize.multiply(BigDecimal.valueOf(askTicks[i]));
+			mapAsks.put(price, new OrderBookEntry(price, BigDecimal.valueOf(askQtys[i])));
+		}
+
+		TreeMap<BigDecimal, OrderBookEntry> mapBids = new TreeMap<BigDecimal, OrderBookEntry>(Collections.reverseOrder());
+		for (int i = 0; i < bidTicks.length; i++)
+		{
+			BigDecimal price = tickSize.multiply(BigDecimal.valueOf(bidTicks[i]));
+			mapBids.put(price, new OrderBookEntry(price, BigDecimal.valueOf(bidQtys[i])));
+		}
+
+		OrderBook result = new OrderBook(pricePrecision);
+		result.setAsks(mapAsks);
+		result.setBids(mapBids);
+
+		return result;
+	}
+
+}
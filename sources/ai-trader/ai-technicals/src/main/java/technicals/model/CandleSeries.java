@@ -0,0 +1,148 @@
+package technicals.model;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+
+import technicals.config.Labels;
+
+/**
+ * Columnar candles, one primitive array per field (open time in epoch millis)
+ */
+public class CandleSeries
+{
+	private final long[] openTime;
+	private final double[] open;
+	private final double[] high;
+	private final double[] low;
+	private final double[] close;
+	private final double[] volume;
+	private final double[] quoteVolume;
+
+	public CandleSeries(int size)
+	{
+		this.openTime = new long[size];
+		this.open = new double[size];
+		this.high = new double[size];
+		this.low = new double[size];
+		this.close = new double[size];
+		this.volume = new double[size];
+		this.quoteVolume = new double[size];
+	}
+
+	public static CandleSeries from(TechCandle[] candles)
+	{
+		CandleSeries series = new CandleSeries(candles.length);
+
+		for (int i = 0; i < candles.length; i++)
+		{
+			TechCandle c = candles[i];
+			long time = (c.getOpenTime() == null) ? 0 : c.getOpenTime().toInstant().toEpochMilli();
+			series.set(i, time, c.getOpenPrice(), c.getHighPrice(), c.getLowPrice(), c.getClosePrice(), c.getVolume(), c.getQuoteVolume());
+		}
+
+		return series;
+	}
+
+	public void set(int index, long openTime, double open, double high, double low, double close, double volume, double quoteVolume)
+	{
+		this.openTime[index] = openTime;
+		this.open[index] = open;
+		this.high[index] = high;
+		this.low[index] = low;
+		this.close[index] = close;
+		this.volume[index] = volume;
+		this.quoteVolume[index] = quoteVolume;
+	}
+
+	public int size()
+	{
+		return close.length;
+	}
+
+	// ---- COLUMNS -----------------------------------------------------------
+
+	public long[] getOpenTime()
+	{
+		return openTime;
+	}
+
+	public double[] getOpen()
+	{
+		return open;
+	}
+
+	public double[] getHigh()
+	{
+		return high;
+	}
+
+	public double[] getLow()
+	{
+		return low;
+	}
+
+	public double[] getClose()
+	{
+		return close;
+	}
+
+	public double[] getVolume()
+	{
+		return volume;
+	}
+
+	public double[] getQuoteVolume()
+	{
+		return quoteVolume;
+	}
+
+	/**
+	 * Result column for this series, filled with NaN
+	 */
+	public double[] newColumn()
+	{
+		double[] column = new double[close.length];
+		Arrays.fill(column, Double.NaN);
+		return column;
+	}
+
+	/**
+	 * Validates the series length for the given periods and the size of the result columns
+	 */
+	public void check(int periods, double[]... columns)
+	{
+		if (close.length < periods)
+		{
+			throw new IllegalArgumentException(Labels.NOT_ENOUGH_VALUES);
+		}
+		for (double[] column : columns)
+		{
+			if (column.length < close.length)
+			{
+				throw new IllegalArgumentException("Result column is smaller than the series");
+			}
+		}
+	}
+
+	// ---- CONVERSION --------------------------------------------------------
+
+	public TechCandle getCandle(int index)
+	{
+		TechCandle candle = new TechCandle(ZonedDateTime.ofInstant(Instant.ofEpochMilli(openTime[index]), ZoneOffset.UTC), open[index], high[index], low[index], close[index], volume[index], 0);
+		candle.setQuoteVolume(quoteVolume[index]);
+		return candle;
+	}
+
+	public TechCandle[] toCandleArray()
+	{
+		TechCandle[] candles = new TechCandle[close.length];
+		for (int i = 0; i < candles.length; i++)
+		{
+			candles[i] = getCandle(i);
+		}
+		return candles;
+	}
+
+}
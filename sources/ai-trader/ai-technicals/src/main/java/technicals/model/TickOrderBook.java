@@ -0,0 +1,261 @@
+package technicals.model;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.TreeMap;
+
+/**
+ * Order book keyed by price ticks (price / tickSize) and updated in place.
+ *
+ * Each side is a sorted pair of primitive arrays with the best level at the end, so the
+ * lookups are binary searches and inserting or removing a level only shifts the levels
+ * between it and the top of the book (the common case for depth diffs). Applying a diff
+ * and reading the top N levels do not allocate once the arrays have grown to the book size.
+ *
+ * Not thread safe, the owner must synchronize the writer and the readers.
+ */
+public class TickOrderBook implements BookLevels
+{
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private final TickSize tickSize;
+
+	private final Side asks = new Side(false);
+	private final Side bids = new Side(true);
+
+	public TickOrderBook(BigDecimal tickSize)
+	{
+		this.tickSize = new TickSize(tickSize);
+	}
+
+	public BigDecimal getTickSize()
+	{
+		return tickSize.getValue();
+	}
+
+	public long toTicks(double price)
+	{
+		return tickSize.toTicks(price);
+	}
+
+	public double toPrice(long ticks)
+	{
+		return tickSize.toPrice(ticks);
+	}
+
+	// ---- UPDATE ------------------------------------------------------------
+
+	/**
+	 * Sets the quantity of a level, zero removes it. Returns the previous quantity (0 if it was not in the book)
+	 */
+	public double update(boolean bid, double price, double qty)
+	{
+		return updateTicks(bid, toTicks(price), qty);
+	}
+
+	public double updateTicks(boolean bid, long ticks, double qty)
+	{
+		return (bid ? bids : asks).update(ticks, qty);
+	}
+
+	public void clear()
+	{
+		asks.size = 0;
+		bids.size = 0;
+	}
+
+	// ---- QUERIES -----------------------------------------------------------
+
+	public int getAskLevels()
+	{
+		return asks.size;
+	}
+
+	public int getBidLevels()
+	{
+		return bids.size;
+	}
+
+	/**
+	 * Ticks of the ask level (0 = best ask)
+	 */
+	public long getAskTicks(int level)
+	{
+		return asks.ticks(level);
+	}
+
+	public double getAskQty(int level)
+	{
+		return asks.qty(level);
+	}
+
+	public double getAskPrice(int level)
+	{
+		return toPrice(asks.ticks(level));
+	}
+
+	/**
+	 * Ticks of the bid level (0 = best bid)
+	 */
+	public long getBidTicks(int level)
+	{
+		return bids.ticks(level);
+	}
+
+	public double getBidQty(int level)
+	{
+		return bids.qty(level);
+	}
+
+	public double getBidPrice(int level)
+	{
+		return toPrice(bids.ticks(level));
+	}
+
+	/**
+	 * Best ask price, NaN if there are no asks
+	 */
+	public double getBestAsk()
+	{
+		return asks.size > 0 ? getAskPrice(0) : Double.NaN;
+	}
+
+	/**
+	 * Best bid price, NaN if there are no bids
+	 */
+	public double getBestBid()
+	{
+		return bids.size > 0 ? getBidPrice(0) : Double.NaN;
+	}
+
+	public double getMidPrice()
+	{
+		return (getBestAsk() + getBestBid()) / 2;
+	}
+
+	/**
+	 * Quantity at the price (in ticks), zero if there is no level
+	 */
+	public double getQty(boolean bid, long ticks)
+	{
+		return (bid ? bids : asks).get(ticks);
+	}
+
+	/**
+	 * Copy for the indicators working on the BigDecimal OrderBook
+	 */
+	public OrderBook toOrderBook(int pricePrecision)
+	{
+		TreeMap<BigDecimal, OrderBookEntry> mapAsks = new TreeMap<BigDecimal, OrderBookEntry>();
+		for (int i = 0; i < asks.size; i++)
+		{
+			OrderBookEntry entry = toEntry(asks.ticks(i), asks.qty(i));
+			mapAsks.put(entry.getPrice(), entry);
+		}
+
+		TreeMap<BigDecimal, OrderBookEntry> mapBids = new TreeMap<BigDecimal, OrderBookEntry>(Collections.reverseOrder());
+		for (int i = 0; i < bids.size; i++)
+		{
+			OrderBookEntry entry = toEntry(bids.ticks(i), bids.qty(i));
+			mapBids.put(entry.getPrice(), entry);
+		}
+
+		OrderBook orderBook = new OrderBook(pricePrecision);
+		orderBook.setAsks(mapAsks);
+		orderBook.setBids(mapBids);
+
+		return orderBook;
+	}
+
+	private OrderBookEntry toEntry(long ticks, double qty)
+	{
+		return new OrderBookEntry(tickSize.getValue().multiply(BigDecimal.valueOf(ticks)), BigDecimal.valueOf(qty));
+	}
+
+	// ---- SIDE --------------------------------------------------------------
+
+	/**
+	 * Levels sorted by key ascending, the best one last: key = ticks for the bids, -ticks for the asks
+	 */
+	private static final class Side
+	{
+		private final boolean bid;
+		private long[] keys = new long[INITIAL_CAPACITY];
+		private double[] qtys = new double[INITIAL_CAPACITY];
+		private int size;
+
+		private Side(boolean bid)
+		{
+			this.bid = bid;
+		}
+
+		private long key(long ticks)
+		{
+			return bid ? ticks : -ticks;
+		}
+
+		private long ticks(int level)
+		{
+			if (level < 0 || level >= size)
+			{
+				throw new IndexOutOfBoundsException("Level " + level + ", levels " + size);
+			}
+			return key(keys[size - 1 - level]);
+		}
+
+		private double qty(int level)
+		{
+			if (level < 0 || level >= size)
+			{
+				throw new IndexOutOfBoundsException("Level " + level + ", levels " + size);
+			}
+			return qtys[size - 1 - level];
+		}
+
+		private double get(long ticks)
+		{
+			int i = Arrays.binarySearch(keys, 0, size, key(ticks));
+			return (i >= 0) ? qtys[i] : 0;
+		}
+
+		private double update(long ticks, double qty)
+		{
+			long key = key(ticks);
+			int i = Arrays.binarySearch(keys, 0, size, key);
+
+			if (i >= 0)
+			{
+				double previous = qtys[i];
+				if (qty > 0)
+				{
+					qtys[i] = qty;
+				}
+				else
+				{
+					System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+					System.arraycopy(qtys, i + 1, qtys, i, size - i - 1);
+					size--;
+				}
+				return previous;
+			}
+
+			if (qty > 0)
+			{
+				i = -i - 1;
+				if (size == keys.length)
+				{
+					keys = Arrays.copyOf(keys, size * 2);
+					qtys = Arrays.copyOf(qtys, size * 2);
+				}
+				System.arraycopy(keys, i, keys, i + 1, size - i);
+				System.arraycopy(qtys, i, qtys, i + 1, size - i);
+				keys[i] = key;
+				qtys[i] = qty;
+				size++;
+			}
+			return 0;
+		}
+	}
+
+}
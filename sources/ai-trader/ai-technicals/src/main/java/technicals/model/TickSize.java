@@ -0,0 +1,48 @@
+package technicals.model;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * Conversion between prices and ticks (price / tickSize)
+ */
+public final class TickSize
+{
+	private final BigDecimal value;
+	private final double valueDouble;
+	private final double ticksPerUnit; // 1 / tickSize when it is an integer (0.01, 0.5, ...), divisions give the exact decimal
+
+	public TickSize(BigDecimal value)
+	{
+		if (value.signum() <= 0)
+		{
+			throw new IllegalArgumentException("'tickSize' must be greater than zero");
+		}
+
+		this.value = value;
+		this.valueDouble = value.doubleValue();
+
+		BigDecimal inverse = BigDecimal.ONE.divide(value, MathContext.DECIMAL64);
+		boolean exact = inverse.multiply(value).compareTo(BigDecimal.ONE) == 0 && inverse.stripTrailingZeros().scale() <= 0;
+		this.ticksPerUnit = exact ? inverse.doubleValue() : 0;
+	}
+
+	public BigDecimal getValue()
+	{
+		return value;
+	}
+
+	public long toTicks(double price)
+	{
+		return (ticksPerUnit > 0) ? Math.round(price * ticksPerUnit) : Math.round(price / valueDouble);
+	}
+
+	/**
+	 * Same double as the decimal price parsed (ticksPerUnit exact)
+	 */
+	public double toPrice(long ticks)
+	{
+		return (ticksPerUnit > 0) ? ticks / ticksPerUnit : ticks * valueDouble;
+	}
+
+}
@@ -0,0 +1,158 @@
+package technicals.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Single-writer TickOrderBook publishing immutable versioned snapshots.
+ *
+ * The writer applies a batch of updates (one depth event) while holding the monitor of
+ * this object and then calls 'commit', which publishes a new version if anything changed:
+ *
+ *   synchronized (book) { book.update(...); ...; book.commit(); }
+ *
+ * Readers never see a partial batch. 'commit' only increments the version: the snapshot is
+ * built by the first reader of a new version (holding the monitor, so between two batches),
+ * copying only the sides changed since the previous snapshot. Versions nobody reads are never
+ * copied. 'getVersion' and 'hasChanged' are a volatile read, as 'getSnapshot' once built.
+ * The writer must not read a snapshot between its updates and 'commit'.
+ */
+public class VersionedOrderBook
+{
+	private final TickOrderBook book;
+
+	private boolean changed; // since the last commit
+	private boolean asksDirty; // since the last snapshot
+	private boolean bidsDirty;
+	private volatile long version;
+	private volatile BookSnapshot snapshot;
+
+	public VersionedOrderBook(BigDecimal tickSize)
+	{
+		this.book = new TickOrderBook(tickSize);
+		this.snapshot = new BookSnapshot(book, 0);
+	}
+
+	public BigDecimal getTickSize()
+	{
+		return book.getTickSize();
+	}
+
+	public long toTicks(double price)
+	{
+		return book.toTicks(price);
+	}
+
+	// ---- WRITER ------------------------------------------------------------
+
+	/**
+	 * Sets the quantity of a level, zero removes it (visible to readers after 'commit'). Returns the previous quantity
+	 */
+	public double update(boolean bid, double price, double qty)
+	{
+		return updateTicks(bid, book.toTicks(price), qty);
+	}
+
+	public double updateTicks(boolean bid, long ticks, double qty)
+	{
+		double previous = book.updateTicks(bid, ticks, qty);
+		if (previous != qty)
+		{
+			changed = true;
+			if (bid)
+			{
+				bidsDirty = true;
+			}
+			else
+			{
+				asksDirty = true;
+			}
+		}
+		return previous;
+	}
+
+	public void clear()
+	{
+		book.clear();
+		changed = true;
+		asksDirty = true;
+		bidsDirty = true;
+	}
+
+	/**
+	 * Best ask of the working book, -1 if there are no asks (hold the monitor)
+	 */
+	public long getBestAskTicks()
+	{
+		return book.getAskLevels() > 0 ? book.getAskTicks(0) : -1;
+	}
+
+	/**
+	 * Best bid of the working book, -1 if there are no bids (hold the monitor)
+	 */
+	public long getBestBidTicks()
+	{
+		return book.getBidLevels() > 0 ? book.getBidTicks(0) : -1;
+	}
+
+	/**
+	 * Levels of the working book (hold the monitor)
+	 */
+	public BookLevels getLevels()
+	{
+		return book;
+	}
+
+	/**
+	 * Publishes the updates applied since the last commit as a new version
+	 */
+	public void commit()
+	{
+		if (changed)
+		{
+			changed = false;
+			version++;
+		}
+	}
+
+	// ---- READERS -----------------------------------------------------------
+
+	public long getVersion()
+	{
+		return version;
+	}
+
+	/**
+	 * True if a new version was committed after 'since' (a version or snapshot version previously read)
+	 */
+	public boolean hasChanged(long since)
+	{
+		return version != since;
+	}
+
+	/**
+	 * Consistent immutable view of the last committed version, built on the first call after a commit
+	 */
+	public BookSnapshot getSnapshot()
+	{
+		BookSnapshot current = snapshot;
+		if (current.getVersion() == version)
+		{
+			return current;
+		}
+
+		synchronized (this)
+		{
+			current = snapshot;
+			long committed = version;
+			if (current.getVersion() != committed)
+			{
+				current = new BookSnapshot(book, committed, current, asksDirty, bidsDirty);
+				asksDirty = false;
+				bidsDirty = false;
+				snapshot = current;
+			}
+			return current;
+		}
+	}
+
+}
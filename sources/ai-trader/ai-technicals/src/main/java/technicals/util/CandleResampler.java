@@ -0,0 +1,328 @@
+package technicals.util;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+import technicals.model.TechCandle;
+
+/**
+ * Builds higher timeframe candles (5m, 1h, 4h, 1d, ...) from a single stream of base
+ * candles (1m by default), for example the kline websocket.
+ *
+ * Buckets are aligned to the epoch like the exchange klines (weeks start on Monday).
+ * A closed base candle is committed to the bucket, an in-progress one (closed = false)
+ * only updates the in-progress bar, so it can be sent on every tick. A bar is closed
+ * when its last base candle closes or when a candle of a later bucket arrives.
+ *
+ * History of each timeframe can be preloaded with 'load' (closed candles only), then the
+ * base candles of the current buckets complete the in-progress bars.
+ */
+public class CandleResampler
+{
+	private static final long WEEK_OFFSET = Duration.ofDays(4).toMillis(); // 1970-01-05 is a Monday
+
+	public interface Listener
+	{
+		void onClose(Duration timeframe, TechCandle candle);
+	}
+
+	private final long baseMillis;
+	private final Timeframe[] timeframes;
+	private Listener listener;
+
+	public CandleResampler(int capacity, Duration... timeframes)
+	{
+		this(Duration.ofMinutes(1), capacity, timeframes);
+	}
+
+	public CandleResampler(Duration base, int capacity, Duration... timeframes)
+	{
+		if (capacity < 1)
+		{
+			throw new IllegalArgumentException("'capacity' must be greater than zero");
+		}
+
+		this.baseMillis = base.toMillis();
+		this.timeframes = new Timeframe[timeframes.length];
+
+		for (int i = 0; i < timeframes.length; i++)
+		{
+			long millis = timeframes[i].toMillis();
+			if (millis < baseMillis || millis % baseMillis != 0)
+			{
+				throw new IllegalArgumentException("Timeframe " + timeframes[i] + " is not a multiple of " + base);
+			}
+			this.timeframes[i] = new Timeframe(timeframes[i], capacity);
+		}
+	}
+
+	public void setListener(Listener listener)
+	{
+		this.listener = listener;
+	}
+
+	// ---- UPDATE ------------------------------------------------------------
+
+	/**
+	 * Preloads the closed candles of a timeframe (oldest first)
+	 */
+	public synchronized void load(Duration timeframe, TechCandle[] candles)
+	{
+		Timeframe tf = get(timeframe);
+		tf.clear();
+
+		for (TechCandle candle : candles)
+		{
+			tf.close(copy(candle));
+			tf.lastBaseTime = Math.max(tf.lastBaseTime, candle.getOpenTime().toInstant().toEpochMilli() + tf.millis - baseMillis);
+		}
+	}
+
+	public void update(TechCandle candle, boolean closed)
+	{
+		update(candle.getOpenTime().toInstant().toEpochMilli(), candle.getOpenTime().getZone(), candle.getOpenPrice(), candle.getHighPrice(),
+				candle.getLowPrice(), candle.getClosePrice(), candle.getVolume(), candle.getQuoteVolume(), candle.getCount(), closed);
+	}
+
+	public synchronized void update(long openTime, ZoneId zone, double open, double high, double low, double close,
+			double volume, double quoteVolume, long count, boolean closed)
+	{
+		for (Timeframe tf : timeframes)
+		{
+			// already committed (repeated or late message)
+			if (openTime <= tf.lastBaseTime)
+			{
+				continue;
+			}
+
+			long bucket = tf.bucket(openTime);
+			if (bucket != tf.bucket && tf.bar.count > 0)
+			{
+				closeBar(tf);
+			}
+			if (bucket != tf.bucket)
+			{
+				tf.bucket = bucket;
+				tf.zone = zone;
+			}
+
+			if (closed)
+			{
+				tf.bar.add(open, high, low, close, volume, quoteVolume, count);
+				tf.lastBaseTime = openTime;
+				tf.preview.clear();
+
+				if (openTime + baseMillis >= bucket + tf.millis)
+				{
+					closeBar(tf);
+				}
+			}
+			else
+			{
+				tf.preview.set(tf.bar);
+				tf.preview.add(open, high, low, close, volume, quoteVolume, count);
+			}
+		}
+	}
+
+	private void closeBar(Timeframe tf)
+	{
+		TechCandle candle = tf.bar.toCandle(tf.bucket, tf.zone);
+		tf.close(candle);
+		tf.bar.clear();
+		tf.preview.clear();
+
+		if (listener != null)
+		{
+			listener.onClose(tf.duration, candle);
+		}
+	}
+
+	// ---- CANDLES -----------------------------------------------------------
+
+	/**
+	 * Closed candles of the timeframe followed by the in-progress one (if any)
+	 */
+	public synchronized TechCandle[] getCandles(Duration timeframe)
+	{
+		Timeframe tf = get(timeframe);
+		TechCandle current = getCurrent(tf);
+
+		TechCandle[] candles = new TechCandle[tf.history.size() + (current != null ? 1 : 0)];
+		int i = 0;
+		for (Iterator<TechCandle> it = tf.history.iterator(); it.hasNext();)
+		{
+			candles[i++] = copy(it.next());
+		}
+		if (current != null)
+		{
+			candles[i] = current;
+		}
+		return candles;
+	}
+
+	public synchronized TechCandle[] getClosedCandles(Duration timeframe)
+	{
+		Timeframe tf = get(timeframe);
+
+		TechCandle[] candles = new TechCandle[tf.history.size()];
+		int i = 0;
+		for (Iterator<TechCandle> it = tf.history.iterator(); it.hasNext();)
+		{
+			candles[i++] = copy(it.next());
+		}
+		return candles;
+	}
+
+	/**
+	 * In-progress candle of the timeframe, null when nothing was received for the current bucket
+	 */
+	public synchronized TechCandle getCurrent(Duration timeframe)
+	{
+		return getCurrent(get(timeframe));
+	}
+
+	private TechCandle getCurrent(Timeframe tf)
+	{
+		Bar bar = (tf.preview.count > 0) ? tf.preview : tf.bar;
+		return (bar.count > 0) ? bar.toCandle(tf.bucket, tf.zone) : null;
+	}
+
+	private Timeframe get(Duration timeframe)
+	{
+		for (Timeframe tf : timeframes)
+		{
+			if (tf.duration.equals(timeframe))
+			{
+				return tf;
+			}
+		}
+		throw new IllegalArgumentException("Timeframe " + timeframe + " is not resampled");
+	}
+
+	private static TechCandle copy(TechCandle candle)
+	{
+		TechCandle copy = new TechCandle(candle.getOpenTime(), candle.getOpenPrice(), candle.getHighPrice(), candle.getLowPrice(),
+				candle.getClosePrice(), candle.getVolume(), candle.getCount());
+		copy.setQuoteVolume(candle.getQuoteVolume());
+		return copy;
+	}
+
+	// ---- STATE -------------------------------------------------------------
+
+	private static class Timeframe
+	{
+		private final Duration duration;
+		private final long millis;
+		private final long offset;
+		private final int capacity;
+		private final ArrayDeque<TechCandle> history;
+
+		private final Bar bar = new Bar();
+		private final Bar preview = new Bar();
+		private long bucket = Long.MIN_VALUE;
+		private ZoneId zone = ZoneOffset.UTC;
+		private long lastBaseTime = Long.MIN_VALUE;
+
+		private Timeframe(Duration duration, int capacity)
+		{
+			this.duration = duration;
+			this.millis = duration.toMillis();
+			this.offset = (millis % Duration.ofDays(7).toMillis() == 0) ? WEEK_OFFSET : 0;
+			this.capacity = capacity;
+			this.history = new ArrayDeque<TechCandle>(capacity);
+		}
+
+		private long bucket(long time)
+		{
+			return Math.floorDiv(time - offset, millis) * millis + offset;
+		}
+
+		private void close(TechCandle candle)
+		{
+			if (history.size() == capacity)
+			{
+				history.removeFirst();
+			}
+			history.addLast(candle);
+		}
+
+		private void clear()
+		{
+			history.clear();
+			bar.clear();
+			preview.clear();
+			bucket = Long.MIN_VALUE;
+			lastBaseTime = Long.MIN_VALUE;
+		}
+	}
+
+	/**
+	 * OHLCV accumulator of a bucket
+	 */
+	private static class Bar
+	{
+		private double open;
+		private double high;
+		private double low;
+		private double close;
+		private double volume;
+		private double quoteVolume;
+		private long trades;
+		private int count;
+
+		private void add(double open, double high, double low, double close, double volume, double quoteVolume, long trades)
+		{
+			if (count == 0)
+			{
+				this.open = open;
+				this.high = high;
+				this.low = low;
+			}
+			else
+			{
+				this.high = Math.max(this.high, high);
+				this.low = Math.min(this.low, low);
+			}
+			this.close = close;
+			this.volume += volume;
+			this.quoteVolume += quoteVolume;
+			this.trades += trades;
+			this.count++;
+		}
+
+		private void set(Bar bar)
+		{
+			open = bar.open;
+			high = bar.high;
+			low = bar.low;
+			close = bar.close;
+			volume = bar.volume;
+			quoteVolume = bar.quoteVolume;
+			trades = bar.trades;
+			count = bar.count;
+		}
+
+		private void clear()
+		{
+			volume = 0;
+			quoteVolume = 0;
+			trades = 0;
+			count = 0;
+		}
+
+		private TechCandle toCandle(long openTime, ZoneId zone)
+		{
+			ZonedDateTime time = ZonedDateTime.ofInstant(Instant.ofEpochMilli(openTime), zone);
+			TechCandle candle = new TechCandle(time, open, high, low, close, volume, trades);
+			candle.setQuoteVolume(quoteVolume);
+			return candle;
+		}
+	}
+
+}
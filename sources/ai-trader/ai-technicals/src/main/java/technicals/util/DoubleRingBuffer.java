@@ -0,0 +1,90 @@
+package technicals.util;
+
+/**
+ * Fixed capacity FIFO of primitive doubles, index 0 is the oldest value
+ */
+public class DoubleRingBuffer
+{
+	private final double[] values;
+	private int head;
+	private int size;
+
+	public DoubleRingBuffer(int capacity)
+	{
+		if (capacity < 1)
+		{
+			throw new IllegalArgumentException("'capacity' must be greater than zero");
+		}
+		this.values = new double[capacity];
+	}
+
+	public int capacity()
+	{
+		return values.length;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	public boolean isFull()
+	{
+		return size == values.length;
+	}
+
+	public double get(int index)
+	{
+		int i = head + index;
+		return values[i < values.length ? i : i - values.length];
+	}
+
+	public double first()
+	{
+		return values[head];
+	}
+
+	public double last()
+	{
+		return get(size - 1);
+	}
+
+	/**
+	 * Appends a value, returns the evicted value or 0 when the buffer was not full
+	 */
+	public double add(double value)
+	{
+		if (size < values.length)
+		{
+			int i = head + size;
+			values[i < values.length ? i : i - values.length] = value;
+			size++;
+			return 0;
+		}
+
+		double evicted = values[head];
+		values[head] = value;
+		head = (head + 1 == values.length) ? 0 : head + 1;
+		return evicted;
+	}
+
+	/**
+	 * Value that the next 'add' would evict, 0 when the buffer is not full
+	 */
+	public double peekEvicted()
+	{
+		return (size < values.length) ? 0 : values[head];
+	}
+
+	public void clear()
+	{
+		head = 0;
+		size = 0;
+	}
+
+}
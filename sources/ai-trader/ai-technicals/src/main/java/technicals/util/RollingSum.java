@@ -0,0 +1,95 @@
+package technicals.util;
+
+/**
+ * Sum of the last 'periods' values, updated in O(1) per value.
+ *
+ * The running sum is compensated (Kahan-Neumaier), so adding and removing values
+ * over long series does not accumulate rounding error.
+ */
+public class RollingSum
+{
+	private final DoubleRingBuffer window;
+	private double sum;
+	private double compensation;
+
+	public RollingSum(int periods)
+	{
+		this.window = new DoubleRingBuffer(periods);
+	}
+
+	public int getPeriods()
+	{
+		return window.capacity();
+	}
+
+	public int size()
+	{
+		return window.size();
+	}
+
+	public boolean isFull()
+	{
+		return window.isFull();
+	}
+
+	public void add(double value)
+	{
+		boolean full = window.isFull();
+		double evicted = window.add(value);
+
+		accumulate(value);
+		if (full)
+		{
+			accumulate(-evicted);
+		}
+	}
+
+	public double sum()
+	{
+		return sum + compensation;
+	}
+
+	public double mean()
+	{
+		return sum() / window.size();
+	}
+
+	/**
+	 * Sum of the window if 'next' was added, without adding it
+	 */
+	public double sumWith(double next)
+	{
+		return sum + compensation + next - window.peekEvicted();
+	}
+
+	/**
+	 * Mean of the window if 'next' was added, without adding it
+	 */
+	public double meanWith(double next)
+	{
+		int count = window.isFull() ? window.capacity() : window.size() + 1;
+		return sumWith(next) / count;
+	}
+
+	public void clear()
+	{
+		window.clear();
+		sum = 0;
+		compensation = 0;
+	}
+
+	private void accumulate(double value)
+	{
+		double t = sum + value;
+		if (Math.abs(sum) >= Math.abs(value))
+		{
+			compensation += (sum - t) + value;
+		}
+		else
+		{
+			compensation += (value - t) + sum;
+		}
+		sum = t;
+	}
+
+}
@@ -0,0 +1,144 @@
+package technicals.util;
+
+/**
+ * Mean and population variance of the last 'periods' values, updated in O(1) per value.
+ *
+ * Uses Welford's update for the sum of squared deviations (adding the new value and
+ * removing the evicted one), which avoids the cancellation of the sum / sum of squares
+ * formula. The accumulators are recomputed from the window every RESYNC_INTERVAL
+ * evictions, so the rounding error stays bounded on arbitrarily long series.
+ */
+public class RollingVariance
+{
+	private static final int RESYNC_INTERVAL = 4096;
+
+	private final DoubleRingBuffer window;
+	private double mean;
+	private double m2;
+	private int evictions;
+
+	public RollingVariance(int periods)
+	{
+		this.window = new DoubleRingBuffer(periods);
+	}
+
+	public int getPeriods()
+	{
+		return window.capacity();
+	}
+
+	public int size()
+	{
+		return window.size();
+	}
+
+	public boolean isFull()
+	{
+		return window.isFull();
+	}
+
+	public void add(double value)
+	{
+		if (!window.isFull())
+		{
+			window.add(value);
+			double delta = value - mean;
+			mean += delta / window.size();
+			m2 += delta * (value - mean);
+			return;
+		}
+
+		double evicted = window.add(value);
+		double prevMean = mean;
+		mean += (value - evicted) / window.size();
+		m2 += (value - evicted) * (value - mean + evicted - prevMean);
+
+		if (++evictions == RESYNC_INTERVAL)
+		{
+			resync();
+		}
+	}
+
+	public double mean()
+	{
+		return window.isEmpty() ? Double.NaN : mean;
+	}
+
+	public double variance()
+	{
+		return window.isEmpty() ? Double.NaN : Math.max(m2, 0) / window.size();
+	}
+
+	public double standardDeviation()
+	{
+		return Math.sqrt(variance());
+	}
+
+	/**
+	 * Mean of the window if 'next' was added, without adding it
+	 */
+	public double meanWith(double next)
+	{
+		if (!window.isFull())
+		{
+			return mean + (next - mean) / (window.size() + 1);
+		}
+		return mean + (next - window.peekEvicted()) / window.size();
+	}
+
+	/**
+	 * Variance of the window if 'next' was added, without adding it
+	 */
+	public double varianceWith(double next)
+	{
+		double newMean = meanWith(next);
+		if (!window.isFull())
+		{
+			double newM2 = m2 + (next - mean) * (next - newMean);
+			return Math.max(newM2, 0) / (window.size() + 1);
+		}
+
+		double evicted = window.peekEvicted();
+		double newM2 = m2 + (next - evicted) * (next - newMean + evicted - mean);
+		return Math.max(newM2, 0) / window.size();
+	}
+
+	public double standardDeviationWith(double next)
+	{
+		return Math.sqrt(varianceWith(next));
+	}
+
+	public void clear()
+	{
+		window.clear();
+		mean = 0;
+		m2 = 0;
+		evictions = 0;
+	}
+
+	/**
+	 * Two-pass recomputation of the accumulators from the window
+	 */
+	private void resync()
+	{
+		int size = window.size();
+
+		double sum = 0;
+		for (int i = 0; i < size; i++)
+		{
+			sum += window.get(i);
+		}
+		mean = sum / size;
+
+		double sumSq = 0;
+		for (int i = 0; i < size; i++)
+		{
+			double delta = window.get(i) - mean;
+			sumSq += delta * delta;
+		}
+		m2 = sumSq;
+
+		evictions = 0;
+	}
+
+}
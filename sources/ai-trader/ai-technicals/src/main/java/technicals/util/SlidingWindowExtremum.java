@@ -0,0 +1,153 @@
+package technicals.util;
+
+/**
+ * Highest or lowest value of the last 'periods' values, based on a monotonic deque.
+ *
+ * Each value enters and leaves the deque once, so a window of any size is maintained
+ * in amortized O(1) per value. On ties the oldest value is kept as the extremum, same
+ * as CandleUtils.highestHighIndex / lowestLowIndex.
+ */
+public class SlidingWindowExtremum
+{
+	private final int periods;
+	private final boolean max;
+
+	// circular deque, values are monotonic from head to tail
+	private final double[] values;
+	private final long[] indexes;
+	private int head;
+	private int size;
+
+	private long count;
+
+	private SlidingWindowExtremum(int periods, boolean max)
+	{
+		if (periods < 1)
+		{
+			throw new IllegalArgumentException("'periods' must be greater than zero");
+		}
+		this.periods = periods;
+		this.max = max;
+		this.values = new double[periods];
+		this.indexes = new long[periods];
+	}
+
+	public static SlidingWindowExtremum max(int periods)
+	{
+		return new SlidingWindowExtremum(periods, true);
+	}
+
+	public static SlidingWindowExtremum min(int periods)
+	{
+		return new SlidingWindowExtremum(periods, false);
+	}
+
+	public int getPeriods()
+	{
+		return periods;
+	}
+
+	/**
+	 * Number of values added since the creation or the last clear
+	 */
+	public long count()
+	{
+		return count;
+	}
+
+	public boolean isFull()
+	{
+		return count >= periods;
+	}
+
+	public void add(double value)
+	{
+		// drop the value that leaves the window
+		if (size > 0 && indexes[head] <= count - periods)
+		{
+			head = slot(1);
+			size--;
+		}
+
+		// drop the values that can no longer be the extremum
+		while (size > 0 && dominates(value, values[slot(size - 1)]))
+		{
+			size--;
+		}
+
+		int tail = slot(size);
+		values[tail] = value;
+		indexes[tail] = count;
+		size++;
+		count++;
+	}
+
+	/**
+	 * Extremum of the window, NaN when empty
+	 */
+	public double get()
+	{
+		return (size == 0) ? Double.NaN : values[head];
+	}
+
+	/**
+	 * Position of the extremum, counted from the first value added (0-based)
+	 */
+	public long getIndex()
+	{
+		return (size == 0) ? -1 : indexes[head];
+	}
+
+	/**
+	 * Extremum of the window if 'next' was added, without adding it
+	 */
+	public double peek(double next)
+	{
+		int i = frontAfterAdd();
+		return (i < 0 || dominates(next, values[i])) ? next : values[i];
+	}
+
+	/**
+	 * Position of the extremum if 'next' was added (its position would be count()), without adding it
+	 */
+	public long peekIndex(double next)
+	{
+		int i = frontAfterAdd();
+		return (i < 0 || dominates(next, values[i])) ? count : indexes[i];
+	}
+
+	public void clear()
+	{
+		head = 0;
+		size = 0;
+		count = 0;
+	}
+
+	/**
+	 * Slot of the oldest value that stays in the window when one more value is added, -1 if none
+	 */
+	private int frontAfterAdd()
+	{
+		if (size == 0)
+		{
+			return -1;
+		}
+		if (indexes[head] > count - periods)
+		{
+			return head;
+		}
+		return (size > 1) ? slot(1) : -1;
+	}
+
+	private boolean dominates(double value, double other)
+	{
+		return max ? value > other : value < other;
+	}
+
+	private int slot(int offset)
+	{
+		int i = head + offset;
+		return (i < periods) ? i : i - periods;
+	}
+
+}
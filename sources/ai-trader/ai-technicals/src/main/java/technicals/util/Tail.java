@@ -0,0 +1,57 @@
+package technicals.util;
+
+import java.util.Arrays;
+
+import technicals.model.TechCandle;
+
+/**
+ * Helpers for the 'lastN' evaluation of the indicators: only the last n candles plus
+ * the lookback they depend on are calculated.
+ *
+ * Windowed indicators (SMA, Stochastic, CCI, ...) give the same values as the full
+ * calculation. Recursive indicators (EMA, RSI, ATR, ADX, ...) are seeded 'warmUp'
+ * candles earlier, the error decays with the warm-up (by default WARM_UP_PERIODS
+ * times the periods). Cumulative indicators (AD, OBV, VWAP) need the whole series.
+ */
+public class Tail
+{
+	public static final int WARM_UP_PERIODS = 20;
+
+	/**
+	 * Default warm-up of a recursive indicator
+	 */
+	public static int warmUp(int periods)
+	{
+		return WARM_UP_PERIODS * periods;
+	}
+
+	/**
+	 * Index of the first candle needed for the last 'n' values
+	 */
+	public static int start(int length, int n, int lookback)
+	{
+		if (n < 1)
+		{
+			throw new IllegalArgumentException("'n' must be greater than zero");
+		}
+		return (int) Math.max(0, (long) length - n - lookback);
+	}
+
+	/**
+	 * The last 'n' + 'lookback' candles (all the candles when there are fewer)
+	 */
+	public static TechCandle[] candles(TechCandle[] candles, int n, int lookback)
+	{
+		int start = start(candles.length, n, lookback);
+		return (start == 0) ? candles : Arrays.copyOfRange(candles, start, candles.length);
+	}
+
+	/**
+	 * The last 'n' entries (all the entries when there are fewer)
+	 */
+	public static <T> T[] last(T[] entries, int n)
+	{
+		return (entries.length <= n) ? entries : Arrays.copyOfRange(entries, entries.length - n, entries.length);
+	}
+
+}
@@ -0,0 +1,207 @@
+package technicals.test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import technicals.model.TechCandle;
+import technicals.util.CandleResampler;
+import technicals.util.CandleUtils;
+
+/**
+ * Resampled 1m candles (with in-progress updates) against the merge of each bucket
+ */
+public class CandleResampler_
+{
+	private static final Duration[] TIMEFRAMES = {
+		Duration.ofMinutes(5), Duration.ofMinutes(15), Duration.ofHours(1), Duration.ofHours(4), Duration.ofDays(1), Duration.ofDays(7)
+	};
+
+	public static void main(String[] args)
+	{
+		// starts in the middle of a week, hour and 5m bucket
+		ZonedDateTime start = ZonedDateTime.of(2024, 1, 3, 10, 37, 0, 0, ZoneOffset.UTC);
+		TechCandle[] candles = SyntheticCandles.candles(start, 30_000, 65000, 0.002, 1);
+
+		CandleResampler resampler = new CandleResampler(10_000, TIMEFRAMES);
+		int[] closes = new int[TIMEFRAMES.length];
+		resampler.setListener((tf, candle) -> closes[indexOf(tf)]++);
+
+		boolean ok = true;
+		Random random = new Random(2);
+
+		for (int i = 0; i < candles.length; i++)
+		{
+			// a few partial updates of the same minute before it closes
+			TechCandle candle = candles[i];
+			for (int k = 0; k < 3; k++)
+			{
+				double close = candle.getOpenPrice() + (candle.getClosePrice() - candle.getOpenPrice()) * random.nextDouble();
+				TechCandle partial = new TechCandle(candle.getOpenTime(), candle.getOpenPrice(), Math.max(candle.getOpenPrice(), close),
+						Math.min(candle.getOpenPrice(), close), close, candle.getVolume() * random.nextDouble(), 1);
+				resampler.update(partial, false);
+
+				if (i % 997 == 0)
+				{
+					ok &= checkCurrent(resampler, candles, i, partial);
+				}
+			}
+			resampler.update(candle, true);
+
+			// repeated message, ignored
+			if (i % 101 == 0)
+			{
+				resampler.update(candle, true);
+			}
+		}
+
+		for (int t = 0; t < TIMEFRAMES.length; t++)
+		{
+			ok &= checkClosed(resampler, candles, TIMEFRAMES[t], closes[t]);
+		}
+
+		// history reloaded from the closed candles, then the same tail of the stream
+		CandleResampler reloaded = new CandleResampler(10_000, Duration.ofHours(1));
+		TechCandle[] hours = resampler.getClosedCandles(Duration.ofHours(1));
+		TechCandle[] loaded = new TechCandle[hours.length - 3];
+		System.arraycopy(hours, 0, loaded, 0, loaded.length);
+		reloaded.load(Duration.ofHours(1), loaded);
+
+		long from = hours[loaded.length - 1].getOpenTime().toInstant().toEpochMilli();
+		for (TechCandle candle : candles)
+		{
+			if (candle.getOpenTime().toInstant().toEpochMilli() >= from)
+			{
+				reloaded.update(candle, true);
+			}
+		}
+		ok &= same("reload 1h", resampler.getCandles(Duration.ofHours(1)), reloaded.getCandles(Duration.ofHours(1)));
+
+		System.out.println(ok ? "OK" : "FAILED");
+		if (!ok)
+		{
+			System.exit(1);
+		}
+	}
+
+	private static boolean checkClosed(CandleResampler resampler, TechCandle[] candles, Duration timeframe, int closes)
+	{
+		TechCandle[] expected = resample(candles, candles.length, timeframe);
+		TechCandle[] actual = resampler.getCandles(timeframe);
+
+		// the last bucket is complete only if the stream ends on its boundary
+		boolean ok = same(timeframe.toString(), expected, actual);
+		int expectedCloses = expected.length - (isComplete(expected[expected.length - 1], candles, timeframe) ? 0 : 1);
+		if (closes != expectedCloses)
+		{
+			System.out.println(String.format("%-10s FAILED, %d closes, expected %d", timeframe, closes, expectedCloses));
+			ok = false;
+		}
+		return ok;
+	}
+
+	private static boolean checkCurrent(CandleResampler resampler, TechCandle[] candles, int index, TechCandle partial)
+	{
+		boolean ok = true;
+		for (Duration timeframe : TIMEFRAMES)
+		{
+			TechCandle[] committed = resample(candles, index, timeframe);
+			TechCandle[] bucket = new TechCandle[] { partial };
+
+			long bucketTime = bucket(partial, timeframe);
+			TechCandle last = committed.length > 0 ? committed[committed.length - 1] : null;
+			if (last != null && last.getOpenTime().toInstant().toEpochMilli() == bucketTime)
+			{
+				bucket = new TechCandle[] { last, partial };
+			}
+
+			TechCandle expected = CandleUtils.mergeCandles(bucket, 0, bucket.length - 1);
+			expected.setOpenTime(ZonedDateTime.ofInstant(Instant.ofEpochMilli(bucketTime), ZoneOffset.UTC));
+			ok &= same(timeframe + " current", new TechCandle[] { expected }, new TechCandle[] { resampler.getCurrent(timeframe) });
+		}
+		return ok;
+	}
+
+	/**
+	 * Reference: merge of the first 'count' candles bucket by bucket
+	 */
+	private static TechCandle[] resample(TechCandle[] candles, int count, Duration timeframe)
+	{
+		List<TechCandle> list = new ArrayList<>();
+		int start = 0;
+		for (int i = 1; i <= count; i++)
+		{
+			if (i == count || bucket(candles[i], timeframe) != bucket(candles[start], timeframe))
+			{
+				TechCandle candle = CandleUtils.mergeCandles(candles, start, i - 1);
+				candle.setOpenTime(ZonedDateTime.ofInstant(Instant.ofEpochMilli(bucket(candles[start], timeframe)), ZoneOffset.UTC));
+				list.add(candle);
+				start = i;
+			}
+		}
+		return count > 0 ? list.toArray(new TechCandle[0]) : new TechCandle[0];
+	}
+
+	private static long bucket(TechCandle candle, Duration timeframe)
+	{
+		long offset = timeframe.equals(Duration.ofDays(7)) ? Duration.ofDays(4).toMillis() : 0;
+		long millis = timeframe.toMillis();
+		return Math.floorDiv(candle.getOpenTime().toInstant().toEpochMilli() - offset, millis) * millis + offset;
+	}
+
+	private static boolean isComplete(TechCandle bar, TechCandle[] candles, Duration timeframe)
+	{
+		long end = bar.getOpenTime().toInstant().toEpochMilli() + timeframe.toMillis();
+		return candles[candles.length - 1].getOpenTime().toInstant().toEpochMilli() + 60_000 == end;
+	}
+
+	private static boolean same(String name, TechCandle[] expected, TechCandle[] actual)
+	{
+		if (expected.length != actual.length)
+		{
+			System.out.println(String.format("%-10s FAILED, %d candles, expected %d", name, actual.length, expected.length));
+			return false;
+		}
+
+		double error = 0;
+		for (int i = 0; i < expected.length; i++)
+		{
+			TechCandle e = expected[i];
+			TechCandle a = actual[i];
+			if (a == null || !e.getOpenTime().toInstant().equals(a.getOpenTime().toInstant()) || e.getCount() != a.getCount())
+			{
+				System.out.println(String.format("%-10s FAILED at %d: %s / %s", name, i, e, a));
+				return false;
+			}
+			error = Math.max(error, Math.abs(e.getOpenPrice() - a.getOpenPrice()));
+			error = Math.max(error, Math.abs(e.getHighPrice() - a.getHighPrice()));
+			error = Math.max(error, Math.abs(e.getLowPrice() - a.getLowPrice()));
+			error = Math.max(error, Math.abs(e.getClosePrice() - a.getClosePrice()));
+			error = Math.max(error, Math.abs(e.getVolume() - a.getVolume()) / Math.max(e.getVolume(), 1));
+		}
+
+		boolean ok = error <= 1e-9;
+		if (!ok || !name.contains("current"))
+		{
+			System.out.println(String.format("%-10s %s, %d candles, max error %.3e", name, ok ? "OK" : "FAILED", expected.length, error));
+		}
+		return ok;
+	}
+
+	private static int indexOf(Duration timeframe)
+	{
+		for (int i = 0; i < TIMEFRAMES.length; i++)
+		{
+			if (TIMEFRAMES[i].equals(timeframe))
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,64 @@
+package technicals.test;
+
+import java.util.List;
+
+import exchanges.binance.BinanceApiClient;
+import exchanges.binance.BinanceCandle;
+import exchanges.binance.BinanceIntervalType;
+import exchanges.binance.BinanceUtils;
+import technicals.indicators.ma.SimpleMovingAverage;
+import technicals.indicators.oscillator.MACD;
+import technicals.indicators.oscillator.RelativeStrengthIndex;
+import technicals.indicators.volatility.Bollinger;
+import technicals.model.CandleSeries;
+import technicals.model.TechCandle;
+import technicals.model.indicators.BollingerEntry;
+import technicals.model.indicators.IndicatorEntry;
+import technicals.model.oscillator.MACDEntry;
+import technicals.model.oscillator.RsiEntry;
+
+/**
+ * Columnar indicators against the entry based ones, the last values must match
+ */
+public class CandleSeries_
+{
+
+	public static void main(String[] args) throws Exception
+	{
+		List<BinanceCandle> lstBinanceCandles = BinanceApiClient.getKlines("BTCUSDT", BinanceIntervalType._1h, 500);
+		TechCandle[] candles = BinanceUtils.toCandleArray(lstBinanceCandles);
+
+		check(candles);
+	}
+
+	public static void check(TechCandle[] candles)
+	{
+		CandleSeries series = CandleSeries.from(candles);
+		int last = series.size() - 1;
+
+		double[] sma = series.newColumn();
+		SimpleMovingAverage.calculate(series, 20, sma);
+		IndicatorEntry[] smaEntries = SimpleMovingAverage.calculate(candles, 20);
+		System.out.println("sma\t" + sma[last] + "\t" + smaEntries[smaEntries.length - 1].getValue());
+
+		double[] rsi = series.newColumn();
+		RelativeStrengthIndex.calculate(series, 14, rsi);
+		RsiEntry[] rsiEntries = RelativeStrengthIndex.calculate(candles, 14);
+		System.out.println("rsi\t" + rsi[last] + "\t" + rsiEntries[rsiEntries.length - 1].getRsi());
+
+		double[] macd = series.newColumn();
+		double[] signal = series.newColumn();
+		double[] histogram = series.newColumn();
+		MACD.calculate(series, 12, 26, 9, macd, signal, histogram);
+		MACDEntry[] macdEntries = MACD.calculate(candles, 12, 26, 9);
+		System.out.println("macd\t" + histogram[last] + "\t" + macdEntries[macdEntries.length - 1].getHistogram());
+
+		double[] middle = series.newColumn();
+		double[] upper = series.newColumn();
+		double[] lower = series.newColumn();
+		Bollinger.calculate(series, 20, 2, middle, upper, lower);
+		BollingerEntry[] bollingerEntries = Bollinger.calculate(candles, 20, 2);
+		System.out.println("bollinger\t" + upper[last] + "\t" + bollingerEntries[bollingerEntries.length - 1].getUpperBand());
+	}
+
+}
@@ -0,0 +1,145 @@
+package technicals.test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import technicals.indicators.depth.DepthDelta;
+import technicals.indicators.depth.DepthDeltaStream;
+import technicals.indicators.depth.DepthMiddlePrice;
+import technicals.indicators.depth.DepthTrueRange;
+import technicals.model.BookSnapshot;
+import technicals.model.OrderBook;
+import technicals.model.VersionedOrderBook;
+
+/**
+ * Random diffs around a drifting middle price applied to a book and a DepthDeltaStream (one tick per
+ * bucket): the bands must match DepthDelta, DepthMiddlePrice and DepthTrueRange on the same book,
+ * including after the window has been rebuilt. Then the time per event of the stream
+ */
+public class DepthDeltaStream_
+{
+	private static final int EVENTS = 20_000;
+	private static final int LEVELS = 2000;
+	private static final double[] BANDS = { 0.001, 0.005, 0.01 };
+	private static final double TOLERANCE = 1e-9;
+
+	public static void main(String[] args)
+	{
+		BigDecimal tickSize = new BigDecimal("0.10");
+		VersionedOrderBook book = new VersionedOrderBook(tickSize);
+		DepthDeltaStream stream = new DepthDeltaStream(tickSize, 100_000, 10_000, BANDS);
+
+		Random random = new Random(1);
+		long mid = 650_000;
+		long time = 0;
+		int checks = 0;
+		int loads = 0;
+		boolean ok = true;
+
+		synchronized (book)
+		{
+			for (int i = 1; i <= LEVELS; i++)
+			{
+				book.updateTicks(false, mid + i, 1 + random.nextInt(100) / 10.0);
+				book.updateTicks(true, mid - i, 1 + random.nextInt(100) / 10.0);
+			}
+			book.commit();
+		}
+		stream.load(book.getSnapshot(), time);
+		loads++;
+
+		long nanos = 0;
+		for (int e = 0; e < EVENTS; e++)
+		{
+			time += 100;
+			mid += random.nextInt(41) - 10;
+
+			synchronized (book)
+			{
+				long t1 = System.nanoTime();
+				for (int k = 0; k < 10; k++)
+				{
+					boolean bid = random.nextBoolean();
+					long distance = 1 + (long) Math.abs(random.nextGaussian() * LEVELS / 4);
+					long ticks = bid ? mid - distance : mid + distance;
+					double qty = random.nextInt(4) == 0 ? 0 : random.nextInt(100) / 10.0;
+
+					double previous = book.updateTicks(bid, ticks, qty);
+					stream.update(bid, ticks, previous, qty);
+				}
+				// remove the levels crossed by the drift
+				while (book.getBestAskTicks() >= 0 && book.getBestAskTicks() <= mid)
+				{
+					long ticks = book.getBestAskTicks();
+					stream.update(false, ticks, book.updateTicks(false, ticks, 0), 0);
+				}
+				while (book.getBestBidTicks() >= mid)
+				{
+					long ticks = book.getBestBidTicks();
+					stream.update(true, ticks, book.updateTicks(true, ticks, 0), 0);
+				}
+				book.commit();
+
+				if (!stream.commit(book.getBestAskTicks(), book.getBestBidTicks(), time))
+				{
+					stream.load(book.getSnapshot(), time);
+					loads++;
+				}
+				nanos += System.nanoTime() - t1;
+			}
+
+			if (e % 200 == 0)
+			{
+				ok &= check(stream, book.getSnapshot());
+				checks++;
+			}
+		}
+		ok &= check(stream, book.getSnapshot());
+
+		// every event moves the delta: the rate of change is defined
+		ok &= !Double.isNaN(stream.getDeltaRateOfChange(0));
+
+		System.out.println(checks + " checks, " + loads + " loads, roc " + stream.getDeltaRateOfChange(0) + " %/s");
+		System.out.println(nanos / EVENTS + " nsecs/event (10 diffs)");
+		System.out.println(ok ? "OK" : "FAILED");
+		if (!ok)
+		{
+			System.exit(1);
+		}
+	}
+
+	private static boolean check(DepthDeltaStream stream, BookSnapshot snapshot)
+	{
+		OrderBook orderBook = snapshot.toOrderBook(1);
+		boolean ok = true;
+
+		for (int b = 0; b < BANDS.length; b++)
+		{
+			DepthDelta delta = new DepthDelta(orderBook).calculate(BANDS[b]);
+			ok &= same("askSumQty", delta.getAskSumQty(), stream.getAskSumQty(b));
+			ok &= same("bidSumQty", delta.getBidSumQty(), stream.getBidSumQty(b));
+			ok &= same("askSumQuoted", delta.getAskSumQuoted(), stream.getAskSumQuoted(b));
+			ok &= same("bidSumQuoted", delta.getBidSumQuoted(), stream.getBidSumQuoted(b));
+			ok &= same("deltaPercent", delta.getDeltaPercent(), stream.getDeltaPercent(b));
+
+			// the classes round to the price precision (1) or to 2 decimals
+			BigDecimal dmp = new DepthMiddlePrice(orderBook).calculate(BANDS[b], false);
+			ok &= same("middlePrice", dmp.doubleValue(), BigDecimal.valueOf(stream.getDepthMiddlePrice(b, false)).setScale(1, RoundingMode.HALF_UP).doubleValue());
+			BigDecimal dtr = new DepthTrueRange(orderBook).calculate(BANDS[b], true);
+			ok &= same("trueRange", dtr.doubleValue(), BigDecimal.valueOf(stream.getDepthTrueRange(b, true)).setScale(2, RoundingMode.HALF_UP).doubleValue());
+		}
+		return ok;
+	}
+
+	private static boolean same(String name, double expected, double actual)
+	{
+		boolean ok = Math.abs(expected - actual) <= TOLERANCE * Math.max(1, Math.abs(expected));
+		if (!ok)
+		{
+			System.out.println("FAILED " + name + ": " + expected + " != " + actual);
+		}
+		return ok;
+	}
+
+}
@@ -0,0 +1,147 @@
+package technicals.test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import technicals.indicators.depth.DephMergedPoints;
+import technicals.indicators.depth.DephMergedPoints.MergeMode;
+import technicals.indicators.depth.DepthBlockPoints;
+import technicals.indicators.depth.DepthPoints;
+import technicals.indicators.depth.DepthWeightedPoints;
+import technicals.model.BookSnapshot;
+import technicals.model.OrderBook;
+import technicals.model.VersionedOrderBook;
+
+/**
+ * Fused DepthPoints against DepthBlockPoints, DepthWeightedPoints and DephMergedPoints on random books
+ * of several price magnitudes, then the time of both on a 5000 levels book
+ */
+public class DepthPoints_
+{
+	private static final int BOOKS = 200;
+
+	private static final String[] TICK_SIZES = { "0.0000001", "0.0001", "0.01", "0.10" };
+	private static final double[] MIDS = { 0.0005, 0.65, 27.5, 65000 };
+
+	public static void main(String[] args)
+	{
+		int checked = 0;
+		int different = 0;
+
+		for (int t = 0; t < TICK_SIZES.length; t++)
+		{
+			BigDecimal tickSize = new BigDecimal(TICK_SIZES[t]);
+			int precision = tickSize.scale();
+			for (int seed = 0; seed < BOOKS; seed++)
+			{
+				BookSnapshot snapshot = randomBook(tickSize, MIDS[t], 1000, new Random(seed));
+				OrderBook orderBook = snapshot.toOrderBook(precision);
+
+				DepthPoints points = new DepthPoints().calculate(snapshot, precision, 10, 0.01, 0.02, 0.03, MergeMode.MAX);
+				DepthBlockPoints blockPoints = new DepthBlockPoints(orderBook);
+				DepthWeightedPoints weightedPoints = new DepthWeightedPoints(orderBook);
+
+				BigDecimal[] expected = new BigDecimal[14];
+				BigDecimal[] actual = { points.getBlockR1(), points.getBlockS1(), points.getBlockR2(), points.getBlockS2(),
+						points.getWeightedR1(), points.getWeightedS1(), points.getWeightedR2(), points.getWeightedS2(),
+						points.getWeightedR3(), points.getWeightedS3(), points.getR1(), points.getS1(), points.getR2(), points.getS2() };
+				try
+				{
+					blockPoints.calculate(10);
+					weightedPoints.calculate(0.01, 0.02, 0.03);
+					DephMergedPoints merged = DephMergedPoints.getInstance().calculate(blockPoints, weightedPoints, MergeMode.MAX);
+					expected = new BigDecimal[] { blockPoints.getR1(), blockPoints.getS1(), blockPoints.getR2(), blockPoints.getS2(),
+							weightedPoints.getR1(), weightedPoints.getS1(), weightedPoints.getR2(), weightedPoints.getS2(),
+							weightedPoints.getR3(), weightedPoints.getS3(), merged.getR1(), merged.getS1(), merged.getR2(), merged.getS2() };
+				}
+				catch (RuntimeException e)
+				{
+					// the classes fail on a range without levels, only compare the weighted points
+					weightedPoints.calculate(0.01, 0.02, 0.03);
+					expected = new BigDecimal[] { null, null, null, null,
+							weightedPoints.getR1(), weightedPoints.getS1(), weightedPoints.getR2(), weightedPoints.getS2(),
+							weightedPoints.getR3(), weightedPoints.getS3(), null, null, null, null };
+					for (int i = 0; i < 4; i++)
+					{
+						actual[i] = null;
+						actual[10 + i] = null;
+					}
+				}
+
+				for (int i = 0; i < expected.length; i++)
+				{
+					checked++;
+					if (!equal(expected[i], actual[i]))
+					{
+						different++;
+						System.out.println("tick " + tickSize + ", seed " + seed + ", point " + i + ": " + expected[i] + " != " + actual[i]);
+					}
+				}
+			}
+		}
+
+		// timing
+		BigDecimal tickSize = new BigDecimal("0.10");
+		BookSnapshot snapshot = randomBook(tickSize, 65000, 5000, new Random(1));
+		OrderBook orderBook = snapshot.toOrderBook(1);
+		DepthPoints points = new DepthPoints();
+		long fused = 0;
+		long separate = 0;
+		for (int i = 0; i < 200; i++)
+		{
+			long t1 = System.nanoTime();
+			points.calculate(snapshot, 1, 10, 0.01, 0.02, 0.03, MergeMode.MAX);
+			long t2 = System.nanoTime();
+			DepthBlockPoints blockPoints = new DepthBlockPoints(orderBook).calculate(10);
+			DepthWeightedPoints weightedPoints = new DepthWeightedPoints(orderBook).calculate(0.01, 0.02, 0.03);
+			DephMergedPoints.getInstance().calculate(blockPoints, weightedPoints, MergeMode.MAX);
+			long t3 = System.nanoTime();
+			if (i >= 100)
+			{
+				fused += t2 - t1;
+				separate += t3 - t2;
+			}
+		}
+
+		boolean ok = different == 0;
+
+		System.out.println(checked + " points checked, " + different + " different");
+		System.out.println("fused " + fused / 100 / 1000 + " usecs, separate " + separate / 100 / 1000 + " usecs");
+		System.out.println(ok ? "OK" : "FAILED");
+		if (!ok)
+		{
+			System.exit(1);
+		}
+	}
+
+	private static BookSnapshot randomBook(BigDecimal tickSize, double mid, int levels, Random random)
+	{
+		VersionedOrderBook book = new VersionedOrderBook(tickSize);
+		long midTicks = BigDecimal.valueOf(mid).divide(tickSize).longValue();
+		long spread = 1 + random.nextInt(5);
+		synchronized (book)
+		{
+			long ask = midTicks + spread;
+			long bid = midTicks - spread;
+			for (int i = 0; i < levels; i++)
+			{
+				// gaps between the levels, with distinct quantities (no ties between blocks)
+				ask += 1 + (random.nextInt(3) == 0 ? random.nextInt(Math.max(1, (int) (midTicks / 2000))) : 0);
+				bid -= 1 + (random.nextInt(3) == 0 ? random.nextInt(Math.max(1, (int) (midTicks / 2000))) : 0);
+				book.updateTicks(false, ask, 1 + random.nextInt(1_000_000) / 1000.0);
+				if (bid > 0)
+				{
+					book.updateTicks(true, bid, 1 + random.nextInt(1_000_000) / 1000.0);
+				}
+			}
+			book.commit();
+		}
+		return book.getSnapshot();
+	}
+
+	private static boolean equal(BigDecimal a, BigDecimal b)
+	{
+		return a == null ? b == null : b != null && a.compareTo(b) == 0;
+	}
+
+}
@@ -0,0 +1,148 @@
+package technicals.test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import technicals.indicators.depth.DepthPressure;
+import technicals.model.BookSnapshot;
+import technicals.model.VersionedOrderBook;
+
+/**
+ * Random diffs applied to a book, DepthPressure updated after each batch from the working book:
+ * the metrics must match the formulas on the committed snapshot and the averages must match the
+ * half-life recursion. Then the time per update (independent of the book size)
+ */
+public class DepthPressure_
+{
+	private static final int EVENTS = 50_000;
+	private static final int LEVELS = 10;
+	private static final long HALF_LIFE = 5_000;
+	private static final double TOLERANCE = 1e-9;
+
+	public static void main(String[] args)
+	{
+		boolean ok = true;
+		ok &= check(500);
+		ok &= check(50_000);
+
+		// one side empty
+		VersionedOrderBook book = new VersionedOrderBook(new BigDecimal("0.1"));
+		DepthPressure pressure = new DepthPressure(LEVELS, HALF_LIFE);
+		synchronized (book)
+		{
+			book.updateTicks(false, 1000, 1);
+			book.commit();
+			ok &= !pressure.update(book.getLevels(), 0) && Double.isNaN(pressure.getMicroPrice()) && Double.isNaN(pressure.getImbalanceEma());
+		}
+
+		System.out.println(ok ? "OK" : "FAILED");
+		if (!ok)
+		{
+			System.exit(1);
+		}
+	}
+
+	private static boolean check(int bookLevels)
+	{
+		VersionedOrderBook book = new VersionedOrderBook(new BigDecimal("0.10"));
+		DepthPressure pressure = new DepthPressure(LEVELS, HALF_LIFE);
+
+		Random random = new Random(1);
+		long mid = 650_000;
+		long time = 0;
+		boolean ok = true;
+
+		synchronized (book)
+		{
+			for (int i = 1; i <= bookLevels; i++)
+			{
+				book.updateTicks(false, mid + i, 1 + random.nextInt(100) / 10.0);
+				book.updateTicks(true, mid - i, 1 + random.nextInt(100) / 10.0);
+			}
+			book.commit();
+		}
+
+		double imbalanceEma = Double.NaN;
+		double pressureEma = Double.NaN;
+		long lastTime = 0;
+		long nanos = 0;
+
+		for (int e = 0; e < EVENTS; e++)
+		{
+			time += random.nextInt(200);
+			synchronized (book)
+			{
+				for (int k = 0; k < 5; k++)
+				{
+					boolean bid = random.nextBoolean();
+					long distance = 1 + (long) Math.abs(random.nextGaussian() * 20);
+					book.updateTicks(bid, bid ? mid - distance : mid + distance, random.nextInt(4) == 0 ? 0 : random.nextInt(100) / 10.0);
+				}
+				book.commit();
+
+				long t1 = System.nanoTime();
+				pressure.update(book.getLevels(), time);
+				nanos += System.nanoTime() - t1;
+			}
+
+			BookSnapshot snapshot = book.getSnapshot();
+			double qa = snapshot.getAskQty(0);
+			double qb = snapshot.getBidQty(0);
+			double imbalance = (qb - qa) / (qb + qa);
+			double micro = (snapshot.getAskPrice(0) * qb + snapshot.getBidPrice(0) * qa) / (qa + qb);
+
+			double askQty = 0, askQuoted = 0, bidQty = 0, bidQuoted = 0;
+			for (int i = 0; i < Math.min(LEVELS, snapshot.getAskLevels()); i++)
+			{
+				askQty += snapshot.getAskQty(i);
+				askQuoted += snapshot.getAskQty(i) * snapshot.getAskPrice(i);
+			}
+			for (int i = 0; i < Math.min(LEVELS, snapshot.getBidLevels()); i++)
+			{
+				bidQty += snapshot.getBidQty(i);
+				bidQuoted += snapshot.getBidQty(i) * snapshot.getBidPrice(i);
+			}
+			double bookPressure = (bidQty - askQty) / (bidQty + askQty);
+			double weightedMid = ((askQuoted / askQty) * bidQty + (bidQuoted / bidQty) * askQty) / (askQty + bidQty);
+
+			if (Double.isNaN(imbalanceEma))
+			{
+				imbalanceEma = imbalance;
+				pressureEma = bookPressure;
+			}
+			else if (time > lastTime)
+			{
+				double weight = Math.pow(0.5, (time - lastTime) / (double) HALF_LIFE);
+				imbalanceEma = weight * imbalanceEma + (1 - weight) * imbalance;
+				pressureEma = weight * pressureEma + (1 - weight) * bookPressure;
+			}
+			lastTime = time;
+
+			if (e % 100 == 0)
+			{
+				DepthPressure copy = new DepthPressure(pressure);
+				ok &= same("microPrice", micro, copy.getMicroPrice());
+				ok &= same("queueImbalance", imbalance, copy.getQueueImbalance());
+				ok &= same("bookPressure", bookPressure, copy.getBookPressure());
+				ok &= same("depthWeightedMid", weightedMid, copy.getDepthWeightedMid());
+				ok &= same("imbalanceEma", imbalanceEma, copy.getImbalanceEma());
+				ok &= same("pressureEma", pressureEma, copy.getPressureEma());
+				ok &= copy.getMicroPrice() >= copy.getBestBid() && copy.getMicroPrice() <= copy.getBestAsk();
+			}
+		}
+
+		System.out.println(bookLevels + " levels/side: " + nanos / EVENTS + " nsecs/update, pressure ema " + pressure.getPressureEma());
+		return ok;
+	}
+
+	private static boolean same(String name, double expected, double actual)
+	{
+		boolean ok = Math.abs(expected - actual) <= TOLERANCE * Math.max(1, Math.abs(expected));
+		if (!ok)
+		{
+			System.out.println("FAILED " + name + ": " + expected + " != " + actual);
+		}
+		return ok;
+	}
+
+}
@@ -0,0 +1,156 @@
+package technicals.test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import technicals.indicators.depth.DepthSuperPrices;
+import technicals.indicators.depth.DepthSuperPricesStream;
+import technicals.model.OrderBook;
+import technicals.model.OrderBookEntry;
+import technicals.model.TickOrderBook;
+
+/**
+ * Random diffs (with many equal quantities) applied to a TickOrderBook and a DepthSuperPricesStream:
+ * DepthSuperPrices must match the full sort it replaces and the stream must match DepthSuperPrices.
+ * Then the time and bytes allocated per diff + search of the stream (expected zero)
+ */
+public class DepthSuperPrices_
+{
+	private static final int DIFFS = 200_000;
+	private static final int LEVELS = 1000;
+	private static final int MAX_SIZE = 12;
+
+	public static void main(String[] args)
+	{
+		BigDecimal tickSize = new BigDecimal("0.10");
+		TickOrderBook book = new TickOrderBook(tickSize);
+		DepthSuperPricesStream stream = new DepthSuperPricesStream(tickSize);
+
+		Random random = new Random(1);
+		long mid = 650_000;
+		int checks = 0;
+		boolean ok = true;
+
+		for (int i = 0; i < DIFFS; i++)
+		{
+			boolean bid = random.nextBoolean();
+			long distance = (long) Math.abs(random.nextGaussian() * LEVELS / 4);
+			long ticks = bid ? mid - 1 - distance : mid + 1 + distance;
+			double qty = random.nextInt(4) == 0 ? 0 : random.nextInt(50) / 10.0;
+
+			book.updateTicks(bid, ticks, qty);
+			stream.update(bid, ticks, qty);
+
+			if (i % 2_000 == 0 && book.getAskLevels() > 0)
+			{
+				OrderBook orderBook = book.toOrderBook(1);
+				DepthSuperPrices superPrices = new DepthSuperPrices(orderBook).searchSuperAskPrices(MAX_SIZE).searchSuperBidPrices(MAX_SIZE);
+				stream.searchSuperAskPrices(book.getAskTicks(0), MAX_SIZE).searchSuperBidPrices(book.getAskTicks(0), MAX_SIZE);
+
+				ok &= same("sort asks", sortAsks(orderBook, MAX_SIZE), superPrices.getAsks());
+				ok &= same("sort bids", sortBids(orderBook, MAX_SIZE), superPrices.getBids());
+				ok &= same("stream asks", superPrices.getAsks(), stream.getAsks());
+				ok &= same("stream bids", superPrices.getBids(), stream.getBids());
+				checks++;
+			}
+		}
+		System.out.println(checks + " searches checked");
+
+		ok &= allocations(book, stream, random, mid);
+
+		System.out.println(ok ? "OK" : "FAILED");
+		if (!ok)
+		{
+			System.exit(1);
+		}
+	}
+
+	// previous implementation, full sort by quantity
+	private static List<OrderBookEntry> sortAsks(OrderBook orderBook, int maxSize)
+	{
+		double maxPrice = orderBook.getAsks().firstKey().doubleValue() * 5;
+		List<OrderBookEntry> asks = new ArrayList<OrderBookEntry>();
+		for (OrderBookEntry e : orderBook.getAsks().values())
+		{
+			if (e.getPrice().doubleValue() > maxPrice)
+			{
+				break;
+			}
+			asks.add(e);
+		}
+		Collections.sort(asks, Comparator.comparing(OrderBookEntry::getQty).reversed());
+		asks = asks.stream().limit(maxSize).collect(Collectors.toList());
+		Collections.sort(asks, Comparator.comparing(OrderBookEntry::getPrice));
+		return asks;
+	}
+
+	private static List<OrderBookEntry> sortBids(OrderBook orderBook, int maxSize)
+	{
+		double minPrice = orderBook.getAsks().firstKey().doubleValue() * 0.2;
+		List<OrderBookEntry> bids = new ArrayList<OrderBookEntry>();
+		for (OrderBookEntry e : orderBook.getBids().values())
+		{
+			if (e.getPrice().doubleValue() < minPrice)
+			{
+				break;
+			}
+			bids.add(e);
+		}
+		Collections.sort(bids, Comparator.comparing(OrderBookEntry::getQty).reversed());
+		bids = bids.stream().limit(maxSize).collect(Collectors.toList());
+		Collections.sort(bids, Comparator.comparing(OrderBookEntry::getPrice).reversed());
+		return bids;
+	}
+
+	private static boolean same(String name, List<OrderBookEntry> expected, List<OrderBookEntry> actual)
+	{
+		boolean ok = expected.size() == actual.size();
+		for (int i = 0; ok && i < expected.size(); i++)
+		{
+			ok = expected.get(i).getPrice().compareTo(actual.get(i).getPrice()) == 0
+					&& expected.get(i).getQty().compareTo(actual.get(i).getQty()) == 0;
+		}
+		if (!ok)
+		{
+			System.out.println("FAILED " + name + ": " + expected + " != " + actual);
+		}
+		return ok;
+	}
+
+	private static boolean allocations(TickOrderBook book, DepthSuperPricesStream stream, Random random, long mid)
+	{
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+
+		long[] ticks = new long[DIFFS];
+		double[] qtys = new double[DIFFS];
+		for (int i = 0; i < DIFFS; i++)
+		{
+			long distance = (long) Math.abs(random.nextGaussian() * LEVELS / 4);
+			ticks[i] = (i % 2 == 0) ? mid - 1 - distance : mid + 1 + distance;
+			qtys[i] = random.nextInt(4) == 0 ? 0 : random.nextInt(1000) / 100.0;
+		}
+
+		double sum = 0;
+		long bytes1 = threadBean.getThreadAllocatedBytes(threadId);
+		long t1 = System.nanoTime();
+		for (int i = 0; i < DIFFS; i++)
+		{
+			stream.update(i % 2 == 0, ticks[i], qtys[i]);
+			stream.searchSuperAskPrices(mid + 1, MAX_SIZE).searchSuperBidPrices(mid + 1, MAX_SIZE);
+			sum += stream.getAskQty(0) + stream.getBidQty(0);
+		}
+		long t2 = System.nanoTime();
+		long bytes2 = threadBean.getThreadAllocatedBytes(threadId);
+
+		System.out.println((t2 - t1) / DIFFS + " nsecs/diff + search, " + (bytes2 - bytes1) + " bytes (" + (long) sum + ")");
+		return bytes2 - bytes1 < 1024;
+	}
+
+}
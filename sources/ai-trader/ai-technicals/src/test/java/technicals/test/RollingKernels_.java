@@ -0,0 +1,117 @@
+package technicals.test;
+
+import technicals.indicators.ma.SimpleMovingAverage;
+import technicals.indicators.ma.VWMovingAverage;
+import technicals.indicators.streaming.StandardDeviationStream;
+import technicals.indicators.volatility.Bollinger;
+import technicals.indicators.volatility.StandardDeviation;
+import technicals.model.TechCandle;
+import technicals.model.indicators.BollingerEntry;
+import technicals.model.indicators.IndicatorEntry;
+
+/**
+ * Numerical drift of the rolling kernels against the previous window-by-window
+ * implementation (two-pass standard deviation), on long synthetic series
+ */
+public class RollingKernels_
+{
+	// errors are relative to the price
+	private static final double MAX_MEAN_DRIFT = 1e-12;
+	private static final double MAX_SD_DRIFT = 1e-9;
+
+	public static void main(String[] args)
+	{
+		boolean ok = true;
+
+		// large price with small moves is the worst case for cancellation
+		ok &= check(SyntheticCandles.candles(1_000_000, 65000, 0.0005, 1), 20);
+		ok &= check(SyntheticCandles.candles(1_000_000, 65000, 0.0005, 2), 200);
+		ok &= check(SyntheticCandles.candles(200_000, 0.00001234, 0.01, 3), 5);
+		ok &= check(SyntheticCandles.candles(200_000, 1.0, 0.0, 4), 20);
+
+		System.out.println(ok ? "OK" : "FAILED");
+		if (!ok)
+		{
+			System.exit(1);
+		}
+	}
+
+	private static boolean check(TechCandle[] candles, int periods)
+	{
+		IndicatorEntry[] sma = SimpleMovingAverage.calculate(candles, periods);
+		IndicatorEntry[] vwma = VWMovingAverage.calculate(candles, periods);
+		IndicatorEntry[] sd = StandardDeviation.calculate(candles, periods);
+		BollingerEntry[] bollinger = Bollinger.calculate(candles, periods, 2);
+		StandardDeviationStream sdStream = new StandardDeviationStream(periods);
+
+		double maxSma = 0;
+		double maxVwma = 0;
+		double maxSd = 0;
+		double maxBollinger = 0;
+		double maxSdStream = 0;
+
+		for (int i = 0; i < candles.length; i++)
+		{
+			double streamValue = sdStream.update(candles[i], true);
+
+			if (i < periods - 1)
+			{
+				continue;
+			}
+
+			int start = i - periods + 1;
+			double mean = mean(candles, start, periods);
+			double stdev = standardDeviation(candles, start, periods, mean);
+			double scale = Math.max(Math.abs(mean), Double.MIN_NORMAL);
+
+			maxSma = Math.max(maxSma, Math.abs(sma[start].getValue() - mean) / scale);
+			maxVwma = Math.max(maxVwma, Math.abs(vwma[start].getValue() - volumeWeightedMean(candles, start, periods)) / scale);
+			maxSd = Math.max(maxSd, Math.abs(sd[start].getValue() - stdev) / scale);
+			maxBollinger = Math.max(maxBollinger, Math.abs(bollinger[start].getUpperBand() - (mean + 2 * stdev)) / scale);
+			maxSdStream = Math.max(maxSdStream, Math.abs(streamValue - stdev) / scale);
+		}
+
+		boolean ok = maxSma < MAX_MEAN_DRIFT && maxVwma < MAX_MEAN_DRIFT
+				&& maxSd < MAX_SD_DRIFT && maxBollinger < MAX_SD_DRIFT && maxSdStream < MAX_SD_DRIFT;
+
+		System.out.println(String.format("n=%d periods=%d  sma %.2e  vwma %.2e  stdev %.2e  bollinger %.2e  stdevStream %.2e  %s",
+				candles.length, periods, maxSma, maxVwma, maxSd, maxBollinger, maxSdStream, ok ? "ok" : "DRIFT"));
+
+		return ok;
+	}
+
+	// ---- REFERENCE ---------------------------------------------------------
+
+	private static double mean(TechCandle[] candles, int startIndex, int periods)
+	{
+		double sum = 0;
+		for (int i = startIndex; i < startIndex + periods; i++)
+		{
+			sum += candles[i].getDefaultPrice();
+		}
+		return sum / periods;
+	}
+
+	private static double standardDeviation(TechCandle[] candles, int startIndex, int periods, double mean)
+	{
+		double sum = 0;
+		for (int i = startIndex; i < startIndex + periods; i++)
+		{
+			sum += Math.pow(candles[i].getDefaultPrice() - mean, 2);
+		}
+		return Math.sqrt(sum / periods);
+	}
+
+	private static double volumeWeightedMean(TechCandle[] candles, int startIndex, int periods)
+	{
+		double sum = 0;
+		double vol = 0;
+		for (int i = startIndex; i < startIndex + periods; i++)
+		{
+			sum += candles[i].getDefaultPrice() * candles[i].getVolume();
+			vol += candles[i].getVolume();
+		}
+		return sum / vol;
+	}
+
+}
@@ -0,0 +1,162 @@
+package technicals.test;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import exchanges.binance.BinanceApiClient;
+import exchanges.binance.BinanceCandle;
+import exchanges.binance.BinanceIntervalType;
+import exchanges.binance.BinanceUtils;
+import technicals.indicators.ma.ExponentialMovingAverage;
+import technicals.indicators.ma.HullMovingAverage;
+import technicals.indicators.ma.SimpleMovingAverage;
+import technicals.indicators.ma.VWMovingAverage;
+import technicals.indicators.ma.WeightedMovingAverage;
+import technicals.indicators.misc.Ichimoku;
+import technicals.indicators.oscillator.Aroon;
+import technicals.indicators.oscillator.AverageDirectionalIndex;
+import technicals.indicators.oscillator.AwesomeOscillator;
+import technicals.indicators.oscillator.BullBearPower;
+import technicals.indicators.oscillator.CommodityChannelIndex;
+import technicals.indicators.oscillator.MACD;
+import technicals.indicators.oscillator.Momentum;
+import technicals.indicators.oscillator.RateOfChange;
+import technicals.indicators.oscillator.RelativeStrengthIndex;
+import technicals.indicators.oscillator.Stochastic;
+import technicals.indicators.oscillator.StochasticRSI;
+import technicals.indicators.oscillator.UltimateOscillator;
+import technicals.indicators.oscillator.WilliamsR;
+import technicals.indicators.streaming.AccumulationDistributionStream;
+import technicals.indicators.streaming.AroonStream;
+import technicals.indicators.streaming.AverageDirectionalIndexStream;
+import technicals.indicators.streaming.AverageTrueRangeStream;
+import technicals.indicators.streaming.AwesomeOscillatorStream;
+import technicals.indicators.streaming.BollingerStream;
+import technicals.indicators.streaming.BullBearPowerStream;
+import technicals.indicators.streaming.CommodityChannelIndexStream;
+import technicals.indicators.streaming.ExponentialMovingAverageStream;
+import technicals.indicators.streaming.HullMovingAverageStream;
+import technicals.indicators.streaming.IchimokuStream;
+import technicals.indicators.streaming.KeltnerChannelStream;
+import technicals.indicators.streaming.MACDStream;
+import technicals.indicators.streaming.MomentumStream;
+import technicals.indicators.streaming.MoneyFlowIndexStream;
+import technicals.indicators.streaming.OnBalanceVolumeStream;
+import technicals.indicators.streaming.PriceChannelStream;
+import technicals.indicators.streaming.RateOfChangeStream;
+import technicals.indicators.streaming.RelativeStrengthIndexStream;
+import technicals.indicators.streaming.SimpleMovingAverageStream;
+import technicals.indicators.streaming.StandardDeviationStream;
+import technicals.indicators.streaming.StochasticRSIStream;
+import technicals.indicators.streaming.StochasticStream;
+import technicals.indicators.streaming.StreamingIndicator;
+import technicals.indicators.streaming.UltimateOscillatorStream;
+import technicals.indicators.streaming.VWMovingAverageStream;
+import technicals.indicators.streaming.VolumeWeightedAveragePriceStream;
+import technicals.indicators.streaming.WeightedMovingAverageStream;
+import technicals.indicators.streaming.WilliamsRStream;
+import technicals.indicators.volatility.AverageTrueRange;
+import technicals.indicators.volatility.Bollinger;
+import technicals.indicators.volatility.KeltnerChannel;
+import technicals.indicators.volatility.PriceChannel;
+import technicals.indicators.volatility.StandardDeviation;
+import technicals.indicators.volume.AccumulationDistribution;
+import technicals.indicators.volume.MoneyFlowIndex;
+import technicals.indicators.volume.OnBalanceVolume;
+import technicals.indicators.volume.VolumeWeightedAveragePrice;
+import technicals.model.TechCandle;
+
+/**
+ * Compares each streaming indicator with its batch version, every candle is sent
+ * twice as in-progress (with a distorted close) before it is closed
+ */
+public class StreamingIndicators_
+{
+	private static final double TOLERANCE = 1e-6;
+
+	public static void main(String[] args) throws Exception
+	{
+		List<BinanceCandle> lstBinanceCandles = BinanceApiClient.getKlines("BTCUSDT", BinanceIntervalType._1h, 500);
+		TechCandle[] candles = BinanceUtils.toCandleArray(lstBinanceCandles);
+
+		check(candles);
+	}
+
+	public static boolean check(TechCandle[] candles)
+	{
+		boolean ok = true;
+
+		ok &= compare("sma", candles, new SimpleMovingAverageStream(20), SimpleMovingAverage.calculate(candles, 20), e -> e.getValue());
+		ok &= compare("ema", candles, new ExponentialMovingAverageStream(20), ExponentialMovingAverage.calculate(candles, 20), e -> e.getValue());
+		ok &= compare("wma", candles, new WeightedMovingAverageStream(20), WeightedMovingAverage.calculate(candles, 20), e -> e.getValue());
+		ok &= compare("vwma", candles, new VWMovingAverageStream(20), VWMovingAverage.calculate(candles, 20), e -> e.getValue());
+		ok &= compare("hma", candles, new HullMovingAverageStream(20), HullMovingAverage.calculate(candles, 20), e -> e.getValue());
+
+		ok &= compare("rsi", candles, new RelativeStrengthIndexStream(14), RelativeStrengthIndex.calculate(candles, 14), e -> e.getRsi());
+		ok &= compare("macd", candles, new MACDStream(12, 26, 9), MACD.calculate(candles, 12, 26, 9), e -> e.getMacd());
+		ok &= compare("bbp", candles, new BullBearPowerStream(13), BullBearPower.calculate(candles, 13), e -> e.getValue());
+		ok &= compare("momentum", candles, new MomentumStream(10), Momentum.calculate(candles, 10), e -> e.getValue());
+		ok &= compare("roc", candles, new RateOfChangeStream(9), RateOfChange.calculate(candles, 9), e -> e.getValue());
+		ok &= compare("cci", candles, new CommodityChannelIndexStream(20), CommodityChannelIndex.calculate(candles, 20), e -> e.getValue());
+		ok &= compare("stochastic", candles, new StochasticStream(14, 3, 3), Stochastic.calculate(candles, 14, 3, 3), e -> e.getD());
+		ok &= compare("williamsR", candles, new WilliamsRStream(14), WilliamsR.calculate(candles, 14), e -> e.getR());
+		ok &= compare("aroon", candles, new AroonStream(14), Aroon.calculate(candles, 14), e -> e.getOscillator());
+		ok &= compare("adx", candles, new AverageDirectionalIndexStream(14), AverageDirectionalIndex.calculate(candles, 14), e -> e.getAdx());
+		ok &= compare("ao", candles, new AwesomeOscillatorStream(), AwesomeOscillator.calculate(candles), e -> e.getValue());
+		ok &= compare("stochRsi", candles, new StochasticRSIStream(14, 14, 3, 3), StochasticRSI.calculate(candles, 14, 14, 3, 3), e -> e.getD());
+		ok &= compare("uo", candles, new UltimateOscillatorStream(7, 14, 28), UltimateOscillator.calculate(candles, 7, 14, 28), e -> e.getValue());
+
+		ok &= compare("atr", candles, new AverageTrueRangeStream(14), AverageTrueRange.calculate(candles, 14), e -> e.getAtr());
+		ok &= compare("priceChannel", candles, new PriceChannelStream(20), PriceChannel.calculate(candles, 20), e -> e.getCenterLine());
+		ok &= compare("stdev", candles, new StandardDeviationStream(20), StandardDeviation.calculate(candles, 20), e -> e.getValue());
+		ok &= compare("bollinger", candles, new BollingerStream(20, 2), Bollinger.calculate(candles, 20, 2), e -> e.getMiddleBand());
+		ok &= compare("keltner", candles, new KeltnerChannelStream(20, 1), KeltnerChannel.calculate(candles, 20, 1), e -> e.getMiddleBand());
+
+		ok &= compare("mfi", candles, new MoneyFlowIndexStream(14), MoneyFlowIndex.calculate(candles, 14), e -> e.getValue());
+		ok &= compare("ad", candles, new AccumulationDistributionStream(), AccumulationDistribution.calculate(candles), e -> e.getValue());
+		ok &= compare("obv", candles, new OnBalanceVolumeStream(), OnBalanceVolume.calculate(candles), e -> e.getValue());
+		ok &= compare("vwap", candles, new VolumeWeightedAveragePriceStream(), VolumeWeightedAveragePrice.calculate(candles), e -> e.getVwap());
+		ok &= compare("ichimoku", candles, new IchimokuStream(), Ichimoku.calculate(candles), e -> e.getBaseLine());
+
+		System.out.println(ok ? "OK" : "FAILED");
+		return ok;
+	}
+
+	private static <T> boolean compare(String name, TechCandle[] candles, StreamingIndicator stream, T[] entries, ToDoubleFunction<T> getter)
+	{
+		double[] values = new double[candles.length];
+
+		for (int i = 0; i < candles.length; i++)
+		{
+			TechCandle c = candles[i];
+			stream.update(c.getOpenPrice(), c.getHighPrice() * 1.01, c.getLowPrice() * 0.99, c.getHighPrice(), c.getVolume() * 2, false);
+			stream.update(c.getOpenPrice(), c.getHighPrice(), c.getLowPrice(), c.getLowPrice(), c.getVolume(), false);
+			values[i] = stream.update(c, true);
+		}
+
+		double maxDiff = 0;
+		int count = 0;
+		for (int j = 0; j < entries.length; j++)
+		{
+			T entry = entries[entries.length - 1 - j];
+			if (entry == null)
+			{
+				continue;
+			}
+			double expected = getter.applyAsDouble(entry);
+			double actual = values[values.length - 1 - j];
+			if (Double.isNaN(actual) && expected == 0)
+			{
+				// warm-up entries left with default values by the batch version
+				continue;
+			}
+			maxDiff = Math.max(maxDiff, Math.abs(expected - actual) / Math.max(1, Math.abs(expected)));
+			count++;
+		}
+
+		boolean ok = maxDiff < TOLERANCE;
+		System.out.println(String.format("%-12s %5d values  max diff %.3e  %s", name, count, maxDiff, ok ? "ok" : "MISMATCH"));
+		return ok;
+	}
+
+}
@@ -0,0 +1,52 @@
+package technicals.test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Random;
+
+import technicals.model.TechCandle;
+
+/**
+ * Random walk of 1 minute candles with a fixed seed, shared by the tests and the benchmarks
+ * (ai-technicals-bench gets it from the ai-technicals test-jar)
+ */
+public final class SyntheticCandles
+{
+	public static final ZonedDateTime START = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+	private SyntheticCandles()
+	{
+		// Hide
+	}
+
+	public static TechCandle[] candles(int count, double price, double volatility, long seed)
+	{
+		return candles(START, count, price, volatility, seed);
+	}
+
+	/**
+	 * Candles from 'time': each one opens at the previous close, the close moves by a gaussian
+	 * 'volatility' and the wicks by up to 'volatility' (quote volume = volume * close)
+	 */
+	public static TechCandle[] candles(ZonedDateTime time, int count, double price, double volatility, long seed)
+	{
+		Random random = new Random(seed);
+		TechCandle[] candles = new TechCandle[count];
+
+		for (int i = 0; i < count; i++)
+		{
+			double open = price;
+			double close = open * (1 + random.nextGaussian() * volatility);
+			double high = Math.max(open, close) * (1 + random.nextDouble() * volatility);
+			double low = Math.min(open, close) * (1 - random.nextDouble() * volatility);
+			double volume = 1 + random.nextDouble() * 1000;
+
+			candles[i] = new TechCandle(time.plusMinutes(i), open, high, low, close, volume, 1 + random.nextInt(100));
+			candles[i].setQuoteVolume(volume * close);
+			price = close;
+		}
+
+		return candles;
+	}
+
+}
@@ -0,0 +1,112 @@
+package technicals.test;
+
+import java.lang.reflect.Method;
+
+import technicals.indicators.ma.*;
+import technicals.indicators.misc.Ichimoku;
+import technicals.indicators.oscillator.*;
+import technicals.indicators.volatility.*;
+import technicals.indicators.volume.MoneyFlowIndex;
+import technicals.model.TechCandle;
+
+/**
+ * lastN against the tail of the full calculation: same values for the windowed
+ * indicators, converged values (default warm-up) for the recursive ones
+ */
+public class TailEvaluation_
+{
+	// errors are relative to max(|value|, 1)
+	private static final double MAX_WINDOWED_ERROR = 1e-9;
+	private static final double MAX_RECURSIVE_ERROR = 1e-6;
+
+	private static final int N = 5;
+
+	public static void main(String[] args) throws Exception
+	{
+		TechCandle[] candles = SyntheticCandles.candles(5000, 65000, 0.002, 1);
+		boolean ok = true;
+
+		// ---- Windowed -------------------------------------------------------
+		ok &= check("SMA", SimpleMovingAverage.calculate(candles, 200), SimpleMovingAverage.lastN(candles, 200, N), MAX_WINDOWED_ERROR);
+		ok &= check("WMA", WeightedMovingAverage.calculate(candles, 20), WeightedMovingAverage.lastN(candles, 20, N), MAX_WINDOWED_ERROR);
+		ok &= check("VWMA", VWMovingAverage.calculate(candles, 20), VWMovingAverage.lastN(candles, 20, N), MAX_WINDOWED_ERROR);
+		ok &= check("HMA", HullMovingAverage.calculate(candles, 20), HullMovingAverage.lastN(candles, 20, N), MAX_WINDOWED_ERROR);
+		ok &= check("Ichimoku", Ichimoku.calculate(candles), Ichimoku.lastN(candles, N), MAX_WINDOWED_ERROR);
+		ok &= check("Aroon", Aroon.calculate(candles, 14), Aroon.lastN(candles, 14, N), MAX_WINDOWED_ERROR);
+		ok &= check("AO", AwesomeOscillator.calculate(candles), AwesomeOscillator.lastN(candles, N), MAX_WINDOWED_ERROR);
+		ok &= check("CCI", CommodityChannelIndex.calculate(candles, 20), CommodityChannelIndex.lastN(candles, 20, N), MAX_WINDOWED_ERROR);
+		ok &= check("Momentum", Momentum.calculate(candles, 10, 0), Momentum.lastN(candles, 10, 0, N), MAX_WINDOWED_ERROR);
+		ok &= check("ROC", RateOfChange.calculate(candles, 9), RateOfChange.lastN(candles, 9, N), MAX_WINDOWED_ERROR);
+		ok &= check("Stochastic", Stochastic.calculate(candles, 14, 3, 3), Stochastic.lastN(candles, 14, 3, 3, N), MAX_WINDOWED_ERROR);
+		ok &= check("UO", UltimateOscillator.calculate(candles, 7, 14, 28), UltimateOscillator.lastN(candles, 7, 14, 28, N), MAX_WINDOWED_ERROR);
+		ok &= check("WilliamsR", WilliamsR.calculate(candles, 14), WilliamsR.lastN(candles, 14, N), MAX_WINDOWED_ERROR);
+		ok &= check("Bollinger", Bollinger.calculate(candles, 20, 2), Bollinger.lastN(candles, 20, 2, N), MAX_WINDOWED_ERROR);
+		ok &= check("PriceChannel", PriceChannel.calculate(candles, 20), PriceChannel.lastN(candles, 20, N), MAX_WINDOWED_ERROR);
+		ok &= check("StdDev", StandardDeviation.calculate(candles, 20), StandardDeviation.lastN(candles, 20, N), MAX_WINDOWED_ERROR);
+		ok &= check("MFI", MoneyFlowIndex.calculate(candles, 14), MoneyFlowIndex.lastN(candles, 14, N), MAX_WINDOWED_ERROR);
+
+		// ---- Recursive ------------------------------------------------------
+		ok &= check("EMA", ExponentialMovingAverage.calculate(candles, 200), ExponentialMovingAverage.lastN(candles, 200, N), MAX_RECURSIVE_ERROR);
+		ok &= check("ADX", AverageDirectionalIndex.calculate(candles, 14), AverageDirectionalIndex.lastN(candles, 14, N), MAX_RECURSIVE_ERROR);
+		ok &= check("BBP", BullBearPower.calculate(candles, 13), BullBearPower.lastN(candles, 13, N), MAX_RECURSIVE_ERROR);
+		ok &= check("MACD", MACD.calculate(candles, 12, 26, 9), MACD.lastN(candles, 12, 26, 9, N), MAX_RECURSIVE_ERROR);
+		ok &= check("RSI", RelativeStrengthIndex.calculate(candles, 14), RelativeStrengthIndex.lastN(candles, 14, N), MAX_RECURSIVE_ERROR);
+		ok &= check("StochRSI", StochasticRSI.calculate(candles, 14, 14, 3, 3), StochasticRSI.lastN(candles, 14, 14, 3, 3, N), MAX_RECURSIVE_ERROR);
+		ok &= check("ATR", AverageTrueRange.calculate(candles, 20), AverageTrueRange.lastN(candles, 20, N), MAX_RECURSIVE_ERROR);
+		ok &= check("Keltner", KeltnerChannel.calculate(candles, 20, 1), KeltnerChannel.lastN(candles, 20, 1, N), MAX_RECURSIVE_ERROR);
+
+		// series shorter than the lookback, same as calculate
+		TechCandle[] shortCandles = SyntheticCandles.candles(240, 65000, 0.002, 2);
+		ok &= check("EMA (240)", ExponentialMovingAverage.calculate(shortCandles, 200), ExponentialMovingAverage.lastN(shortCandles, 200, N), 0);
+
+		System.out.println(ok ? "OK" : "FAILED");
+		if (!ok)
+		{
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Compares all the double properties of the last entries
+	 */
+	private static boolean check(String name, Object[] full, Object[] tail, double maxError) throws Exception
+	{
+		if (tail.length != Math.min(N, full.length))
+		{
+			System.out.println(String.format("%-14s FAILED, %d entries", name, tail.length));
+			return false;
+		}
+
+		double error = 0;
+		int offset = full.length - tail.length;
+
+		for (int i = 0; i < tail.length; i++)
+		{
+			for (Method method : tail[i].getClass().getMethods())
+			{
+				boolean isDouble = method.getReturnType() == double.class || method.getReturnType() == Double.class;
+				if (!isDouble || method.getParameterCount() > 0 || !method.getName().startsWith("get"))
+				{
+					continue;
+				}
+
+				Double expected = (Double) method.invoke(full[offset + i]);
+				Double actual = (Double) method.invoke(tail[i]);
+				if (expected == null || actual == null || expected.isNaN() || actual.isNaN())
+				{
+					if (expected != actual && !(expected != null && actual != null && expected.isNaN() && actual.isNaN()))
+					{
+						error = Double.POSITIVE_INFINITY;
+					}
+					continue;
+				}
+				error = Math.max(error, Math.abs(expected - actual) / Math.max(Math.abs(expected), 1));
+			}
+		}
+
+		boolean ok = error <= maxError;
+		System.out.println(String.format("%-14s %s, max error %.3e", name, ok ? "OK" : "FAILED", error));
+		return ok;
+	}
+
+}
@@ -0,0 +1,99 @@
+package technicals.test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import technicals.indicators.complex.RatingsWorkspace;
+import technicals.indicators.complex.SeriesCache;
+import technicals.indicators.complex.TechnicalRatings;
+import technicals.model.TechCandle;
+
+/**
+ * Bytes allocated by TechnicalRatings.calculate with a warmed up workspace, expected zero.
+ * Then a candle array refilled and set again: the SMA / EMA series must be those of a new
+ * instance, recalculated (4 misses) with the EMA seeds read from the cache (2 hits).
+ * Last, the moving average trends on prices that are half ties once rounded to pricePrecision - 1
+ * decimals (1.005 below the half in binary, -0.125 negative): half up as BigDecimal, so NEUTRAL.
+ */
+public class TechnicalRatingsWorkspace_
+{
+	private static final int CANDLES = 600;
+	private static final int WARM_UP = 20_000;
+	private static final int ITERATIONS = 1_000;
+
+	public static void main(String[] args) throws Exception
+	{
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+
+		TechCandle[] candles = SyntheticCandles.candles(CANDLES, 65000, 0.002, 1);
+		RatingsWorkspace workspace = new RatingsWorkspace(CANDLES);
+		TechnicalRatings tech = new TechnicalRatings(5);
+
+		// warm up (workspace and JIT)
+		for (int i = 0; i < WARM_UP; i++)
+		{
+			tech.calculate(candles, workspace);
+		}
+
+		long bytes1 = threadBean.getThreadAllocatedBytes(threadId);
+		long t1 = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++)
+		{
+			tech.calculate(candles, workspace);
+		}
+		long t2 = System.nanoTime();
+		long bytes2 = threadBean.getThreadAllocatedBytes(threadId);
+
+		long bytesPerCall = (bytes2 - bytes1) / ITERATIONS;
+
+		// ---- REUSED ARRAY ----------------------------------------------
+		TechCandle[] reused = SyntheticCandles.candles(CANDLES, 65000, 0.002, 1);
+		TechnicalRatings builder = new TechnicalRatings(5);
+		builder.setCandles(reused);
+		builder.startCalcMA().withSMA(10, 20).withEMA(10, 20);
+
+		System.arraycopy(SyntheticCandles.candles(CANDLES, 30000, 0.002, 2), 0, reused, 0, CANDLES);
+		builder.setCandles(reused);
+		builder.startCalcMA().withSMA(10, 20).withEMA(10, 20);
+		SeriesCache cache = builder.getWorkspace().getSeriesCache();
+
+		TechnicalRatings fresh = new TechnicalRatings(5);
+		fresh.setCandles(reused.clone());
+		fresh.startCalcMA().withSMA(10, 20).withEMA(10, 20);
+
+		boolean reloaded = Arrays.equals(builder.getSma(), fresh.getSma()) && Arrays.equals(builder.getEma(), fresh.getEma())
+				&& cache.getMisses() == 4 && cache.getHits() == 2;
+
+		// ---- TIES ------------------------------------------------------
+		boolean ties = tieTrend(1.015, 1.005) == TechnicalRatings.NEUTRAL && tieTrend(-0.135, -0.125) == TechnicalRatings.NEUTRAL;
+
+		System.out.println((t2 - t1) / ITERATIONS / 1000 + " usecs/call, " + bytesPerCall + " bytes/call");
+		System.out.println("refilled array, " + cache.getMisses() + " misses, " + cache.getHits() + " hits, series " + (reloaded ? "OK" : "FAILED"));
+
+		System.out.println("sma trend on ties " + tieTrend(1.015, 1.005) + ", " + tieTrend(-0.135, -0.125) + " " + (ties ? "OK" : "FAILED"));
+
+		boolean ok = bytesPerCall == 0 && reloaded && ties;
+		System.out.println(ok ? "OK" : "FAILED");
+		if (!ok)
+		{
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Trend of the SMA(2) of two closes against the last one, 2 decimals
+	 */
+	private static int tieTrend(double close1, double close2)
+	{
+		TechCandle[] candles = {
+				new TechCandle(SyntheticCandles.START, close1, close1, close1, close1, 1, 1),
+				new TechCandle(SyntheticCandles.START.plusMinutes(1), close2, close2, close2, close2, 1, 1) };
+
+		TechnicalRatings tech = new TechnicalRatings(3);
+		tech.setCandles(candles);
+		tech.startCalcMA().withSMA(2);
+		return tech.getSmaTrend()[0];
+	}
+
+}
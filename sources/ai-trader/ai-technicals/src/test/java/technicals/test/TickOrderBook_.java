@@ -0,0 +1,128 @@
+package technicals.test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import technicals.model.OrderBook;
+import technicals.model.TickOrderBook;
+
+/**
+ * Random diffs around the top of the book against a TreeMap book, then bytes allocated per diff (expected zero)
+ */
+public class TickOrderBook_
+{
+	private static final int DIFFS = 200_000;
+	private static final int LEVELS = 1000;
+
+	public static void main(String[] args)
+	{
+		BigDecimal tickSize = new BigDecimal("0.10");
+		TickOrderBook book = new TickOrderBook(tickSize);
+		TreeMap<Long, Double> asks = new TreeMap<Long, Double>();
+		TreeMap<Long, Double> bids = new TreeMap<Long, Double>();
+
+		Random random = new Random(1);
+		long mid = 650_000;
+		boolean ok = true;
+
+		for (int i = 0; i < DIFFS; i++)
+		{
+			boolean bid = random.nextBoolean();
+			long distance = (long) Math.abs(random.nextGaussian() * LEVELS / 4);
+			long ticks = bid ? mid - 1 - distance : mid + 1 + distance;
+			double qty = random.nextInt(4) == 0 ? 0 : random.nextInt(1000) / 100.0;
+
+			book.update(bid, book.toPrice(ticks), qty);
+			if (qty > 0)
+			{
+				(bid ? bids : asks).put(ticks, qty);
+			}
+			else
+			{
+				(bid ? bids : asks).remove(ticks);
+			}
+
+			if (i % 10_000 == 0)
+			{
+				ok &= same(book, asks, bids);
+			}
+		}
+		ok &= same(book, asks, bids);
+
+		OrderBook orderBook = book.toOrderBook(1);
+		ok &= orderBook.getAsks().size() == asks.size() && orderBook.getBids().size() == bids.size()
+				&& orderBook.getAsks().firstKey().compareTo(tickSize.multiply(BigDecimal.valueOf(asks.firstKey()))) == 0
+				&& orderBook.getBids().firstKey().compareTo(tickSize.multiply(BigDecimal.valueOf(bids.lastKey()))) == 0;
+		System.out.println("best ask " + book.getBestAsk() + ", best bid " + book.getBestBid() + ", levels " + book.getAskLevels() + " / " + book.getBidLevels());
+
+		ok &= allocations(book, random, mid);
+
+		System.out.println(ok ? "OK" : "FAILED");
+		if (!ok)
+		{
+			System.exit(1);
+		}
+	}
+
+	private static boolean same(TickOrderBook book, TreeMap<Long, Double> asks, TreeMap<Long, Double> bids)
+	{
+		boolean ok = book.getAskLevels() == asks.size() && book.getBidLevels() == bids.size();
+
+		int level = 0;
+		for (Map.Entry<Long, Double> entry : asks.entrySet())
+		{
+			ok &= book.getAskTicks(level) == entry.getKey() && book.getAskQty(level) == entry.getValue();
+			level++;
+		}
+
+		level = 0;
+		for (Iterator<Map.Entry<Long, Double>> it = bids.descendingMap().entrySet().iterator(); it.hasNext(); level++)
+		{
+			Map.Entry<Long, Double> entry = it.next();
+			ok &= book.getBidTicks(level) == entry.getKey() && book.getBidQty(level) == entry.getValue();
+		}
+
+		if (!ok)
+		{
+			System.out.println("FAILED, levels " + book.getAskLevels() + " / " + book.getBidLevels() + " expected " + asks.size() + " / " + bids.size());
+		}
+		return ok;
+	}
+
+	private static boolean allocations(TickOrderBook book, Random random, long mid)
+	{
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+
+		long[] ticks = new long[DIFFS];
+		double[] qtys = new double[DIFFS];
+		for (int i = 0; i < DIFFS; i++)
+		{
+			long distance = (long) Math.abs(random.nextGaussian() * LEVELS / 4);
+			ticks[i] = (i % 2 == 0) ? mid - 1 - distance : mid + 1 + distance;
+			qtys[i] = random.nextInt(4) == 0 ? 0 : random.nextInt(1000) / 100.0;
+		}
+
+		double sum = 0;
+		long bytes1 = threadBean.getThreadAllocatedBytes(threadId);
+		long t1 = System.nanoTime();
+		for (int i = 0; i < DIFFS; i++)
+		{
+			book.updateTicks(i % 2 == 0, ticks[i], qtys[i]);
+			for (int level = 0; level < 10 && level < book.getAskLevels(); level++)
+			{
+				sum += book.getAskQty(level);
+			}
+		}
+		long t2 = System.nanoTime();
+		long bytes2 = threadBean.getThreadAllocatedBytes(threadId);
+
+		System.out.println((t2 - t1) / DIFFS + " nsecs/diff, " + (bytes2 - bytes1) + " bytes (" + (long) sum + ")");
+		return bytes2 - bytes1 < 1024;
+	}
+
+}
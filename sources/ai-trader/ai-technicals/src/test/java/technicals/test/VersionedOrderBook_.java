@@ -0,0 +1,101 @@
+package technicals.test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import technicals.model.BookSnapshot;
+import technicals.model.VersionedOrderBook;
+
+/**
+ * One writer committing batches that set every level to the batch number while readers
+ * check that each snapshot holds a single batch, and that an unchanged book returns the same snapshot
+ */
+public class VersionedOrderBook_
+{
+	private static final int LEVELS = 500;
+	private static final int BATCHES = 20_000;
+	private static final int READERS = 3;
+
+	public static void main(String[] args) throws Exception
+	{
+		VersionedOrderBook book = new VersionedOrderBook(new BigDecimal("0.10"));
+		AtomicBoolean running = new AtomicBoolean(true);
+		AtomicLong torn = new AtomicLong();
+		AtomicLong snapshots = new AtomicLong();
+
+		Thread[] readers = new Thread[READERS];
+		for (int r = 0; r < READERS; r++)
+		{
+			readers[r] = new Thread(() -> {
+				long version = -1;
+				while (running.get())
+				{
+					if (!book.hasChanged(version))
+					{
+						continue;
+					}
+
+					BookSnapshot snapshot = book.getSnapshot();
+					version = snapshot.getVersion();
+					snapshots.incrementAndGet();
+
+					if (snapshot.getAskLevels() == 0)
+					{
+						continue;
+					}
+					double qty = snapshot.getAskQty(0);
+					for (int i = 0; i < snapshot.getAskLevels(); i++)
+					{
+						if (snapshot.getAskQty(i) != qty || snapshot.getBidQty(i) != qty)
+						{
+							torn.incrementAndGet();
+							break;
+						}
+					}
+				}
+			});
+			readers[r].start();
+		}
+
+		long t1 = System.nanoTime();
+		for (int batch = 1; batch <= BATCHES; batch++)
+		{
+			synchronized (book)
+			{
+				for (int i = 0; i < LEVELS; i++)
+				{
+					book.updateTicks(false, 650_001 + i, batch);
+					book.updateTicks(true, 649_999 - i, batch);
+				}
+				book.commit();
+			}
+		}
+		long t2 = System.nanoTime();
+
+		running.set(false);
+		for (Thread reader : readers)
+		{
+			reader.join();
+		}
+
+		// unchanged book: same snapshot, no new version
+		BookSnapshot s1 = book.getSnapshot();
+		synchronized (book)
+		{
+			book.commit();
+		}
+		BookSnapshot s2 = book.getSnapshot();
+
+		boolean ok = torn.get() == 0 && s1 == s2 && book.getVersion() == BATCHES && s1.getAskQty(LEVELS - 1) == BATCHES
+				&& s1.getBestAsk() == 65000.1 && s1.getBestBid() == 64999.9;
+
+		System.out.println((t2 - t1) / BATCHES / 1000 + " usecs/batch, " + snapshots.get() + " snapshots read, " + torn.get() + " torn");
+		System.out.println(ok ? "OK" : "FAILED");
+		if (!ok)
+		{
+			System.exit(1);
+		}
+	}
+
+}
@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.IOException;
 import java.net.ServerSocket;
 
+import aitrader.core.service.journal.MarketRecorder;
 import aitrader.core.service.market.DepthCache;
 import aitrader.core.service.position.BalanceService;
 import aitrader.core.service.position.PositionService;
@@ -90,6 +91,11 @@ public final class CoreApp
 		{
 			try
 			{
+				if (CoreConfig.getRecordMarket())
+				{
+					MarketRecorder.start();
+				}
+
 				ExchangeInfoService.getSnapshoot();
 				SymbolTickerService.getSnapshoot();
 				SymbolTickerService.openWebsocket();
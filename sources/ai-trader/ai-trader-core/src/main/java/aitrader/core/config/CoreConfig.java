@@ -35,6 +35,7 @@ public class CoreConfig
 	private static Double minShortLongDist = 0.8;
 	private static Double maxShortLongDist = 12d;
 	private static Double minRatio = 0d;
+	private static Double maxBookPressure = 0d;
 
 	// Grid Strategy
 	private static Integer iterations = 2;
@@ -54,6 +55,10 @@ public class CoreConfig
 	private static Integer positionsMax = 2;
 	private static Double balanceMinAvailable = 0.1;
 
+	// Market data
+	private static Boolean recordMarket = false;
+	private static Integer depthCacheSize = 20;
+
 	public static String getDefaultSymbolRight()
 	{
 		return defaultSymbolRight;
@@ -228,6 +233,19 @@ public class CoreConfig
 		CoreConfig.minRatio = minRatio;
 	}
 
+	/**
+	 * Book pressure average (-1 .. 1) against the signal side that discards it, 0 = no filter
+	 */
+	public static Double getMaxBookPressure()
+	{
+		return maxBookPressure;
+	}
+
+	public static void setMaxBookPressure(Double maxBookPressure)
+	{
+		CoreConfig.maxBookPressure = maxBookPressure;
+	}
+
 	public static Integer getIterations()
 	{
 		return iterations;
@@ -358,6 +376,29 @@ public class CoreConfig
 		CoreConfig.balanceMinAvailable = balanceMinAvailable;
 	}
 
+	public static Boolean getRecordMarket()
+	{
+		return recordMarket;
+	}
+
+	public static void setRecordMarket(Boolean recordMarket)
+	{
+		CoreConfig.recordMarket = recordMarket;
+	}
+
+	/**
+	 * Books kept in DepthCache (one websocket each)
+	 */
+	public static Integer getDepthCacheSize()
+	{
+		return depthCacheSize;
+	}
+
+	public static void setDepthCacheSize(Integer depthCacheSize)
+	{
+		CoreConfig.depthCacheSize = depthCacheSize;
+	}
+
 	// --------------------------------------------------------------------
 
 	public static boolean load() throws IOException
@@ -387,6 +428,7 @@ public class CoreConfig
 		minShortLongDist = props.getDouble("minShortLongDist");
 		maxShortLongDist = props.getDouble("maxShortLongDist");
 		minRatio = props.getDouble("minRatio");
+		maxBookPressure = props.getDouble("maxBookPressure");
 		iterations = props.getInteger("iterations");
 		priceIncrType = PriceIncrType.fromName(props.getValue("priceIncrType"));
 		qtyIncrType = QtyIncrType.fromName(props.getValue("qtyIncrType"));
@@ -400,6 +442,8 @@ public class CoreConfig
 		leverage = props.getInteger("leverage");
 		positionsMax = props.getInteger("positionsMax");
 		balanceMinAvailable = props.getDouble("balanceMinAvailable");
+		recordMarket = props.getBoolean("recordMarket");
+		depthCacheSize = props.getInteger("depthCacheSize");
 
 		return true;
 	}
@@ -425,6 +469,7 @@ public class CoreConfig
 			.put("minShortLongDist", minShortLongDist)
 			.put("maxShortLongDist", maxShortLongDist)
 			.put("minRatio", minRatio)
+			.put("maxBookPressure", maxBookPressure)
 			.put("iterations", iterations)
 			.put("priceIncrType", priceIncrType != null ? priceIncrType.name() : "")
 			.put("qtyIncrType", qtyIncrType != null ? qtyIncrType.name() : "")
@@ -438,6 +483,8 @@ public class CoreConfig
 			.put("leverage", leverage)
 			.put("positionsMax", positionsMax)
 			.put("balanceMinAvailable", balanceMinAvailable)
+			.put("recordMarket", recordMarket)
+			.put("depthCacheSize", depthCacheSize)
 			.save(path);
 	}
 
@@ -14,6 +14,8 @@ public final class CoreConstants
 	public static final String DEFAULT_DATA_FOLDER = "data";
 	public static final String DEFAULT_LOG_FOLDER = "log";
 	public static final String DEFAULT_EXPORT_FOLDER = "export";
+	public static final String DEFAULT_JOURNAL_FOLDER = "journal";
+	public static final String DEFAULT_DEPTH_FOLDER = "depth";
 
 	public static final String PRIVATEKEY_FILENAME = ".ssh/bian_private.cfg";
 	public static final String PROPERTIES_FILENAME = ".ssh/ai-trader-core.cfg";
@@ -0,0 +1,127 @@
+package aitrader.core.model;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import binance.futures.enums.IntervalType;
+
+/**
+ * Result of a RatingsScanner run, the rows can be sorted with the comparators below
+ */
+public class RatingsScan
+{
+	public static final Comparator<SymbolRatings> BY_SYMBOL = Comparator.comparing(r -> r.getSymbol().getPair());
+	public static final Comparator<SymbolRatings> BY_SCORE = Comparator.comparingInt(SymbolRatings::getScore);
+	public static final Comparator<SymbolRatings> BY_ELAPSED = Comparator.comparingLong(SymbolRatings::getElapsedMillis);
+
+	private IntervalType[] intervals;
+	private List<SymbolRatings> rows;
+	private long wallClockMillis;
+
+	public RatingsScan(IntervalType[] intervals, List<SymbolRatings> rows, long wallClockMillis)
+	{
+		this.intervals = intervals;
+		this.rows = rows;
+		this.wallClockMillis = wallClockMillis;
+	}
+
+	public static Comparator<SymbolRatings> byScore(int interval)
+	{
+		return Comparator.comparingInt(r -> r.getScore(interval));
+	}
+
+	public static Comparator<SymbolRatings> byMaStatus(int interval)
+	{
+		return Comparator.comparingInt(r -> r.getMaStatus(interval) == null ? 0 : r.getMaStatus(interval).getValue());
+	}
+
+	public static Comparator<SymbolRatings> byOscStatus(int interval)
+	{
+		return Comparator.comparingInt(r -> r.getOscStatus(interval) == null ? 0 : r.getOscStatus(interval).getValue());
+	}
+
+	public IntervalType[] getIntervals()
+	{
+		return intervals;
+	}
+
+	public List<SymbolRatings> getRows()
+	{
+		return rows;
+	}
+
+	public RatingsScan sort(Comparator<SymbolRatings> comparator)
+	{
+		Collections.sort(rows, comparator);
+		return this;
+	}
+
+	// ---- TIMING ------------------------------------------------------------
+
+	public long getWallClockMillis()
+	{
+		return wallClockMillis;
+	}
+
+	/**
+	 * Sum of the per symbol times, what a sequential scan would take
+	 */
+	public long getTotalMillis()
+	{
+		long total = 0;
+		for (SymbolRatings row : rows)
+		{
+			total += row.getElapsedMillis();
+		}
+		return total;
+	}
+
+	public long getAvgMillis()
+	{
+		return rows.isEmpty() ? 0 : getTotalMillis() / rows.size();
+	}
+
+	public long getMaxMillis()
+	{
+		long max = 0;
+		for (SymbolRatings row : rows)
+		{
+			max = Math.max(max, row.getElapsedMillis());
+		}
+		return max;
+	}
+
+	public int getErrors()
+	{
+		int errors = 0;
+		for (SymbolRatings row : rows)
+		{
+			if (!row.isOk())
+				errors++;
+		}
+		return errors;
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%-14s", "SYMBOL"));
+		for (IntervalType interval : intervals)
+		{
+			sb.append(String.format(" %-11s %-11s", "MA " + interval, "OSC " + interval));
+		}
+		sb.append(String.format(" %5s %6s %6s", "SCORE", "FETCH", "CALC")).append("\n");
+
+		for (SymbolRatings row : rows)
+		{
+			sb.append(row).append("\n");
+		}
+
+		sb.append(String.format("%d symbols, %d errors, wall clock %d ms, per symbol avg %d ms / max %d ms, sequential %d ms",
+				rows.size(), getErrors(), wallClockMillis, getAvgMillis(), getMaxMillis(), getTotalMillis()));
+		return sb.toString();
+	}
+
+}
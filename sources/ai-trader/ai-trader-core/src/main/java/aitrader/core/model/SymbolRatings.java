@@ -0,0 +1,141 @@
+package aitrader.core.model;
+
+import binance.futures.enums.IntervalType;
+import technicals.indicators.complex.TechnicalRatings.RatingStatus;
+
+/**
+ * Ratings of one symbol on several intervals, one row of a RatingsScan
+ */
+public class SymbolRatings
+{
+	private Symbol symbol;
+	private IntervalType[] intervals;
+
+	private RatingStatus[] maStatus;
+	private RatingStatus[] oscStatus;
+	private int[] trend;
+
+	private long fetchMillis;
+	private long calcMillis;
+	private String error;
+
+	public SymbolRatings(Symbol symbol, IntervalType[] intervals)
+	{
+		this.symbol = symbol;
+		this.intervals = intervals;
+		this.maStatus = new RatingStatus[intervals.length];
+		this.oscStatus = new RatingStatus[intervals.length];
+		this.trend = new int[intervals.length];
+	}
+
+	public Symbol getSymbol()
+	{
+		return symbol;
+	}
+
+	public IntervalType[] getIntervals()
+	{
+		return intervals;
+	}
+
+	public RatingStatus getMaStatus(int interval)
+	{
+		return maStatus[interval];
+	}
+
+	public RatingStatus getOscStatus(int interval)
+	{
+		return oscStatus[interval];
+	}
+
+	public int getTrend(int interval)
+	{
+		return trend[interval];
+	}
+
+	public void setRatings(int interval, RatingStatus maStatus, RatingStatus oscStatus, int trend)
+	{
+		this.maStatus[interval] = maStatus;
+		this.oscStatus[interval] = oscStatus;
+		this.trend[interval] = trend;
+	}
+
+	/**
+	 * MA + oscillator rating of an interval, from -4 (strong sell) to 4 (strong buy)
+	 */
+	public int getScore(int interval)
+	{
+		if (maStatus[interval] == null || oscStatus[interval] == null)
+		{
+			return 0;
+		}
+		return maStatus[interval].getValue() + oscStatus[interval].getValue();
+	}
+
+	/**
+	 * Sum of the scores of all the intervals
+	 */
+	public int getScore()
+	{
+		int score = 0;
+		for (int i = 0; i < intervals.length; i++)
+		{
+			score += getScore(i);
+		}
+		return score;
+	}
+
+	public long getFetchMillis()
+	{
+		return fetchMillis;
+	}
+
+	public long getCalcMillis()
+	{
+		return calcMillis;
+	}
+
+	public long getElapsedMillis()
+	{
+		return fetchMillis + calcMillis;
+	}
+
+	public void addTiming(long fetchMillis, long calcMillis)
+	{
+		this.fetchMillis += fetchMillis;
+		this.calcMillis += calcMillis;
+	}
+
+	public String getError()
+	{
+		return error;
+	}
+
+	public void setError(String error)
+	{
+		this.error = error;
+	}
+
+	public boolean isOk()
+	{
+		return error == null;
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%-14s", symbol.getPair()));
+		for (int i = 0; i < intervals.length; i++)
+		{
+			sb.append(String.format(" %-11s %-11s", maStatus[i], oscStatus[i]));
+		}
+		sb.append(String.format(" %5d %6d %6d", getScore(), fetchMillis, calcMillis));
+		if (error != null)
+		{
+			sb.append(" ").append(error);
+		}
+		return sb.toString();
+	}
+
+}
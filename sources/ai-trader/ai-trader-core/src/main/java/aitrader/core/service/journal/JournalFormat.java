@@ -0,0 +1,77 @@
+package aitrader.core.service.journal;
+
+import java.nio.file.Path;
+
+/**
+ * Layout of the market data journal.
+ *
+ * A journal is a folder of fixed size segment files, each one memory-mapped while written:
+ *
+ *   segment header (32 bytes): int magic, int version, long created, 16 reserved
+ *   records: int length (whole record, 0 = end of the segment), byte type, byte 0,
+ *            short symbol id, long time (local receive time), body
+ *
+ * Decimals are stored as a long unscaled value plus a byte scale; the levels of a depth
+ * record share one price scale and one quantity scale (tick / lot scaled longs). Symbols
+ * are numbered per segment by SYMBOL records, so each segment can be read on its own.
+ * The index file next to a closed segment holds its symbols and the offset of the first
+ * record of every second, to start a replay without decoding the segment.
+ */
+final class JournalFormat
+{
+	static final int MAGIC = 0x41494A4E; // AIJN
+	static final int VERSION = 1;
+
+	static final int SEGMENT_HEADER = 32;
+	static final int RECORD_HEADER = 16;
+	static final int INDEX_MAGIC = 0x41494A49; // AIJI
+
+	static final long INDEX_INTERVAL_MILLIS = 1000;
+
+	// ---- record types ----
+	static final byte SYMBOL = 1;
+	static final byte DEPTH = 2;
+	static final byte SNAPSHOT = 3;
+	static final byte TICKERS = 4;
+	static final byte KLINE = 5;
+
+	static final short NO_SYMBOL = -1;
+	static final long NULL_LONG = Long.MIN_VALUE;
+	static final byte NULL_SCALE = Byte.MIN_VALUE;
+
+	static final String SEGMENT_PREFIX = "journal-";
+	static final String SEGMENT_SUFFIX = ".seg";
+	static final String INDEX_SUFFIX = ".idx";
+
+	private JournalFormat()
+	{
+		// Hide
+	}
+
+	static String segmentName(long created)
+	{
+		return String.format("%s%019d%s", SEGMENT_PREFIX, created, SEGMENT_SUFFIX);
+	}
+
+	static boolean isSegment(Path path)
+	{
+		String name = path.getFileName().toString();
+		return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+	}
+
+	/**
+	 * Creation time in the name of the segment
+	 */
+	static long segmentTime(Path path)
+	{
+		String name = path.getFileName().toString();
+		return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+	}
+
+	static Path indexPath(Path segment)
+	{
+		String name = segment.getFileName().toString();
+		return segment.resolveSibling(name.substring(0, name.length() - SEGMENT_SUFFIX.length()) + INDEX_SUFFIX);
+	}
+
+}
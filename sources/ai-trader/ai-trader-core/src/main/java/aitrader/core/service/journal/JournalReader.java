@@ -0,0 +1,389 @@
+package aitrader.core.service.journal;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import binance.futures.model.Depth;
+import binance.futures.model.event.CandlestickEvent;
+import binance.futures.model.event.DepthEvent;
+import binance.futures.model.event.SymbolTickerEvent;
+
+/**
+ * Reads the records of a journal folder in order, decoded to the same models the websockets
+ * and the REST client produce. A time range starts at the indexed second of the first
+ * segment it covers, the older segments are not opened.
+ */
+public class JournalReader
+{
+	public interface Listener
+	{
+		default void onDepth(String pair, DepthEvent event, long time)
+		{
+		}
+
+		default void onSnapshot(String pair, Depth depth, long time)
+		{
+		}
+
+		default void onTickers(SymbolTickerEvent[] events, long time)
+		{
+		}
+
+		default void onKline(CandlestickEvent event, long time)
+		{
+		}
+	}
+
+	private final Path folder;
+	private volatile boolean stopped;
+
+	private final List<String> symbols = new ArrayList<String>();
+	private MappedByteBuffer buffer;
+
+	public JournalReader(Path folder)
+	{
+		this.folder = folder;
+	}
+
+	public Path getFolder()
+	{
+		return folder;
+	}
+
+	/**
+	 * Segments sorted by creation time
+	 */
+	public List<Path> getSegments() throws IOException
+	{
+		if (!Files.isDirectory(folder))
+		{
+			return new ArrayList<Path>();
+		}
+		try (Stream<Path> stream = Files.list(folder))
+		{
+			return stream.filter(JournalFormat::isSegment).sorted().collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * Stops a read in progress (from another thread or a listener)
+	 */
+	public void stop()
+	{
+		stopped = true;
+	}
+
+	public long read(Listener listener) throws IOException
+	{
+		return read(Long.MIN_VALUE, Long.MAX_VALUE, listener);
+	}
+
+	/**
+	 * Sends the records received between 'fromTime' and 'toTime' (inclusive) to the listener,
+	 * returns the number of records sent
+	 */
+	public long read(long fromTime, long toTime, Listener listener) throws IOException
+	{
+		stopped = false;
+		List<Path> segments = getSegments();
+		long count = 0;
+
+		for (int i = 0; i < segments.size() && !stopped; i++)
+		{
+			// the next segment was started before 'fromTime': nothing to read in this one
+			if (i + 1 < segments.size() && JournalFormat.segmentTime(segments.get(i + 1)) < fromTime)
+			{
+				continue;
+			}
+			if (JournalFormat.segmentTime(segments.get(i)) > toTime)
+			{
+				break;
+			}
+			count += readSegment(segments.get(i), fromTime, toTime, listener);
+		}
+		return count;
+	}
+
+	// ---- SEGMENT -----------------------------------------------------------
+
+	private long readSegment(Path segment, long fromTime, long toTime, Listener listener) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ))
+		{
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+			if (buffer.limit() < JournalFormat.SEGMENT_HEADER || buffer.getInt(0) != JournalFormat.MAGIC)
+			{
+				throw new IOException("Not a journal segment " + segment);
+			}
+			if (buffer.getInt(4) != JournalFormat.VERSION)
+			{
+				throw new IOException("Journal version " + buffer.getInt(4) + " not supported " + segment);
+			}
+
+			symbols.clear();
+			int position = seek(segment, fromTime);
+			long count = 0;
+
+			while (!stopped && position + JournalFormat.RECORD_HEADER <= buffer.limit())
+			{
+				int length = buffer.getInt(position);
+				if (length == 0)
+				{
+					break;
+				}
+				if (length < JournalFormat.RECORD_HEADER || position + length > buffer.limit())
+				{
+					throw new IOException("Corrupted record at " + position + " " + segment);
+				}
+
+				byte type = buffer.get(position + 4);
+				short symbolId = buffer.getShort(position + 6);
+				long time = buffer.getLong(position + 8);
+				buffer.position(position + JournalFormat.RECORD_HEADER);
+
+				if (type == JournalFormat.SYMBOL)
+				{
+					defineSymbol(symbolId, length - JournalFormat.RECORD_HEADER);
+				}
+				else if (time >= fromTime && time <= toTime)
+				{
+					dispatch(type, symbolId, time, listener);
+					count++;
+				}
+				position += length;
+			}
+			return count;
+		}
+		finally
+		{
+			buffer = null;
+		}
+	}
+
+	/**
+	 * Position of the first record to read: the indexed second before 'fromTime' (with the
+	 * symbols of the segment from the index) or the first record of the segment
+	 */
+	private int seek(Path segment, long fromTime) throws IOException
+	{
+		Path index = JournalFormat.indexPath(segment);
+		if (fromTime <= JournalFormat.segmentTime(segment) || !Files.exists(index))
+		{
+			return JournalFormat.SEGMENT_HEADER;
+		}
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index))))
+		{
+			if (in.readInt() != JournalFormat.INDEX_MAGIC || in.readInt() != JournalFormat.VERSION)
+			{
+				return JournalFormat.SEGMENT_HEADER;
+			}
+			int size = in.readInt();
+			for (int i = 0; i < size; i++)
+			{
+				symbols.add(in.readUTF());
+			}
+
+			int position = JournalFormat.SEGMENT_HEADER;
+			int entries = in.readInt();
+			for (int i = 0; i < entries; i++)
+			{
+				long time = in.readLong();
+				int offset = in.readInt();
+				if (time > fromTime)
+				{
+					break;
+				}
+				position = offset;
+			}
+			return position;
+		}
+	}
+
+	private void defineSymbol(short id, int length)
+	{
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		while (symbols.size() <= id)
+		{
+			symbols.add(null);
+		}
+		symbols.set(id, new String(bytes, StandardCharsets.UTF_8));
+	}
+
+	private String symbol(short id)
+	{
+		return (id >= 0 && id < symbols.size()) ? symbols.get(id) : null;
+	}
+
+	// ---- DECODING ----------------------------------------------------------
+
+	private void dispatch(byte type, short symbolId, long time, Listener listener)
+	{
+		switch (type)
+		{
+			case JournalFormat.DEPTH:
+				listener.onDepth(symbol(symbolId), readDepthEvent(), time);
+				break;
+			case JournalFormat.SNAPSHOT:
+				listener.onSnapshot(symbol(symbolId), readDepth(), time);
+				break;
+			case JournalFormat.TICKERS:
+				listener.onTickers(readTickers(), time);
+				break;
+			case JournalFormat.KLINE:
+				listener.onKline(readKline(symbol(symbolId)), time);
+				break;
+			default:
+				// newer record type, skipped
+		}
+	}
+
+	private DepthEvent readDepthEvent()
+	{
+		DepthEvent event = new DepthEvent();
+		event.setEventType("depthUpdate");
+		event.setSymbol(symbol(buffer.getShort()));
+		event.setEventTime(getLong());
+		event.setTransactionTime(getLong());
+		event.setFirstUpdateId(getLong());
+		event.setLastUpdateId(getLong());
+		event.setLastUpdateIdInlastStream(getLong());
+
+		List<List<List<BigDecimal>>> levels = getLevels();
+		event.setAsks(levels.get(0));
+		event.setBids(levels.get(1));
+		return event;
+	}
+
+	private Depth readDepth()
+	{
+		Depth depth = new Depth();
+		depth.setLastUpdateId(getLong());
+
+		List<List<List<BigDecimal>>> levels = getLevels();
+		depth.setAsks(levels.get(0));
+		depth.setBids(levels.get(1));
+		return depth;
+	}
+
+	private SymbolTickerEvent[] readTickers()
+	{
+		SymbolTickerEvent[] events = new SymbolTickerEvent[buffer.getInt()];
+		for (int i = 0; i < events.length; i++)
+		{
+			SymbolTickerEvent event = new SymbolTickerEvent();
+			event.setEventType("24hrTicker");
+			event.setSymbol(symbol(buffer.getShort()));
+			event.setEventTime(getLong());
+			event.setPriceChange(getDecimal());
+			event.setPriceChangePercent(getDecimal());
+			event.setWeightedAvgPrice(getDecimal());
+			event.setLastPrice(getDecimal());
+			event.setLastQty(getDecimal());
+			event.setOpenPrice(getDecimal());
+			event.setHighPrice(getDecimal());
+			event.setLowPrice(getDecimal());
+			event.setVolume(getDecimal());
+			event.setQuoteVolume(getDecimal());
+			getDecimal(); // reserved
+			event.setOpenTime(getLong());
+			event.setCloseTime(getLong());
+			event.setFirstId(getLong());
+			event.setLastId(getLong());
+			event.setCount(getLong());
+			events[i] = event;
+		}
+		return events;
+	}
+
+	private CandlestickEvent readKline(String symbol)
+	{
+		CandlestickEvent event = new CandlestickEvent();
+		event.setEventType("kline");
+		event.setSymbol(symbol);
+		event.setEventTime(getLong());
+
+		CandlestickEvent.Kline kline = event.new Kline();
+		kline.setSymbol(symbol);
+		kline.setOpenTime(getLong());
+		kline.setCloseTime(getLong());
+		kline.setFirstTradeId(getLong());
+		kline.setLastTradeId(getLong());
+		kline.setNumTrades(getLong());
+		kline.setIgnore(getLong());
+		byte closed = buffer.get();
+		kline.setIsClosed(closed < 0 ? null : closed == 1);
+		kline.setOpen(getDecimal());
+		kline.setClose(getDecimal());
+		kline.setHigh(getDecimal());
+		kline.setLow(getDecimal());
+		kline.setVolume(getDecimal());
+		kline.setQuoteAssetVolume(getDecimal());
+		kline.setTakerBuyBaseAssetVolume(getDecimal());
+		kline.setTakerBuyQuoteAssetVolume(getDecimal());
+
+		byte[] interval = new byte[buffer.get() & 0xFF];
+		buffer.get(interval);
+		kline.setInterval(new String(interval, StandardCharsets.UTF_8));
+
+		event.setKline(kline);
+		return event;
+	}
+
+	private Long getLong()
+	{
+		long value = buffer.getLong();
+		return (value != JournalFormat.NULL_LONG) ? value : null;
+	}
+
+	private BigDecimal getDecimal()
+	{
+		long unscaled = buffer.getLong();
+		byte scale = buffer.get();
+		return (scale != JournalFormat.NULL_SCALE) ? BigDecimal.valueOf(unscaled, scale) : null;
+	}
+
+	/**
+	 * Asks and bids of a depth record
+	 */
+	private List<List<List<BigDecimal>>> getLevels()
+	{
+		int priceScale = buffer.get();
+		int qtyScale = buffer.get();
+		buffer.getShort();
+		int asks = buffer.getInt();
+		int bids = buffer.getInt();
+
+		return Arrays.asList(getSide(asks, priceScale, qtyScale), getSide(bids, priceScale, qtyScale));
+	}
+
+	private List<List<BigDecimal>> getSide(int size, int priceScale, int qtyScale)
+	{
+		List<List<BigDecimal>> side = new ArrayList<List<BigDecimal>>(size);
+		for (int i = 0; i < size; i++)
+		{
+			BigDecimal price = BigDecimal.valueOf(buffer.getLong(), priceScale);
+			BigDecimal qty = BigDecimal.valueOf(buffer.getLong(), qtyScale);
+			side.add(Arrays.asList(price, qty));
+		}
+		return side;
+	}
+
+}
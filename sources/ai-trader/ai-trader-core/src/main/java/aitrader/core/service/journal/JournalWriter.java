@@ -0,0 +1,473 @@
+package aitrader.core.service.journal;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import binance.futures.model.Depth;
+import binance.futures.model.event.CandlestickEvent;
+import binance.futures.model.event.DepthEvent;
+import binance.futures.model.event.SymbolTickerEvent;
+
+/**
+ * Appends market events to memory-mapped segments of the journal (see JournalFormat).
+ *
+ * A record is a few puts into the mapped segment, the OS writes the pages to disk in the
+ * background; a new segment is started when the current one is full. The writer never
+ * appends to an existing segment, a segment left without index (crash) is still readable.
+ */
+public class JournalWriter implements Closeable
+{
+	public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+	private static final int LEVELS_HEADER = 12;
+	private static final int DECIMAL_SIZE = 9;
+	private static final int TICKER_SIZE = 2 + 8 + 11 * DECIMAL_SIZE + 5 * 8;
+	private static final int KLINE_SIZE = 8 + 6 * 8 + 1 + 8 * DECIMAL_SIZE;
+
+	private final Path folder;
+	private final int segmentSize;
+
+	private Path segment;
+	private FileChannel channel;
+	private MappedByteBuffer buffer;
+
+	private final Map<String, Short> symbols = new HashMap<String, Short>();
+	private final List<String> symbolNames = new ArrayList<String>();
+
+	private long[] indexTimes = new long[1024];
+	private int[] indexOffsets = new int[1024];
+	private int indexSize;
+	private long nextIndexTime;
+
+	private long records;
+	private long bytes;
+	private boolean closed;
+
+	public JournalWriter(Path folder) throws IOException
+	{
+		this(folder, DEFAULT_SEGMENT_SIZE);
+	}
+
+	public JournalWriter(Path folder, int segmentSize) throws IOException
+	{
+		if (segmentSize < JournalFormat.SEGMENT_HEADER + 1024)
+		{
+			throw new IllegalArgumentException("Segment size " + segmentSize);
+		}
+		this.folder = folder;
+		this.segmentSize = segmentSize;
+		Files.createDirectories(folder);
+	}
+
+	public Path getFolder()
+	{
+		return folder;
+	}
+
+	public synchronized long getRecords()
+	{
+		return records;
+	}
+
+	public synchronized long getBytes()
+	{
+		return bytes;
+	}
+
+	// ---- RECORDS -----------------------------------------------------------
+
+	public synchronized void writeDepth(String pair, DepthEvent event, long time) throws IOException
+	{
+		int size = JournalFormat.RECORD_HEADER + 2 + 5 * 8 + levelsSize(event.getAsks(), event.getBids());
+		reserve(size + symbolSize(pair) + symbolSize(event.getSymbol()), time);
+
+		short eventSymbol = symbol(event.getSymbol(), time);
+		int start = begin(JournalFormat.DEPTH, symbol(pair, time), time);
+		buffer.putShort(eventSymbol);
+		putLong(event.getEventTime());
+		putLong(event.getTransactionTime());
+		putLong(event.getFirstUpdateId());
+		putLong(event.getLastUpdateId());
+		putLong(event.getLastUpdateIdInlastStream());
+		putLevels(event.getAsks(), event.getBids());
+		end(start);
+	}
+
+	/**
+	 * REST snapshot the depth of the pair was (re)loaded with
+	 */
+	public synchronized void writeSnapshot(String pair, Depth depth, long time) throws IOException
+	{
+		int size = JournalFormat.RECORD_HEADER + 8 + levelsSize(depth.getAsks(), depth.getBids());
+		reserve(size + symbolSize(pair), time);
+
+		int start = begin(JournalFormat.SNAPSHOT, symbol(pair, time), time);
+		putLong(depth.getLastUpdateId());
+		putLevels(depth.getAsks(), depth.getBids());
+		end(start);
+	}
+
+	public synchronized void writeTickers(SymbolTickerEvent[] events, long time) throws IOException
+	{
+		int size = JournalFormat.RECORD_HEADER + 4 + events.length * TICKER_SIZE;
+		int symbolsSize = 0;
+		for (SymbolTickerEvent event : events)
+		{
+			symbolsSize += symbolSize(event.getSymbol());
+		}
+		reserve(size + symbolsSize, time);
+
+		for (SymbolTickerEvent event : events)
+		{
+			symbol(event.getSymbol(), time);
+		}
+		int start = begin(JournalFormat.TICKERS, JournalFormat.NO_SYMBOL, time);
+		buffer.putInt(events.length);
+		for (SymbolTickerEvent event : events)
+		{
+			buffer.putShort(symbol(event.getSymbol(), time));
+			putLong(event.getEventTime());
+			putDecimal(event.getPriceChange());
+			putDecimal(event.getPriceChangePercent());
+			putDecimal(event.getWeightedAvgPrice());
+			putDecimal(event.getLastPrice());
+			putDecimal(event.getLastQty());
+			putDecimal(event.getOpenPrice());
+			putDecimal(event.getHighPrice());
+			putDecimal(event.getLowPrice());
+			putDecimal(event.getVolume());
+			putDecimal(event.getQuoteVolume());
+			putDecimal(null); // reserved
+			putLong(event.getOpenTime());
+			putLong(event.getCloseTime());
+			putLong(event.getFirstId());
+			putLong(event.getLastId());
+			putLong(event.getCount());
+		}
+		end(start);
+	}
+
+	public synchronized void writeKline(CandlestickEvent event, long time) throws IOException
+	{
+		CandlestickEvent.Kline kline = event.getKline();
+		byte[] interval = bytes(kline.getInterval());
+		int size = JournalFormat.RECORD_HEADER + KLINE_SIZE + 1 + interval.length;
+		reserve(size + symbolSize(event.getSymbol()), time);
+
+		int start = begin(JournalFormat.KLINE, symbol(event.getSymbol(), time), time);
+		putLong(event.getEventTime());
+		putLong(kline.getOpenTime());
+		putLong(kline.getCloseTime());
+		putLong(kline.getFirstTradeId());
+		putLong(kline.getLastTradeId());
+		putLong(kline.getNumTrades());
+		putLong(kline.getIgnore());
+		buffer.put(kline.getIsClosed() == null ? -1 : kline.getIsClosed() ? (byte) 1 : 0);
+		putDecimal(kline.getOpen());
+		putDecimal(kline.getClose());
+		putDecimal(kline.getHigh());
+		putDecimal(kline.getLow());
+		putDecimal(kline.getVolume());
+		putDecimal(kline.getQuoteAssetVolume());
+		putDecimal(kline.getTakerBuyBaseAssetVolume());
+		putDecimal(kline.getTakerBuyQuoteAssetVolume());
+		buffer.put((byte) interval.length);
+		buffer.put(interval);
+		end(start);
+	}
+
+	/**
+	 * Forces the written records of the current segment to disk
+	 */
+	public synchronized void flush()
+	{
+		if (buffer != null)
+		{
+			buffer.force();
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException
+	{
+		if (!closed)
+		{
+			closed = true;
+			closeSegment();
+		}
+	}
+
+	// ---- SEGMENTS ----------------------------------------------------------
+
+	/**
+	 * Makes room for the record (plus its new symbols and the end mark), starting a new segment if needed
+	 */
+	private void reserve(int size, long time) throws IOException
+	{
+		if (closed)
+		{
+			throw new IOException("Journal closed");
+		}
+		if (buffer != null && buffer.remaining() >= size + 4)
+		{
+			return;
+		}
+
+		closeSegment();
+		openSegment(time);
+
+		// a record must fit in an empty segment (its length stays 0 if it overflows, readers stop there)
+		if (buffer.remaining() < size + 4)
+		{
+			throw new IllegalArgumentException("Record of " + size + " bytes larger than the segment");
+		}
+	}
+
+	private void openSegment(long time) throws IOException
+	{
+		long created = time;
+		Path path = folder.resolve(JournalFormat.segmentName(created));
+		while (Files.exists(path))
+		{
+			path = folder.resolve(JournalFormat.segmentName(++created));
+		}
+
+		segment = path;
+		channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+		buffer.putInt(JournalFormat.MAGIC);
+		buffer.putInt(JournalFormat.VERSION);
+		buffer.putLong(created);
+		buffer.position(JournalFormat.SEGMENT_HEADER);
+		buffer.putInt(JournalFormat.SEGMENT_HEADER, 0);
+
+		symbols.clear();
+		symbolNames.clear();
+		indexSize = 0;
+		nextIndexTime = Long.MIN_VALUE;
+		bytes += JournalFormat.SEGMENT_HEADER;
+	}
+
+	private void closeSegment() throws IOException
+	{
+		if (buffer == null)
+		{
+			return;
+		}
+
+		buffer.force();
+		writeIndex();
+		channel.close();
+
+		segment = null;
+		channel = null;
+		buffer = null;
+	}
+
+	/**
+	 * Symbols of the segment and the offset of the first record of every second
+	 */
+	private void writeIndex() throws IOException
+	{
+		Path path = JournalFormat.indexPath(segment);
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path))))
+		{
+			out.writeInt(JournalFormat.INDEX_MAGIC);
+			out.writeInt(JournalFormat.VERSION);
+			out.writeInt(symbolNames.size());
+			for (String name : symbolNames)
+			{
+				out.writeUTF(name);
+			}
+			out.writeInt(indexSize);
+			for (int i = 0; i < indexSize; i++)
+			{
+				out.writeLong(indexTimes[i]);
+				out.writeInt(indexOffsets[i]);
+			}
+		}
+	}
+
+	// ---- ENCODING ----------------------------------------------------------
+
+	private int begin(byte type, short symbolId, long time)
+	{
+		int start = buffer.position();
+
+		if (time >= nextIndexTime)
+		{
+			if (indexSize == indexTimes.length)
+			{
+				indexTimes = Arrays.copyOf(indexTimes, indexSize * 2);
+				indexOffsets = Arrays.copyOf(indexOffsets, indexSize * 2);
+			}
+			indexTimes[indexSize] = time;
+			indexOffsets[indexSize] = start;
+			indexSize++;
+			nextIndexTime = (time / JournalFormat.INDEX_INTERVAL_MILLIS + 1) * JournalFormat.INDEX_INTERVAL_MILLIS;
+		}
+
+		buffer.putInt(0); // length, written by end()
+		buffer.put(type);
+		buffer.put((byte) 0);
+		buffer.putShort(symbolId);
+		buffer.putLong(time);
+		return start;
+	}
+
+	/**
+	 * Marks the end of the segment after the record, then publishes the record with its length
+	 */
+	private void end(int start)
+	{
+		int position = buffer.position();
+		buffer.putInt(position, 0);
+		buffer.putInt(start, position - start);
+
+		records++;
+		bytes += position - start;
+	}
+
+	private int symbolSize(String name)
+	{
+		return (name == null || symbols.containsKey(name)) ? 0 : JournalFormat.RECORD_HEADER + bytes(name).length;
+	}
+
+	/**
+	 * Id of the symbol in the segment, defined with a SYMBOL record the first time
+	 */
+	private short symbol(String name, long time)
+	{
+		if (name == null)
+		{
+			return JournalFormat.NO_SYMBOL;
+		}
+
+		Short id = symbols.get(name);
+		if (id == null)
+		{
+			if (symbolNames.size() == Short.MAX_VALUE)
+			{
+				throw new IllegalStateException("Too many symbols in the segment");
+			}
+			id = (short) symbolNames.size();
+			symbols.put(name, id);
+			symbolNames.add(name);
+
+			int start = begin(JournalFormat.SYMBOL, id, time);
+			buffer.put(bytes(name));
+			end(start);
+		}
+		return id;
+	}
+
+	private void putLong(Long value)
+	{
+		buffer.putLong(value != null ? value : JournalFormat.NULL_LONG);
+	}
+
+	private void putDecimal(BigDecimal value)
+	{
+		if (value == null)
+		{
+			buffer.putLong(0);
+			buffer.put(JournalFormat.NULL_SCALE);
+		}
+		else
+		{
+			int scale = Math.max(0, value.scale());
+			buffer.putLong(unscaled(value, scale));
+			buffer.put((byte) scale);
+		}
+	}
+
+	private static int levelsSize(List<List<BigDecimal>> asks, List<List<BigDecimal>> bids)
+	{
+		return LEVELS_HEADER + (size(asks) + size(bids)) * 16;
+	}
+
+	/**
+	 * Levels as longs scaled by the largest price and quantity scale of the record
+	 */
+	private void putLevels(List<List<BigDecimal>> asks, List<List<BigDecimal>> bids)
+	{
+		int priceScale = 0;
+		int qtyScale = 0;
+		for (List<List<BigDecimal>> side : Arrays.asList(asks, bids))
+		{
+			if (side != null)
+			{
+				for (List<BigDecimal> entry : side)
+				{
+					priceScale = Math.max(priceScale, entry.get(0).scale());
+					qtyScale = Math.max(qtyScale, entry.get(1).scale());
+				}
+			}
+		}
+		if (priceScale > Byte.MAX_VALUE || qtyScale > Byte.MAX_VALUE)
+		{
+			throw new IllegalArgumentException("Scale " + Math.max(priceScale, qtyScale));
+		}
+
+		buffer.put((byte) priceScale);
+		buffer.put((byte) qtyScale);
+		buffer.putShort((short) 0);
+		buffer.putInt(size(asks));
+		buffer.putInt(size(bids));
+		putSide(asks, priceScale, qtyScale);
+		putSide(bids, priceScale, qtyScale);
+	}
+
+	private void putSide(List<List<BigDecimal>> side, int priceScale, int qtyScale)
+	{
+		if (side != null)
+		{
+			for (List<BigDecimal> entry : side)
+			{
+				buffer.putLong(unscaled(entry.get(0), priceScale));
+				buffer.putLong(unscaled(entry.get(1), qtyScale));
+			}
+		}
+	}
+
+	private static long unscaled(BigDecimal value, int scale)
+	{
+		try
+		{
+			// same digits with the scale moved, no BigInteger for the values that fit in a long
+			return value.scaleByPowerOfTen(scale).longValueExact();
+		}
+		catch (ArithmeticException e)
+		{
+			throw new IllegalArgumentException("Decimal out of range " + value);
+		}
+	}
+
+	private static int size(List<?> list)
+	{
+		return (list != null) ? list.size() : 0;
+	}
+
+	private static byte[] bytes(String value)
+	{
+		return (value != null) ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+	}
+
+}
@@ -0,0 +1,191 @@
+package aitrader.core.service.journal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import aitrader.core.config.CoreConstants;
+import aitrader.core.config.CoreLog;
+import binance.futures.enums.IntervalType;
+import binance.futures.impl.async.WsStreams;
+import binance.futures.model.Depth;
+import binance.futures.model.event.CandlestickEvent;
+import binance.futures.model.event.DepthEvent;
+import binance.futures.model.event.SymbolTickerEvent;
+
+/**
+ * Records the market data the services receive (depth diffs and snapshots, tickers, klines)
+ * to a journal, for MarketReplay. The hooks are a no-op while not recording; a write error
+ * is logged once and stops the recording, the services are never interrupted.
+ */
+public class MarketRecorder
+{
+	private static volatile JournalWriter writer;
+
+	private static Map<String, WsStreams.Subscription> mapKlines = new ConcurrentHashMap<String, WsStreams.Subscription>();
+
+	public static Path getDefaultFolder()
+	{
+		return Paths.get(CoreConstants.DEFAULT_USER_FOLDER, CoreConstants.DEFAULT_DATA_FOLDER, CoreConstants.DEFAULT_JOURNAL_FOLDER);
+	}
+
+	public static boolean isRecording()
+	{
+		return writer != null;
+	}
+
+	public static JournalWriter getWriter()
+	{
+		return writer;
+	}
+
+	public static synchronized boolean start()
+	{
+		return start(getDefaultFolder());
+	}
+
+	public static synchronized boolean start(Path folder)
+	{
+		try
+		{
+			if (writer == null)
+			{
+				writer = new JournalWriter(folder);
+				CoreLog.info("MarketRecorder - recording to " + folder);
+			}
+			return true;
+		}
+		catch (Exception e)
+		{
+			CoreLog.error(e);
+			return false;
+		}
+	}
+
+	public static synchronized void stop()
+	{
+		for (WsStreams.Subscription subscription : mapKlines.values())
+		{
+			subscription.close();
+		}
+		mapKlines.clear();
+
+		JournalWriter journal = writer;
+		writer = null;
+		if (journal != null)
+		{
+			try
+			{
+				journal.close();
+				CoreLog.info("MarketRecorder - stopped, " + journal.getRecords() + " records");
+			}
+			catch (IOException e)
+			{
+				CoreLog.error(e);
+			}
+		}
+	}
+
+	/**
+	 * Also records the klines of the pair (the services only use the REST klines)
+	 */
+	public static synchronized boolean addKlines(String symbolPair, IntervalType intervalType)
+	{
+		try
+		{
+			String stream = WsStreams.kline(symbolPair, intervalType);
+			if (writer != null && !mapKlines.containsKey(stream))
+			{
+				WsStreams.Subscription subscription = WsStreams.getInstance().subscribe(stream, CandlestickEvent.class, (event) -> {
+					onKline(event);
+				});
+				mapKlines.put(stream, subscription);
+			}
+			return writer != null;
+		}
+		catch (Exception e)
+		{
+			CoreLog.error(e);
+			return false;
+		}
+	}
+
+	// ---- HOOKS -------------------------------------------------------------
+
+	public static void onDepth(String symbolPair, DepthEvent event)
+	{
+		JournalWriter journal = writer;
+		if (journal != null)
+		{
+			try
+			{
+				journal.writeDepth(symbolPair, event, System.currentTimeMillis());
+			}
+			catch (Exception e)
+			{
+				fail(journal, e);
+			}
+		}
+	}
+
+	public static void onSnapshot(String symbolPair, Depth depth)
+	{
+		JournalWriter journal = writer;
+		if (journal != null)
+		{
+			try
+			{
+				journal.writeSnapshot(symbolPair, depth, System.currentTimeMillis());
+			}
+			catch (Exception e)
+			{
+				fail(journal, e);
+			}
+		}
+	}
+
+	public static void onTickers(SymbolTickerEvent[] events)
+	{
+		JournalWriter journal = writer;
+		if (journal != null)
+		{
+			try
+			{
+				journal.writeTickers(events, System.currentTimeMillis());
+			}
+			catch (Exception e)
+			{
+				fail(journal, e);
+			}
+		}
+	}
+
+	public static void onKline(CandlestickEvent event)
+	{
+		JournalWriter journal = writer;
+		if (journal != null)
+		{
+			try
+			{
+				journal.writeKline(event, System.currentTimeMillis());
+			}
+			catch (Exception e)
+			{
+				fail(journal, e);
+			}
+		}
+	}
+
+	private static synchronized void fail(JournalWriter journal, Exception e)
+	{
+		if (writer == journal)
+		{
+			CoreLog.error(e);
+			CoreLog.warn("MarketRecorder - recording stopped");
+			stop();
+		}
+	}
+
+}
@@ -0,0 +1,351 @@
+package aitrader.core.service.journal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import aitrader.core.config.CoreLog;
+import aitrader.core.service.market.DepthCache;
+import aitrader.core.service.market.DepthService;
+import aitrader.core.service.signals.SignalGenerator;
+import aitrader.core.service.symbol.SymbolTickerService;
+import binance.futures.model.Depth;
+import binance.futures.model.event.CandlestickEvent;
+import binance.futures.model.event.DepthEvent;
+import binance.futures.model.event.SymbolTickerEvent;
+
+/**
+ * Replays a journal through the same services the live data goes through: one DepthService
+ * per recorded pair (registered in DepthCache, so DepthSummary and SignalGenerator use it),
+ * the tickers through SymbolTickerService, and optionally SignalGenerator.generate() every
+ * 'signalIntervalMillis' of recorded time. The signals only screen the recorded pairs (no live
+ * book is opened) and are dated by the replay clock, the recorded time unless one is set.
+ *
+ * The books are only loaded from the recorded snapshots: on a gap a replayed DepthService
+ * waits for the next one, as the live service did. The speed is a multiple of the recorded
+ * time, 0 replays as fast as possible.
+ */
+public class MarketReplay implements JournalReader.Listener
+{
+	private final JournalReader reader;
+
+	private double speed = 0;
+	private boolean tickers = true;
+	private long signalIntervalMillis = 0;
+	private final List<JournalReader.Listener> listeners = new ArrayList<JournalReader.Listener>();
+
+	private final Map<String, DepthService> mapServices = new HashMap<String, DepthService>();
+
+	private Clock clock = new RecordedClock();
+
+	private long firstTime;
+	private long startNanos;
+	private long nextSignalTime;
+	private long lastTime;
+
+	public MarketReplay(Path folder)
+	{
+		this.reader = new JournalReader(folder);
+	}
+
+	public double getSpeed()
+	{
+		return speed;
+	}
+
+	public MarketReplay setSpeed(double speed)
+	{
+		if (speed < 0)
+		{
+			throw new IllegalArgumentException("Speed " + speed);
+		}
+		this.speed = speed;
+		return this;
+	}
+
+	public boolean isTickers()
+	{
+		return tickers;
+	}
+
+	/**
+	 * Sends the recorded tickers to SymbolTickerService (true by default)
+	 */
+	public MarketReplay setTickers(boolean tickers)
+	{
+		this.tickers = tickers;
+		return this;
+	}
+
+	public long getSignalIntervalMillis()
+	{
+		return signalIntervalMillis;
+	}
+
+	/**
+	 * Runs SignalGenerator.generate() every interval of recorded time (0 = never)
+	 */
+	public MarketReplay setSignalIntervalMillis(long signalIntervalMillis)
+	{
+		this.signalIntervalMillis = signalIntervalMillis;
+		return this;
+	}
+
+	public Clock getClock()
+	{
+		return clock;
+	}
+
+	/**
+	 * Clock of the replayed signals (creation time and purge), the recorded time by default
+	 */
+	public MarketReplay setClock(Clock clock)
+	{
+		if (clock == null)
+		{
+			throw new IllegalArgumentException("Clock null");
+		}
+		this.clock = clock;
+		return this;
+	}
+
+	/**
+	 * Also receives every replayed record (after the services)
+	 */
+	public MarketReplay addListener(JournalReader.Listener listener)
+	{
+		listeners.add(listener);
+		return this;
+	}
+
+	public DepthService getDepthService(String symbolPair)
+	{
+		return mapServices.get(symbolPair);
+	}
+
+	/**
+	 * Recorded time of the last replayed record
+	 */
+	public long getLastTime()
+	{
+		return lastTime;
+	}
+
+	// --------------------------------------------------------------------
+
+	public long run() throws IOException
+	{
+		return run(Long.MIN_VALUE, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Replays the records received between 'fromTime' and 'toTime', returns the number of records
+	 */
+	public long run(long fromTime, long toTime) throws IOException
+	{
+		firstTime = Long.MIN_VALUE;
+		nextSignalTime = Long.MIN_VALUE;
+
+		long count = reader.read(fromTime, toTime, this);
+		CoreLog.info("MarketReplay - " + count + " records replayed from " + reader.getFolder());
+		return count;
+	}
+
+	public void stop()
+	{
+		reader.stop();
+	}
+
+	/**
+	 * Closes the replayed depths and removes them from DepthCache
+	 */
+	public void close()
+	{
+		for (String symbolPair : mapServices.keySet())
+		{
+			DepthCache.remove(symbolPair);
+		}
+		mapServices.clear();
+	}
+
+	// ---- LISTENER ----------------------------------------------------------
+
+	@Override
+	public void onDepth(String pair, DepthEvent event, long time)
+	{
+		advance(time);
+		getOrCreate(pair).onMessage(event);
+		for (JournalReader.Listener listener : listeners)
+		{
+			listener.onDepth(pair, event, time);
+		}
+		signals(time);
+	}
+
+	@Override
+	public void onSnapshot(String pair, Depth depth, long time)
+	{
+		advance(time);
+		getOrCreate(pair).load(depth);
+		for (JournalReader.Listener listener : listeners)
+		{
+			listener.onSnapshot(pair, depth, time);
+		}
+		signals(time);
+	}
+
+	@Override
+	public void onTickers(SymbolTickerEvent[] events, long time)
+	{
+		advance(time);
+		if (tickers)
+		{
+			SymbolTickerService.onMessage(events);
+		}
+		for (JournalReader.Listener listener : listeners)
+		{
+			listener.onTickers(events, time);
+		}
+		signals(time);
+	}
+
+	@Override
+	public void onKline(CandlestickEvent event, long time)
+	{
+		advance(time);
+		for (JournalReader.Listener listener : listeners)
+		{
+			listener.onKline(event, time);
+		}
+		signals(time);
+	}
+
+	// --------------------------------------------------------------------
+
+	private DepthService getOrCreate(String symbolPair)
+	{
+		DepthService depthService = mapServices.get(symbolPair);
+		if (depthService == null)
+		{
+			depthService = new ReplayDepthService();
+			depthService.setSymbolPair(symbolPair);
+			mapServices.put(symbolPair, depthService);
+			DepthCache.put(symbolPair, depthService);
+		}
+		return depthService;
+	}
+
+	/**
+	 * Waits until the recorded time of the record at the replay speed
+	 */
+	private void advance(long time)
+	{
+		lastTime = time;
+		if (firstTime == Long.MIN_VALUE)
+		{
+			firstTime = time;
+			startNanos = System.nanoTime();
+		}
+		if (speed <= 0)
+		{
+			return;
+		}
+
+		long wait = (long) ((time - firstTime) * 1_000_000 / speed) - (System.nanoTime() - startNanos);
+		if (wait > 0)
+		{
+			try
+			{
+				Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				reader.stop();
+			}
+		}
+	}
+
+	private void signals(long time)
+	{
+		if (signalIntervalMillis <= 0)
+		{
+			return;
+		}
+		if (nextSignalTime == Long.MIN_VALUE)
+		{
+			nextSignalTime = time + signalIntervalMillis;
+		}
+		else if (time >= nextSignalTime)
+		{
+			SignalGenerator.generate(mapServices.keySet(), clock);
+			nextSignalTime = time + signalIntervalMillis;
+		}
+	}
+
+	// ---- RECORDED CLOCK ----------------------------------------------------
+
+	/**
+	 * Recorded time of the last replayed record
+	 */
+	private class RecordedClock extends Clock
+	{
+		@Override
+		public ZoneId getZone()
+		{
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone)
+		{
+			return Clock.fixed(instant(), zone);
+		}
+
+		@Override
+		public long millis()
+		{
+			return lastTime;
+		}
+
+		@Override
+		public Instant instant()
+		{
+			return Instant.ofEpochMilli(lastTime);
+		}
+	}
+
+	// ---- REPLAYED DEPTH ----------------------------------------------------
+
+	/**
+	 * Book fed by the journal: the snapshots come from the journal, never from the exchange
+	 */
+	private static class ReplayDepthService extends DepthService
+	{
+		@Override
+		protected boolean hasStream()
+		{
+			return true;
+		}
+
+		@Override
+		protected void requestSnapshot()
+		{
+			// the next recorded snapshot reloads the book
+		}
+
+		@Override
+		protected Depth fetchDepth()
+		{
+			throw new IllegalStateException("Replayed depth of " + getSymbolPair());
+		}
+	}
+
+}
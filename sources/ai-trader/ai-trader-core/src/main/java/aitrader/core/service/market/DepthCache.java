@@ -3,18 +3,93 @@ package aitrader.core.service.market;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import aitrader.core.config.CoreConfig;
 import aitrader.core.config.CoreLog;
 import aitrader.core.model.SymbolInfo;
 import aitrader.core.model.enums.DepthMode;
 import aitrader.core.service.symbol.SymbolInfoService;
 
+/**
+ * Live books (stream + snapshot) of the pairs in use, bounded by a budget of books / connections.
+ *
+ * Every 'get' and signal marks the book as active. When a new book does not fit in the budget the
+ * least active one is evicted (saving its checkpoint, so it warm starts if it comes back), and the
+ * books left idle for IDLE_MILLIS are closed by the maintenance task. A signal keeps a book active
+ * for SIGNAL_MILLIS. 'prewarm' opens in the background the books of the pairs about to be used.
+ */
 public class DepthCache
 {
 	public static final int MAX_CACHE_SIZE = 20;
 
-	private static Map<String, DepthService> cache = new ConcurrentHashMap<String, DepthService>();
+	private static final long MAINTENANCE_PERIOD_MILLIS = TimeUnit.SECONDS.toMillis(60);
+	private static final long IDLE_MILLIS = TimeUnit.MINUTES.toMillis(30);
+	private static final long SIGNAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+	private static Map<String, Entry> cache = new ConcurrentHashMap<String, Entry>();
+
+	private static volatile boolean started;
+	private static Timer maintenanceTimer;
+	private static ExecutorService prewarmExecutor;
+	private static Set<String> prewarmPending = ConcurrentHashMap.newKeySet();
+	private static Set<String> opening = ConcurrentHashMap.newKeySet();
+
+	// ---- stats ----
+	private static final AtomicLong hits = new AtomicLong();
+	private static final AtomicLong misses = new AtomicLong();
+	private static final AtomicLong evictions = new AtomicLong();
+	private static final AtomicLong warmups = new AtomicLong();
+	private static final AtomicLong warmupMillis = new AtomicLong();
+	private static final AtomicLong maxWarmupMillis = new AtomicLong();
+
+	/**
+	 * Book of the cache with its activity
+	 */
+	private static final class Entry
+	{
+		private final DepthService depthService;
+		private final long addedTime = System.currentTimeMillis();
+		private volatile long accessTime = addedTime;
+		private volatile long signalTime;
+		private volatile boolean warm;
+
+		private Entry(DepthService depthService)
+		{
+			this.depthService = depthService;
+		}
+
+		/**
+		 * Last activity, a signal counts until SIGNAL_MILLIS after it
+		 */
+		private long getActivityTime()
+		{
+			return Math.max(accessTime, signalTime > 0 ? signalTime + SIGNAL_MILLIS : 0);
+		}
+	}
+
+	// --------------------------------------------------------------------
+
+	/**
+	 * Books / websocket connections kept open ('depthCacheSize', MAX_CACHE_SIZE by default)
+	 */
+	public static int getMaxSize()
+	{
+		Integer size = CoreConfig.getDepthCacheSize();
+		return (size != null && size > 0) ? size : MAX_CACHE_SIZE;
+	}
+
+	public static int size()
+	{
+		return cache.size();
+	}
 
 	public static boolean containsKey(String symbolPair)
 	{
@@ -23,32 +98,115 @@ public class DepthCache
 
 	public static List<DepthService> getLstCache()
 	{
-		return new ArrayList<DepthService>(cache.values());
+		List<DepthService> lstCache = new ArrayList<DepthService>();
+		for (Entry entry : cache.values())
+		{
+			lstCache.add(entry.depthService);
+		}
+		return lstCache;
 	}
 
+	/**
+	 * Book of the pair (marked as used), null if it is not in the cache
+	 */
 	public static DepthService get(String symbolPair)
 	{
-		return cache.get(symbolPair);
+		Entry entry = cache.get(symbolPair);
+		if (entry == null)
+		{
+			misses.incrementAndGet();
+			return null;
+		}
+
+		hits.incrementAndGet();
+		entry.accessTime = System.currentTimeMillis();
+		checkWarm(entry);
+		return entry.depthService;
+	}
+
+	/**
+	 * A signal was generated with the book of the pair, it stays in the cache SIGNAL_MILLIS at least
+	 */
+	public static void onSignal(String symbolPair)
+	{
+		Entry entry = cache.get(symbolPair);
+		if (entry != null)
+		{
+			entry.signalTime = System.currentTimeMillis();
+		}
 	}
 
+	/**
+	 * Opens the book of the pair, false if it is already cached or being opened. The slot is
+	 * reserved under the class lock, the websocket connect and the snapshot run outside it
+	 */
 	public static boolean add(String symbolPair)
 	{
-		if (!cache.containsKey(symbolPair))
+		synchronized (DepthCache.class)
 		{
-			DepthService depthService = DepthService.getInstance(symbolPair, DepthMode.both_force, 0);
-			cache.put(symbolPair, depthService);
-			return true;
+			Entry entry = cache.get(symbolPair);
+			if (entry != null)
+			{
+				entry.accessTime = System.currentTimeMillis();
+				return false;
+			}
+			if (!opening.add(symbolPair))
+			{
+				return false;
+			}
+
+			while (cache.size() + opening.size() > getMaxSize() && evictLeastActive())
+			{
+				// make room for the new book
+			}
+		}
+
+		DepthService depthService = null;
+		try
+		{
+			depthService = DepthService.getInstance(symbolPair, DepthMode.both_force, 0);
+		}
+		finally
+		{
+			synchronized (DepthCache.class)
+			{
+				opening.remove(symbolPair);
+				// a book put meanwhile (replay) is kept
+				if (depthService != null && cache.putIfAbsent(symbolPair, new Entry(depthService)) != null)
+				{
+					depthService.close();
+					depthService = null;
+				}
+			}
+		}
+
+		if (depthService == null)
+		{
+			return false;
+		}
+		startMaintenance();
+
+		return true;
+	}
+
+	/**
+	 * Uses the depth (e.g. a replayed one) for the pair, closing the previous one
+	 */
+	public static void put(String symbolPair, DepthService depthService)
+	{
+		Entry previous = cache.put(symbolPair, new Entry(depthService));
+		if (previous != null && previous.depthService != depthService)
+		{
+			previous.depthService.close();
 		}
-		return false;
 	}
 
 	public static boolean remove(String symbolPair)
 	{
-		if (cache.containsKey(symbolPair))
+		Entry entry = cache.remove(symbolPair);
+		if (entry != null)
 		{
-			DepthService depthService = cache.get(symbolPair);
-			depthService.close();
-			cache.remove(symbolPair);
+			entry.depthService.close();
 			return true;
 		}
 		return false;
@@ -56,10 +214,13 @@ public class DepthCache
 
 	public static void removeAll()
 	{
-		for (Map.Entry<String, DepthService> entry : cache.entrySet())
+		started = false;
+		stopMaintenance();
+		checkpoint();
+
+		for (String symbolPair : cache.keySet())
 		{
-			entry.getValue().close();
-			cache.remove(entry.getKey());
+			remove(symbolPair);
 		}
 	}
 
@@ -70,7 +231,7 @@ public class DepthCache
 			List<String> lstSymbols = new ArrayList<String>();
 
 			List<SymbolInfo> topSymbols = SymbolInfoService.getLstSymbolsInfo(false, false, false);
-			int maxSize = Math.min(topSymbols.size(), MAX_CACHE_SIZE);
+			int maxSize = Math.min(topSymbols.size(), getMaxSize());
 			topSymbols = topSymbols.subList(0, maxSize);
 
 			for (SymbolInfo symbolInfo : topSymbols)
@@ -92,13 +253,13 @@ public class DepthCache
 	{
 		try
 		{
+			// the snapshots are paced by the rate limiter of the client
 			for (String symbolPair : lstSymbols)
 			{
-				if (add(symbolPair))
-				{
-					Thread.sleep(300);
-				}
+				add(symbolPair);
 			}
+			startMaintenance();
+			started = true;
 
 			return true;
 		}
@@ -109,4 +270,262 @@ public class DepthCache
 		}
 	}
 
+	/**
+	 * True after 'start' (the signals prewarm the books they are going to use)
+	 */
+	public static boolean isStarted()
+	{
+		return started;
+	}
+
+	// ---- PREWARM -----------------------------------------------------------
+
+	/**
+	 * Opens in the background the books of the pairs (by priority, up to the budget) not in the cache
+	 */
+	public static void prewarm(List<String> lstSymbols)
+	{
+		int maxSize = Math.min(lstSymbols.size(), getMaxSize());
+
+		for (String symbolPair : lstSymbols.subList(0, maxSize))
+		{
+			Entry entry = cache.get(symbolPair);
+			if (entry != null)
+			{
+				// about to be used
+				entry.accessTime = System.currentTimeMillis();
+			}
+			else if (prewarmPending.add(symbolPair))
+			{
+				getPrewarmExecutor().execute(() -> {
+					try
+					{
+						add(symbolPair);
+					}
+					finally
+					{
+						prewarmPending.remove(symbolPair);
+					}
+				});
+			}
+		}
+	}
+
+	private static synchronized ExecutorService getPrewarmExecutor()
+	{
+		if (prewarmExecutor == null)
+		{
+			prewarmExecutor = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "depthPrewarm");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return prewarmExecutor;
+	}
+
+	// ---- EVICTION ----------------------------------------------------------
+
+	/**
+	 * Evicts the book with the oldest activity, false if the cache is empty
+	 */
+	private static synchronized boolean evictLeastActive()
+	{
+		String oldest = null;
+		long oldestTime = Long.MAX_VALUE;
+
+		for (Map.Entry<String, Entry> entry : cache.entrySet())
+		{
+			long activityTime = entry.getValue().getActivityTime();
+			if (activityTime < oldestTime)
+			{
+				oldest = entry.getKey();
+				oldestTime = activityTime;
+			}
+		}
+
+		if (oldest == null)
+		{
+			return false;
+		}
+		evict(oldest, "least active");
+		return true;
+	}
+
+	/**
+	 * Closes the books without activity for IDLE_MILLIS
+	 */
+	public static synchronized void evictIdle()
+	{
+		long limit = System.currentTimeMillis() - IDLE_MILLIS;
+		for (Map.Entry<String, Entry> entry : cache.entrySet())
+		{
+			if (entry.getValue().getActivityTime() < limit)
+			{
+				evict(entry.getKey(), "idle");
+			}
+		}
+	}
+
+	private static void evict(String symbolPair, String reason)
+	{
+		Entry entry = cache.get(symbolPair);
+		if (entry == null)
+		{
+			return;
+		}
+
+		save(entry.depthService);
+		remove(symbolPair);
+		evictions.incrementAndGet();
+		CoreLog.info("DepthCache - evicted " + symbolPair + " (" + reason + ") - " + getStats());
+	}
+
+	// ---- STATS -------------------------------------------------------------
+
+	public static long getHits()
+	{
+		return hits.get();
+	}
+
+	public static long getMisses()
+	{
+		return misses.get();
+	}
+
+	/**
+	 * Share of the 'get' calls served by the cache (0 .. 1), NaN before the first one
+	 */
+	public static double getHitRate()
+	{
+		long total = hits.get() + misses.get();
+		return (total > 0) ? (double) hits.get() / total : Double.NaN;
+	}
+
+	public static long getEvictions()
+	{
+		return evictions.get();
+	}
+
+	/**
+	 * Books that became usable (synced, or restored and following the stream) since they were added
+	 */
+	public static long getWarmups()
+	{
+		return warmups.get();
+	}
+
+	/**
+	 * Average time from the 'add' to a usable book
+	 */
+	public static long getAvgWarmupMillis()
+	{
+		long count = warmups.get();
+		return (count > 0) ? warmupMillis.get() / count : 0;
+	}
+
+	public static long getMaxWarmupMillis()
+	{
+		return maxWarmupMillis.get();
+	}
+
+	public static String getStats()
+	{
+		double hitRate = getHitRate();
+		return "books " + cache.size() + "/" + getMaxSize()
+				+ ", hit rate " + (Double.isNaN(hitRate) ? "-" : String.format("%.1f%%", hitRate * 100))
+				+ ", evictions " + evictions.get()
+				+ ", warm-up avg " + getAvgWarmupMillis() + " ms max " + maxWarmupMillis.get() + " ms";
+	}
+
+	/**
+	 * Records the warm-up time the first time the book is seen usable
+	 */
+	private static void checkWarm(Entry entry)
+	{
+		if (entry.warm)
+		{
+			return;
+		}
+
+		DepthService depthService = entry.depthService;
+		Long syncTime = depthService.getSyncTime();
+		if (syncTime != null || depthService.isRestored())
+		{
+			synchronized (entry)
+			{
+				if (!entry.warm)
+				{
+					entry.warm = true;
+					long millis = Math.max(0, ((syncTime != null) ? syncTime : System.currentTimeMillis()) - entry.addedTime);
+					warmups.incrementAndGet();
+					warmupMillis.addAndGet(millis);
+					maxWarmupMillis.accumulateAndGet(millis, Math::max);
+				}
+			}
+		}
+	}
+
+	// ---- MAINTENANCE -------------------------------------------------------
+
+	/**
+	 * Saves the synced books, to warm start them after a restart
+	 */
+	public static void checkpoint()
+	{
+		for (Entry entry : cache.values())
+		{
+			save(entry.depthService);
+		}
+	}
+
+	private static void save(DepthService depthService)
+	{
+		try
+		{
+			DepthCheckpoint checkpoint = depthService.checkpoint();
+			if (checkpoint != null)
+			{
+				checkpoint.save(DepthCheckpoint.getDefaultFolder());
+			}
+		}
+		catch (Exception e)
+		{
+			CoreLog.error(e);
+		}
+	}
+
+	/**
+	 * Warm-up times, checkpoints and idle books, every MAINTENANCE_PERIOD_MILLIS
+	 */
+	private static synchronized void startMaintenance()
+	{
+		if (maintenanceTimer == null)
+		{
+			TimerTask task = new TimerTask()
+			{
+				public void run()
+				{
+					for (Entry entry : cache.values())
+					{
+						checkWarm(entry);
+					}
+					checkpoint();
+					evictIdle();
+				}
+			};
+			maintenanceTimer = new Timer("depthCacheMaintenance", true);
+			maintenanceTimer.schedule(task, MAINTENANCE_PERIOD_MILLIS, MAINTENANCE_PERIOD_MILLIS);
+		}
+	}
+
+	private static synchronized void stopMaintenance()
+	{
+		if (maintenanceTimer != null)
+		{
+			maintenanceTimer.cancel();
+			maintenanceTimer = null;
+		}
+	}
+
 }
@@ -0,0 +1,230 @@
+package aitrader.core.service.market;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+import aitrader.core.config.CoreConstants;
+import technicals.model.BookSnapshot;
+
+/**
+ * Copy of a synced book saved to disk (one file per pair, replaced on every save), to warm
+ * start the depth after a restart while the REST snapshot is loaded in the background.
+ */
+public class DepthCheckpoint
+{
+	public static final long MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+	private static final int MAGIC = 0x41494443; // AIDC
+	private static final int VERSION = 1;
+	private static final String SUFFIX = ".book";
+
+	private String symbolPair;
+	private long savedTime;
+	private long lastUpdateId;
+	private long bookVersion;
+	private BigDecimal tickSize;
+
+	private long[] askTicks;
+	private double[] askQtys;
+	private long[] bidTicks;
+	private double[] bidQtys;
+
+	public String getSymbolPair()
+	{
+		return symbolPair;
+	}
+
+	public long getSavedTime()
+	{
+		return savedTime;
+	}
+
+	/**
+	 * Update id of the exchange book the levels match
+	 */
+	public long getLastUpdateId()
+	{
+		return lastUpdateId;
+	}
+
+	/**
+	 * Version of the local book when it was saved
+	 */
+	public long getBookVersion()
+	{
+		return bookVersion;
+	}
+
+	public BigDecimal getTickSize()
+	{
+		return tickSize;
+	}
+
+	public int getAskLevels()
+	{
+		return askTicks.length;
+	}
+
+	public long getAskTicks(int level)
+	{
+		return askTicks[level];
+	}
+
+	public double getAskQty(int level)
+	{
+		return askQtys[level];
+	}
+
+	public int getBidLevels()
+	{
+		return bidTicks.length;
+	}
+
+	public long getBidTicks(int level)
+	{
+		return bidTicks[level];
+	}
+
+	public double getBidQty(int level)
+	{
+		return bidQtys[level];
+	}
+
+	public long getAge()
+	{
+		return System.currentTimeMillis() - savedTime;
+	}
+
+	// --------------------------------------------------------------------
+
+	public static DepthCheckpoint of(String symbolPair, BookSnapshot snapshot, long lastUpdateId)
+	{
+		DepthCheckpoint checkpoint = new DepthCheckpoint();
+		checkpoint.symbolPair = symbolPair;
+		checkpoint.savedTime = System.currentTimeMillis();
+		checkpoint.lastUpdateId = lastUpdateId;
+		checkpoint.bookVersion = snapshot.getVersion();
+		checkpoint.tickSize = snapshot.getTickSize();
+
+		checkpoint.askTicks = new long[snapshot.getAskLevels()];
+		checkpoint.askQtys = new double[snapshot.getAskLevels()];
+		for (int i = 0; i < checkpoint.askTicks.length; i++)
+		{
+			checkpoint.askTicks[i] = snapshot.getAskTicks(i);
+			checkpoint.askQtys[i] = snapshot.getAskQty(i);
+		}
+
+		checkpoint.bidTicks = new long[snapshot.getBidLevels()];
+		checkpoint.bidQtys = new double[snapshot.getBidLevels()];
+		for (int i = 0; i < checkpoint.bidTicks.length; i++)
+		{
+			checkpoint.bidTicks[i] = snapshot.getBidTicks(i);
+			checkpoint.bidQtys[i] = snapshot.getBidQty(i);
+		}
+
+		return checkpoint;
+	}
+
+	// ---- FILES -------------------------------------------------------------
+
+	public static Path getDefaultFolder()
+	{
+		return Paths.get(CoreConstants.DEFAULT_USER_FOLDER, CoreConstants.DEFAULT_DATA_FOLDER, CoreConstants.DEFAULT_DEPTH_FOLDER);
+	}
+
+	/**
+	 * Writes a temporary file and moves it over the previous checkpoint of the pair
+	 */
+	public void save(Path folder) throws IOException
+	{
+		Files.createDirectories(folder);
+		Path path = folder.resolve(symbolPair + SUFFIX);
+		Path tmp = folder.resolve(symbolPair + SUFFIX + ".tmp");
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp))))
+		{
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeUTF(symbolPair);
+			out.writeLong(savedTime);
+			out.writeLong(lastUpdateId);
+			out.writeLong(bookVersion);
+			out.writeUTF(tickSize.toPlainString());
+			writeSide(out, askTicks, askQtys);
+			writeSide(out, bidTicks, bidQtys);
+		}
+		Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Last checkpoint of the pair, null if there is none
+	 */
+	public static DepthCheckpoint load(Path folder, String symbolPair) throws IOException
+	{
+		Path path = folder.resolve(symbolPair + SUFFIX);
+		if (!Files.exists(path))
+		{
+			return null;
+		}
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path))))
+		{
+			if (in.readInt() != MAGIC)
+			{
+				throw new IOException("Not a depth checkpoint " + path);
+			}
+			if (in.readInt() != VERSION)
+			{
+				return null;
+			}
+
+			DepthCheckpoint checkpoint = new DepthCheckpoint();
+			checkpoint.symbolPair = in.readUTF();
+			checkpoint.savedTime = in.readLong();
+			checkpoint.lastUpdateId = in.readLong();
+			checkpoint.bookVersion = in.readLong();
+			checkpoint.tickSize = new BigDecimal(in.readUTF());
+
+			int asks = in.readInt();
+			checkpoint.askTicks = new long[asks];
+			checkpoint.askQtys = new double[asks];
+			readSide(in, checkpoint.askTicks, checkpoint.askQtys);
+
+			int bids = in.readInt();
+			checkpoint.bidTicks = new long[bids];
+			checkpoint.bidQtys = new double[bids];
+			readSide(in, checkpoint.bidTicks, checkpoint.bidQtys);
+
+			return checkpoint;
+		}
+	}
+
+	private static void writeSide(DataOutputStream out, long[] ticks, double[] qtys) throws IOException
+	{
+		out.writeInt(ticks.length);
+		for (int i = 0; i < ticks.length; i++)
+		{
+			out.writeLong(ticks[i]);
+			out.writeDouble(qtys[i]);
+		}
+	}
+
+	private static void readSide(DataInputStream in, long[] ticks, double[] qtys) throws IOException
+	{
+		for (int i = 0; i < ticks.length; i++)
+		{
+			ticks[i] = in.readLong();
+			qtys[i] = in.readDouble();
+		}
+	}
+
+}
@@ -1,33 +1,76 @@
 package aitrader.core.service.market;
 
 import java.math.BigDecimal;
-import java.util.Collections;
+import java.util.ArrayDeque;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import aitrader.core.config.CoreLog;
+import aitrader.core.model.Symbol;
 import aitrader.core.model.enums.DepthMode;
+import aitrader.core.service.journal.MarketRecorder;
 import aitrader.core.service.symbol.SymbolInfoService;
 import binance.futures.impl.UnsignedClient;
-import binance.futures.impl.async.WsDepth;
+import binance.futures.impl.async.WsStreams;
 import binance.futures.model.Depth;
 import binance.futures.model.event.DepthEvent;
+import technicals.indicators.depth.DepthDeltaStream;
+import technicals.indicators.depth.DepthPressure;
+import technicals.indicators.depth.DepthSuperPrices;
+import technicals.indicators.depth.DepthSuperPricesStream;
 import technicals.model.OrderBook;
-import technicals.model.OrderBookEntry;
-
+import technicals.model.BookSnapshot;
+import technicals.model.VersionedOrderBook;
+
+/**
+ * Local order book of a symbol: REST snapshot + diff stream kept in sync with the update ids.
+ *
+ * Events are buffered until the snapshot is loaded, the ones older than the snapshot are
+ * dropped and the first applied one must contain the snapshot 'lastUpdateId'. After that
+ * every event must continue the previous one (pu == previous u), otherwise the book is
+ * marked as not synced and a new snapshot is requested in the background.
+ *
+ * A book can also be restored from a DepthCheckpoint at startup: the diffs newer than the
+ * checkpoint are applied to it while the snapshot is pending, so it is usable but stale (the
+ * updates between the save and the restart are missing) until the snapshot reconciles it, for
+ * at most MAX_RESTORED_MILLIS. A gap between two followed diffs drops the restore.
+ */
 public class DepthService
 {
-	private WsDepth wsDepth;
+	private static final int MAX_BUFFERED_EVENTS = 10_000;
+	private static final long RESYNC_DELAY_MILLIS = 1000;
+	private static final int DELTA_RESOLUTION = 8192;
+	private static final int PRESSURE_LEVELS = 10;
+	private static final long PRESSURE_HALF_LIFE_MILLIS = 5000;
+	public static final long MAX_RESTORED_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+	private WsStreams.Subscription depthStream;
 
 	private String symbolPair;
-	private Map<BigDecimal, OrderBookEntry> mapAsks;
-	private Map<BigDecimal, OrderBookEntry> mapBids;
+	private volatile VersionedOrderBook book;
+	private DepthSuperPricesStream superPrices; // guarded by the book monitor
+	private volatile DepthDeltaStream deltaStream; // guarded by the book monitor
+	private final DepthPressure pressure = new DepthPressure(PRESSURE_LEVELS, PRESSURE_HALF_LIFE_MILLIS); // guarded by the book monitor
 
 	private Long connectTime;
 
+	private final ArrayDeque<DepthEvent> buffer = new ArrayDeque<DepthEvent>();
+	private long lastUpdateId;
+	private boolean snapshotPending = true;
+	private volatile boolean synced;
+	private volatile boolean closed;
+	private volatile Long syncTime;
+	private long resyncTime;
+
+	private volatile Long restoredTime;
+	private volatile long restoredAt;
+	private volatile boolean following;
+	private long restoredUpdateId;
+
+	private final AtomicLong gaps = new AtomicLong();
+	private final AtomicLong resyncs = new AtomicLong();
+
 	public String getSymbolPair()
 	{
 		return symbolPair;
@@ -38,24 +81,30 @@ public class DepthService
 		this.symbolPair = symbolPair;
 	}
 
-	public Map<BigDecimal, OrderBookEntry> getMapAsks()
+	public VersionedOrderBook getBook()
 	{
-		return mapAsks;
+		return book;
 	}
 
-	public void setMapAsks(Map<BigDecimal, OrderBookEntry> mapAsks)
+	/**
+	 * Last committed version of the book (one per applied event), without locking
+	 */
+	public BookSnapshot getSnapshot()
 	{
-		this.mapAsks = mapAsks;
+		return book.getSnapshot();
 	}
 
-	public Map<BigDecimal, OrderBookEntry> getMapBids()
+	public long getVersion()
 	{
-		return mapBids;
+		return book.getVersion();
 	}
 
-	public void setMapBids(Map<BigDecimal, OrderBookEntry> mapBids)
+	/**
+	 * True if the book changed after 'since' (a version previously read), to skip recalculations
+	 */
+	public boolean hasChanged(long since)
 	{
-		this.mapBids = mapBids;
+		return book.hasChanged(since);
 	}
 
 	public Long getConnectTime()
@@ -63,75 +112,527 @@ public class DepthService
 		return connectTime;
 	}
 
+	/**
+	 * True when the book matches the exchange at 'lastUpdateId' (snapshot plus an unbroken sequence of diffs)
+	 */
+	public boolean isSynced()
+	{
+		return synced;
+	}
+
+	/**
+	 * Time of the last (re)synchronization, null while not synced
+	 */
+	public Long getSyncTime()
+	{
+		return syncTime;
+	}
+
+	/**
+	 * Save time of the checkpoint the book was restored from, null if it was not restored or
+	 * a snapshot has been loaded since
+	 */
+	public Long getRestoredTime()
+	{
+		return restoredTime;
+	}
+
+	/**
+	 * True while the book restored from a checkpoint follows the diff stream (waiting for the snapshot),
+	 * up to MAX_RESTORED_MILLIS after the restore. The levels are stale, not synced
+	 */
+	public boolean isRestored()
+	{
+		return restoredTime != null && following && System.currentTimeMillis() - restoredAt <= MAX_RESTORED_MILLIS;
+	}
+
+	public synchronized long getLastUpdateId()
+	{
+		return lastUpdateId;
+	}
+
+	/**
+	 * Events that did not continue the previous one
+	 */
+	public long getGaps()
+	{
+		return gaps.get();
+	}
+
+	/**
+	 * Snapshots reloaded after the initial one
+	 */
+	public long getResyncs()
+	{
+		return resyncs.get();
+	}
+
 	// --------------------------------------------------------------------
 
+	/**
+	 * OrderBook of the last version, shared by the callers until the book changes
+	 */
 	public OrderBook toOrderBook()
 	{
-		TreeMap<BigDecimal, OrderBookEntry> asks = new TreeMap<BigDecimal, OrderBookEntry>();
-		asks.putAll(mapAsks);
+		return book.getSnapshot().toOrderBook(SymbolInfoService.getSymbol(symbolPair).getPricePrecision());
+	}
 
-		TreeMap<BigDecimal, OrderBookEntry> bids = new TreeMap<BigDecimal, OrderBookEntry>(Collections.reverseOrder());
-		bids.putAll(mapBids);
+	/**
+	 * Levels with the largest quantity of the last version (same as DepthSuperPrices on its OrderBook),
+	 * kept up to date on every diff instead of scanning the book, null while the book is empty
+	 */
+	public DepthSuperPrices getSuperPrices(int maxSize)
+	{
+		VersionedOrderBook book = this.book;
+		if (book == null)
+		{
+			return null;
+		}
+
+		synchronized (book)
+		{
+			long bestAskTicks = book.getBestAskTicks();
+			if (bestAskTicks < 0)
+			{
+				return null;
+			}
+			superPrices.searchSuperAskPrices(bestAskTicks, maxSize).searchSuperBidPrices(bestAskTicks, maxSize);
+			return new DepthSuperPrices(superPrices.getAsks(), superPrices.getBids());
+		}
+	}
+
+	/**
+	 * Copy of the microprice, queue imbalance and book pressure of the last version (updated on
+	 * every event from the best levels), null while the book is empty
+	 */
+	public DepthPressure getPressure()
+	{
+		VersionedOrderBook book = this.book;
+		if (book == null)
+		{
+			return null;
+		}
 
-		OrderBook orderBook = new OrderBook(SymbolInfoService.getSymbol(symbolPair).getPricePrecision());
-		orderBook.setAsks(asks);
-		orderBook.setBids(bids);
+		synchronized (book)
+		{
+			return Double.isNaN(pressure.getMicroPrice()) ? null : new DepthPressure(pressure);
+		}
+	}
 
-		return orderBook;
+	/**
+	 * Delta, middle price and true range bands updated on every event, null until 'startDeltaStream'.
+	 * Read it holding the book monitor: synchronized (depthService.getBook()) { ... }
+	 */
+	public DepthDeltaStream getDeltaStream()
+	{
+		return deltaStream;
+	}
+
+	/**
+	 * Starts updating the depth bands (distances from the middle price) from the diffs
+	 */
+	public void startDeltaStream(long rocWindowMillis, double... bands)
+	{
+		VersionedOrderBook book = this.book;
+		if (book == null)
+		{
+			throw new IllegalStateException("Depth of " + symbolPair + " not loaded");
+		}
+
+		synchronized (book)
+		{
+			DepthDeltaStream stream = new DepthDeltaStream(book.getTickSize(), DELTA_RESOLUTION, rocWindowMillis, bands);
+			stream.load(book.getSnapshot(), System.currentTimeMillis());
+			deltaStream = stream;
+		}
 	}
 
 	// --------------------------------------------------------------------
 
 	public void close()
 	{
-		wsDepth.close();
+		closed = true;
+		if (depthStream != null)
+		{
+			depthStream.close();
+		}
 	}
 
 	// --------------------------------------------------------------------
 
-	public void onMessage(DepthEvent event)
+	public synchronized void onMessage(DepthEvent event)
+	{
+		buffer.addLast(event);
+		if (buffer.size() > MAX_BUFFERED_EVENTS)
+		{
+			buffer.removeFirst();
+		}
+
+		if (!snapshotPending)
+		{
+			sync();
+		}
+		else if (restoredTime != null)
+		{
+			follow(event);
+		}
+	}
+
+	/**
+	 * Applies a newer event to the restored book, it stays buffered for the snapshot. The first one
+	 * does not continue the checkpoint (the book is stale), the next ones must continue each other
+	 */
+	private void follow(DepthEvent event)
+	{
+		if (event.getLastUpdateId() == null || event.getLastUpdateId() <= restoredUpdateId)
+		{
+			return;
+		}
+
+		if (following && (event.getLastUpdateIdInlastStream() == null || event.getLastUpdateIdInlastStream() != restoredUpdateId))
+		{
+			CoreLog.info("DepthService - " + symbolPair + " restore dropped, expected pu " + restoredUpdateId + " received " + event.getLastUpdateIdInlastStream());
+			restoredTime = null;
+			following = false;
+			return;
+		}
+
+		apply(event);
+		restoredUpdateId = event.getLastUpdateId();
+		following = true;
+	}
+
+	/**
+	 * Applies the buffered events that continue the book, requests a new snapshot on a gap
+	 */
+	private void sync()
+	{
+		DepthEvent event;
+		while ((event = buffer.peekFirst()) != null)
+		{
+			long firstId = event.getFirstUpdateId();
+			long lastId = event.getLastUpdateId();
+
+			if (!synced)
+			{
+				// already in the snapshot
+				if (lastId < lastUpdateId)
+				{
+					buffer.removeFirst();
+					continue;
+				}
+				// snapshot older than the stream
+				if (firstId > lastUpdateId)
+				{
+					resync("snapshot " + lastUpdateId + " before first event " + firstId);
+					return;
+				}
+			}
+			else if (event.getLastUpdateIdInlastStream() == null || event.getLastUpdateIdInlastStream() != lastUpdateId)
+			{
+				gaps.incrementAndGet();
+				resync("gap, expected pu " + lastUpdateId + " received " + event.getLastUpdateIdInlastStream());
+				return;
+			}
+
+			buffer.removeFirst();
+			apply(event);
+			lastUpdateId = lastId;
+
+			if (!synced)
+			{
+				synced = true;
+				syncTime = System.currentTimeMillis();
+			}
+		}
+	}
+
+	private void resync(String reason)
 	{
-		for (List<BigDecimal> entry : event.getAsks())
+		CoreLog.info("DepthService - resync " + symbolPair + " - " + reason);
+
+		synced = false;
+		syncTime = null;
+		snapshotPending = true;
+		resyncs.incrementAndGet();
+
+		requestSnapshot();
+	}
+
+	/**
+	 * Gets a new snapshot in the background, the buffered events wait for it
+	 */
+	protected void requestSnapshot()
+	{
+		Thread thread = new Thread(this::loadSnapshot, "DepthService-" + symbolPair);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * True if the book is fed by a diff stream (a snapshot alone is not synced until the events continue it)
+	 */
+	protected boolean hasStream()
+	{
+		return depthStream != null;
+	}
+
+	/**
+	 * Gets a new snapshot (outside the lock, events keep being buffered) and loads it
+	 */
+	private void loadSnapshot()
+	{
+		while (!closed)
 		{
-			OrderBookEntry orderBookEntry = new OrderBookEntry(entry.get(0), entry.get(1));
+			try
+			{
+				long wait;
+				synchronized (this)
+				{
+					wait = resyncTime + RESYNC_DELAY_MILLIS - System.currentTimeMillis();
+				}
+				if (wait > 0)
+				{
+					Thread.sleep(wait);
+				}
 
-			if (orderBookEntry.getQty().doubleValue() == 0)
-				mapAsks.remove(orderBookEntry.getPrice());
-			else
-				mapAsks.put(orderBookEntry.getPrice(), orderBookEntry);
+				Depth depth = fetchDepth();
+				synchronized (this)
+				{
+					resyncTime = System.currentTimeMillis();
+					load(depth);
+				}
+				return;
+			}
+			catch (InterruptedException e)
+			{
+				return;
+			}
+			catch (Exception e)
+			{
+				CoreLog.error(e);
+				synchronized (this)
+				{
+					resyncTime = System.currentTimeMillis();
+				}
+			}
 		}
-		for (List<BigDecimal> entry : event.getBids())
+	}
+
+	protected Depth fetchDepth() throws Exception
+	{
+		Depth depth = UnsignedClient.getDepth(symbolPair.toUpperCase());
+		MarketRecorder.onSnapshot(symbolPair, depth);
+		return depth;
+	}
+
+	private void apply(DepthEvent event)
+	{
+		synchronized (book)
 		{
-			OrderBookEntry orderBookEntry = new OrderBookEntry(entry.get(0), entry.get(1));
+			for (List<BigDecimal> entry : event.getAsks())
+			{
+				update(false, entry);
+			}
+			for (List<BigDecimal> entry : event.getBids())
+			{
+				update(true, entry);
+			}
+			book.commit();
+
+			long time = (event.getEventTime() != null) ? event.getEventTime() : System.currentTimeMillis();
+			pressure.update(book.getLevels(), time);
 
-			if (orderBookEntry.getQty().doubleValue() == 0)
-				mapBids.remove(orderBookEntry.getPrice());
-			else
-				mapBids.put(orderBookEntry.getPrice(), orderBookEntry);
+			if (deltaStream != null)
+			{
+				if (!deltaStream.commit(book.getBestAskTicks(), book.getBestBidTicks(), time))
+				{
+					deltaStream.load(book.getSnapshot(), time);
+				}
+			}
+		}
+	}
+
+	// holding the book monitor
+	private void update(boolean bid, List<BigDecimal> entry)
+	{
+		long ticks = book.toTicks(entry.get(0).doubleValue());
+		double qty = entry.get(1).doubleValue();
+		double previous = book.updateTicks(bid, ticks, qty);
+		superPrices.update(bid, ticks, qty);
+		if (deltaStream != null)
+		{
+			deltaStream.update(bid, ticks, previous, qty);
 		}
 	}
 
 	// --------------------------------------------------------------------
 
-	public void load(Depth depth)
+	public synchronized void load(Depth depth)
 	{
-		mapAsks = new ConcurrentHashMap<BigDecimal, OrderBookEntry>();
-		for (List<BigDecimal> entry : depth.getAsks())
+		lastUpdateId = (depth.getLastUpdateId() != null) ? depth.getLastUpdateId() : 0;
+		snapshotPending = false;
+		synced = false;
+		syncTime = null;
+		restoredTime = null;
+		following = false;
+
+		if (book == null)
 		{
-			OrderBookEntry orderBookEntry = new OrderBookEntry(entry.get(0), entry.get(1));
-			mapAsks.put(orderBookEntry.getPrice(), orderBookEntry);
+			newBook(getTickSize(depth));
+		}
+
+		synchronized (book)
+		{
+			book.clear();
+			superPrices.clear();
+			for (List<BigDecimal> entry : depth.getAsks())
+			{
+				update(false, entry);
+			}
+			for (List<BigDecimal> entry : depth.getBids())
+			{
+				update(true, entry);
+			}
+			book.commit();
+			pressure.update(book.getLevels(), System.currentTimeMillis());
+
+			if (deltaStream != null)
+			{
+				deltaStream.load(book.getSnapshot(), System.currentTimeMillis());
+			}
 		}
 
-		mapBids = new ConcurrentHashMap<BigDecimal, OrderBookEntry>();
-		for (List<BigDecimal> entry : depth.getBids())
+		// buffered events, without a stream the snapshot is the book
+		sync();
+		if (!synced && !snapshotPending && !hasStream() && buffer.isEmpty())
 		{
-			OrderBookEntry orderBookEntry = new OrderBookEntry(entry.get(0), entry.get(1));
-			mapBids.put(orderBookEntry.getPrice(), orderBookEntry);
+			synced = true;
+			syncTime = System.currentTimeMillis();
 		}
 	}	
 	
+	/**
+	 * Loads the levels of a checkpoint, the book is not synced until a snapshot is loaded
+	 */
+	public synchronized void restore(DepthCheckpoint checkpoint)
+	{
+		if (book == null)
+		{
+			newBook(checkpoint.getTickSize());
+		}
+		else if (book.getTickSize().compareTo(checkpoint.getTickSize()) != 0)
+		{
+			throw new IllegalArgumentException("Tick size " + checkpoint.getTickSize() + " of the checkpoint, book " + book.getTickSize());
+		}
+
+		synchronized (book)
+		{
+			book.clear();
+			superPrices.clear();
+			for (int i = 0; i < checkpoint.getAskLevels(); i++)
+			{
+				book.updateTicks(false, checkpoint.getAskTicks(i), checkpoint.getAskQty(i));
+				superPrices.update(false, checkpoint.getAskTicks(i), checkpoint.getAskQty(i));
+			}
+			for (int i = 0; i < checkpoint.getBidLevels(); i++)
+			{
+				book.updateTicks(true, checkpoint.getBidTicks(i), checkpoint.getBidQty(i));
+				superPrices.update(true, checkpoint.getBidTicks(i), checkpoint.getBidQty(i));
+			}
+			book.commit();
+			pressure.update(book.getLevels(), System.currentTimeMillis());
+
+			if (deltaStream != null)
+			{
+				deltaStream.load(book.getSnapshot(), System.currentTimeMillis());
+			}
+		}
+
+		snapshotPending = true;
+		synced = false;
+		syncTime = null;
+		restoredTime = checkpoint.getSavedTime();
+		restoredAt = System.currentTimeMillis();
+		restoredUpdateId = checkpoint.getLastUpdateId();
+		following = false;
+	}
+
+	/**
+	 * Empty book and the state updated along with it (super prices)
+	 */
+	private void newBook(BigDecimal tickSize)
+	{
+		superPrices = new DepthSuperPricesStream(tickSize);
+		book = new VersionedOrderBook(tickSize);
+	}
+
+	/**
+	 * Copy of the book to save, null while not synced
+	 */
+	public synchronized DepthCheckpoint checkpoint()
+	{
+		if (!synced)
+		{
+			return null;
+		}
+		return DepthCheckpoint.of(symbolPair, book.getSnapshot(), lastUpdateId);
+	}
+
+	/**
+	 * Tick size of the symbol, or the smallest price step of the snapshot if the symbol is not loaded
+	 */
+	private BigDecimal getTickSize(Depth depth)
+	{
+		Symbol symbol = SymbolInfoService.getSymbol(symbolPair);
+		if (symbol != null && symbol.getTickSize() != null)
+		{
+			return symbol.getTickSize();
+		}
+
+		int scale = 0;
+		for (List<List<BigDecimal>> side : List.of(depth.getAsks(), depth.getBids()))
+		{
+			for (List<BigDecimal> entry : side)
+			{
+				scale = Math.max(scale, entry.get(0).stripTrailingZeros().scale());
+			}
+		}
+		return BigDecimal.ONE.movePointLeft(scale);
+	}
+
 	// --------------------------------------------------------------------
 
+	/**
+	 * Restores the last checkpoint of the pair if it is recent and matches the symbol
+	 */
+	private boolean restoreCheckpoint()
+	{
+		try
+		{
+			DepthCheckpoint checkpoint = DepthCheckpoint.load(DepthCheckpoint.getDefaultFolder(), symbolPair);
+			if (checkpoint == null || checkpoint.getAge() > DepthCheckpoint.MAX_AGE_MILLIS)
+			{
+				return false;
+			}
+
+			Symbol symbol = SymbolInfoService.getSymbol(symbolPair);
+			if (symbol != null && symbol.getTickSize() != null && symbol.getTickSize().compareTo(checkpoint.getTickSize()) != 0)
+			{
+				return false;
+			}
+
+			restore(checkpoint);
+			CoreLog.info("DepthService - " + symbolPair + " restored from checkpoint " + checkpoint.getLastUpdateId() + ", " + checkpoint.getAge() + " ms old");
+			return true;
+		}
+		catch (Exception e)
+		{
+			CoreLog.error(e);
+			return false;
+		}
+	}
+
 	public static DepthService getInstance(String pair)
 	{
 		return getInstance(pair, DepthMode.both, TimeUnit.SECONDS.toMillis(10));
@@ -139,43 +640,57 @@ public class DepthService
 
 	public static DepthService getInstance(String symbolPair, DepthMode mode, long timeOut)
 	{
+		DepthService depthService = null;
 		try
 		{
-			if (DepthCache.containsKey(symbolPair))
+			DepthService cached = DepthCache.get(symbolPair);
+			if (cached != null)
 			{
-				return DepthCache.get(symbolPair);
+				return cached;
 			}
 
 			// --------------------------------------------------------------------
-			DepthService depthService = new DepthService();
+			depthService = new DepthService();
 			depthService.setSymbolPair(symbolPair);
 
 			// --------------------------------------------------------------------
 			if (mode == DepthMode.async_only)
 			{
-				depthService.mapAsks = new ConcurrentHashMap<BigDecimal, OrderBookEntry>();
-				depthService.mapBids = new ConcurrentHashMap<BigDecimal, OrderBookEntry>();
+				depthService.newBook(SymbolInfoService.getSymbol(symbolPair).getTickSize());
 			}
-			else
+			else if (mode != DepthMode.both_force)
 			{
 				// ---- GET SNAPSHOOT -----------------------------------------
-				Depth depth = UnsignedClient.getDepth(symbolPair.toUpperCase());
-				depthService.load(depth);
+				depthService.load(depthService.fetchDepth());
 			}
 
+			// ---- WARM START ----------------------------------------------------
+			boolean restored = (mode == DepthMode.both_force) && depthService.restoreCheckpoint();
+
 			// --------------------------------------------------------------------
 			if (mode != DepthMode.snapshot_only)
 			{
 				if (mode == DepthMode.both_force)
 				{
-
-					depthService.wsDepth = WsDepth.create(symbolPair, (event) -> {
-						depthService.onMessage(event);
+					// stream first (buffered), then the snapshot the events are aligned with
+					DepthService service = depthService;
+					depthService.depthStream = WsStreams.getInstance().subscribe(WsStreams.depth(symbolPair), DepthEvent.class, (event) -> {
+						MarketRecorder.onDepth(symbolPair, event);
+						service.onMessage(event);
 					});
-					depthService.wsDepth.connect();
 
 					depthService.connectTime = System.currentTimeMillis();
 
+					if (restored)
+					{
+						// reconciled with the snapshot in the background
+						depthService.requestSnapshot();
+					}
+					else
+					{
+						depthService.load(depthService.fetchDepth());
+					}
+
 					// --------------------------------------------------------------------
 
 					if (timeOut > 0)
@@ -192,6 +707,11 @@ public class DepthService
 		catch (Exception e)
 		{
 			CoreLog.error(e);
+			// the stream handler would keep buffering (and recording) for a service nobody holds
+			if (depthService != null)
+			{
+				depthService.close();
+			}
 			return null;
 		}
 	}
@@ -199,22 +719,19 @@ public class DepthService
 	public static void main(String[] args)
 	{
 		DepthService depthClient = getInstance("BTCUSDT");
+		BookSnapshot book = depthClient.getSnapshot();
 
-		int i = 0;
-		for (OrderBookEntry entry : depthClient.getMapAsks().values())
+		for (int i = 0; i < book.getAskLevels(); i++)
 		{
-			i++;
-			System.out.println(i + " - " + entry.getPrice() + "  :  " + entry.getQty());
+			System.out.println((i + 1) + " - " + book.getAskPrice(i) + "  :  " + book.getAskQty(i));
 		}
 
-		int j = 0;
-		for (OrderBookEntry entry : depthClient.getMapBids().values())
+		for (int j = 0; j < book.getBidLevels(); j++)
 		{
-			j++;
-			System.out.println(j + " - " + entry.getPrice() + "  :  " + entry.getQty());
+			System.out.println((j + 1) + " - " + book.getBidPrice(j) + "  :  " + book.getBidQty(j));
 		}
 
-		System.out.println(i + " - " + j);
+		System.out.println(book.getAskLevels() + " - " + book.getBidLevels());
 	}
 
 }
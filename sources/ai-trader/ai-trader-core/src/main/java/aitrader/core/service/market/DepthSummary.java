@@ -9,14 +9,18 @@ import technicals.indicators.depth.DephMergedPoints.MergeMode;
 import technicals.indicators.depth.DepthBlockPoints;
 import technicals.indicators.depth.DepthDelta;
 import technicals.indicators.depth.DepthMiddlePrice;
+import technicals.indicators.depth.DepthPoints;
+import technicals.indicators.depth.DepthPressure;
 import technicals.indicators.depth.DepthSuperPrices;
 import technicals.indicators.depth.DepthTrueRange;
 import technicals.indicators.depth.DepthWeightedPoints;
+import technicals.model.BookSnapshot;
 import technicals.model.OrderBook;
 
 public class DepthSummary
 {
 	private DepthService depthService;
+	private BookSnapshot snapshot;
 	private OrderBook orderBook;
 
 	private BigDecimal depthTrueRange = null;
@@ -26,12 +30,27 @@ public class DepthSummary
 	private DepthWeightedPoints depthWeightedPoints = null;
 	private DephMergedPoints dephMergedPoints = null;
 	private DepthSuperPrices depthSuperPrices = null;
+	private DepthPoints depthPoints = null;
+	private DepthPressure depthPressure = null;
 
 	public OrderBook getOrderBook()
 	{
 		return orderBook;
 	}
 
+	public BookSnapshot getSnapshot()
+	{
+		return snapshot;
+	}
+
+	/**
+	 * Version of the book the summary was calculated on, see DepthService.hasChanged
+	 */
+	public long getVersion()
+	{
+		return snapshot.getVersion();
+	}
+
 	public BigDecimal getDepthTrueRange()
 	{
 		return depthTrueRange;
@@ -67,6 +86,19 @@ public class DepthSummary
 		return depthSuperPrices;
 	}
 
+	public DepthPoints getDepthPoints()
+	{
+		return depthPoints;
+	}
+
+	/**
+	 * Microprice, queue imbalance and book pressure, null until calcDepthPressure (or if the book is empty)
+	 */
+	public DepthPressure getDepthPressure()
+	{
+		return depthPressure;
+	}
+
 	public static DepthSummary getInstance(Symbol symbol, DepthMode mode, long timeOut) throws Exception
 	{
 		DepthSummary depthSummary = new DepthSummary();
@@ -74,12 +106,29 @@ public class DepthSummary
 		DepthService depthService = DepthService.getInstance(symbol.getPair(), mode, timeOut);
 		depthSummary.depthService = depthService;
 
-		OrderBook orderBook = depthService.toOrderBook();
-		depthSummary.orderBook = orderBook;
+		BookSnapshot snapshot = depthService.getSnapshot();
+		depthSummary.snapshot = snapshot;
+		depthSummary.orderBook = snapshot.toOrderBook(symbol.getPricePrecision());
 
 		return depthSummary;
 	}
 
+	/**
+	 * Book consistent with the exchange (snapshot, or snapshot plus the diffs without gaps)
+	 */
+	public boolean isSynced()
+	{
+		return depthService.isSynced();
+	}
+
+	/**
+	 * Synced, or restored from a checkpoint and following the diffs (stale) while the snapshot is loaded
+	 */
+	public boolean isUsable()
+	{
+		return depthService.isSynced() || depthService.isRestored();
+	}
+
 	public boolean verifyConnectTime(long minAge)
 	{
 		return (depthService.getConnectTime() == null) || (depthService.getConnectTime() + minAge < System.currentTimeMillis());
@@ -128,6 +177,24 @@ public class DepthSummary
 		return this;
 	}
 
+	/**
+	 * Block, weighted and merged points in a single pass over the snapshot (same values as the three calc methods)
+	 */
+	public DepthSummary calcDepthPoints(int blocks, double distance1, double distance2, double distance3, MergeMode mergeMode)
+	{
+		depthPoints = new DepthPoints().calculate(snapshot, orderBook.getPricePrecision(), blocks, distance1, distance2, distance3, mergeMode);
+		return this;
+	}
+
+	/**
+	 * Last top of book metrics of the depth, kept up to date on every event (nothing to calculate)
+	 */
+	public DepthSummary calcDepthPressure()
+	{
+		depthPressure = depthService.getPressure();
+		return this;
+	}
+
 	public DepthSummary calcDepthSuperPrices(int maxSize)
 	{
 		depthSuperPrices = new DepthSuperPrices(orderBook)
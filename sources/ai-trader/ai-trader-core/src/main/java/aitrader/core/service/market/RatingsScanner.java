@@ -0,0 +1,124 @@
+package aitrader.core.service.market;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import aitrader.core.config.CoreLog;
+import aitrader.core.model.RatingsScan;
+import aitrader.core.model.Symbol;
+import aitrader.core.model.SymbolInfo;
+import aitrader.core.model.SymbolRatings;
+import aitrader.core.service.symbol.SymbolInfoService;
+import aitrader.core.util.CandleUtils;
+import aitrader.util.http.HttpTransport;
+import aitrader.util.http.RateLimiter.Priority;
+import binance.futures.enums.IntervalType;
+import binance.futures.impl.UnsignedClient;
+import binance.futures.model.Candle;
+import technicals.indicators.complex.RatingsWorkspace;
+import technicals.indicators.complex.TechnicalRatings;
+import technicals.model.TechCandle;
+
+/**
+ * Technical ratings of the whole symbol universe on several intervals.
+ *
+ * Symbols are rated in parallel on a ForkJoin pool, the klines requests share a
+ * bounded budget of concurrent REST calls (for all the scans running at once) and are sent
+ * as BACKFILL, after the depth snapshots and the other market data.
+ */
+public class RatingsScanner
+{
+	public static final IntervalType[] DEFAULT_INTERVALS = { IntervalType._5m, IntervalType._1h, IntervalType._1d };
+
+	private static final int CANDLES = 240;
+	private static final int MAX_REQUESTS = 10;
+
+	private static final Semaphore restBudget = new Semaphore(MAX_REQUESTS, true);
+
+	// candle count is fixed, so each worker reuses its series columns and streams
+	private static final ThreadLocal<RatingsWorkspace> workspace = ThreadLocal.withInitial(() -> new RatingsWorkspace(CANDLES));
+
+	public static RatingsScan scan() throws Exception
+	{
+		return scan(SymbolInfoService.getLstSymbolsInfo(false, false, false), DEFAULT_INTERVALS);
+	}
+
+	public static RatingsScan scan(List<SymbolInfo> lstSymbols, IntervalType... intervals) throws Exception
+	{
+		CoreLog.info("RatingsScanner - Begin scan: " + lstSymbols.size() + " symbols");
+
+		long t1 = System.nanoTime();
+
+		// the workers mostly wait on the REST budget, the pool is sized to it
+		ForkJoinPool pool = new ForkJoinPool(MAX_REQUESTS);
+		List<SymbolRatings> rows;
+		try
+		{
+			rows = pool.submit(() -> lstSymbols.parallelStream()
+					.map(entry -> rate(entry.getSymbol(), intervals))
+					.collect(Collectors.toList())).get();
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+
+		long wallClockMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t1);
+		RatingsScan result = new RatingsScan(intervals, rows, wallClockMillis);
+
+		CoreLog.info(String.format("RatingsScanner - End scan: %d symbols, %d errors, wall clock %d ms, per symbol avg %d ms / max %d ms",
+				rows.size(), result.getErrors(), wallClockMillis, result.getAvgMillis(), result.getMaxMillis()));
+
+		return result;
+	}
+
+	/**
+	 * Ratings of one symbol, errors are reported in the row
+	 */
+	public static SymbolRatings rate(Symbol symbol, IntervalType... intervals)
+	{
+		SymbolRatings row = new SymbolRatings(symbol, intervals);
+
+		try
+		{
+			for (int i = 0; i < intervals.length; i++)
+			{
+				long t1 = System.nanoTime();
+				List<Candle> lstCandles = getKlines(symbol, intervals[i]);
+				TechCandle[] candles = CandleUtils.toCandleArray(lstCandles);
+
+				long t2 = System.nanoTime();
+				TechnicalRatings ratings = new TechnicalRatings(symbol.getPricePrecision());
+				ratings.calculate(candles, workspace.get());
+				row.setRatings(i, ratings.getMaRatingStatus(), ratings.getOscRatingStatus(), ratings.getTrend());
+
+				long t3 = System.nanoTime();
+				row.addTiming(TimeUnit.NANOSECONDS.toMillis(t2 - t1), TimeUnit.NANOSECONDS.toMillis(t3 - t2));
+			}
+		}
+		catch (Exception e)
+		{
+			row.setError(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+			CoreLog.warn("RatingsScanner - " + symbol.getPair() + ": " + row.getError());
+		}
+
+		return row;
+	}
+
+	private static List<Candle> getKlines(Symbol symbol, IntervalType intervalType) throws Exception
+	{
+		restBudget.acquire();
+		try
+		{
+			return HttpTransport.await(UnsignedClient.getKlinesAsync(symbol.getPair(), intervalType, CANDLES, Priority.BACKFILL));
+		}
+		finally
+		{
+			restBudget.release();
+		}
+	}
+
+}
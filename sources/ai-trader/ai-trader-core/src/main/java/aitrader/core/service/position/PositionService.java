@@ -139,19 +139,20 @@ public final class PositionService
 			}
 			mapPositions = toPositions(lstPositionRisk);
 
-			// --------------------------------------------------------------------
+			// open orders (weight) only when there are positions
+			if (!mapPositions.isEmpty())
+			{
+				List<Order> lstOpenOrders = signedClient.getOpenOrders();
 
-			List<Order> lstOpenOrders = signedClient.getOpenOrders();
+				Comparator<Order> orderComparator = Comparator
+														.comparing(Order::getSymbol)
+														.thenComparing(Order::getUpdateTime);
+				Collections.sort(lstOpenOrders, orderComparator);
 
-			Comparator<Order> orderComparator = Comparator
-													.comparing(Order::getSymbol)
-													.thenComparing(Order::getUpdateTime);
-			Collections.sort(lstOpenOrders, orderComparator);
-			
-			// --------------------------------------------------------------------
+				// --------------------------------------------------------------------
 
-			addPositionOrders(lstOpenOrders);
-			
+				addPositionOrders(lstOpenOrders);
+			}
 		}
 		catch (Exception e)
 		{
@@ -2,6 +2,9 @@ package aitrader.core.service.signals;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -13,11 +16,13 @@ import aitrader.core.model.Signal;
 import aitrader.core.model.Symbol;
 import aitrader.core.model.SymbolInfo;
 import aitrader.core.model.enums.DepthMode;
+import aitrader.core.service.market.DepthCache;
 import aitrader.core.service.market.DepthSummary;
 import aitrader.core.service.symbol.SymbolInfoService;
 import aitrader.util.price.PriceUtil;
 import binance.futures.enums.OrderSide;
-import technicals.indicators.depth.DephMergedPoints;
+import technicals.indicators.depth.DepthPoints;
+import technicals.indicators.depth.DepthPressure;
 
 public final class SignalGenerator
 {
@@ -48,10 +53,34 @@ public final class SignalGenerator
 	}
 
 	public static void generate()
+	{
+		generate(null, Clock.systemUTC());
+	}
+
+	/**
+	 * Screens only 'pairs' (null = the whole favourite / better universe, with the live books
+	 * prewarmed), and dates and purges the signals with 'clock' (the recorded time of a replay)
+	 */
+	public static void generate(Collection<String> pairs, Clock clock)
 	{
 		try
 		{
 			List<SymbolInfo> lstSymbolsInfo = SymbolInfoService.getLstSymbolsInfo(CoreConfig.getFavoriteSymbols(), CoreConfig.getBetterSymbols(), false);
+			if (pairs != null)
+			{
+				lstSymbolsInfo.removeIf(entry -> !pairs.contains(entry.getSymbol().getPair()));
+			}
+
+			// Live books for the screened symbols (the first ones, up to the cache budget)
+			if (pairs == null && DepthCache.isStarted())
+			{
+				List<String> lstPairs = new ArrayList<String>();
+				for (SymbolInfo symbolInfo : lstSymbolsInfo)
+				{
+					lstPairs.add(symbolInfo.getSymbol().getPair());
+				}
+				DepthCache.prewarm(lstPairs);
+			}
 
 			// Search signals
 			for (SymbolInfo symbolInfo : lstSymbolsInfo)
@@ -61,12 +90,13 @@ public final class SignalGenerator
 					continue;
 				}
 
-				generateOrderBookSignals(symbolInfo);
+				generateOrderBookSignals(symbolInfo, clock);
 			}
 
 			// Purge signals
-			mapShortSignals.values().removeIf(entry -> entry.getCreatedAt() + TIME_TO_LIVE < System.currentTimeMillis());
-			mapLongSignals.values().removeIf(entry -> entry.getCreatedAt() + TIME_TO_LIVE < System.currentTimeMillis());
+			long now = clock.millis();
+			mapShortSignals.values().removeIf(entry -> entry.getCreatedAt() + TIME_TO_LIVE < now);
+			mapLongSignals.values().removeIf(entry -> entry.getCreatedAt() + TIME_TO_LIVE < now);
 
 		}
 		catch (Exception e)
@@ -75,24 +105,31 @@ public final class SignalGenerator
 		}
 	}
 
- 	private static void generateOrderBookSignals(SymbolInfo symbolInfo) throws Exception
+ 	private static void generateOrderBookSignals(SymbolInfo symbolInfo, Clock clock) throws Exception
 	{
 		Symbol symbol = symbolInfo.getSymbol();
 
 		DepthSummary depthSummary = DepthSummary
 				.getInstance(symbol, DepthMode.both, TimeUnit.SECONDS.toMillis(60))
-				.calcDepthBlockPoints(CoreConfig.getBlocksToAnalizeBB())
-				.calcDepthWeightedPoints(CoreConfig.getDist1ToAnalizeWA(), CoreConfig.getDist2ToAnalizeWA(), CoreConfig.getDist3ToAnalizeWA())
-				.calcDephMergedPoints(CoreConfig.getMergeMode());
+				.calcDepthPoints(CoreConfig.getBlocksToAnalizeBB(),
+								 CoreConfig.getDist1ToAnalizeWA(), CoreConfig.getDist2ToAnalizeWA(), CoreConfig.getDist3ToAnalizeWA(),
+								 CoreConfig.getMergeMode())
+				.calcDepthPressure();
 
-		DephMergedPoints dephMergedPoints = depthSummary.getDephMergedPoints();
+		DepthPoints dephMergedPoints = depthSummary.getDepthPoints();
 		
- 		if (!depthSummary.verifyConnectTime(TimeUnit.SECONDS.toMillis(180)))
+ 		if (!depthSummary.isUsable())
  		{
 			CoreLog.info("SKIP " + symbolInfo.getSymbol().getPair() + " - WAITING FOR MORE DATA");
 			return;
  		}
 
+		if (dephMergedPoints.getR1() == null || dephMergedPoints.getS1() == null || dephMergedPoints.getR2() == null || dephMergedPoints.getS2() == null)
+		{
+			CoreLog.info("SKIP " + symbolInfo.getSymbol().getPair() + " - NOT ENOUGH DEPTH");
+			return;
+		}
+
 		// Short
 		BigDecimal shortPrice = dephMergedPoints.getR1().setScale(symbol.getPricePrecision(), RoundingMode.HALF_UP);
 		BigDecimal shortSLoss = symbol.addTicksRound(dephMergedPoints.getR2(), 50);
@@ -103,11 +140,16 @@ public final class SignalGenerator
 		BigDecimal longSLoss = symbol.subTicksRound(dephMergedPoints.getS2(), 50);
 		BigDecimal longTProfit = symbol.subTicksRound(dephMergedPoints.getR1(), 50);
 
-		if (isValidForShort(symbolInfo, shortPrice, shortSLoss, shortTProfit))
-			addShort(symbolInfo, shortPrice, shortSLoss, shortTProfit);
+		// Short term filter: no short against a book pushing up, no long against a book pushing down
+		DepthPressure pressure = depthSummary.getDepthPressure();
+		Double maxPressure = CoreConfig.getMaxBookPressure();
+		boolean filter = (pressure != null && maxPressure != null && maxPressure > 0);
 
-		if (isValidForLong(symbolInfo, longPrice, longSLoss, longTProfit))
-			addLong(symbolInfo, longPrice, longSLoss, longTProfit);		
+		if (isValidForShort(symbolInfo, shortPrice, shortSLoss, shortTProfit) && !(filter && pressure.getPressureEma() > maxPressure))
+			addShort(symbolInfo, shortPrice, shortSLoss, shortTProfit, clock.millis());
+
+		if (isValidForLong(symbolInfo, longPrice, longSLoss, longTProfit) && !(filter && pressure.getPressureEma() < -maxPressure))
+			addLong(symbolInfo, longPrice, longSLoss, longTProfit, clock.millis());		
 	}
 
 	private static boolean isValidForShort(SymbolInfo symbolInfo, BigDecimal shortPrice, BigDecimal shortSLoss, BigDecimal shortTProfit)
@@ -133,28 +175,42 @@ public final class SignalGenerator
 	}
 
 	public static void addShort(SymbolInfo symbolInfo, BigDecimal shortPrice, BigDecimal shortSLoss, BigDecimal shortTProfit)
+	{
+		addShort(symbolInfo, shortPrice, shortSLoss, shortTProfit, System.currentTimeMillis());
+	}
+
+	private static void addShort(SymbolInfo symbolInfo, BigDecimal shortPrice, BigDecimal shortSLoss, BigDecimal shortTProfit, long createdAt)
 	{
 		String pair = symbolInfo.getSymbol().getPair();
 		Signal signal = new Signal(pair, OrderSide.SELL.name(), shortPrice, shortSLoss, shortTProfit);
+		signal.setCreatedAt(createdAt);
 
 		if (mapShortSignals.containsKey(pair))
 			mapShortSignals.replace(pair, signal);
 		else
 			mapShortSignals.put(pair, signal);
 		
+		DepthCache.onSignal(pair);
 		CoreLog.info("NEW SHORT SIGNAL - " + pair + " AT " + shortPrice);
 	}
 
 	public static void addLong(SymbolInfo symbolInfo, BigDecimal longPrice, BigDecimal longSLoss, BigDecimal longTProfit)
+	{
+		addLong(symbolInfo, longPrice, longSLoss, longTProfit, System.currentTimeMillis());
+	}
+
+	private static void addLong(SymbolInfo symbolInfo, BigDecimal longPrice, BigDecimal longSLoss, BigDecimal longTProfit, long createdAt)
 	{
 		String pair = symbolInfo.getSymbol().getPair();
 		Signal signal = new Signal(pair, OrderSide.BUY.name(), longPrice, longSLoss, longTProfit);
+		signal.setCreatedAt(createdAt);
 
 		if (mapLongSignals.containsKey(pair))
 			mapLongSignals.replace(pair, signal);
 		else
 			mapLongSignals.put(pair, signal);
 		
+		DepthCache.onSignal(pair);
 		CoreLog.info("NEW LONG SIGNAL - " + pair + " AT " + longPrice);
 	}
 
@@ -14,6 +14,7 @@ import org.apache.commons.lang3.StringUtils;
 
 import aitrader.core.config.CoreLog;
 import aitrader.core.model.Symbol;
+import binance.futures.config.ApiLimits;
 import binance.futures.impl.UnsignedClient;
 import binance.futures.model.ExchangeInfo;
 import binance.futures.model.ExchangeInfoEntry;
@@ -36,6 +37,8 @@ public class ExchangeInfoService
 
 			timestamp = System.currentTimeMillis();
 
+			ApiLimits.apply(exchangeInfo.getRateLimits());
+
 			for (ExchangeInfoEntry entry : lstExchangeInfoEntries)
 			{
 				// if (entry.getQuoteAsset().equalsIgnoreCase(Config.DEFAULT_SYMBOL_RIGHT) && "TRADING".equalsIgnoreCase(entry.getStatus()))
@@ -9,14 +9,15 @@ import aitrader.core.config.CoreConfig;
 import aitrader.core.config.CoreLog;
 import aitrader.core.model.Symbol;
 import aitrader.core.model.SymbolInfo;
+import aitrader.core.service.journal.MarketRecorder;
 import binance.futures.impl.UnsignedClient;
-import binance.futures.impl.async.WsMarketTickers;
+import binance.futures.impl.async.WsStreams;
 import binance.futures.model.SymbolTicker;
 import binance.futures.model.event.SymbolTickerEvent;
 
 public class SymbolTickerService
 {
-	private static WsMarketTickers wsSymbolTicker;
+	private static WsStreams.Subscription tickersStream;
 
 	// --------------------------------------------------------------------
 
@@ -59,10 +60,10 @@ public class SymbolTickerService
 
 			// --------------------------------------------------------------------
 
-			wsSymbolTicker = WsMarketTickers.create((event) -> {
+			tickersStream = WsStreams.getInstance().subscribe(WsStreams.TICKERS, SymbolTickerEvent[].class, (event) -> {
+				MarketRecorder.onTickers(event);
 				onMessage(event);
 			});
-			wsSymbolTicker.connect();
 
 			return true;
 		}
@@ -75,7 +76,11 @@ public class SymbolTickerService
 
 	public static void close()
 	{
-		wsSymbolTicker.close();
+		if (tickersStream != null)
+		{
+			tickersStream.close();
+			tickersStream = null;
+		}
 
 		SymbolInfoService.clean();
 
@@ -2,13 +2,17 @@ package aitrader.core.service.symbol;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import aitrader.core.config.CoreLog;
 import aitrader.core.model.SymbolInfo;
+import aitrader.util.http.HttpTransport;
+import aitrader.util.http.RateLimiter.Priority;
 import binance.futures.enums.IntervalType;
 import binance.futures.impl.UnsignedClient;
 import binance.futures.model.Candle;
@@ -17,7 +21,8 @@ public class TechnicalService
 {
 	private static final long TIMER_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(2);
 	private static final long TIMER_PERIOD_MILLIS = TimeUnit.HOURS.toMillis(12);
-	private static final long ITEM_DELAY = 200;
+	// Klines requests in flight together, paced by the rate limiter as backfill
+	private static final int BATCH_SIZE = 10;
 
 	// private static IntervalType intervalType = IntervalType._1d;
 	// private static int periods = 14;
@@ -52,7 +57,7 @@ public class TechnicalService
 			isExecuting = true;
 
 			List<SymbolInfo> lstSymbols = SymbolInfoService.getLstSymbolsInfo(false, false, false);
-			for (SymbolInfo entry : lstSymbols)
+			for (int i = 0; i < lstSymbols.size(); i += BATCH_SIZE)
 			{
 				if (isCancelRequested)
 				{
@@ -60,34 +65,27 @@ public class TechnicalService
 					CoreLog.info("TechnicalService - Canceled");
 					return;
 				}
-				
-				List<Candle> lstCandles = UnsignedClient.getKlines(entry.getSymbol().getPair(), intervalType, periods);
 
-				if (lstCandles != null && !lstCandles.isEmpty())
+				// The klines of the batch are requested together and awaited in order
+				List<SymbolInfo> lstBatch = lstSymbols.subList(i, Math.min(i + BATCH_SIZE, lstSymbols.size()));
+				List<CompletableFuture<List<Candle>>> lstFutures = new ArrayList<CompletableFuture<List<Candle>>>();
+				for (SymbolInfo entry : lstBatch)
 				{
-					BigDecimal open = lstCandles.get(0).getOpenPrice();
-					BigDecimal high = lstCandles.get(0).getHighPrice();
-					BigDecimal low = lstCandles.get(0).getLowPrice();
+					lstFutures.add(UnsignedClient.getKlinesAsync(entry.getSymbol().getPair(), intervalType, periods, Priority.BACKFILL));
+				}
 
-					for (Candle candle : lstCandles)
+				try
+				{
+					for (int j = 0; j < lstBatch.size(); j++)
 					{
-						if (candle.getHighPrice().doubleValue() > high.doubleValue())
-						{
-							high = candle.getHighPrice();
-						}
-						if (candle.getLowPrice().doubleValue() < low.doubleValue())
-						{
-							low = candle.getLowPrice();
-						}
+						List<Candle> lstCandles = HttpTransport.await(lstFutures.get(j));
+						updateSymbolInfo(lstBatch.get(j), lstCandles);
 					}
-					
-					SymbolInfo symbolInfo = SymbolInfoService.getSymbolInfo(entry.getSymbol().getPair());
-					symbolInfo.setOpen14d(open);
-					symbolInfo.setHigh14d(high);
-					symbolInfo.setLow14d(low);
 				}
-
-				Thread.sleep(ITEM_DELAY);
+				finally
+				{
+					lstFutures.forEach(f -> f.cancel(true));
+				}
 			}
 
 			lastExecuted = LocalDateTime.now();
@@ -104,6 +102,33 @@ public class TechnicalService
 		}
 	}
 
+	private static void updateSymbolInfo(SymbolInfo entry, List<Candle> lstCandles)
+	{
+		if (lstCandles != null && !lstCandles.isEmpty())
+		{
+			BigDecimal open = lstCandles.get(0).getOpenPrice();
+			BigDecimal high = lstCandles.get(0).getHighPrice();
+			BigDecimal low = lstCandles.get(0).getLowPrice();
+
+			for (Candle candle : lstCandles)
+			{
+				if (candle.getHighPrice().doubleValue() > high.doubleValue())
+				{
+					high = candle.getHighPrice();
+				}
+				if (candle.getLowPrice().doubleValue() < low.doubleValue())
+				{
+					low = candle.getLowPrice();
+				}
+			}
+
+			SymbolInfo symbolInfo = SymbolInfoService.getSymbolInfo(entry.getSymbol().getPair());
+			symbolInfo.setOpen14d(open);
+			symbolInfo.setHigh14d(high);
+			symbolInfo.setLow14d(low);
+		}
+	}
+
 	public static void start()
 	{
 		if (isStarted)
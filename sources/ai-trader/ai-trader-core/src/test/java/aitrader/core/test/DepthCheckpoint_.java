@@ -0,0 +1,175 @@
+package aitrader.core.test;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import aitrader.core.service.market.DepthCheckpoint;
+import aitrader.core.service.market.DepthService;
+import binance.futures.model.Depth;
+import binance.futures.model.event.DepthEvent;
+import technicals.model.BookSnapshot;
+
+/**
+ * Offline checkpoint of a synced book: save / load round trip, a restart that restores it and
+ * follows newer diffs (stale, usable) until the snapshot reconciles it, and a restore dropped
+ * on a gap between two followed diffs.
+ */
+public class DepthCheckpoint_
+{
+	private static final String PAIR = "BTCUSDT";
+	private static final long START_TIME = 1_700_000_000_000L;
+
+	private static final long SNAPSHOT_ID = 100;
+	private static final long SAVED_ID = 120;
+	private static final long RESTART_ID = 150;
+
+	public static void main(String[] args) throws Exception
+	{
+		Path folder = Files.createTempDirectory("depth");
+		try
+		{
+			// ---- LIVE BOOK -------------------------------------------------
+			DepthService live = service();
+			live.load(snapshot(SNAPSHOT_ID));
+			for (long id = SNAPSHOT_ID + 1; id <= SAVED_ID; id++)
+			{
+				live.onMessage(event(id));
+			}
+
+			// ---- ROUND TRIP ------------------------------------------------
+			DepthCheckpoint saved = live.checkpoint();
+			saved.save(folder);
+			DepthCheckpoint loaded = DepthCheckpoint.load(folder, PAIR);
+
+			boolean roundTrip = live.isSynced() && loaded != null
+					&& loaded.getSymbolPair().equals(PAIR) && loaded.getSavedTime() == saved.getSavedTime()
+					&& loaded.getLastUpdateId() == SAVED_ID && loaded.getBookVersion() == saved.getBookVersion()
+					&& loaded.getTickSize().compareTo(saved.getTickSize()) == 0
+					&& sameLevels(saved, loaded);
+
+			// ---- RESTORE ---------------------------------------------------
+			DepthService restored = service();
+			restored.restore(loaded);
+			boolean waiting = !restored.isSynced() && !restored.isRestored() && restored.getRestoredTime() != null;
+
+			// older than the checkpoint, ignored
+			restored.onMessage(event(SAVED_ID - 5));
+			boolean ignored = restored.getSnapshot().getAskQty(0) == SAVED_ID;
+
+			// after the restart: the first diff does not continue the checkpoint
+			for (long id = RESTART_ID; id <= RESTART_ID + 10; id++)
+			{
+				restored.onMessage(event(id));
+			}
+			BookSnapshot stale = restored.getSnapshot();
+			boolean following = restored.isRestored() && !restored.isSynced()
+					&& stale.getAskQty(0) == RESTART_ID + 10 && stale.getBidQty(0) == RESTART_ID + 10;
+
+			// the snapshot reconciles it with the buffered diffs
+			restored.load(snapshot(RESTART_ID + 5));
+			BookSnapshot synced = restored.getSnapshot();
+			boolean reconciled = restored.isSynced() && !restored.isRestored() && restored.getRestoredTime() == null
+					&& restored.getLastUpdateId() == RESTART_ID + 10 && synced.getAskQty(0) == RESTART_ID + 10;
+
+			// ---- DROP ------------------------------------------------------
+			DepthService dropped = service();
+			dropped.restore(loaded);
+			for (long id = RESTART_ID; id <= RESTART_ID + 2; id++)
+			{
+				dropped.onMessage(event(id));
+			}
+			boolean before = dropped.isRestored();
+			dropped.onMessage(event(RESTART_ID + 4));
+			boolean drop = before && !dropped.isRestored() && !dropped.isSynced() && dropped.getRestoredTime() == null;
+
+			System.out.println(loaded.getAskLevels() + " + " + loaded.getBidLevels() + " levels at " + loaded.getLastUpdateId() + ", round trip " + (roundTrip ? "OK" : "FAILED"));
+			System.out.println("restored, older diff ignored " + (waiting && ignored ? "OK" : "FAILED") + ", following stale " + (following ? "OK" : "FAILED")
+					+ ", reconciled at " + restored.getLastUpdateId() + " " + (reconciled ? "OK" : "FAILED"));
+			System.out.println("gap while following, restore dropped " + (drop ? "OK" : "FAILED"));
+
+			boolean ok = roundTrip && waiting && ignored && following && reconciled && drop;
+			System.out.println(ok ? "OK" : "FAILED");
+			if (!ok)
+			{
+				System.exit(1);
+			}
+		}
+		finally
+		{
+			try (Stream<Path> stream = Files.walk(folder))
+			{
+				stream.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+			}
+		}
+	}
+
+	private static DepthService service()
+	{
+		DepthService depthService = new DepthService();
+		depthService.setSymbolPair(PAIR);
+		return depthService;
+	}
+
+	private static boolean sameLevels(DepthCheckpoint expected, DepthCheckpoint actual)
+	{
+		if (expected.getAskLevels() != actual.getAskLevels() || expected.getBidLevels() != actual.getBidLevels())
+		{
+			return false;
+		}
+		for (int i = 0; i < expected.getAskLevels(); i++)
+		{
+			if (expected.getAskTicks(i) != actual.getAskTicks(i) || expected.getAskQty(i) != actual.getAskQty(i))
+			{
+				return false;
+			}
+		}
+		for (int i = 0; i < expected.getBidLevels(); i++)
+		{
+			if (expected.getBidTicks(i) != actual.getBidTicks(i) || expected.getBidQty(i) != actual.getBidQty(i))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// ---- FIXTURE -----------------------------------------------------------
+
+	/**
+	 * Book after the event 'id': the best levels hold 'id', the second ones are fixed
+	 */
+	private static Depth snapshot(long id)
+	{
+		Depth depth = new Depth();
+		depth.setLastUpdateId(id);
+		depth.setAsks(Arrays.asList(level("100.1", id), level("100.2", 2)));
+		depth.setBids(Arrays.asList(level("99.9", id), level("99.8", 2)));
+		return depth;
+	}
+
+	private static DepthEvent event(long id)
+	{
+		DepthEvent event = new DepthEvent();
+		event.setEventType("depthUpdate");
+		event.setSymbol(PAIR);
+		event.setEventTime(START_TIME + id);
+		event.setTransactionTime(START_TIME + id);
+		event.setFirstUpdateId(id - 1);
+		event.setLastUpdateId(id);
+		event.setLastUpdateIdInlastStream(id - 1);
+		event.setAsks(Arrays.asList(level("100.1", id)));
+		event.setBids(Arrays.asList(level("99.9", id)));
+		return event;
+	}
+
+	private static List<BigDecimal> level(String price, long qty)
+	{
+		return Arrays.asList(new BigDecimal(price), BigDecimal.valueOf(qty));
+	}
+
+}
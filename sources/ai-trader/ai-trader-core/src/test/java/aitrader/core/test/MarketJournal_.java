@@ -0,0 +1,185 @@
+package aitrader.core.test;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import aitrader.core.service.journal.JournalReader;
+import aitrader.core.service.journal.JournalWriter;
+import aitrader.core.service.journal.MarketReplay;
+import aitrader.core.service.market.DepthService;
+import binance.futures.model.Depth;
+import binance.futures.model.event.DepthEvent;
+import technicals.model.BookSnapshot;
+
+/**
+ * Offline journal of one pair on small segments: a snapshot, the diffs with a missing one
+ * (gap) and a second snapshot. Checks the JournalWriter / JournalReader round trip over
+ * several segments, a read from the middle of a segment (index seek), and that MarketReplay
+ * rebuilds the book through the resync.
+ */
+public class MarketJournal_
+{
+	private static final String PAIR = "BTCUSDT";
+	private static final int SEGMENT_SIZE = 8 * 1024;
+	private static final long START_TIME = 1_700_000_000_000L;
+	private static final long STEP_MILLIS = 100;
+
+	private static final long FIRST_ID = 100;
+	private static final long MISSING_ID = 200;
+	private static final long RESYNC_ID = 205;
+	private static final long LAST_ID = 500;
+
+	public static void main(String[] args) throws Exception
+	{
+		Path folder = Files.createTempDirectory("journal");
+		try
+		{
+			// ---- WRITE -----------------------------------------------------
+			List<Long> lstWritten = new ArrayList<Long>();
+			List<Long> lstTimes = new ArrayList<Long>();
+			long time = START_TIME;
+
+			try (JournalWriter writer = new JournalWriter(folder, SEGMENT_SIZE))
+			{
+				writer.writeSnapshot(PAIR, snapshot(FIRST_ID), time);
+				lstWritten.add(-FIRST_ID);
+				lstTimes.add(time);
+
+				for (long id = FIRST_ID + 1; id <= LAST_ID; id++)
+				{
+					time += STEP_MILLIS;
+					if (id == MISSING_ID)
+					{
+						continue;
+					}
+					writer.writeDepth(PAIR, event(id), time);
+					lstWritten.add(id);
+					lstTimes.add(time);
+
+					// the live service reloads the book after the gap
+					if (id == RESYNC_ID)
+					{
+						writer.writeSnapshot(PAIR, snapshot(RESYNC_ID), time);
+						lstWritten.add(-RESYNC_ID);
+						lstTimes.add(time);
+					}
+				}
+			}
+
+			// ---- ROUND TRIP ------------------------------------------------
+			JournalReader reader = new JournalReader(folder);
+			int segments = reader.getSegments().size();
+
+			List<Long> lstRead = read(reader, Long.MIN_VALUE);
+			boolean roundTrip = segments >= 3 && lstRead.equals(lstWritten);
+
+			// ---- INDEX SEEK ------------------------------------------------
+			int middle = lstTimes.size() * 2 / 3;
+			long fromTime = lstTimes.get(middle) + STEP_MILLIS / 2;
+			int first = middle + 1;
+			while (lstTimes.get(first) < fromTime)
+			{
+				first++;
+			}
+
+			List<Long> lstSeek = read(reader, fromTime);
+			boolean seek = lstSeek.equals(lstWritten.subList(first, lstWritten.size()));
+
+			// ---- REPLAY ----------------------------------------------------
+			MarketReplay replay = new MarketReplay(folder).setTickers(false);
+			long replayed = replay.run();
+			DepthService depthService = replay.getDepthService(PAIR);
+			BookSnapshot snapshot = depthService.getSnapshot();
+
+			boolean rebuilt = replayed == lstWritten.size() && depthService.isSynced()
+					&& depthService.getGaps() == 1 && depthService.getResyncs() == 1
+					&& depthService.getLastUpdateId() == LAST_ID
+					&& snapshot.getBestAsk() == 100.1 && snapshot.getAskQty(0) == LAST_ID
+					&& snapshot.getBestBid() == 99.9 && snapshot.getBidQty(0) == LAST_ID
+					&& snapshot.getAskLevels() == 2 && snapshot.getBidLevels() == 2;
+			replay.close();
+
+			System.out.println(segments + " segments, " + lstRead.size() + " records read, round trip " + (roundTrip ? "OK" : "FAILED"));
+			System.out.println(lstSeek.size() + " records from " + (fromTime - START_TIME) + " ms, index seek " + (seek ? "OK" : "FAILED"));
+			System.out.println(replayed + " records replayed, book at " + depthService.getLastUpdateId() + " (" + depthService.getResyncs()
+					+ " resync), rebuilt " + (rebuilt ? "OK" : "FAILED"));
+
+			boolean ok = roundTrip && seek && rebuilt;
+			System.out.println(ok ? "OK" : "FAILED");
+			if (!ok)
+			{
+				System.exit(1);
+			}
+		}
+		finally
+		{
+			try (Stream<Path> stream = Files.walk(folder))
+			{
+				stream.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+			}
+		}
+	}
+
+	/**
+	 * Update ids of the records from 'fromTime', negative for the snapshots
+	 */
+	private static List<Long> read(JournalReader reader, long fromTime) throws Exception
+	{
+		List<Long> lst = new ArrayList<Long>();
+		reader.read(fromTime, Long.MAX_VALUE, new JournalReader.Listener() {
+			@Override
+			public void onDepth(String pair, DepthEvent event, long time)
+			{
+				lst.add(event.getLastUpdateId());
+			}
+
+			@Override
+			public void onSnapshot(String pair, Depth depth, long time)
+			{
+				lst.add(-depth.getLastUpdateId());
+			}
+		});
+		return lst;
+	}
+
+	// ---- FIXTURE -----------------------------------------------------------
+
+	/**
+	 * Book after the event 'id': the best levels hold 'id', the second ones are fixed
+	 */
+	private static Depth snapshot(long id)
+	{
+		Depth depth = new Depth();
+		depth.setLastUpdateId(id);
+		depth.setAsks(Arrays.asList(level("100.1", id), level("100.2", 2)));
+		depth.setBids(Arrays.asList(level("99.9", id), level("99.8", 2)));
+		return depth;
+	}
+
+	private static DepthEvent event(long id)
+	{
+		DepthEvent event = new DepthEvent();
+		event.setEventType("depthUpdate");
+		event.setSymbol(PAIR);
+		event.setEventTime(START_TIME + id);
+		event.setTransactionTime(START_TIME + id);
+		event.setFirstUpdateId(id - 1);
+		event.setLastUpdateId(id);
+		event.setLastUpdateIdInlastStream(id - 1);
+		event.setAsks(Arrays.asList(level("100.1", id)));
+		event.setBids(Arrays.asList(level("99.9", id)));
+		return event;
+	}
+
+	private static List<BigDecimal> level(String price, long qty)
+	{
+		return Arrays.asList(new BigDecimal(price), BigDecimal.valueOf(qty));
+	}
+
+}